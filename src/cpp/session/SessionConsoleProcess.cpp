@@ -37,6 +37,10 @@ ConsoleProcessSocket s_terminalSocket;
 // Posix-only, use is gated via getTrackEnv() always being false on Win32.
 const std::string kEnvCommand = "/usr/bin/env";
 
+// Size beyond which output held for a websocket client is trimmed to
+// the number of lines the client can show
+const std::size_t kMaxPausedOutput = 1024 * 1024;
+
 } // anonymous namespace
 
 // create process options for a terminal
@@ -540,6 +544,16 @@ void ConsoleProcess::enqueOutputEvent(const std::string &output)
 
    if (procInfo_->getChannelMode() == Websocket)
    {
+      if (outputPaused_)
+      {
+         // client is still rendering earlier output; it gets this
+         // (as a single packet) when it asks for output to resume
+         pausedOutput_.append(output);
+         if (pausedOutput_.size() > kMaxPausedOutput)
+            string_utils::trimLeadingLines(procInfo_->getMaxOutputLines(), &pausedOutput_);
+         return;
+      }
+
       s_terminalSocket.sendText(procInfo_->getHandle(), output);
       return;
    }
@@ -908,6 +922,7 @@ ConsoleProcessSocketConnectionCallbacks ConsoleProcess::createConsoleProcessSock
    cb.onReceivedInput = boost::bind(&ConsoleProcess::onReceivedInput, ConsoleProcess::shared_from_this(), _1);
    cb.onConnectionOpened = boost::bind(&ConsoleProcess::onConnectionOpened, ConsoleProcess::shared_from_this());
    cb.onConnectionClosed = boost::bind(&ConsoleProcess::onConnectionClosed, ConsoleProcess::shared_from_this());
+   cb.onFlowControl = boost::bind(&ConsoleProcess::onFlowControl, ConsoleProcess::shared_from_this(), _1);
    return cb;
 }
 
@@ -931,9 +946,34 @@ void ConsoleProcess::onReceivedInput(const std::string& input)
 // websocket connection closed; called on different thread
 void ConsoleProcess::onConnectionClosed()
 {
+   // held output is in the saved buffer, which a reconnecting
+   // client fetches
+   LOCK_MUTEX(inputOutputQueueMutex_)
+   {
+      outputPaused_ = false;
+      pausedOutput_.clear();
+   }
+   END_LOCK_MUTEX
+
    s_terminalSocket.stopListening(handle());
 }
 
+// websocket client asked for output to be held or resumed; called on
+// different thread
+void ConsoleProcess::onFlowControl(bool pause)
+{
+   LOCK_MUTEX(inputOutputQueueMutex_)
+   {
+      outputPaused_ = pause;
+      if (!pause && !pausedOutput_.empty())
+      {
+         s_terminalSocket.sendText(procInfo_->getHandle(), pausedOutput_);
+         pausedOutput_.clear();
+      }
+   }
+   END_LOCK_MUTEX
+}
+
 // websocket connection opened; called on different thread
 void ConsoleProcess::onConnectionOpened()
 {
@@ -300,6 +300,11 @@ Error ConsoleProcessSocket::sendPong(const std::string& terminalHandle)
    return sendRawText(terminalHandle, ConsoleProcessSocketPacket::keepAlivePacket());
 }
 
+Error ConsoleProcessSocket::sendInputAck(const std::string& terminalHandle)
+{
+   return sendRawText(terminalHandle, ConsoleProcessSocketPacket::inputAckPacket());
+}
+
 void ConsoleProcessSocket::releaseAllConnections()
 {
    connections_.clear();
@@ -329,9 +334,17 @@ void ConsoleProcessSocket::onMessage(terminalServer* s,
    {
       sendPong(handle);
    }
+   else if (ConsoleProcessSocketPacket::isFlowControl(payload))
+   {
+      if (details.connectionCallbacks_.onFlowControl)
+         details.connectionCallbacks_.onFlowControl(ConsoleProcessSocketPacket::isPause(payload));
+   }
    else if (details.connectionCallbacks_.onReceivedInput)
    {
       details.connectionCallbacks_.onReceivedInput(ConsoleProcessSocketPacket::getMessage(payload));
+
+      // client limits how much input it sends ahead of these
+      sendInputAck(handle);
    }
 }
 
@@ -21,6 +21,8 @@ namespace console_process {
 
 const std::string ConsoleProcessSocketPacket::kKeepAlivePrefix = "b";
 const std::string ConsoleProcessSocketPacket::kTextPrefix = "a";
+const std::string ConsoleProcessSocketPacket::kInputAckPrefix = "c";
+const std::string ConsoleProcessSocketPacket::kFlowControlPrefix = "d";
 
 /* static */
 std::string ConsoleProcessSocketPacket::textPacket(const std::string& text)
@@ -40,6 +42,24 @@ bool ConsoleProcessSocketPacket::isKeepAlive(const std::string& text)
    return text == kKeepAlivePrefix;
 }
 
+/* static */
+std::string ConsoleProcessSocketPacket::inputAckPacket()
+{
+   return kInputAckPrefix;
+}
+
+/* static */
+bool ConsoleProcessSocketPacket::isFlowControl(const std::string& text)
+{
+   return !text.compare(0, kFlowControlPrefix.length(), kFlowControlPrefix);
+}
+
+/* static */
+bool ConsoleProcessSocketPacket::isPause(const std::string& text)
+{
+   return text == kFlowControlPrefix + "1";
+}
+
 /* static */
 std::string ConsoleProcessSocketPacket::getMessage(const std::string& text)
 {
@@ -417,6 +417,28 @@ test_context("websocket for interactive terminals")
       expect_true(pSocket->stopServer());
    }
 
+   test_that("server acknowledges text received from client")
+   {
+      shared_ptr<SocketHarness> pSocket = make_shared<SocketHarness>();
+      expect_true(pSocket->ensureServerRunning());
+
+      shared_ptr<SocketConnection> pConnection = boost::make_shared<SocketConnection>(handle1, pSocket);
+      shared_ptr<SocketClient> pClient = boost::make_shared<SocketClient>(handle1, pSocket->port());
+      expect_true(pConnection->listen());
+      expect_true(pClient->connectToServer());
+
+      pClient->waitForConnectionOrError();
+
+      expect_true(pClient->sendText(msgString1));
+      expect_true(pClient->sendText(msgString2));
+      std::string acks = ConsoleProcessSocketPacket::inputAckPacket() +
+                         ConsoleProcessSocketPacket::inputAckPacket();
+      expect_true(pClient->getInput().compare(acks) == 0);
+
+      expect_true(pClient->disconnectFromServer());
+      expect_true(pSocket->stopServer());
+   }
+
    test_that("server can send text to client and client receives it")
    {
       shared_ptr<SocketHarness> pSocket = make_shared<SocketHarness>();
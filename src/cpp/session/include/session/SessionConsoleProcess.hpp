@@ -224,6 +224,7 @@ private:
    ConsoleProcessSocketConnectionCallbacks createConsoleProcessSocketConnectionCallbacks();
    void onConnectionOpened();
    void onConnectionClosed();
+   void onFlowControl(bool pause);
 
    void saveEnvironment(const std::string& env);
    static void loadEnvironment(const std::string& handle, core::system::Options* pEnv);
@@ -260,6 +261,10 @@ private:
    int lastInputSequence_ = kIgnoreSequence;
    boost::mutex inputOutputQueueMutex_;
 
+   // Websocket output held while the client catches up (see onFlowControl)
+   bool outputPaused_ = false;
+   std::string pausedOutput_;
+
    boost::function<bool(const std::string&, Input*)> onPrompt_;
    RSTUDIO_BOOST_SIGNAL<void(int)> onExit_;
 
@@ -94,6 +94,9 @@ public:
    // simple message exchange to keep proxies from killing an idle terminal
    core::Error sendPong(const std::string& terminalHandle);
 
+   // acknowledge receipt of an input packet, so client can send more
+   core::Error sendInputAck(const std::string& terminalHandle);
+
    // network port for websocket listener; 0 means no port
    int port() const;
 
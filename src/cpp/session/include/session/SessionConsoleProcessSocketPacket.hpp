@@ -29,8 +29,11 @@ namespace console_process {
  * First character is a method indicator, as follows:
  *    "a" = send text, e.g. "aHello"
  *    "b" = ping/pong, e.g. "b"
+ *    "c" = input acknowledgement (server to client), one per "a" packet received
+ *    "d" = flow control (client to server), "d1" to hold output, "d0" to resume
  *
- * Only the "send text" method has a payload (everything after the "a").
+ * Only the "send text" and "flow control" methods have a payload (everything
+ * after the first character).
  *
  * See TerminalSocketPacket in Java code for client-side of this.
  */
@@ -46,12 +49,23 @@ public:
    // is this packet a keep-alive packet?
    static bool isKeepAlive(const std::string& text);
 
+   // create packet acknowledging receipt of input
+   static std::string inputAckPacket();
+
+   // is this packet a flow control packet?
+   static bool isFlowControl(const std::string& text);
+
+   // does this flow control packet ask for output to be held?
+   static bool isPause(const std::string& text);
+
    // extract text from packet (empty string if unable to comply)
    static std::string getMessage(const std::string& text);
 
 private:
    static const std::string kKeepAlivePrefix;
    static const std::string kTextPrefix;
+   static const std::string kInputAckPrefix;
+   static const std::string kFlowControlPrefix;
 };
 
 } // namespace console_process
@@ -43,8 +43,9 @@ namespace find {
 
 namespace {
 
-// This must be the same as MAX_COUNT in FindOutputPane.java
-const size_t MAX_COUNT = 1000;
+// The most results held for a single search. The client applies its own
+// (memory) budget, and is told when results were dropped here.
+const size_t MAX_COUNT = 100000;
 
 // Reflects the current set of Find results that are being
 // displayed, in case they need to be re-fetched (i.e. browser
@@ -171,6 +172,7 @@ public:
       obj["results"] = results;
 
       obj["running"] = running_;
+      obj["overflow"] = files_.size() > MAX_COUNT;
 
       return obj;
    }
@@ -393,6 +395,7 @@ private:
          results["matchOn"] = matchOns;
          results["matchOff"] = matchOffs;
          result["results"] = results;
+         result["overflow"] = recordsToProcess <= 0;
 
          findResults().addResult(handle(),
                                  files,
@@ -244,11 +244,25 @@ public class AnsiCode
     */
    public AnsiClazzes processCode(String code)
    {
-      if (code == null || code.length() < 2)
+      if (code == null)
          return null;
-      if (code.charAt(0) != '\033' && code.charAt(code.length() - 1) != 'm')
+      return processCode(code, 0, code.length());
+   }
+   
+   /**
+    * Map the ANSI escape sequence occupying [start, end) of the given string
+    * to the appropriate css styles; see processCode(String).
+    */
+   public AnsiClazzes processCode(String data, int start, int end)
+   {
+      int length = end - start;
+      if (length < 2)
          return null;
-      if (code.length() == 2)
+      
+      if (data.charAt(start) != '\033' && data.charAt(end - 1) != 'm')
+         return null;
+      
+      if (length == 2)
       {
          clazzes_.clear(); // CSIm is equivalent to CSI0m, which is 'reset'
          blockClazzes_.clear();
@@ -260,11 +274,24 @@ public class AnsiCode
       boolean extendedRGBMarkerSeen = false;
       int extendedRGBColorsSeen = 0;
       
-      String[] tokens = code.substring(2, code.length() - 1).split(";");
-      for (String token : tokens)
+      // walk the ';'-delimited parameters between the CSI and the final
+      // character without splitting the sequence into substrings
+      int pos = start + 2;
+      int last = end - 1;
+      while (pos < last)
       {
-         int codeVal = StringUtil.parseInt(token,  -1);
-         if (codeVal == -1)
+         int codeVal = -1;
+         for (; pos < last && data.charAt(pos) != ';'; pos++)
+         {
+            char ch = data.charAt(pos);
+            if (ch < '0' || ch > '9' || codeVal == INVALID_PARAM)
+               codeVal = INVALID_PARAM;
+            else if (codeVal < MAX_PARAM)
+               codeVal = Math.max(codeVal, 0) * 10 + (ch - '0');
+         }
+         pos++;
+         
+         if (codeVal < 0)
             continue;
 
          if (extendedColor > 0)
@@ -665,6 +692,10 @@ public class AnsiCode
    // Match partial potential ANSI SGR escape sequences
    public static final Pattern SGR_PARTIAL_ESCAPE_PATTERN = Pattern.create(SGR_PARTIAL_REGEX);
     
+   // parameter values are clamped here; all meaningful values are smaller
+   private static final int MAX_PARAM = 100000;
+   private static final int INVALID_PARAM = -2;
+    
    private Color currentColor_ = new Color();
    private Color currentBgColor_ = new Color();
    private boolean inverted_ = false;
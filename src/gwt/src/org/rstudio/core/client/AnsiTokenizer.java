@@ -0,0 +1,183 @@
+/*
+ * AnsiTokenizer.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+/**
+ * Splits console output into runs of plain text, control characters handled
+ * by the R console (\r, \b, \n, \f), and ANSI escape sequences, in a single
+ * pass over the input. Runs are reported as index ranges into the submitted
+ * text rather than as substrings.
+ *
+ * Escape sequences split across calls to process() are held back and
+ * completed by the next call.
+ *
+ * Recognizes the same sequences as AnsiCode.ANSI_REGEX; SGR sequences
+ * (those matched by AnsiCode.SGR_REGEX) are reported separately from the
+ * rest, which the console simply discards.
+ */
+public class AnsiTokenizer
+{
+   public interface Handler
+   {
+      void onText(String data, int start, int end);
+      void onControl(char control);
+      void onEscape(String data, int start, int end, boolean isSgr);
+   }
+
+   /**
+    * @param processEscapes If false, escape characters are treated as
+    * plain text and only console control characters are reported
+    */
+   public void setProcessEscapes(boolean processEscapes)
+   {
+      processEscapes_ = processEscapes;
+   }
+
+   /**
+    * Discard any partial escape sequence held from a previous call.
+    */
+   public void reset()
+   {
+      partial_ = null;
+   }
+
+   public boolean hasPartial()
+   {
+      return partial_ != null;
+   }
+
+   public void process(String data, Handler handler)
+   {
+      if (partial_ != null)
+      {
+         data = partial_ + data;
+         partial_ = null;
+      }
+
+      int length = data.length();
+      int textStart = 0;
+      for (int i = 0; i < length; i++)
+      {
+         char ch = data.charAt(i);
+         if (ch == '\r' || ch == '\b' || ch == '\n' || ch == '\f')
+         {
+            if (textStart < i)
+               handler.onText(data, textStart, i);
+            textStart = i + 1;
+            handler.onControl(ch);
+         }
+         else if (processEscapes_ && (ch == ESC || ch == CSI_8BIT))
+         {
+            if (textStart < i)
+               handler.onText(data, textStart, i);
+
+            int end = scanEscape(data, i);
+            if (end == INCOMPLETE)
+            {
+               // hold on to the sequence until more output arrives
+               partial_ = data.substring(i);
+               return;
+            }
+            else if (end == MALFORMED)
+            {
+               // drop the escape character; what follows is plain text
+               textStart = i + 1;
+            }
+            else
+            {
+               handler.onEscape(data, i, end, isSgr_);
+               textStart = end;
+               i = end - 1;
+            }
+         }
+      }
+
+      if (textStart < length)
+         handler.onText(data, textStart, length);
+   }
+
+   /**
+    * Scans the escape sequence starting at the given index.
+    *
+    * @return The (exclusive) end index of the sequence, INCOMPLETE if the
+    * data ends before the sequence does, or MALFORMED if the escape character
+    * doesn't begin a recognized sequence
+    */
+   private int scanEscape(String data, int start)
+   {
+      int length = data.length();
+      int i = start + 1;
+
+      // intermediate characters
+      while (i < length && isIntermediate(data.charAt(i)))
+         i++;
+      boolean isCsi = (i == start + 2 && data.charAt(start + 1) == '[');
+
+      // numeric parameters, separated by semicolons
+      int lastDigit = -1;
+      while (i < length)
+      {
+         char ch = data.charAt(i);
+         if (ch >= '0' && ch <= '9')
+            lastDigit = i;
+         else if (ch != ';' || lastDigit == -1)
+            break;
+         i++;
+      }
+
+      if (i == length)
+      {
+         // give up on sequences that never seem to end
+         if (length - start > MAX_SEQUENCE_LENGTH)
+            return lastDigit == -1 ? MALFORMED : lastDigit + 1;
+         return INCOMPLETE;
+      }
+
+      if (isFinal(data.charAt(i)))
+      {
+         isSgr_ = isCsi && data.charAt(i) == 'm';
+         return i + 1;
+      }
+
+      // as with AnsiCode.ANSI_REGEX, the last digit of the parameters can
+      // itself serve as the final character of the sequence
+      isSgr_ = false;
+      return lastDigit == -1 ? MALFORMED : lastDigit + 1;
+   }
+
+   private static boolean isIntermediate(char ch)
+   {
+      return ch == '[' || ch == '(' || ch == ')' || ch == '#' ||
+             ch == ';' || ch == '?';
+   }
+
+   private static boolean isFinal(char ch)
+   {
+      return (ch >= 'A' && ch <= 'P') || (ch >= 'f' && ch <= 'n') ||
+             ch == 'R' || ch == 'Z' || ch == 'c' || ch == 'q' || ch == 'r' ||
+             ch == 'y' || ch == '=' || ch == '>' || ch == '<' || ch == '@';
+   }
+
+   private static final char ESC = '\033';
+   private static final char CSI_8BIT = '\233';
+
+   private static final int INCOMPLETE = -1;
+   private static final int MALFORMED = -2;
+   private static final int MAX_SEQUENCE_LENGTH = 256;
+
+   private boolean processEscapes_ = true;
+   private boolean isSgr_ = false;
+   private String partial_;
+}
@@ -61,6 +61,8 @@ public class ConsoleOutputWriter
    public void setMaxOutputLines(int maxLines)
    {
       maxLines_ = maxLines;
+      if (virtualConsole_ != null)
+         virtualConsole_.setMaxLines(Math.max(maxLines_, 0));
       trimExcess();
    }
    
@@ -88,11 +90,14 @@ public class ConsoleOutputWriter
          SpanElement trailing = Document.get().createSpanElement();
          outEl.appendChild(trailing);
          virtualConsole_ = vcFactory_.create(trailing);
+         virtualConsole_.setMaxLines(Math.max(maxLines_, 0));
       }
 
-      int oldLineCount = DomUtils.countLines(virtualConsole_.getParent(), true);
+      // the virtual console keeps its own count of lines written, which
+      // saves walking its DOM before and after each write
+      int oldLineCount = virtualConsole_.getLineCount();
       virtualConsole_.submit(text, className, isError);
-      int newLineCount = DomUtils.countLines(virtualConsole_.getParent(), true);
+      int newLineCount = virtualConsole_.getLineCount();
       lines_ += newLineCount - oldLineCount;
 
       return ignoreLineCount ? true : !trimExcess();
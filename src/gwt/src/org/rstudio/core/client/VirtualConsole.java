@@ -24,8 +24,6 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 
 import com.google.inject.assistedinject.Assisted;
-import org.rstudio.core.client.regex.Match;
-import org.rstudio.core.client.regex.Pattern;
 
 import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.dom.client.Document;
@@ -97,6 +95,9 @@ public class VirtualConsole
       clearPartialAnsiCode();
       output_.setLength(0);
       cursor_ = 0;
+      base_ = 0;
+      lineCount_ = 0;
+      trimmedLines_ = 0;
       class_.clear();
       if (parent_ != null)
          parent_.setInnerHTML("");
@@ -104,7 +105,7 @@ public class VirtualConsole
    
    private void clearPartialAnsiCode()
    {
-      partialAnsiCode_ = null;
+      tokenizer_.reset();
    }
 
    /**
@@ -166,6 +167,28 @@ public class VirtualConsole
       return output_.length();
    }
    
+   /**
+    * @return The number of lines written to the console, including any
+    * lines no longer retained due to the line limit.
+    */
+   public int getLineCount()
+   {
+      return lineCount_;
+   }
+   
+   /**
+    * Limits the number of lines of output retained by the virtual console;
+    * older lines are dropped from its buffer and range map (but not from the
+    * DOM, which is the responsibility of the owner of the parent element).
+    * 
+    * @param maxLines The maximum number of lines to retain, or 0 for no limit
+    */
+   public void setMaxLines(int maxLines)
+   {
+      maxLines_ = maxLines;
+      trimExcess();
+   }
+   
    public Element getParent()
    {
       return parent_;
@@ -191,9 +214,9 @@ public class VirtualConsole
       else
       {
          // create a new output range with this class
-         final ClassRange newRange = new ClassRange(cursor_, clazz, text);
+         final ClassRange newRange = new ClassRange(base_ + cursor_, clazz, text);
          parent_.appendChild(newRange.element);
-         class_.put(cursor_, newRange);
+         class_.put(base_ + cursor_, newRange);
       }
    }
 
@@ -380,13 +403,77 @@ public class VirtualConsole
          if (cursor_ == output_.length() && !class_.isEmpty())
             appendText(text, clazz, forceNewRange);
          else
-            insertText(new ClassRange(start, clazz, text));
+            insertText(new ClassRange(base_ + start, clazz, text));
       }
 
+      lineCount_ += countNewlines(text, 0, text.length());
+      if (start < output_.length())
+         lineCount_ -= countNewlines(output_, start, Math.min(end, output_.length()));
+      
       output_.replace(start, end, text);
       cursor_ += text.length();
    }
    
+   private static int countNewlines(CharSequence text, int start, int end)
+   {
+      int count = 0;
+      for (int i = start; i < end; i++)
+         if (text.charAt(i) == '\n')
+            count++;
+      return count;
+   }
+   
+   /**
+    * Drops the oldest lines from the buffer and range map once the line
+    * limit has been exceeded. Ranges are keyed on absolute offsets (the
+    * buffer holds the text from base_ onwards), so retained ranges don't
+    * need to be re-keyed.
+    */
+   private void trimExcess()
+   {
+      if (maxLines_ <= 0)
+         return;
+      
+      // trim in batches so that the cost of shifting the buffer is amortized
+      // over many lines of output
+      int excess = lineCount_ - trimmedLines_ - maxLines_;
+      if (excess <= 0 || excess < maxLines_ / TRIM_BATCH_DIVISOR)
+         return;
+      
+      // should the buffer ever hold fewer lines than counted, leave it alone
+      // rather than cut from the wrong place
+      int cut = 0;
+      for (int i = 0; i < excess; i++)
+      {
+         int newline = output_.indexOf("\n", cut);
+         if (newline < 0)
+            return;
+         cut = newline + 1;
+      }
+      
+      // never drop text at or ahead of the cursor
+      if (cut > cursor_)
+         return;
+      
+      int newBase = base_ + cut;
+      List<Integer> trimmed = new ArrayList<Integer>(
+            class_.headMap(newBase).keySet());
+      for (Integer key : trimmed)
+      {
+         ClassRange range = class_.remove(key);
+         if (key + range.length > newBase)
+         {
+            range.detachLeft(newBase - key);
+            class_.put(newBase, range);
+         }
+      }
+      
+      output_.delete(0, cut);
+      cursor_ -= cut;
+      base_ = newBase;
+      trimmedLines_ += excess;
+   }
+   
    public void submit(String data)
    {
       submit(data, null);
@@ -405,6 +492,12 @@ public class VirtualConsole
     * output range (span) even if style matches previous output
     */
    public void submit(String data, String clazz, boolean forceNewRange)
+   {
+      submitImpl(data, clazz, forceNewRange);
+      trimExcess();
+   }
+   
+   private void submitImpl(String data, String clazz, boolean forceNewRange)
    {
       // Only capture new elements when dealing with error output, which
       // is only place that sets forceNewRange to true. This is just an 
@@ -413,63 +506,51 @@ public class VirtualConsole
       captureNewElements_ = forceNewRange;
       newElements_.clear();
       
-      // If previous submit ended with an incomplete ANSI code, add new data
-      // to the previous (unwritten) data so we can try again to recognize
-      // ANSI code.
-      if (partialAnsiCode_ != null)
-      {
-         data = partialAnsiCode_ + data;
-         partialAnsiCode_ = null;
-      }
-     
-      String currentClazz = clazz;
-
-      int ansiColorMode = prefs_.consoleAnsiMode();
+      submitClazz_ = clazz;
+      forceNewRange_ = forceNewRange;
+      currentClazz_ = clazz;
+      ansiColorMode_ = prefs_.consoleAnsiMode();
 
       // If previously determined classes from ANSI codes are available,
       // combine them with input class so they are ready to use if
       // there is text to output before any other ANSI codes in the
       // data (or there are no more ANSI codes).
-      if (ansiColorMode == ANSI_COLOR_ON && ansiCodeStyles_.inlineClazzes != null)
+      if (ansiColorMode_ == ANSI_COLOR_ON && ansiCodeStyles_.inlineClazzes != null)
       {
          if (clazz != null)
          {
-            currentClazz = clazz + " " + ansiCodeStyles_.inlineClazzes;
+            currentClazz_ = clazz + " " + ansiCodeStyles_.inlineClazzes;
          }
          else
          {
-            currentClazz = ansiCodeStyles_.inlineClazzes;
+            currentClazz_ = ansiCodeStyles_.inlineClazzes;
          }
       }
 
-      Match match = (ansiColorMode == ANSI_COLOR_OFF) ?
-            CONTROL.match(data, 0) :
-            AnsiCode.CONTROL_PATTERN.match(data, 0);
-      if (match == null)
-      {
-         text(data, currentClazz, forceNewRange);
-         return;
-      }
-      
-      int tail = 0;
-      while (match != null)
+      // An escape sequence split across submit calls is held by the
+      // tokenizer and completed when the rest of it arrives.
+      tokenizer_.setProcessEscapes(ansiColorMode_ != ANSI_COLOR_OFF);
+      tokenizer_.process(data, tokenHandler_);
+   }
+   
+   private final AnsiTokenizer.Handler tokenHandler_ = new AnsiTokenizer.Handler()
+   {
+      @Override
+      public void onText(String data, int start, int end)
       {
-         int pos = match.getIndex();
-
-         // If we passed over any plain text on the way to this control
-         // character, add it.
-         if (tail != pos)
-         {
-            text(data.substring(tail, pos), currentClazz, forceNewRange);
-            
-            // once we've started a new range, rest of output for this submit
-            // call should share that range (e.g. a multi-line error message)
-            forceNewRange = false;
-         }
+         String text = (start == 0 && end == data.length()) ?
+               data : data.substring(start, end);
+         text(text, currentClazz_, forceNewRange_);
          
-         tail = pos + 1;
+         // once we've started a new range, rest of output for this submit
+         // call should share that range (e.g. a multi-line error message)
+         forceNewRange_ = false;
+      }
 
-         switch (data.charAt(pos))
+      @Override
+      public void onControl(char control)
+      {
+         switch (control)
          {
             case '\r':
                carriageReturn();
@@ -478,96 +559,49 @@ public class VirtualConsole
                backspace();
                break;
             case '\n':
-               newline(clazz);
+               newline(submitClazz_);
                break;
             case '\f':
                formfeed();
                break;
-            case '\033':
-            case '\233':
-               
-               // VirtualConsole only supports ANSI SGR codes (colors, font, etc).
-               // We want to identify and act on these codes, while discarding the codes
-               // we don't support. Tricky part is we might get codes split across
-               // submit calls.
-               
-               // match complete SGR codes
-               Match sgrMatch = AnsiCode.SGR_ESCAPE_PATTERN.match(data, pos);
-               if (sgrMatch == null)
-               {
-                  if (StringUtil.equals(data.substring(tail), "["))
-                  {
-                     // only have "[" at end, could be any ANSI code, so save remainder
-                     // of string to see if we can recognize it when more arrives
-                     partialAnsiCode_ = data.substring(pos);
-                     return;
-                  }
-                  
-                  // potentially an incomplete SGR code
-                  Match partialMatch = AnsiCode.SGR_PARTIAL_ESCAPE_PATTERN.match(data, pos);
-                  if (partialMatch != null)
-                  {
-                     // Might have an SGR ANSI code that was split across submit calls;
-                     // save remainder of string to see if we can recognize it
-                     // when more arrives
-                     partialAnsiCode_ = data.substring(pos);
-                     return;
-                  }
-                  
-                  // how about an unsupported ANSI code?
-                  Match ansiMatch = AnsiCode.ANSI_ESCAPE_PATTERN.match(data, pos);
-                  if (ansiMatch != null)
-                  {
-                     // discard it
-                     tail = pos + ansiMatch.getValue().length();
-                  }
-                  else
-                  {
-                     // nothing useful we can do, just throw away the ESC
-                     tail++;
-                  }
-               }
-               else
+         }
+      }
+
+      @Override
+      public void onEscape(String data, int start, int end, boolean isSgr)
+      {
+         // VirtualConsole only supports ANSI SGR codes (colors, font, etc);
+         // other sequences are discarded
+         if (!isSgr)
+            return;
+         
+         if (ansi_ == null)
+            ansi_ = new AnsiCode();
+         ansiCodeStyles_ = ansi_.processCode(data, start, end);
+         if (ansiCodeStyles_ == null)
+            ansiCodeStyles_ = new AnsiCode.AnsiClazzes();
+         
+         if (ansiColorMode_ == ANSI_COLOR_STRIP)
+         {
+            currentClazz_ = submitClazz_;
+         }
+         else
+         {
+            if (submitClazz_ != null)
+            {
+               currentClazz_ = submitClazz_;
+               if (ansiCodeStyles_.inlineClazzes != null)
                {
-                  // process the SGR code
-                  if (ansi_ == null)
-                     ansi_ = new AnsiCode();
-                  ansiCodeStyles_ = ansi_.processCode(sgrMatch.getValue());
-                  if (ansiColorMode == ANSI_COLOR_STRIP)
-                  {
-                     currentClazz = clazz;
-                  }
-                  else
-                  {
-                     if (clazz != null)
-                     {
-                        currentClazz = clazz;
-                        if (ansiCodeStyles_.inlineClazzes != null)
-                        {
-                           currentClazz = currentClazz + " " + ansiCodeStyles_.inlineClazzes;
-                        }
-                     }
-                     else
-                     {
-                        currentClazz = ansiCodeStyles_.inlineClazzes;
-                     }
-                  }
-                  tail = pos + sgrMatch.getValue().length();
+                  currentClazz_ = currentClazz_ + " " + ansiCodeStyles_.inlineClazzes;
                }
-               break;
-            default:
-               assert false : "Unknown control char, please check regex";
-               text(data.charAt(pos) + "", currentClazz, false/*forceNewRange*/);
-               break;
+            }
+            else
+            {
+               currentClazz_ = ansiCodeStyles_.inlineClazzes;
+            }
          }
-
-         match = match.nextMatch();
       }
-
-      // If there was any plain text after the last control character, add it
-      if (tail < data.length())
-         text(data.substring(tail), currentClazz, forceNewRange);
-   }
+   };
 
    // Elements added by last submit call; only captured if forceNewRange was true
    public List<Element> getNewElements()
@@ -607,6 +641,28 @@ public class VirtualConsole
          element.setInnerText(text.substring(0, text.length() - delta));
       }
       
+      /**
+       * Removes the first delta characters from this range, leaving them in
+       * the DOM as a separate span that is no longer tracked.
+       */
+      public void detachLeft(int delta)
+      {
+         length -= delta;
+         start += delta;
+         
+         String text = element.getInnerText();
+         delta = Math.min(delta, text.length());
+         if (element.getParentElement() != null)
+         {
+            SpanElement head = Document.get().createSpanElement();
+            if (clazz != null)
+               head.addClassName(clazz);
+            head.setInnerText(text.substring(0, delta));
+            element.getParentElement().insertBefore(head, element);
+         }
+         element.setInnerText(text.substring(delta));
+      }
+      
       public void appendLeft(String content, int delta)
       {
          length += content.length() - delta;
@@ -653,17 +709,29 @@ public class VirtualConsole
       public SpanElement element;
    }
 
-   private static final Pattern CONTROL = Pattern.create("[\r\b\f\n]");
+   private static final int TRIM_BATCH_DIVISOR = 4;
    
+   // output_ holds the retained text, starting at absolute offset base_;
+   // class_ is keyed on absolute offsets
    private final StringBuilder output_ = new StringBuilder();
    private final TreeMap<Integer, ClassRange> class_ = new TreeMap<Integer, ClassRange>();
    private final Element parent_;
    
    private int cursor_ = 0;
+   private int base_ = 0;
+   private int maxLines_ = 0;
+   private int lineCount_ = 0;
+   private int trimmedLines_ = 0;
    private AnsiCode ansi_;
-   private String partialAnsiCode_;
+   private final AnsiTokenizer tokenizer_ = new AnsiTokenizer();
    private AnsiCode.AnsiClazzes ansiCodeStyles_ = new AnsiCode.AnsiClazzes();
    
+   // state for the submit call in progress
+   private String submitClazz_;
+   private String currentClazz_;
+   private boolean forceNewRange_;
+   private int ansiColorMode_;
+   
    // Elements added by last submit call (only if forceNewRange was true)
    private boolean captureNewElements_ = false;
    private List<Element> newElements_ = new ArrayList<Element>();
@@ -14,6 +14,11 @@
  */
 package org.rstudio.core.client.command;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.shared.HandlerManager;
@@ -181,7 +186,10 @@ public class AppCommand implements Command, ClickHandler, ImageResourceProvider
       if (enabled != enabled_)
       {
          enabled_ = enabled;
-         handlers_.fireEvent(new EnabledChangedEvent(this));
+         if (stateChangeDepth_ > 0)
+            pendingStateChanges_.add(this);
+         else
+            fireEnabledChanged();
       }
    }
 
@@ -195,10 +203,77 @@ public class AppCommand implements Command, ClickHandler, ImageResourceProvider
       if (!removed_ && visible != visible_)
       {
          visible_ = visible;
-         handlers_.fireEvent(new VisibleChangedEvent(this));
+         if (stateChangeDepth_ > 0)
+            pendingStateChanges_.add(this);
+         else
+            fireVisibleChanged();
       }
    }
    
+   /**
+    * Begins a batch of enabled/visible changes. Until the matching call to
+    * endStateChanges, commands take on their new state immediately but
+    * don't fire their change events; once the batch ends, each command
+    * whose state differs from what was last announced fires one event per
+    * property, on the next animation frame. This lets menus and toolbars
+    * update once for a whole batch (e.g. when switching editor tabs)
+    * rather than for every change. Batches may be nested.
+    */
+   public static void beginStateChanges()
+   {
+      stateChangeDepth_++;
+   }
+   
+   public static void endStateChanges()
+   {
+      assert stateChangeDepth_ > 0 : "endStateChanges called without beginStateChanges";
+      if (stateChangeDepth_ > 0)
+         stateChangeDepth_--;
+      
+      if (stateChangeDepth_ == 0 && 
+          !pendingStateChanges_.isEmpty() &&
+          stateChangeHandle_ == null)
+      {
+         stateChangeHandle_ = AnimationScheduler.get().requestAnimationFrame(
+               timestamp -> flushStateChanges());
+      }
+   }
+   
+   // fires the change events held back by batches of state changes
+   static void flushStateChanges()
+   {
+      if (stateChangeHandle_ != null)
+      {
+         stateChangeHandle_.cancel();
+         stateChangeHandle_ = null;
+      }
+      
+      ArrayList<AppCommand> commands = 
+            new ArrayList<AppCommand>(pendingStateChanges_);
+      pendingStateChanges_.clear();
+      for (AppCommand command : commands)
+      {
+         // a command changed and changed back within a batch (or announced
+         // since by an unbatched change) has nothing to report
+         if (command.visible_ != command.announcedVisible_)
+            command.fireVisibleChanged();
+         if (command.enabled_ != command.announcedEnabled_)
+            command.fireEnabledChanged();
+      }
+   }
+   
+   private void fireEnabledChanged()
+   {
+      announcedEnabled_ = enabled_;
+      handlers_.fireEvent(new EnabledChangedEvent(this));
+   }
+   
+   private void fireVisibleChanged()
+   {
+      announcedVisible_ = visible_;
+      handlers_.fireEvent(new VisibleChangedEvent(this));
+   }
+   
    /**
     * Restores a command which was formerly removed. The command must still be made
     * visible and enabled in order to work.
@@ -676,6 +751,10 @@ public class AppCommand implements Command, ClickHandler, ImageResourceProvider
    
    private boolean enabled_ = true;
    private boolean visible_ = true;
+   // the state listeners were last told of; differs from the above while
+   // changes are held back by a batch
+   private boolean announcedEnabled_ = true;
+   private boolean announcedVisible_ = true;
    private boolean removed_ = false;
    private boolean checkable_ = false;
    private boolean checked_ = false;
@@ -697,6 +776,11 @@ public class AppCommand implements Command, ClickHandler, ImageResourceProvider
    private boolean executedFromShortcut_ = false;
  
    private static boolean enableNoHandlerAssertions_ = true;
+   
+   private static int stateChangeDepth_ = 0;
+   private static final LinkedHashSet<AppCommand> pendingStateChanges_ = 
+         new LinkedHashSet<AppCommand>();
+   private static AnimationHandle stateChangeHandle_ = null;
 
    public static final String WINDOW_MODE_BACKGROUND = "background";
    public static final String WINDOW_MODE_MAIN = "main";
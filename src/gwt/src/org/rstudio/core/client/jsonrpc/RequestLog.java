@@ -1,7 +1,7 @@
 /*
  * RequestLog.java
  *
- * Copyright (C) 2009-12 by RStudio, Inc.
+ * Copyright (C) 2009-19 by RStudio, Inc.
  *
  * Unless you have received this program directly from RStudio pursuant
  * to the terms of a commercial license agreement with RStudio, then
@@ -15,38 +15,159 @@
 package org.rstudio.core.client.jsonrpc;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 
+/**
+ * Keeps the most recent MAX_ENTRIES requests in a ring buffer, along with
+ * running latency and size statistics for each RPC method. Requests that are
+ * still in flight when their slot is reused are kept aside until they
+ * complete, so that long-running requests remain visible; at most
+ * MAX_IN_FLIGHT are kept, so requests which never complete don't accumulate.
+ */
 public class RequestLog
 {
    public static RequestLogEntry log(String requestId, String requestData)
+   {
+      return log(requestId, null, requestData, 0);
+   }
+
+   /**
+    * @param method The RPC method, used to aggregate statistics; may be null
+    * @param requestBytes The size of the request payload, which may differ
+    * from that of requestData when the latter is redacted
+    */
+   public static RequestLogEntry log(String requestId,
+                                     String method,
+                                     String requestData,
+                                     int requestBytes)
    {
       RequestLogEntry entry = new RequestLogEntry(System.currentTimeMillis(),
-                                                  requestId, requestData);
-      entries_.add(entry);
+                                                  requestId,
+                                                  requestData,
+                                                  method,
+                                                  requestBytes);
 
-      for (int i = 0; entries_.size() > MAX_ENTRIES && i < entries_.size(); i++)
+      RequestLogEntry evicted = entries_[next_];
+      if (evicted != null && evicted.isAlive())
       {
-         RequestLogEntry oldEntry = entries_.get(i);
-         if (!oldEntry.isAlive())
-         {
-            entries_.remove(i);
-            i--;
-         }
+         pruneInFlight();
+         inFlight_.add(evicted);
+         if (inFlight_.size() > MAX_IN_FLIGHT)
+            inFlight_.remove(0);
       }
 
+      entries_[next_] = entry;
+      next_ = (next_ + 1) % MAX_ENTRIES;
+      if (size_ < MAX_ENTRIES)
+         size_++;
+
       return entry;
    }
 
    public static RequestLogEntry[] getEntries()
    {
-      RequestLogEntry[] entries = new RequestLogEntry[entries_.size()];
-      for (int i = 0; i < entries.length; i++)
-         entries[i] = entries_.get(i).clone();
+      pruneInFlight();
+
+      RequestLogEntry[] entries = new RequestLogEntry[inFlight_.size() + size_];
+      int n = 0;
+      for (RequestLogEntry entry : inFlight_)
+         entries[n++] = entry.clone();
+
+      int first = (next_ - size_ + MAX_ENTRIES) % MAX_ENTRIES;
+      for (int i = 0; i < size_; i++)
+         entries[n++] = entries_[(first + i) % MAX_ENTRIES].clone();
+
       return entries;
    }
 
-   private static final ArrayList<RequestLogEntry> entries_ =
-         new ArrayList<RequestLogEntry>();
+   /**
+    * @return Statistics for each RPC method seen so far, slowest (by 95th
+    * percentile latency) first
+    */
+   public static ArrayList<RequestMethodStats> getStats()
+   {
+      ArrayList<RequestMethodStats> stats =
+            new ArrayList<RequestMethodStats>(stats_.values());
+      Collections.sort(stats, new Comparator<RequestMethodStats>()
+      {
+         @Override
+         public int compare(RequestMethodStats a, RequestMethodStats b)
+         {
+            return Long.compare(b.getPercentile(95), a.getPercentile(95));
+         }
+      });
+      return stats;
+   }
+
+   public static void resetStats()
+   {
+      stats_.clear();
+   }
+
+   public static void logRetry(String method)
+   {
+      if (method != null)
+         getStats(method).recordRetry();
+   }
+
+   static void logResponse(RequestLogEntry entry)
+   {
+      String method = entry.getMethod();
+      if (method == null)
+         return;
+
+      RequestMethodStats stats = getStats(method);
+      switch (entry.getResponseType())
+      {
+         case RequestLogEntry.ResponseType.Normal:
+            stats.recordResponse(
+                  entry.getResponseTime() - entry.getRequestTime(),
+                  entry.getRequestBytes(),
+                  entry.getResponseData() == null ?
+                        0 : entry.getResponseData().length());
+            break;
+         case RequestLogEntry.ResponseType.Cancelled:
+            stats.recordCancel();
+            break;
+         default:
+            stats.recordError(entry.getResponseTime() - entry.getRequestTime());
+            break;
+      }
+   }
+
+   // drop evicted requests that have since completed
+   private static void pruneInFlight()
+   {
+      for (int i = inFlight_.size() - 1; i >= 0; i--)
+         if (!inFlight_.get(i).isAlive())
+            inFlight_.remove(i);
+   }
+
+   private static RequestMethodStats getStats(String method)
+   {
+      RequestMethodStats stats = stats_.get(method);
+      if (stats == null)
+      {
+         stats = new RequestMethodStats(method);
+         stats_.put(method, stats);
+      }
+      return stats;
+   }
 
    private static final int MAX_ENTRIES = 50;
+   static final int MAX_IN_FLIGHT = 50;
+
+   private static final RequestLogEntry[] entries_ =
+         new RequestLogEntry[MAX_ENTRIES];
+   private static int next_ = 0;
+   private static int size_ = 0;
+
+   // requests evicted from the ring buffer before they completed
+   private static final ArrayList<RequestLogEntry> inFlight_ =
+         new ArrayList<RequestLogEntry>();
+
+   private static final HashMap<String, RequestMethodStats> stats_ =
+         new HashMap<String, RequestMethodStats>();
 }
@@ -32,10 +32,21 @@ public class RequestLogEntry
    public RequestLogEntry(long requestTime,
                           String requestId,
                           String requestData)
+   {
+      this(requestTime, requestId, requestData, null, 0);
+   }
+
+   public RequestLogEntry(long requestTime,
+                          String requestId,
+                          String requestData,
+                          String method,
+                          int requestBytes)
    {
       requestTime_ = requestTime;
       requestId_ = requestId;
       requestData_ = requestData;
+      method_ = method;
+      requestBytes_ = requestBytes;
    }
 
    public long getRequestTime()
@@ -53,6 +64,16 @@ public class RequestLogEntry
       return requestData_;
    }
 
+   public String getMethod()
+   {
+      return method_;
+   }
+
+   public int getRequestBytes()
+   {
+      return requestBytes_;
+   }
+
    public Long getResponseTime()
    {
       return responseTime_;
@@ -65,9 +86,15 @@ public class RequestLogEntry
 
    public void logResponse(int responseType, String data)
    {
+      boolean first = isAlive();
+
       responseType_ = responseType;
       responseTime_ = System.currentTimeMillis();
       responseData_ = data;
+
+      // only the first outcome of a request counts towards its statistics
+      if (first)
+         RequestLog.logResponse(this);
    }
 
    public int getResponseType()
@@ -96,7 +123,9 @@ public class RequestLogEntry
    {
       RequestLogEntry clone = new RequestLogEntry(requestTime_,
                                                   requestId_,
-                                                  requestData_);
+                                                  requestData_,
+                                                  method_,
+                                                  requestBytes_);
       clone.responseType_ = responseType_;
       clone.responseData_ = responseData_;
       clone.responseTime_ = responseTime_;
@@ -143,6 +172,8 @@ public class RequestLogEntry
    private final long requestTime_;
    private final String requestId_;
    private final String requestData_;
+   private final String method_;
+   private final int requestBytes_;
    private Long responseTime_;
    private String responseData_;
    private int responseType_ = ResponseType.None;
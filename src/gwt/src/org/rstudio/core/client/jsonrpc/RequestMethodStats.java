@@ -0,0 +1,168 @@
+/*
+ * RequestMethodStats.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.jsonrpc;
+
+/**
+ * Running statistics for a single RPC method: request counts, payload sizes
+ * and a latency histogram.
+ *
+ * Latencies are counted in a fixed set of buckets: one per millisecond below
+ * 8ms, then four per power of two. Recording is constant time and memory use
+ * doesn't grow with the number of requests; the price is that percentiles
+ * are reported as the lower bound of their bucket, which is within 25% of
+ * the true value.
+ */
+public class RequestMethodStats
+{
+   public RequestMethodStats(String method)
+   {
+      method_ = method;
+   }
+
+   public String getMethod()
+   {
+      return method_;
+   }
+
+   /**
+    * @return The number of requests that completed, with or without error
+    */
+   public int getCount()
+   {
+      return count_;
+   }
+
+   public int getErrorCount()
+   {
+      return errors_;
+   }
+
+   public int getCancelCount()
+   {
+      return cancels_;
+   }
+
+   public int getRetryCount()
+   {
+      return retries_;
+   }
+
+   public long getRequestBytes()
+   {
+      return requestBytes_;
+   }
+
+   public long getResponseBytes()
+   {
+      return responseBytes_;
+   }
+
+   public long getMaxMillis()
+   {
+      return maxMillis_;
+   }
+
+   /**
+    * @param percentile A value between 0 and 100
+    * @return The approximate latency, in milliseconds, below which the given
+    * percentage of completed requests fall; 0 if there are none
+    */
+   public long getPercentile(double percentile)
+   {
+      if (count_ == 0)
+         return 0;
+
+      long rank = (long) Math.ceil(count_ * percentile / 100.0);
+      if (rank < 1)
+         rank = 1;
+
+      long seen = 0;
+      for (int i = 0; i < buckets_.length; i++)
+      {
+         seen += buckets_[i];
+         if (seen >= rank)
+            return Math.min(bucketLowerBound(i), maxMillis_);
+      }
+      return maxMillis_;
+   }
+
+   void recordResponse(long millis, int requestBytes, int responseBytes)
+   {
+      recordLatency(millis);
+      requestBytes_ += requestBytes;
+      responseBytes_ += responseBytes;
+   }
+
+   void recordError(long millis)
+   {
+      recordLatency(millis);
+      errors_++;
+   }
+
+   void recordCancel()
+   {
+      cancels_++;
+   }
+
+   void recordRetry()
+   {
+      retries_++;
+   }
+
+   private void recordLatency(long millis)
+   {
+      if (millis < 0)
+         millis = 0;
+      buckets_[bucketIndex(millis)]++;
+      maxMillis_ = Math.max(maxMillis_, millis);
+      count_++;
+   }
+
+   static int bucketIndex(long millis)
+   {
+      if (millis < LINEAR_BUCKETS)
+         return (int) millis;
+
+      int octave = 63 - Long.numberOfLeadingZeros(millis);
+      int sub = (int) (millis >> (octave - 2)) & 3;
+      int index = LINEAR_BUCKETS + (octave - 3) * 4 + sub;
+      return Math.min(index, BUCKET_COUNT - 1);
+   }
+
+   static long bucketLowerBound(int index)
+   {
+      if (index < LINEAR_BUCKETS)
+         return index;
+
+      int octave = 3 + (index - LINEAR_BUCKETS) / 4;
+      int sub = (index - LINEAR_BUCKETS) % 4;
+      return (long) (4 + sub) << (octave - 2);
+   }
+
+   private static final int LINEAR_BUCKETS = 8;
+
+   // enough to distinguish latencies of up to 2^31 milliseconds
+   private static final int BUCKET_COUNT = LINEAR_BUCKETS + 28 * 4;
+
+   private final String method_;
+   private final int[] buckets_ = new int[BUCKET_COUNT];
+   private int count_;
+   private int errors_;
+   private int cancels_;
+   private int retries_;
+   private long requestBytes_;
+   private long responseBytes_;
+   private long maxMillis_;
+}
@@ -112,8 +112,10 @@ public class RpcRequest
             Debug.log("Request: " + requestString) ;
 
          requestLogEntry_ = RequestLog.log(requestId,
+                                           method_,
                                            redactLog_ ? "[REDACTED]"
-                                                      : requestString);
+                                                      : requestString,
+                                           requestString.length());
 
          request_ = builder.sendRequest(requestString, new RequestCallback() {
             
@@ -45,6 +45,17 @@ public class SubstringDiff
       length_ = tail - head;
    }
 
+   /**
+    * Creates a diff from an already-known replacement of the range
+    * [offset, offset + length) in the original string.
+    */
+   public SubstringDiff(String replacement, int offset, int length)
+   {
+      replacement_ = replacement;
+      offset_ = offset;
+      length_ = length;
+   }
+
    public String getReplacement()
    {
       return replacement_;
@@ -20,6 +20,7 @@ import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.*;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Style.Cursor;
+import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.DOM;
@@ -89,7 +90,7 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
             if (cell == null)
                return;
             TableRowElement row = (TableRowElement) cell.getParentElement();
-            if (codec_.isValueRow(row))
+            if (isValueRow(row))
                handleRowClick(event, row);
          }
       });
@@ -123,6 +124,72 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    public void setOwningScrollPanel(ScrollPanel scrollPanel)
    {
       scrollPanel_ = scrollPanel;
+      registerScrollHandler();
+   }
+
+   /**
+    * When virtualized, only the rows near the owning scroll panel's viewport
+    * are rendered. The other rows are kept as empty placeholders, so row
+    * indexes--and with them selection and keyboard navigation--work just as
+    * they do for a fully rendered table. Requires an owning scroll panel and
+    * a codec without non-value rows (breaks are computed by comparing
+    * rendered rows), and assumes rows of about the same height.
+    */
+   public void setVirtualized(boolean virtualized)
+   {
+      assert !virtualized || !codec_.hasNonValueRows() :
+         "Can't virtualize a table with non-value rows";
+
+      virtualized = virtualized && !codec_.hasNonValueRows();
+      if (virtualized == virtualized_)
+         return;
+
+      virtualized_ = virtualized;
+      registerScrollHandler();
+      if (virtualized_)
+      {
+         invalidateWindow();
+      }
+      else
+      {
+         NodeList<TableRowElement> rows = table_.getRows();
+         for (int i = 0; i < rows.getLength(); i++)
+            materialize(rows.getItem(i));
+         renderedRows_.clear();
+         setPadding(0, 0);
+      }
+   }
+
+   public boolean isVirtualized()
+   {
+      return virtualized_;
+   }
+
+   private void registerScrollHandler()
+   {
+      if (scrollRegistration_ != null)
+      {
+         scrollRegistration_.removeHandler();
+         scrollRegistration_ = null;
+      }
+
+      if (virtualized_ && scrollPanel_ != null)
+      {
+         scrollRegistration_ = scrollPanel_.addScrollHandler(new ScrollHandler()
+         {
+            public void onScroll(ScrollEvent event)
+            {
+               updateWindow();
+            }
+         });
+      }
+   }
+
+   @Override
+   protected void onLoad()
+   {
+      super.onLoad();
+      invalidateWindow();
    }
 
    private void handleRowClick(MouseDownEvent event, TableRowElement row)
@@ -295,8 +362,19 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    private void ensureRowVisible(final int row)
    {
-      if (scrollPanel_ != null)
-         DomUtils.ensureVisibleVert(scrollPanel_.getElement(), getRow(row), 0);
+      if (scrollPanel_ == null)
+         return;
+
+      if (virtualized_ && isAttached() && !window_.contains(row))
+      {
+         // scroll to where the row would be, so it gets rendered
+         int top = getContentTop() + getRowOffsetTop(row);
+         int height = scrollPanel_.getElement().getClientHeight();
+         scrollPanel_.setVerticalScrollPosition(Math.max(0, top - height / 2));
+         updateWindow();
+      }
+
+      DomUtils.ensureVisibleVert(scrollPanel_.getElement(), getRow(row), 0);
    }
 
    private Integer findNextValueRow(int physicalRowIndex, boolean up)
@@ -305,7 +383,7 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       int increment = up ? -1 : 1;
       for (int i = physicalRowIndex + increment; i != limit; i += increment)
       {
-         if (codec_.isValueRow(getRow(i)))
+         if (isValueRow(getRow(i)))
             return i;
       }
       return null;
@@ -321,13 +399,21 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    {
       TableSectionElement tbody = Document.get().createTBodyElement();
       for (TItemInput item : items)
-         tbody.appendChild(codec_.getRowForItem(item));
+      {
+         if (virtualized_)
+            tbody.appendChild(createPlaceholder(item));
+         else
+            tbody.appendChild(codec_.getRowForItem(item));
+      }
       if (top)
          addToTop(tbody);
       else
          getElement().appendChild(tbody);
 
-      codec_.onRowsChanged(tbody);
+      if (virtualized_)
+         invalidateWindow();
+      else
+         codec_.onRowsChanged(tbody);
    }
 
    protected void addToTop(TableSectionElement tbody)
@@ -339,6 +425,13 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    {
       table_.setInnerText("");
       selectedRows_.clear();
+      if (virtualized_)
+      {
+         renderedRows_.clear();
+         rowHeight_ = 0;
+         setPadding(0, 0);
+         invalidateWindow();
+      }
    }
    
    public void focus()
@@ -362,8 +455,10 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       {
          rowCount = removeTopRows(tBodies.getItem(i), rowCount);
          if (rowCount == 0)
-            return;
+            break;
       }
+
+      invalidateWindow();
    }
 
    private int removeTopRows(TableSectionElement tbody, int rowCount)
@@ -371,20 +466,87 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       while (rowCount > 0 && tbody.getRows().getLength() >= 0)
       {
          TableRowElement topRow = tbody.getRows().getItem(0);
-         if (codec_.isValueRow(topRow))
+         if (isValueRow(topRow))
             rowCount--;
          selectedRows_.remove(topRow);
          topRow.removeFromParent();
       }
 
       if (tbody.getRows().getLength() > 0)
-         codec_.onRowsChanged(tbody);
+      {
+         if (!virtualized_)
+            codec_.onRowsChanged(tbody);
+      }
       else
          tbody.removeFromParent();
 
       return rowCount;
    }
 
+   /**
+    * Inserts rows for the items before an existing row, or after the last
+    * row if the index is the row count.
+    *
+    * @param row A physical row index
+    */
+   public void insertItems(int row, Iterable<TItemInput> items)
+   {
+      if (row >= table_.getRows().getLength())
+      {
+         addItems(items, false);
+         return;
+      }
+
+      TableRowElement before = getRow(row);
+      TableSectionElement tbody = before.getParentElement().cast();
+      for (TItemInput item : items)
+      {
+         if (virtualized_)
+            tbody.insertBefore(createPlaceholder(item), before);
+         else
+            tbody.insertBefore(codec_.getRowForItem(item), before);
+      }
+
+      if (virtualized_)
+         invalidateWindow();
+      else
+         codec_.onRowsChanged(tbody);
+   }
+
+   /**
+    * Removes a run of rows, leaving the rows around it in place.
+    *
+    * @param row A physical row index
+    * @param rowCount The number of physical rows to remove
+    */
+   public void removeRows(int row, int rowCount)
+   {
+      rowCount = Math.min(rowCount, table_.getRows().getLength() - row);
+      if (rowCount <= 0)
+         return;
+
+      ArrayList<TableSectionElement> changed = new ArrayList<TableSectionElement>();
+      for (int i = 0; i < rowCount; i++)
+      {
+         TableRowElement tr = getRow(row);
+         TableSectionElement tbody = tr.getParentElement().cast();
+         if (!changed.contains(tbody))
+            changed.add(tbody);
+         selectedRows_.remove(tr);
+         tr.removeFromParent();
+      }
+
+      for (TableSectionElement tbody : changed)
+      {
+         if (tbody.getRows().getLength() == 0)
+            tbody.removeFromParent();
+         else if (!virtualized_)
+            codec_.onRowsChanged(tbody);
+      }
+
+      invalidateWindow();
+   }
+
    public ArrayList<Integer> getSelectedRowIndexes()
    {
       sortSelectedRows();
@@ -457,7 +619,7 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       if (isCurrentlySelected == selected)
          return;
 
-      if (selected && !codec_.isValueRow(row))
+      if (selected && !isValueRow(row))
          return;
 
       setStyleName(row, selectedClassName_, selected);
@@ -484,7 +646,7 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
       ArrayList<TItemOutput> results = new ArrayList<TItemOutput>();
       for (TableRowElement row : selectedRows_)
-         results.add(codec_.getOutputForRow(row));
+         results.add(codec_.getOutputForRow(getOutputRow(row)));
       return results;
    }
 
@@ -505,7 +667,7 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
       ArrayList<TItemOutput2> results = new ArrayList<TItemOutput2>();
       for (TableRowElement row : selectedRows_)
-         results.add(codec_.getOutputForRow2(row));
+         results.add(codec_.getOutputForRow2(getOutputRow(row)));
       return results;
    }
 
@@ -522,7 +684,7 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       while (--top >= 0)
       {
          TableRowElement row = rows.getItem(top);
-         if (codec_.isValueRow(row))
+         if (isValueRow(row))
          {
             rowToSelect = row;
             break;
@@ -549,7 +711,7 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       while (++bottom < rows.getLength())
       {
          TableRowElement row = rows.getItem(bottom);
-         if (codec_.isValueRow(row))
+         if (isValueRow(row))
          {
             rowToSelect = row;
             break;
@@ -590,6 +752,14 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
       TableRowElement first = selectedRows_.get(0);
       TableRowElement last = selectedRows_.get(selectedRows_.size() - 1);
+      if (virtualized_)
+      {
+         // the selected rows may not be rendered
+         int top = getRowOffsetTop(first.getRowIndex());
+         int bottom = getRowOffsetTop(last.getRowIndex()) + getRowHeight();
+         return new Rectangle(0, top, table_.getOffsetWidth(), bottom - top);
+      }
+
       int top = first.getOffsetTop();
       int bottom = last.getOffsetTop() + last.getOffsetHeight();
       int left = first.getOffsetLeft();
@@ -597,6 +767,205 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       return new Rectangle(left, top, width, bottom - top);
    }
 
+   /**
+    * @param row A physical row index
+    * @return The offset of the row from the top of the table, in pixels
+    */
+   public int getRowOffsetTop(int row)
+   {
+      if (virtualized_)
+         return row * getRowHeight();
+      else
+         return getRow(row).getOffsetTop();
+   }
+
+   /**
+    * Re-renders a row from its item, e.g. after the item has changed. Only
+    * virtualized tables keep the items of their rows, so this is a no-op
+    * for other tables.
+    *
+    * @param row A physical row index
+    */
+   public void refreshRow(int row)
+   {
+      if (!virtualized_)
+         return;
+
+      // placeholders are rendered from their item when they're needed
+      TableRowElement tr = getRow(row);
+      if (isPlaceholder(tr))
+         return;
+
+      TableRowElement rendered = codec_.getRowForItem(getItem(tr));
+      rendered.setPropertyObject(ITEM, getItem(tr));
+      rendered.setPropertyInt(RENDER_GENERATION,
+                              tr.getPropertyInt(RENDER_GENERATION));
+      int index = renderedRows_.indexOf(tr);
+      if (index >= 0)
+         renderedRows_.set(index, rendered);
+      replaceRow(tr, rendered);
+   }
+
+   private boolean isValueRow(TableRowElement row)
+   {
+      // virtualized tables have no non-value rows, and placeholders
+      // can't be inspected by the codec
+      return virtualized_ || codec_.isValueRow(row);
+   }
+
+   /**
+    * Brings the rendered rows in line with the owning scroll panel's
+    * viewport: placeholders coming into the window are swapped for rendered
+    * rows and vice versa, and the table's margins stand in for the rows
+    * above and below the window.
+    */
+   void updateWindow()
+   {
+      if (!virtualized_ || scrollPanel_ == null || !isAttached())
+         return;
+
+      NodeList<TableRowElement> rows = table_.getRows();
+      int rowHeight = getRowHeight();
+      boolean changed = window_.update(
+            rows.getLength(),
+            rowHeight,
+            scrollPanel_.getVerticalScrollPosition() - getContentTop(),
+            scrollPanel_.getElement().getClientHeight());
+      if (!changed)
+         return;
+
+      renderGeneration_++;
+      ArrayList<TableRowElement> rendered = new ArrayList<TableRowElement>();
+      for (int i = window_.getFirst(); i <= window_.getLast(); i++)
+      {
+         TableRowElement row = materialize(rows.getItem(i));
+         row.setPropertyInt(RENDER_GENERATION, renderGeneration_);
+         rendered.add(row);
+      }
+
+      for (TableRowElement row : renderedRows_)
+      {
+         if (row.getPropertyInt(RENDER_GENERATION) != renderGeneration_ &&
+             row.getParentElement() != null)
+         {
+            dematerialize(row);
+         }
+      }
+      renderedRows_ = rendered;
+
+      setPadding(window_.getTopPadding(), window_.getBottomPadding());
+
+      // now that rows are rendered, the guessed row height can be replaced
+      // with a measured one
+      if (rowHeight_ <= 0 && getRowHeight() != rowHeight)
+         updateWindow();
+   }
+
+   private void invalidateWindow()
+   {
+      window_.reset();
+      updateWindow();
+   }
+
+   private int getRowHeight()
+   {
+      if (rowHeight_ > 0)
+         return rowHeight_;
+
+      for (TableRowElement row : renderedRows_)
+      {
+         // selected rows may be allowed to wrap
+         if (isSelected(row))
+            continue;
+
+         int height = row.getOffsetHeight();
+         if (height > 0)
+         {
+            rowHeight_ = height;
+            return rowHeight_;
+         }
+      }
+
+      return DEFAULT_ROW_HEIGHT;
+   }
+
+   /**
+    * @return The offset, in pixels, of the top of the first row (rendered
+    *    or not) from the top of the owning scroll panel's content
+    */
+   private int getContentTop()
+   {
+      return table_.getAbsoluteTop() - topPadding_ -
+             scrollPanel_.getElement().getAbsoluteTop() +
+             scrollPanel_.getVerticalScrollPosition();
+   }
+
+   private void setPadding(int top, int bottom)
+   {
+      topPadding_ = top;
+      table_.getStyle().setMarginTop(top, Unit.PX);
+      table_.getStyle().setMarginBottom(bottom, Unit.PX);
+   }
+
+   private TableRowElement createPlaceholder(TItemInput item)
+   {
+      TableRowElement row = Document.get().createTRElement();
+      row.setPropertyObject(ITEM, item);
+      row.setPropertyBoolean(PLACEHOLDER, true);
+      return row;
+   }
+
+   private boolean isPlaceholder(TableRowElement row)
+   {
+      return row.getPropertyBoolean(PLACEHOLDER);
+   }
+
+   @SuppressWarnings("unchecked")
+   private TItemInput getItem(TableRowElement row)
+   {
+      return (TItemInput) row.getPropertyObject(ITEM);
+   }
+
+   private TableRowElement materialize(TableRowElement row)
+   {
+      if (!isPlaceholder(row))
+         return row;
+
+      TItemInput item = getItem(row);
+      TableRowElement rendered = codec_.getRowForItem(item);
+      rendered.setPropertyObject(ITEM, item);
+      replaceRow(row, rendered);
+      return rendered;
+   }
+
+   private void dematerialize(TableRowElement row)
+   {
+      TItemInput item = getItem(row);
+      if (item != null)
+         replaceRow(row, createPlaceholder(item));
+   }
+
+   private void replaceRow(TableRowElement oldRow, TableRowElement newRow)
+   {
+      if (isSelected(oldRow))
+      {
+         setStyleName(newRow, selectedClassName_, true);
+         selectedRows_.set(selectedRows_.indexOf(oldRow), newRow);
+      }
+      oldRow.getParentElement().replaceChild(newRow, oldRow);
+   }
+
+   /**
+    * @return A row the codec can read output from: the row itself if it's
+    *    rendered, or a detached rendering of its item if not
+    */
+   private TableRowElement getOutputRow(TableRowElement row)
+   {
+      if (isPlaceholder(row))
+         return codec_.getRowForItem(getItem(row));
+      return row;
+   }
+
    protected Element getEventTargetCell(Event event) {
      Element td = DOM.eventGetTarget(event);
      for (; td != null; td = DOM.getParent(td)) {
@@ -685,4 +1054,19 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    private final boolean allowMultiSelect_;
    private ScrollPanel scrollPanel_;
    private final boolean focusable_;
+
+   // virtualization
+   private boolean virtualized_;
+   private final RowWindow window_ = new RowWindow(VIRTUAL_ROW_MARGIN);
+   private ArrayList<TableRowElement> renderedRows_ = new ArrayList<TableRowElement>();
+   private int renderGeneration_;
+   private int rowHeight_;
+   private int topPadding_;
+   private HandlerRegistration scrollRegistration_;
+
+   private static final int VIRTUAL_ROW_MARGIN = 100;
+   private static final int DEFAULT_ROW_HEIGHT = 18;
+   private static final String ITEM = "__fastSelectItem";
+   private static final String PLACEHOLDER = "__fastSelectPlaceholder";
+   private static final String RENDER_GENERATION = "__fastSelectGeneration";
 }
\ No newline at end of file
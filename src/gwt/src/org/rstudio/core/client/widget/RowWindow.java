@@ -0,0 +1,139 @@
+/*
+ * RowWindow.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.widget;
+
+/**
+ * Tracks which rows of a scrolling list need to be rendered: the rows in
+ * view, plus a margin of rows above and below. Rows outside the window are
+ * stood in for by padding of the same total height, which requires that all
+ * rows have (about) the same height.
+ *
+ * The window is only moved once the rows in view come within half a margin
+ * of its edge, so that scrolling through a list re-renders it every
+ * margin / 2 rows rather than on every scroll event.
+ */
+public class RowWindow
+{
+   public RowWindow(int margin)
+   {
+      margin_ = margin;
+      reset();
+   }
+
+   /**
+    * Forgets the current window, so that the next call to update computes a
+    * new one. Use when rows have been added or removed.
+    */
+   public void reset()
+   {
+      rowCount_ = -1;
+      rowHeight_ = -1;
+      first_ = 0;
+      last_ = -1;
+   }
+
+   /**
+    * @param rowCount The total number of rows
+    * @param rowHeight The height of a single row, in pixels
+    * @param scrollTop The offset of the top of the viewport from the top of
+    *    the first row, in pixels
+    * @param viewportHeight The height of the viewport, in pixels
+    * @return true if the window changed
+    */
+   public boolean update(int rowCount,
+                         int rowHeight,
+                         int scrollTop,
+                         int viewportHeight)
+   {
+      rowHeight = Math.max(1, rowHeight);
+      scrollTop = Math.max(0, scrollTop);
+      viewportHeight = Math.max(0, viewportHeight);
+
+      int firstVisible = Math.min(scrollTop / rowHeight, rowCount - 1);
+      int lastVisible = Math.min((scrollTop + viewportHeight) / rowHeight,
+                                 rowCount - 1);
+
+      if (rowCount == rowCount_ && rowHeight == rowHeight_)
+      {
+         int slack = margin_ / 2;
+         boolean covered =
+               first_ <= Math.max(0, firstVisible - slack) &&
+               last_ >= Math.min(rowCount - 1, lastVisible + slack);
+         if (covered)
+            return false;
+      }
+
+      int first = Math.max(0, firstVisible - margin_);
+      int last = Math.min(rowCount - 1, lastVisible + margin_);
+
+      boolean changed =
+            first != first_ ||
+            last != last_ ||
+            rowHeight != rowHeight_;
+
+      rowCount_ = rowCount;
+      rowHeight_ = rowHeight;
+      first_ = first;
+      last_ = last;
+      return changed;
+   }
+
+   /**
+    * @return The index of the first row in the window
+    */
+   public int getFirst()
+   {
+      return first_;
+   }
+
+   /**
+    * @return The index of the last row in the window; less than getFirst()
+    *    if the window is empty
+    */
+   public int getLast()
+   {
+      return last_;
+   }
+
+   public boolean contains(int row)
+   {
+      return first_ <= row && row <= last_;
+   }
+
+   /**
+    * @return The height, in pixels, of the rows above the window
+    */
+   public int getTopPadding()
+   {
+      return rowHeight_ < 0 ? 0 : first_ * rowHeight_;
+   }
+
+   /**
+    * @return The height, in pixels, of the rows below the window
+    */
+   public int getBottomPadding()
+   {
+      if (rowHeight_ < 0)
+         return 0;
+      return Math.max(0, rowCount_ - last_ - 1) * rowHeight_;
+   }
+
+   private final int margin_;
+
+   private int rowCount_;
+   private int rowHeight_;
+   private int first_;
+   private int last_;
+}
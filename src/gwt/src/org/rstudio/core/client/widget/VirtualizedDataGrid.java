@@ -27,6 +27,7 @@ import com.google.gwt.user.cellview.client.DefaultCellTableBuilder;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.HeaderPanel;
 import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.view.client.ProvidesKey;
 
 // This class acts as a DOM-virtualized version of a DataGrid, effectively
 // allowing the class to render large tables without overloading the DOM.
@@ -49,11 +50,11 @@ public abstract class VirtualizedDataGrid<T> extends RStudioDataGrid<T>
             drawTopRowPadding();
          
          // draw this row if it's in the visibility range
-         if (firstActiveRow_ <= index && index <= lastActiveRow_)
+         if (window_.contains(index))
             super.buildRowImpl(data, index);
          
          // if this is the last row, draw padding
-         if (index == lastActiveRow_)
+         if (index == window_.getLast())
             drawBottomRowPadding();
       }
       
@@ -97,6 +98,12 @@ public abstract class VirtualizedDataGrid<T> extends RStudioDataGrid<T>
       commonInit();
    }
    
+   public VirtualizedDataGrid(Resources resources, ProvidesKey<T> keyProvider)
+   {
+      super(Integer.MAX_VALUE, resources, keyProvider);
+      commonInit();
+   }
+   
    private void commonInit()
    {
       addScrollHandler(new ScrollHandler()
@@ -130,6 +137,25 @@ public abstract class VirtualizedDataGrid<T> extends RStudioDataGrid<T>
       return true;
    }
    
+   @Override
+   public void setKeyboardSelectedRow(int row, boolean stealFocus)
+   {
+      // rows outside the active range aren't drawn, so bring the row
+      // into range before it's given keyboard focus
+      ensureRowActive(row);
+      super.setKeyboardSelectedRow(row, stealFocus);
+   }
+   
+   public void ensureRowActive(int row)
+   {
+      if (row < 0 || row >= getTotalNumberOfRows() || window_.contains(row))
+         return;
+      
+      int rowTop = row * getRowHeight();
+      setVerticalScrollPosition(Math.max(0, rowTop - getOffsetHeight() / 2));
+      redrawIfNecessary();
+   }
+   
    @Override
    public void redraw()
    {
@@ -139,16 +165,7 @@ public abstract class VirtualizedDataGrid<T> extends RStudioDataGrid<T>
    
    public void redrawIfNecessary()
    {
-      int oldFirstActiveRow = firstActiveRow_;
-      int oldLastActiveRow = lastActiveRow_;
-      
-      updateActiveRows();
-      
-      boolean changed =
-            (firstActiveRow_ != oldFirstActiveRow) ||
-            (lastActiveRow_ != oldLastActiveRow);
-      
-      if (changed)
+      if (updateActiveRows())
       {
          redraw();
          Scheduler.get().scheduleDeferred(new ScheduledCommand()
@@ -180,24 +197,22 @@ public abstract class VirtualizedDataGrid<T> extends RStudioDataGrid<T>
    
    public final int getFirstActiveRow()
    {
-      return firstActiveRow_;
+      return window_.getFirst();
    }
    
    public final int getLastActiveRow()
    {
-      return lastActiveRow_;
+      return window_.getLast();
    }
    
    public final int getTopPaddingHeight()
    {
-      int pseudoRowCount = firstActiveRow_;
-      return pseudoRowCount * getRowHeight();
+      return window_.getTopPadding();
    }
    
    public final int getBottomPaddingHeight()
    {
-      int pseudoRowCount = (getTotalNumberOfRows() - lastActiveRow_) - 1;
-      return pseudoRowCount * getRowHeight();
+      return window_.getBottomPadding();
    }
    
    public final int getVerticalScrollPosition()
@@ -215,27 +230,16 @@ public abstract class VirtualizedDataGrid<T> extends RStudioDataGrid<T>
       panel.setVerticalScrollPosition(position);
    }
    
-   private final void updateActiveRows()
+   private final boolean updateActiveRows()
    {
-      int n = getTotalNumberOfRows();
-      int rowHeight = getRowHeight();
-      
-      // determine how much the table body element has been scrolled
-      int scrollAmount = getVerticalScrollPosition();
-      
-      // determine the number of rows that have been scrolled
-      // (this is, approximately, the first visible row)
-      int numRowsScrolled = scrollAmount / rowHeight;
-      
-      // determine the total number of rows visible
-      int rowsActive = getOffsetHeight() / rowHeight;
-      
-      firstActiveRow_ = Math.max(0, numRowsScrolled - ROW_PADDING);
-      lastActiveRow_ = Math.min(n, numRowsScrolled + rowsActive + ROW_PADDING);
+      return window_.update(
+            getTotalNumberOfRows(),
+            getRowHeight(),
+            getVerticalScrollPosition(),
+            getOffsetHeight());
    }
    
-   private int firstActiveRow_;
-   private int lastActiveRow_;
+   private final RowWindow window_ = new RowWindow(ROW_PADDING);
    private Timer redrawTimer_;
    
    // Static Members ----
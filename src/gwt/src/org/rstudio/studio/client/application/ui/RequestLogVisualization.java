@@ -28,6 +28,7 @@ import com.google.gwt.event.logical.shared.CloseEvent;
 import com.google.gwt.event.logical.shared.CloseHandler;
 import com.google.gwt.event.logical.shared.HasCloseHandlers;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.user.client.Event;
 import com.google.gwt.user.client.Event.NativePreviewEvent;
 import com.google.gwt.user.client.Event.NativePreviewHandler;
@@ -39,6 +40,7 @@ import org.rstudio.core.client.command.KeyboardShortcut;
 import org.rstudio.core.client.jsonrpc.RequestLog;
 import org.rstudio.core.client.jsonrpc.RequestLogEntry;
 import org.rstudio.core.client.jsonrpc.RequestLogEntry.ResponseType;
+import org.rstudio.core.client.jsonrpc.RequestMethodStats;
 import org.rstudio.core.client.widget.ModalDialog;
 import org.rstudio.core.client.widget.OperationWithInput;
 import org.rstudio.core.client.widget.ScrollPanelWithClick;
@@ -115,6 +117,7 @@ public class RequestLogVisualization extends Composite
                             "<li>P: Play/pause</li>" +
                             "<li>E: Export</li>" +
                             "<li>I: Import</li>" +
+                            "<li>S: Statistics by method</li>" +
                             "<li>+/-: Zoom in/out</li>" +
                             "</ul>");
       detail_.setWidget(instructions_);
@@ -267,6 +270,11 @@ public class RequestLogVisualization extends Composite
          {
             refresh(true, true);
          }
+         else if (keyCode == 'S'
+                  && KeyboardShortcut.getModifierValue(event.getNativeEvent()) == 0)
+         {
+            showStats();
+         }
          else if (keyCode == 'P')
          {
             if (timerIsRunning_)
@@ -335,6 +343,44 @@ public class RequestLogVisualization extends Composite
       }
    }
 
+   private void showStats()
+   {
+      SafeHtmlBuilder builder = new SafeHtmlBuilder();
+      builder.appendHtmlConstant(
+            "<table cellpadding='2'><tr>" +
+            "<th align='left'>Method</th><th>Count</th><th>p50</th>" +
+            "<th>p95</th><th>p99</th><th>Max</th><th>Errors</th>" +
+            "<th>Cancels</th><th>Retries</th><th>Sent</th>" +
+            "<th>Received</th></tr>");
+      for (RequestMethodStats stats : RequestLog.getStats())
+      {
+         builder.appendHtmlConstant("<tr><td>");
+         builder.appendEscaped(stats.getMethod());
+         appendCell(builder, stats.getCount() + "");
+         appendCell(builder, stats.getPercentile(50) + "ms");
+         appendCell(builder, stats.getPercentile(95) + "ms");
+         appendCell(builder, stats.getPercentile(99) + "ms");
+         appendCell(builder, stats.getMaxMillis() + "ms");
+         appendCell(builder, stats.getErrorCount() + "");
+         appendCell(builder, stats.getCancelCount() + "");
+         appendCell(builder, stats.getRetryCount() + "");
+         appendCell(builder, stats.getRequestBytes() + "");
+         appendCell(builder, stats.getResponseBytes() + "");
+         builder.appendHtmlConstant("</td></tr>");
+      }
+      builder.appendHtmlConstant("</table>");
+
+      ScrollPanel panel = new ScrollPanel(new HTML(builder.toSafeHtml()));
+      panel.setSize("100%", "100%");
+      detail_.setWidget(panel);
+   }
+
+   private static void appendCell(SafeHtmlBuilder builder, String value)
+   {
+      builder.appendHtmlConstant("</td><td align='right'>");
+      builder.appendEscaped(value);
+   }
+
 
    private static final int BAR_HEIGHT = 15;
    private double scaleMillisToPixels_ = 0.02;
@@ -16,6 +16,9 @@
 package org.rstudio.studio.client.common.dependencies;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -27,6 +30,7 @@ import org.rstudio.core.client.widget.MessageDialog;
 import org.rstudio.core.client.widget.Operation;
 import org.rstudio.core.client.widget.ProgressIndicator;
 import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.application.events.RestartStatusEvent;
 import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.common.GlobalProgressDelayer;
 import org.rstudio.studio.client.common.console.ConsoleProcess;
@@ -40,6 +44,7 @@ import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedEvent;
 import org.rstudio.studio.client.workbench.views.packages.events.PackageStateChangedHandler;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedEvent;
 import org.rstudio.studio.client.workbench.views.vcs.common.ConsoleProgressDialog;
 
 import com.google.gwt.core.client.JavaScriptObject;
@@ -91,13 +96,21 @@ public class DependencyManager implements InstallShinyEvent.Handler,
    {
       globalDisplay_ = globalDisplay;
       server_ = server;
-      satisfied_ = new ArrayList<Dependency>();
+      satisfied_ = new HashSet<String>();
+      inFlight_ = new HashMap<String, ArrayList<ServerRequestCallback<JsArray<Dependency>>>>();
       requestQueue_ = new LinkedList<DependencyRequest>();
       session_ = session;
       commands_ = commands;
       
       eventBus.addHandler(InstallShinyEvent.TYPE, this);
       eventBus.addHandler(PackageStateChangedEvent.TYPE, this);
+      eventBus.addHandler(PackageStatusChangedEvent.TYPE,
+            event -> invalidateSatisfied());
+      eventBus.addHandler(RestartStatusEvent.TYPE, event ->
+      {
+         if (event.getStatus() == RestartStatusEvent.RESTART_COMPLETED)
+            invalidateSatisfied();
+      });
    }
    
    public void withDependencies(String progressCaption,
@@ -467,7 +480,7 @@ public class DependencyManager implements InstallShinyEvent.Handler,
       // is extremely conservative as it's unlikely most (or any) of the
       // packages have been invalidated, but it's safe to do so since it'll
       // just cause us to hit the server once more to verify
-      satisfied_.clear();
+      invalidateSatisfied();
    }
 
    public void withDataImportCSV(String userAction, final Command command)
@@ -965,16 +978,7 @@ public class DependencyManager implements InstallShinyEvent.Handler,
       final JsArray<Dependency> deps = JsArray.createArray().cast();
       for (int i = 0; i < req.dependencies.length; i++)
       {
-         boolean satisfied = false;
-         for (Dependency d: satisfied_)
-         {
-            if (req.dependencies[i].isEqualTo(d))
-            {
-               satisfied = true;
-               break;
-            }
-         }
-         if (!satisfied)
+         if (!isSatisfied(req.dependencies[i]))
             deps.push(req.dependencies[i]);
       }
       
@@ -992,7 +996,7 @@ public class DependencyManager implements InstallShinyEvent.Handler,
             req.progressCaption + "...").getIndicator();
       
       // query for unsatisfied dependencies
-      server_.unsatisfiedDependencies(
+      checkDependencies(
             deps, req.silentEmbeddedUpdate, 
             new ServerRequestCallback<JsArray<Dependency>>() {
 
@@ -1001,7 +1005,6 @@ public class DependencyManager implements InstallShinyEvent.Handler,
                               final JsArray<Dependency> unsatisfiedDeps)
          {
             progress.onCompleted();
-            updateSatisfied(deps, unsatisfiedDeps);
             
             // if we've satisfied all dependencies then execute the command
             if (unsatisfiedDeps.length() == 0)
@@ -1238,14 +1241,11 @@ public class DependencyManager implements InstallShinyEvent.Handler,
                                            final ServerRequestCallback<JsArray<Dependency>> requestCallback)
    {
       // determine if already satisfied
-      for (Dependency d: satisfied_)
+      if (isSatisfied(dependency))
       {
-         if (d.isEqualTo(dependency))
-         {
-            JsArray<Dependency> empty = JsArray.createArray().cast();
-            requestCallback.onResponseReceived(empty);
-            return;
-         }
+         JsArray<Dependency> empty = JsArray.createArray().cast();
+         requestCallback.onResponseReceived(empty);
+         return;
       }
 
       List<Dependency> dependencies = new ArrayList<Dependency>();
@@ -1261,26 +1261,96 @@ public class DependencyManager implements InstallShinyEvent.Handler,
       for (int i = 0; i < dependencies.size(); i++)
          jsDependencies.set(i, dependencies.get(i));
       
+      checkDependencies(jsDependencies, false, requestCallback);
+   }
+   
+   /**
+    * Asks the server which of the dependencies are unsatisfied, recording
+    * the others as satisfied. A check for the same dependencies as one
+    * already in flight waits for that check's result rather than making a
+    * request of its own.
+    */
+   private void checkDependencies(final JsArray<Dependency> dependencies,
+                                  boolean silentEmbeddedUpdate,
+                                  ServerRequestCallback<JsArray<Dependency>> requestCallback)
+   {
+      final String key = keyFor(dependencies, silentEmbeddedUpdate);
+      ArrayList<ServerRequestCallback<JsArray<Dependency>>> waiting = inFlight_.get(key);
+      if (waiting != null)
+      {
+         waiting.add(requestCallback);
+         return;
+      }
+      
+      final ArrayList<ServerRequestCallback<JsArray<Dependency>>> callbacks =
+            new ArrayList<ServerRequestCallback<JsArray<Dependency>>>();
+      callbacks.add(requestCallback);
+      inFlight_.put(key, callbacks);
+      
+      final int generation = generation_;
       server_.unsatisfiedDependencies(
-            jsDependencies,
-            false,
+            dependencies,
+            silentEmbeddedUpdate,
             new ServerRequestCallback<JsArray<Dependency>>()
             {
                @Override
                public void onResponseReceived(JsArray<Dependency> unsatisfied)
                {
-                  updateSatisfied(jsDependencies, unsatisfied);
-                  requestCallback.onResponseReceived(unsatisfied);
+                  if (inFlight_.get(key) == callbacks)
+                     inFlight_.remove(key);
+                  
+                  // packages may have changed while the check was in flight
+                  if (generation == generation_)
+                     updateSatisfied(dependencies, unsatisfied);
+                  
+                  for (ServerRequestCallback<JsArray<Dependency>> callback : callbacks)
+                     callback.onResponseReceived(unsatisfied);
                }
 
                @Override
                public void onError(ServerError error)
                {
-                  requestCallback.onError(error);
+                  if (inFlight_.get(key) == callbacks)
+                     inFlight_.remove(key);
+                  
+                  for (ServerRequestCallback<JsArray<Dependency>> callback : callbacks)
+                     callback.onError(error);
                }
             });
    }
    
+   private void invalidateSatisfied()
+   {
+      // checks already in flight still report to their callers, but their
+      // results are neither cached nor shared with new checks
+      satisfied_.clear();
+      inFlight_.clear();
+      generation_++;
+   }
+   
+   private boolean isSatisfied(Dependency dependency)
+   {
+      return satisfied_.contains(keyFor(dependency));
+   }
+   
+   private static String keyFor(Dependency dependency)
+   {
+      return dependency.getType() + ":" +
+             dependency.getName() + ":" +
+             dependency.getVersion() + ":" +
+             dependency.getSource();
+   }
+   
+   private static String keyFor(JsArray<Dependency> dependencies,
+                                boolean silentEmbeddedUpdate)
+   {
+      String[] keys = new String[dependencies.length()];
+      for (int i = 0; i < keys.length; i++)
+         keys[i] = keyFor(dependencies.get(i));
+      Arrays.sort(keys);
+      return silentEmbeddedUpdate + "|" + StringUtil.join(keys, "|");
+   }
+   
    /**
     * Updates the cache of satisfied dependencies.
     * 
@@ -1303,7 +1373,7 @@ public class DependencyManager implements InstallShinyEvent.Handler,
          }
          if (satisfied)
          {
-            satisfied_.add(all.get(i));
+            satisfied_.add(keyFor(all.get(i)));
          }
       }
    }
@@ -1312,7 +1382,9 @@ public class DependencyManager implements InstallShinyEvent.Handler,
    private final LinkedList<DependencyRequest> requestQueue_;
    private final GlobalDisplay globalDisplay_;
    private final DependencyServerOperations server_;
-   private final ArrayList<Dependency> satisfied_;
+   private final HashSet<String> satisfied_;
+   private final HashMap<String, ArrayList<ServerRequestCallback<JsArray<Dependency>>>> inFlight_;
+   private int generation_;
    private final Session session_;
    private final Commands commands_;
 }
@@ -27,6 +27,17 @@ public class RStringToken extends RToken
       wellFormed_ = wellFormed ;
    }
    
+   RStringToken(String data,
+                int tokenType,
+                int offset,
+                int length,
+                boolean wellFormed)
+   {
+      super(data, tokenType, offset, length) ;
+
+      wellFormed_ = wellFormed ;
+   }
+   
    public boolean isWellFormed()
    {
       return wellFormed_ ;
@@ -25,12 +25,28 @@ public class RToken
       this.length_ = length ;
    }
    
+   // creates a view of the token at [offset, offset + length) in data; the
+   // content is only extracted if asked for
+   RToken(String data, int tokenType, int offset, int length)
+   {
+      super() ;
+      this.tokenType_ = tokenType ;
+      this.data_ = data ;
+      this.offset_ = offset ;
+      this.length_ = length ;
+   }
+   
    public int getTokenType()
    {
       return tokenType_ ;
    }
    public String getContent()
    {
+      if (content_ == null && data_ != null)
+      {
+         content_ = data_.substring(offset_, offset_ + length_) ;
+         data_ = null ;
+      }
       return content_ ;
    }
    public int getOffset()
@@ -47,7 +63,8 @@ public class RToken
    {
       final int prime = 31 ;
       int result = 1 ;
-      result = prime * result + ((content_ == null) ? 0 : content_.hashCode()) ;
+      String content = getContent() ;
+      result = prime * result + ((content == null) ? 0 : content.hashCode()) ;
       result = prime * result + length_ ;
       result = prime * result + offset_ ;
       result = prime * result + tokenType_ ;
@@ -64,11 +81,13 @@ public class RToken
       if (getClass() != obj.getClass())
          return false ;
       RToken other = (RToken) obj ;
-      if (content_ == null)
+      String content = getContent() ;
+      String otherContent = other.getContent() ;
+      if (content == null)
       {
-         if (other.content_ != null)
+         if (otherContent != null)
             return false ;
-      } else if (!content_.equals(other.content_))
+      } else if (!content.equals(otherContent))
          return false ;
       if (length_ != other.length_)
          return false ;
@@ -99,7 +118,8 @@ public class RToken
    public static final int COMMENT        = 0x100A ;
 
    private final int tokenType_ ;
-   private final String content_ ;
+   private String content_ ;
+   private String data_ ;
    private final int offset_ ;
    private final int length_ ;
 }
\ No newline at end of file
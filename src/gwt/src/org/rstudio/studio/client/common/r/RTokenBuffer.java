@@ -0,0 +1,100 @@
+/*
+ * RTokenBuffer.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.r;
+
+/**
+ * The tokens of a string of R code, stored as (type, offset, length) triples
+ * in a single int array. RToken objects are only created on request.
+ */
+public class RTokenBuffer
+{
+   RTokenBuffer(String data)
+   {
+      data_ = data ;
+      tokens_ = new int[INITIAL_CAPACITY * STRIDE] ;
+   }
+
+   void add(int tokenType, int offset, int length, boolean wellFormed)
+   {
+      if ((size_ + 1) * STRIDE > tokens_.length)
+      {
+         int[] tokens = new int[tokens_.length * 2] ;
+         System.arraycopy(tokens_, 0, tokens, 0, size_ * STRIDE) ;
+         tokens_ = tokens ;
+      }
+
+      int base = size_ * STRIDE ;
+      tokens_[base] = wellFormed ? tokenType : tokenType | MALFORMED ;
+      tokens_[base + 1] = offset ;
+      tokens_[base + 2] = length ;
+      size_++ ;
+   }
+
+   public String getData()
+   {
+      return data_ ;
+   }
+
+   public int size()
+   {
+      return size_ ;
+   }
+
+   public int getTokenType(int index)
+   {
+      return tokens_[index * STRIDE] & ~MALFORMED ;
+   }
+
+   public int getOffset(int index)
+   {
+      return tokens_[index * STRIDE + 1] ;
+   }
+
+   public int getLength(int index)
+   {
+      return tokens_[index * STRIDE + 2] ;
+   }
+
+   public String getContent(int index)
+   {
+      int offset = getOffset(index) ;
+      return data_.substring(offset, offset + getLength(index)) ;
+   }
+
+   public RToken get(int index)
+   {
+      int tokenType = getTokenType(index) ;
+      if (tokenType == RToken.STRING)
+      {
+         return new RStringToken(data_,
+                                 tokenType,
+                                 getOffset(index),
+                                 getLength(index),
+                                 (tokens_[index * STRIDE] & MALFORMED) == 0) ;
+      }
+
+      return new RToken(data_, tokenType, getOffset(index), getLength(index)) ;
+   }
+
+   private static final int STRIDE = 3 ;
+   private static final int INITIAL_CAPACITY = 64 ;
+
+   // set on the type of string tokens that aren't well formed
+   private static final int MALFORMED = 0x10000 ;
+
+   private final String data_ ;
+   private int[] tokens_ ;
+   private int size_ ;
+}
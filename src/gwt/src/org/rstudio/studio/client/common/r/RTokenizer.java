@@ -15,11 +15,12 @@
 package org.rstudio.studio.client.common.r;
 
 import org.rstudio.core.client.StringUtil;
-import org.rstudio.core.client.regex.Match;
-import org.rstudio.core.client.regex.Pattern;
 
 import java.util.ArrayList;
 
+// A hand-written scanner: each token is matched by walking character classes
+// forward from the current position, so no substrings or regular expressions
+// are involved until a token's content is requested.
 public class RTokenizer
 {
    public RTokenizer(String data)
@@ -27,24 +28,52 @@ public class RTokenizer
       this.data_ = data ;
       this.pos_ = 0 ;
    }
-   
+
    public static ArrayList<RToken> asTokens(String code)
    {
-      ArrayList<RToken> results = new ArrayList<RToken>() ;
-      RTokenizer rt = new RTokenizer(code) ;
-      RToken t ;
-      while (null != (t = rt.nextToken()))
-         results.add(t) ;
+      RTokenBuffer buffer = tokenize(code) ;
+      ArrayList<RToken> results = new ArrayList<RToken>(buffer.size()) ;
+      for (int i = 0; i < buffer.size(); i++)
+         results.add(buffer.get(i)) ;
       return results ;
    }
 
+   public static RTokenBuffer tokenize(String code)
+   {
+      RTokenBuffer buffer = new RTokenBuffer(code) ;
+      RTokenizer rt = new RTokenizer(code) ;
+      while (rt.scan())
+         buffer.add(rt.tokenType_, rt.tokenStart_, rt.pos_ - rt.tokenStart_,
+                    rt.wellFormed_) ;
+      return buffer ;
+   }
+
    public RToken nextToken()
    {
-      if (eol())
+      if (!scan())
          return null ;
-      
+
+      if (tokenType_ == RToken.STRING)
+      {
+         return new RStringToken(data_, tokenType_, tokenStart_,
+                                 pos_ - tokenStart_, wellFormed_) ;
+      }
+
+      return new RToken(data_, tokenType_, tokenStart_, pos_ - tokenStart_) ;
+   }
+
+   // Scans the next token, leaving its type in tokenType_ and its extent in
+   // [tokenStart_, pos_). Returns false at the end of the data.
+   private boolean scan()
+   {
+      if (eol())
+         return false ;
+
+      tokenStart_ = pos_ ;
+      wellFormed_ = true ;
+
       char c = peek() ;
-      
+
       switch (c)
       {
       case '(': case ')':
@@ -52,12 +81,12 @@ public class RTokenizer
       case ';': case ',':
          return consumeToken(c, 1) ;
       case '[':
-         if (peek(1, false) == '[')
+         if (peek(1) == '[')
             return consumeToken(RToken.LDBRACKET, 2) ;
          else
             return consumeToken(c, 1) ;
       case ']':
-         if (peek(1, false) == ']')
+         if (peek(1) == ']')
             return consumeToken(RToken.RDBRACKET, 2) ;
          else
             return consumeToken(c, 1) ;
@@ -74,19 +103,15 @@ public class RTokenizer
       case '\u00A0': case '\u3000':
          return matchWhitespace() ;
       }
-      
-      char cNext = peek(1, false) ;
-      
+
+      char cNext = peek(1) ;
+
       if ((c >= '0' && c <= '9')
             || (c == '.' && cNext >= '0' && cNext <= '9'))
       {
-         RToken numberToken = matchNumber() ;
-         if (numberToken.getLength() > 0)
-            return numberToken ;
-         
-         assert false : "matchNumber() returned a zero-length token" ;
+         return matchNumber() ;
       }
-      
+
       if (StringUtil.isLetter(c) || c == '.')
       {
          // From Section 10.3.2, identifiers must not start with
@@ -98,36 +123,31 @@ public class RTokenizer
          return matchIdentifier() ;
       }
 
-      RToken oper = matchOperator() ;
-      if (oper != null)
-         return oper ;
-      
+      if (matchOperator())
+         return true ;
+
       // Error!!
       return consumeToken(RToken.ERROR, 1) ;
    }
-   
-   private RToken matchWhitespace()
+
+   private boolean matchWhitespace()
    {
-      String whitespace = peek("[\\s\\u00A0]+") ;
-      assert whitespace != null ;
-      return consumeToken(RToken.WHITESPACE, whitespace.length()) ;
+      int end = pos_ ;
+      while (end < data_.length() && isWhitespace(data_.charAt(end)))
+         end++ ;
+      return consumeToken(RToken.WHITESPACE, end - pos_) ;
    }
-   
-   private RToken matchStringLiteral()
+
+   private boolean matchStringLiteral()
    {
-      int start = pos_ ;
       char quot = eat() ;
-      
+
       assert quot == '"' || quot == '\'' ;
-      
+
       boolean wellFormed = false ;
-      
+
       while (!eol())
       {
-         eatUntil("[\\\\\'\"]", true) ;
-         if (eol())
-            break ;
-         
          char c = eat() ;
          if (c == quot)
          {
@@ -141,71 +161,92 @@ public class RTokenizer
                eat() ;
             // Actually the escape expression can be longer than
             // just the backslash plus one character--but we don't
-            // need to distinguish escape expressions from other 
+            // need to distinguish escape expressions from other
             // literal text other than for the purposes of breaking
             // out of the string
          }
       }
-      
-      return new RStringToken(RToken.STRING, 
-                        data_.substring(start, pos_), 
-                        start, 
-                        pos_-start, wellFormed) ;
+
+      tokenType_ = RToken.STRING ;
+      wellFormed_ = wellFormed ;
+      return true ;
    }
-   
-   private RToken matchNumber()
+
+   private boolean matchNumber()
    {
-      String num = peek("0x[0-9a-fA-F]*L?") ;
-      if (num == null)
-         num = peek("[0-9]*(\\.[0-9]*)?([eE][+-]?[0-9]*)?[Li]?") ;
+      int end = pos_ ;
+
+      if (peek() == '0' && peek(1) == 'x')
+      {
+         // 0x[0-9a-fA-F]*L?
+         end += 2 ;
+         while (end < data_.length() && isHexDigit(data_.charAt(end)))
+            end++ ;
+         if (charAt(end) == 'L')
+            end++ ;
+      }
+      else
+      {
+         // [0-9]*(\.[0-9]*)?([eE][+-]?[0-9]*)?[Li]?
+         end = skipDigits(end) ;
+         if (charAt(end) == '.')
+            end = skipDigits(end + 1) ;
+         if (charAt(end) == 'e' || charAt(end) == 'E')
+         {
+            end++ ;
+            if (charAt(end) == '+' || charAt(end) == '-')
+               end++ ;
+            end = skipDigits(end) ;
+         }
+         if (charAt(end) == 'L' || charAt(end) == 'i')
+            end++ ;
+      }
 
       // We should only be in this method if 0-9 was matched, so this should
       // be a safe assumption
-      assert num != null ;
+      assert end > pos_ ;
 
-      return consumeToken(RToken.NUMBER, num.length()) ;
+      return consumeToken(RToken.NUMBER, end - pos_) ;
    }
-   
-   private RToken matchIdentifier()
+
+   private boolean matchIdentifier()
    {
-      int start = pos_ ;
-      eat() ;
-      String rest = peek("[\\w.]*") ;
-      pos_ += (rest != null ? rest : "").length() ;
-      return new RToken(RToken.ID, 
-                        data_.substring(start, pos_), 
-                        start, 
-                        pos_ - start) ;
+      int end = pos_ + 1 ;
+      while (end < data_.length() && isIdentifierChar(data_.charAt(end)))
+         end++ ;
+      return consumeToken(RToken.ID, end - pos_) ;
    }
 
-   private RToken matchQuotedIdentifier()
+   private boolean matchQuotedIdentifier()
    {
-      String iden = peek("`[^`]*`") ;
-      if (iden == null)
+      int end = data_.indexOf('`', pos_ + 1) ;
+      if (end == -1)
          return consumeToken(RToken.ERROR, 1);
       else
-         return consumeToken(RToken.ID, iden.length());
+         return consumeToken(RToken.ID, end + 1 - pos_);
    }
 
-   private RToken matchComment()
+   private boolean matchComment()
    {
-      String comment = peek("#.*?$");
-      return consumeToken(RToken.COMMENT, comment.length());
+      int end = pos_ + 1 ;
+      while (end < data_.length() && !isLineTerminator(data_.charAt(end)))
+         end++ ;
+      return consumeToken(RToken.COMMENT, end - pos_);
    }
-   
-   private RToken matchUserOperator()
+
+   private boolean matchUserOperator()
    {
-      String oper = peek("%[^%]*%") ;
-      if (oper == null)
+      int end = data_.indexOf('%', pos_ + 1) ;
+      if (end == -1)
          return consumeToken(RToken.ERROR, 1) ;
       else
-         return consumeToken(RToken.UOPER, oper.length()) ;
+         return consumeToken(RToken.UOPER, end + 1 - pos_) ;
    }
-   
-   private RToken matchOperator()
+
+   private boolean matchOperator()
    {
-      char cNext = peek(1, false) ;
-      
+      char cNext = peek(1) ;
+
       switch (peek())
       {
       case '+': case '*': case '/':
@@ -226,81 +267,99 @@ public class RTokenizer
       case '!': // also !=
          return consumeToken(RToken.OPER, cNext == '=' ? 2 : 1) ;
       default:
-         return null ;
+         return false ;
       }
    }
 
+   private int skipDigits(int pos)
+   {
+      while (pos < data_.length() && isDigit(data_.charAt(pos)))
+         pos++ ;
+      return pos ;
+   }
+
+   private static boolean isDigit(char c)
+   {
+      return c >= '0' && c <= '9' ;
+   }
+
+   private static boolean isHexDigit(char c)
+   {
+      return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') ;
+   }
+
+   // [\w.]
+   private static boolean isIdentifierChar(char c)
+   {
+      return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') ||
+             isDigit(c) || c == '_' || c == '.' ;
+   }
+
+   // the characters matched by \s in JavaScript regular expressions
+   private static boolean isWhitespace(char c)
+   {
+      switch (c)
+      {
+      case ' ': case '\t': case '\n': case '\u000B': case '\f': case '\r':
+      case '\u00A0': case '\u1680': case '\u2028': case '\u2029':
+      case '\u202F': case '\u205F': case '\u3000': case '\uFEFF':
+         return true ;
+      default:
+         return c >= '\u2000' && c <= '\u200A' ;
+      }
+   }
+
+   private static boolean isLineTerminator(char c)
+   {
+      return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' ;
+   }
+
    private boolean eol()
    {
       return pos_ >= data_.length() ;
    }
-   
+
    private char peek()
    {
-      return peek(0, true) ;
+      return data_.charAt(pos_) ;
    }
-   
-   private char peek(int lookahead, boolean throwOnEOL)
+
+   private char peek(int lookahead)
    {
-      if (!throwOnEOL && (pos_ + lookahead) >= data_.length())
+      return charAt(pos_ + lookahead) ;
+   }
+
+   private char charAt(int pos)
+   {
+      if (pos >= data_.length())
          return 0 ;
-      return data_.charAt(pos_ + lookahead) ;
+      return data_.charAt(pos) ;
    }
-   
+
    private char eat()
    {
       char result = data_.charAt(pos_) ;
       pos_++ ; // don't inline--we want the previous line to throw if EOL
       return result ;
    }
-   
-   private String peek(String regex)
-   {
-      Match match = Pattern.create(regex).match(data_, pos_) ;
-      if (match == null)
-         return null ;
-      int idx = match.getIndex() ;
-      if (idx != pos_)
-         return null ;
-      
-      return match.getValue() ;
-   }
-   
-   private String eatUntil(String regex, boolean eatAllOnFailure)
-   {
-      int start = pos_ ;
-      Match match = Pattern.create(regex).match(data_, pos_) ;
-      if (match == null)
-      {
-         if (eatAllOnFailure)
-         {
-            pos_ = data_.length() ;
-            return data_.substring(start) ;
-         }
-         else
-         {
-            return null ;
-         }
-      }
-      else
-      {
-         pos_ = match.getIndex() ;
-         return data_.substring(start, pos_) ;
-      }
-   }
-   
-   private RToken consumeToken(int tokenType, int length)
+
+   private boolean consumeToken(int tokenType, int length)
    {
       if (length == 0)
          throw new IllegalArgumentException("Can't create zero-length token") ;
       if (pos_ + length > data_.length())
          throw new IllegalArgumentException("Premature EOF") ;
-      
-      int start = pos_ ;
+
+      tokenType_ = tokenType ;
       pos_ += length ;
-      return new RToken(tokenType, data_.substring(start, pos_), start, length) ;
+      return true ;
    }
-   
+
    private final String data_ ;
    private int pos_ ;
+
+   // the most recently scanned token
+   private int tokenType_ ;
+   private int tokenStart_ ;
+   private boolean wellFormed_ ;
 }
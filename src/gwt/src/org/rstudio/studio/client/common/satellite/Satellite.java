@@ -16,6 +16,7 @@ package org.rstudio.studio.client.common.satellite;
 
 import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.core.client.dom.WindowEx;
+import org.rstudio.core.client.js.JsUtil;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.application.Desktop;
 import org.rstudio.studio.client.application.events.EventBus;
@@ -29,6 +30,7 @@ import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.event.dom.client.FocusEvent;
 import com.google.gwt.event.dom.client.FocusHandler;
 import com.google.gwt.event.logical.shared.CloseEvent;
@@ -62,9 +64,19 @@ public class Satellite implements HasCloseHandlers<Satellite>
    
    public void initialize(String name, 
                           CommandWithArg<JavaScriptObject> onReactivated)
+   {
+      initialize(name, null, onReactivated);
+   }
+   
+   // eventTypes lists the client event types the satellite consumes, so the
+   // main window can avoid forwarding the rest; null subscribes to all events
+   public void initialize(String name,
+                          String[] eventTypes,
+                          CommandWithArg<JavaScriptObject> onReactivated)
    {
       onReactivated_ = onReactivated;
-      initializeNative(name);
+      initializeNative(name, 
+            eventTypes == null ? null : JsUtil.toJsArrayString(eventTypes));
       
       // load MathJax
       MathJaxLoader.ensureMathJaxLoaded();
@@ -123,7 +135,8 @@ public class Satellite implements HasCloseHandlers<Satellite>
 
    // satellite windows should call this during startup to setup a 
    // communication channel with the main window
-   private native void initializeNative(String name) /*-{
+   private native void initializeNative(String name,
+                                        JsArrayString eventTypes) /*-{
       
       // global flag used to conditionalize behavior
       $wnd.isRStudioSatellite = true;
@@ -193,7 +206,7 @@ public class Satellite implements HasCloseHandlers<Satellite>
             true);
       
       // register (this will call the setSessionInfo back)
-      $wnd.opener.registerAsRStudioSatellite(name, $wnd);
+      $wnd.opener.registerAsRStudioSatellite(name, $wnd, eventTypes);
    }-*/;
    
    
@@ -117,11 +117,24 @@ public class SatelliteApplication
       return false;
    }
    
+   /**
+    * Have subclasses override and return the types of client events (see
+    * ClientEvent) the satellite handles, so that the main window only
+    * forwards those. Events handled by every window (e.g. pref changes and
+    * quit) are always forwarded.
+    * @return The event types, or null to receive all events
+    */
+   protected String[] getClientEventTypes()
+   {
+      return null;
+   }
+   
    public void go(RootLayoutPanel rootPanel, 
                   final Command dismissLoadingProgress)
    {
       // indicate that we are a satellite window
       satellite_.initialize(name_,
+                            getClientEventTypes(),
                             new CommandWithArg<JavaScriptObject> () {
                                @Override
                                public void execute(JavaScriptObject params)
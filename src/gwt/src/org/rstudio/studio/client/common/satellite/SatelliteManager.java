@@ -15,7 +15,9 @@
 package org.rstudio.studio.client.common.satellite;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map.Entry;
 
 import com.google.inject.Provider;
@@ -29,6 +31,7 @@ import org.rstudio.core.client.command.AppCommand;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.dom.WindowEx;
 import org.rstudio.core.client.js.JsObject;
+import org.rstudio.core.client.js.JsUtil;
 import org.rstudio.core.client.layout.ScreenUtils;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.application.ApplicationUncaughtExceptionHandler;
@@ -40,12 +43,14 @@ import org.rstudio.studio.client.common.satellite.events.AllSatellitesClosingEve
 import org.rstudio.studio.client.common.satellite.events.SatelliteClosedEvent;
 import org.rstudio.studio.client.common.satellite.events.WindowClosedEvent;
 import org.rstudio.studio.client.common.satellite.events.WindowOpenedEvent;
+import org.rstudio.studio.client.server.remote.ClientEvent;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
 import org.rstudio.studio.client.workbench.views.source.SourceWindowManager;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.event.logical.shared.CloseEvent;
 import com.google.gwt.event.logical.shared.CloseHandler;
@@ -56,6 +61,24 @@ import com.google.inject.Singleton;
 @Singleton
 public class SatelliteManager implements CloseHandler<Window>
 {
+   // per-satellite counters of the client events held back as unsubscribed,
+   // or dropped from a full pending buffer
+   static class SatelliteEventStats
+   {
+      int getFiltered()
+      {
+         return filtered_;
+      }
+      
+      int getDropped()
+      {
+         return dropped_;
+      }
+      
+      private int filtered_ = 0;
+      private int dropped_ = 0;
+   }
+   
    @Inject
    public SatelliteManager(
          Session session,
@@ -184,11 +207,7 @@ public class SatelliteManager implements CloseHandler<Window>
       
       // Start buffering events sent to this satellite. That way, we won't miss
       // anything while the satellite is being loaded/reactivated
-      if (!pendingEventsBySatelliteName_.containsKey(name))
-      {
-         pendingEventsBySatelliteName_.put(name,
-                                           new ArrayList<JavaScriptObject>());
-      }
+      bufferEvents(name);
 
       // record satellite params for subsequent setting (this value is read
       // by the satellite within the call to registerAsSatellite)
@@ -343,9 +362,11 @@ public class SatelliteManager implements CloseHandler<Window>
       }   
    }
    
-   // dispatch an event to all satellites
+   // dispatch an event to the satellites subscribed to its type
    public void dispatchClientEvent(JavaScriptObject clientEvent)
    {
+      String type = clientEvent.<ClientEvent>cast().getType();
+      
       // list of windows to remove (because they were closed)
       ArrayList<ActiveSatellite> removeWindows = null;
         
@@ -370,20 +391,39 @@ public class SatelliteManager implements CloseHandler<Window>
                   removeWindows = new ArrayList<ActiveSatellite>();
                removeWindows.add(satellite);
             }
-            else
+            else if (isSubscribed(satellite.getName(), type))
             {
                callDispatchEvent(satelliteWnd, clientEvent);
             }
+            else
+            {
+               getStats(satellite.getName()).filtered_++;
+            }
          }
          catch(Throwable e)
          {
          }
       }
 
+      // buffer the event for loading satellites which want it; the buffer
+      // is capped so that a satellite which never finishes loading can't 
+      // hold on to an unbounded amount of output
       for (Entry<String, ArrayList<JavaScriptObject>> entry :
                                        pendingEventsBySatelliteName_.entrySet())
       {
-         entry.getValue().add(clientEvent);
+         if (!isSubscribed(entry.getKey(), type))
+         {
+            getStats(entry.getKey()).filtered_++;
+            continue;
+         }
+         
+         ArrayList<JavaScriptObject> pending = entry.getValue();
+         if (pending.size() >= MAX_PENDING_EVENTS)
+         {
+            pending.remove(0);
+            getStats(entry.getKey()).dropped_++;
+         }
+         pending.add(clientEvent);
       }
       
       // remove windows if necessary
@@ -443,9 +483,15 @@ public class SatelliteManager implements CloseHandler<Window>
       satellite.notifyPendingClosure();
    }-*/;
 
-   // called by satellites to connect themselves with the main window
-   private void registerAsSatellite(final String name, JavaScriptObject wnd)
+   // called by satellites to connect themselves with the main window; 
+   // eventTypes lists the client event types the satellite consumes, or is
+   // null if it wants every event
+   private void registerAsSatellite(final String name,
+                                    JavaScriptObject wnd,
+                                    JsArrayString eventTypes)
    {
+      setSubscription(name, eventTypes);
+      
       // get the satellite and add it to our list. in some cases (such as
       // the Ctrl+R reload of an existing satellite window) we actually
       // already have a reference to this satellite in our list so in that
@@ -517,6 +563,15 @@ public class SatelliteManager implements CloseHandler<Window>
          {
             for (JavaScriptObject evt : events)
             {
+               // the satellite may have registered a subscription since
+               // the event was buffered
+               String type = evt.<ClientEvent>cast().getType();
+               if (!isSubscribed(name, type))
+               {
+                  getStats(name).filtered_++;
+                  continue;
+               }
+               
                try
                {
                   callDispatchEvent(satellite.getWindow(), evt);
@@ -530,6 +585,56 @@ public class SatelliteManager implements CloseHandler<Window>
       }
    }
    
+   // records the client event types a satellite consumes (null for all);
+   // the subscription is kept after the window closes so that events
+   // buffered while it reopens are filtered too
+   void setSubscription(String name, JsArrayString eventTypes)
+   {
+      if (eventTypes == null)
+         eventTypesBySatelliteName_.remove(name);
+      else
+         eventTypesBySatelliteName_.put(name, 
+               new HashSet<String>(JsUtil.toList(eventTypes)));
+   }
+   
+   boolean isSubscribed(String name, String type)
+   {
+      HashSet<String> types = eventTypesBySatelliteName_.get(name);
+      return types == null ||
+             types.contains(type) ||
+             COMMON_EVENT_TYPES.contains(type);
+   }
+   
+   void bufferEvents(String name)
+   {
+      if (!pendingEventsBySatelliteName_.containsKey(name))
+      {
+         pendingEventsBySatelliteName_.put(name,
+                                           new ArrayList<JavaScriptObject>());
+      }
+   }
+   
+   ArrayList<JavaScriptObject> getPendingEvents(String name)
+   {
+      return pendingEventsBySatelliteName_.get(name);
+   }
+   
+   SatelliteEventStats getEventStats(String name)
+   {
+      return eventStatsBySatelliteName_.get(name);
+   }
+   
+   private SatelliteEventStats getStats(String name)
+   {
+      SatelliteEventStats stats = eventStatsBySatelliteName_.get(name);
+      if (stats == null)
+      {
+         stats = new SatelliteEventStats();
+         eventStatsBySatelliteName_.put(name, stats);
+      }
+      return stats;
+   }
+   
    // export the global function required for satellites to register
    private native void exportSatelliteRegistrationCallback() /*-{
       var manager = this;     
@@ -537,8 +642,8 @@ public class SatelliteManager implements CloseHandler<Window>
       $wnd.$RStudio = {};
       
       $wnd.registerAsRStudioSatellite = $entry(
-         function(name, satelliteWnd) {
-            manager.@org.rstudio.studio.client.common.satellite.SatelliteManager::registerAsSatellite(Ljava/lang/String;Lcom/google/gwt/core/client/JavaScriptObject;)(name, satelliteWnd);
+         function(name, satelliteWnd, eventTypes) {
+            manager.@org.rstudio.studio.client.common.satellite.SatelliteManager::registerAsSatellite(Ljava/lang/String;Lcom/google/gwt/core/client/JavaScriptObject;Lcom/google/gwt/core/client/JsArrayString;)(name, satelliteWnd, eventTypes || null);
          }
       );
       $wnd.flushPendingEvents = $entry(
@@ -667,6 +772,29 @@ public class SatelliteManager implements CloseHandler<Window>
 
    private final HashMap<String, ArrayList<JavaScriptObject>>
          pendingEventsBySatelliteName_ = new HashMap<String, ArrayList<JavaScriptObject>>();
+   
+   private final HashMap<String, HashSet<String>> eventTypesBySatelliteName_ =
+                                new HashMap<String, HashSet<String>>();
+   
+   private final HashMap<String, SatelliteEventStats> eventStatsBySatelliteName_ =
+                                new HashMap<String, SatelliteEventStats>();
+   
+   static final int MAX_PENDING_EVENTS = 1000;
+   
+   // events which every satellite handles regardless of its subscription,
+   // as they are consumed by the infrastructure common to all windows
+   private static final HashSet<String> COMMON_EVENT_TYPES = 
+         new HashSet<String>(Arrays.asList(
+               ClientEvent.UiPrefsChanged,
+               ClientEvent.Quit,
+               ClientEvent.Suicide,
+               ClientEvent.SuspendAndRestart,
+               ClientEvent.ReloadWithLastChanceSave,
+               ClientEvent.SessionSerialization,
+               ClientEvent.DeferredInitCompleted,
+               ClientEvent.AddinRegistryUpdated,
+               ClientEvent.ComputeThemeColors,
+               ClientEvent.ExecuteAppCommand));
 
    private class ActiveSatellite
    {
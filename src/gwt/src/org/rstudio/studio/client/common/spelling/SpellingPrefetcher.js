@@ -37,20 +37,38 @@ var SpellingPrefetcher;
 "           function(){"+
                this.typoJsCode +
 "              var typo = new Typo();"+
+"              var CHECK_BATCH_SIZE = 200;"+
 ""+
 "              onmessage = function(event) {"+
 "                 if (event.target.origin !== '" + window.origin + "') return;"+
-"                 var inTypo = event.data;"+
+"                 var message = event.data;"+
 "                 "+
-"                 ['rules', 'dictionaryTable', 'compoundRules', 'compoundRuleCodes', 'replacementTable',"+
-"                  'flags', 'memoized', 'loaded'].forEach(function(e) { typo[e] = inTypo[e] });"+
-""+
-"                 var s = {};"+
-"                 inTypo.inputwords.forEach(function(word) {"+
-"                    typo.suggest(word);"+
-"                    s[word] = typo.memoized[word];"+
-"                 });"+
-"                 this.postMessage(s);"+
+"                 if (message.type === 'load') {"+
+"                    ['rules', 'dictionaryTable', 'compoundRules', 'compoundRuleCodes', 'replacementTable',"+
+"                     'flags', 'memoized', 'loaded'].forEach(function(e) { typo[e] = message.typo[e] });"+
+"                 }"+
+"                 else if (message.type === 'suggest') {"+
+"                    var s = {};"+
+"                    message.words.forEach(function(word) {"+
+"                       typo.suggest(word);"+
+"                       s[word] = typo.memoized[word];"+
+"                    });"+
+"                    this.postMessage({type: 'suggest', suggestions: s});"+
+"                 }"+
+"                 else if (message.type === 'check') {"+
+"                    var words = message.words;"+
+"                    for (var i = 0; i < words.length; i += CHECK_BATCH_SIZE) {"+
+"                       var batch = words.slice(i, i + CHECK_BATCH_SIZE);"+
+"                       var incorrect = batch.filter(function(word) { return !typo.check(word); });"+
+"                       this.postMessage({"+
+"                          type: 'check',"+
+"                          id: message.id,"+
+"                          words: batch,"+
+"                          incorrect: incorrect,"+
+"                          done: i + CHECK_BATCH_SIZE >= words.length"+
+"                       });"+
+"                    }"+
+"                 }"+
 "              }"+
 "           }",
             ')()'], {type: 'application/javascript'}));
@@ -59,40 +77,84 @@ var SpellingPrefetcher;
         /*
          * End Worker Definition
         */
+
+        this.typo = null;
+        this.lastCheckId = 0;
+        this.checkCallbacks = {};
+
+        // Worker output consumer
+        var self = this;
+        this.w.onmessage = function (event) {
+            var message = event.data;
+            if (!message)
+                return;
+
+            if (message.type === 'suggest' && !!self.typo) {
+                var suggestions = message.suggestions;
+                for (var s in suggestions) {
+                    if (suggestions.hasOwnProperty(s) && typeof suggestions[s] !== 'function') {
+                        self.typo.memoized[s] = suggestions[s];
+                    }
+                }
+            }
+            else if (message.type === 'check') {
+                var callback = self.checkCallbacks[message.id];
+                if (message.done)
+                    delete self.checkCallbacks[message.id];
+                if (!!callback)
+                    callback(message.words, message.incorrect, message.done);
+            }
+        };
     };
 
     SpellingPrefetcher.prototype = {
+        // The dictionary is large, so it is only copied to the worker when
+        // it changes rather than with every request
+        ensureLoaded : function (typojs) {
+            if (this.typo === typojs)
+                return;
+
+            var typo = {};
+            ['rules', 'dictionaryTable', 'compoundRules', 'compoundRuleCodes', 'replacementTable',
+             'flags', 'memoized', 'loaded'].forEach(function(e) { typo[e] = typojs[e] });
+            this.w.postMessage({type: 'load', typo: typo});
+            this.typo = typojs;
+        },
+
         prefetch : function (words, typojs) {
             if (!this.w || !words || !typojs)
                 return;
 
-            // Worker output consumer, bound to local typojs parameter
-            this.w.onmessage = function (event) {
-                if (!!event.data) {
-                    var suggestions = event.data;
-
-                    for (var s in suggestions) {
-                        if (suggestions.hasOwnProperty(s) && typeof suggestions[s] !== 'function') {
-                            typojs.memoized[s] = suggestions[s];
-                        }
-                    }
-                }
-            };
+            this.ensureLoaded(typojs);
 
             // Only run worker on words we know we don't have memoized
             // Possibly premature optimization but it can catch some cases
             // where we're calling on only already fetched data
-            typojs.inputwords = [];
+            var inputWords = [];
             words = words.split(',');
             words.forEach(function(w) {
                if (!typojs.memoized.hasOwnProperty(w)) {
-                   typojs.inputwords.push(w);
+                   inputWords.push(w);
                }
             });
 
             // Run Worker
-            if (typojs.inputwords.length > 0)
-                this.w.postMessage(typojs);
+            if (inputWords.length > 0)
+                this.w.postMessage({type: 'suggest', words: inputWords});
+        },
+
+        // Checks the given words in the worker, calling back with each batch
+        // of results as it arrives. Returns false if the worker isn't available.
+        check : function (words, typojs, callback) {
+            if (!this.w || !typojs)
+                return false;
+
+            this.ensureLoaded(typojs);
+
+            var id = ++this.lastCheckId;
+            this.checkCallbacks[id] = callback;
+            this.w.postMessage({type: 'check', id: id, words: words});
+            return true;
         }
     }
 })();
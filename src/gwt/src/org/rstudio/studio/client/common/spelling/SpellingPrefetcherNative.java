@@ -15,6 +15,9 @@
 
 package org.rstudio.studio.client.common.spelling;
 
+import com.google.gwt.core.client.JsArrayString;
+
+import jsinterop.annotations.JsFunction;
 import jsinterop.annotations.JsPackage;
 import jsinterop.annotations.JsType;
 
@@ -23,6 +26,17 @@ public class SpellingPrefetcherNative
 {
    SpellingPrefetcherNative(String typoJsCode) {}
 
+   @JsFunction
+   public interface CheckCallback
+   {
+      void onChecked(JsArrayString words, JsArrayString incorrect, boolean done);
+   }
+
    public native void prefetch(String words, Object typoNative);
+
+   // returns false if web workers are unavailable
+   public native boolean check(JsArrayString words,
+                               Object typoNative,
+                               CheckCallback callback);
 }
 
@@ -15,6 +15,7 @@
 package org.rstudio.studio.client.common.spelling;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.http.client.Request;
@@ -37,6 +38,7 @@ import org.rstudio.studio.client.workbench.events.ListChangedEvent;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 
@@ -112,40 +114,84 @@ public class TypoSpellChecker
    // word is deemed correct by the dictionary
    public boolean checkSpelling(String word)
    {
-      return allIgnoredWords_.contains(word) || typoNative_.check(word);
+      return allIgnoredWords_.contains(word) || checkDictionary(word);
    }
 
+   // Check the spelling of a batch of words. Words the dictionary hasn't
+   // already ruled on are checked in the spelling worker when it's available
+   // (so the callback may be invoked asynchronously), otherwise inline.
    public void checkSpelling(List<String> words, final ServerRequestCallback<SpellCheckerResult> callback)
    {
-      // allocate results
-      final SpellCheckerResult spellCheckerResult = new SpellCheckerResult();
+      // collect words without a cached verdict
+      final JsArrayString unknown = JsArrayString.createArray().cast();
+      HashSet<String> seen = new HashSet<>();
+      for (String word : words)
+      {
+         if (!isWordIgnored(word) && !verdicts_.containsKey(word) && seen.add(word))
+            unknown.push(word);
+      }
 
-      // if not checking any words, return
-      if (words.isEmpty())
+      if (unknown.length() == 0 || spellingPrefetcherNative_ == null || typoNative_ == null)
       {
-         callback.onResponseReceived(spellCheckerResult);
+         callback.onResponseReceived(collectResults(words));
          return;
       }
 
+      final int generation = verdictsGeneration_;
+      final List<String> allWords = new ArrayList<>(words);
+      boolean checking = spellingPrefetcherNative_.check(unknown, typoNative_,
+         (JsArrayString checked, JsArrayString incorrect, boolean done) ->
+         {
+            // discard verdicts from a dictionary that's since been replaced
+            if (generation == verdictsGeneration_)
+            {
+               HashSet<String> misspelled = new HashSet<>();
+               for (int i = 0; i < incorrect.length(); i++)
+                  misspelled.add(incorrect.get(i));
+               for (int i = 0; i < checked.length(); i++)
+                  cacheVerdict(checked.get(i), !misspelled.contains(checked.get(i)));
+            }
+
+            if (done)
+               callback.onResponseReceived(collectResults(allWords));
+         });
+
+      if (!checking)
+         callback.onResponseReceived(collectResults(words));
+   }
+
+   private SpellCheckerResult collectResults(List<String> words)
+   {
+      SpellCheckerResult spellCheckerResult = new SpellCheckerResult();
       for (String word : words)
       {
-         if (isWordIgnored(word))
-         {
+         if (isWordIgnored(word) || checkDictionary(word))
             spellCheckerResult.getCorrect().add(word);
-         }
          else
-         {
-            if (typoNative_.check(word))
-            {
-               spellCheckerResult.getCorrect().add(word);
-            }
-            else
-            {
-               spellCheckerResult.getIncorrect().add(word);
-            }
-         }
+            spellCheckerResult.getIncorrect().add(word);
+      }
+      return spellCheckerResult;
+   }
+
+   // Dictionary verdicts are cached across documents; words ignored by the
+   // user are resolved before the cache is consulted, so adding to the
+   // ignore list or user dictionary never invalidates it
+   private boolean checkDictionary(String word)
+   {
+      Boolean verdict = verdicts_.get(word);
+      if (verdict == null)
+      {
+         verdict = typoNative_.check(word);
+         cacheVerdict(word, verdict);
       }
-      callback.onResponseReceived(spellCheckerResult);
+      return verdict;
+   }
+
+   private static void cacheVerdict(String word, boolean correct)
+   {
+      if (verdicts_.size() >= MAX_CACHED_VERDICTS)
+         verdicts_.clear();
+      verdicts_.put(word, correct);
    }
 
    public void addToUserDictionary(final String word)
@@ -237,6 +283,8 @@ public class TypoSpellChecker
                      public void onResponseReceived(Request dicReq, Response dicResp) {
                         ExternalJavaScriptLoader.Callback loadTypoCallback = () -> {
                            typoNative_ = new TypoNative(dictLanguage, affResp.getText(), dicResp.getText(), null);
+                           verdicts_.clear();
+                           verdictsGeneration_++;
                            loadedDict_ = dictLanguage;
                            typoLoaded_ = true;
                         };
@@ -287,6 +335,11 @@ public class TypoSpellChecker
    private static boolean typoLoaded_ = false;
    private static TypoNative typoNative_;
 
+   // dictionary verdicts for words checked so far, shared by all documents
+   private static final HashMap<String, Boolean> verdicts_ = new HashMap<>();
+   private static int verdictsGeneration_ = 0;
+   private static final int MAX_CACHED_VERDICTS = 100000;
+
    private WorkbenchList userDictionary_;
    private ArrayList<String> userDictionaryWords_;
    private ArrayList<String> contextDictionary_;
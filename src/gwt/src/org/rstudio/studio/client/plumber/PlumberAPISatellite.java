@@ -18,6 +18,7 @@ import org.rstudio.studio.client.application.ApplicationUncaughtExceptionHandler
 import org.rstudio.studio.client.common.satellite.Satellite;
 import org.rstudio.studio.client.common.satellite.SatelliteApplication;
 import org.rstudio.studio.client.plumber.ui.PlumberAPIView;
+import org.rstudio.studio.client.server.remote.ClientEvent;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.views.source.editors.text.themes.AceThemes;
 
@@ -39,4 +40,12 @@ public class PlumberAPISatellite extends SatelliteApplication
    {
       super(NAME, view, satellite, pAceThemes, exHandler, commands);
    }
+   
+   @Override
+   protected String[] getClientEventTypes()
+   {
+      return new String[] {
+         ClientEvent.PlumberViewer
+      };
+   }
 }
@@ -39,4 +39,11 @@ public class RmdOutputSatellite extends SatelliteApplication
    {
       super(NAME, view, satellite, pAceThemes, exHandler, commands);
    }
+   
+   @Override
+   protected String[] getClientEventTypes()
+   {
+      // the output window only handles the events every window does
+      return new String[] {};
+   }
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.events.ExecuteAppCommandEvent;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.files.filedialog.events.OpenFileDialogEvent;
@@ -196,9 +197,18 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEve
 import org.rstudio.studio.client.workbench.views.viewer.events.ViewerNavigateEvent;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ClientEventDispatcher 
 {
+   // a handler converts a client event from the server into the
+   // corresponding GWT event and dispatches it on the event bus
+   interface DispatchHandler
+   {
+      void dispatch(ClientEvent event, EventBus eventBus);
+   }
+   
    public ClientEventDispatcher(EventBus eventBus)
    {
       eventBus_ = eventBus;
@@ -212,6 +222,13 @@ public class ClientEventDispatcher
 
    public void enqueEvent(ClientEvent event)
    {
+      // console output tends to arrive as long runs of small events (e.g.
+      // when R prints in a tight loop); fold each one into the preceding
+      // pending event when possible so the console is written once per
+      // dispatch pass rather than once per event
+      if (coalesceConsoleText(event))
+         return;
+      
       pendingEvents_.add(event);
       if (pendingEvents_.size() == 1)
       {
@@ -233,801 +250,58 @@ public class ClientEventDispatcher
       }
    }
    
+   private boolean coalesceConsoleText(ClientEvent event)
+   {
+      String type = event.getType();
+      if (type != ClientEvent.ConsoleOutput && type != ClientEvent.ConsoleError)
+         return false;
+      
+      if (pendingEvents_.isEmpty())
+         return false;
+      
+      int lastIndex = pendingEvents_.size() - 1;
+      ClientEvent last = pendingEvents_.get(lastIndex);
+      if (last.getType() != type)
+         return false;
+      
+      ConsoleText lastText = last.getData();
+      ConsoleText text = event.getData();
+      if (!StringUtil.notNull(lastText.console).equals(
+            StringUtil.notNull(text.console)))
+         return false;
+      
+      // the original event objects may also have been handed to other
+      // windows, so build a new event rather than mutating the pending one
+      ConsoleText merged = new ConsoleText();
+      merged.console = text.console;
+      merged.text = lastText.text + text.text;
+      pendingEvents_.set(lastIndex, ClientEvent.create(event.getId(), type, merged));
+      return true;
+   }
+   
+   ArrayList<ClientEvent> getPendingEvents()
+   {
+      return pendingEvents_;
+   }
+   
+   static boolean hasHandler(String type)
+   {
+      return HANDLERS.containsKey(type);
+   }
+   
    private void dispatchEvent(ClientEvent event) 
    { 
       String type = event.getType();
+      DispatchHandler handler = HANDLERS.get(type);
+      if (handler == null)
+      {
+         GWT.log("WARNING: Server event not dispatched: " + type, null);
+         return;
+      }
+      
       try
       {
-         if (type == ClientEvent.Busy)
-         {
-            boolean busy = event.<Bool>getData().getValue();
-            eventBus_.dispatchEvent(new BusyEvent(busy));
-         }
-         else if (type == ClientEvent.ConsoleOutput)
-         {
-            ConsoleText output = event.getData();
-            eventBus_.dispatchEvent(new ConsoleWriteOutputEvent(output));
-         }
-         else if (type == ClientEvent.ConsoleError)
-         {
-            ConsoleText error = event.getData();
-            eventBus_.dispatchEvent(new ConsoleWriteErrorEvent(error));
-         }
-         else if (type == ClientEvent.ConsoleWritePrompt)
-         {
-            String prompt = event.getData();
-            eventBus_.dispatchEvent(new ConsoleWritePromptEvent(prompt));
-         }
-         else if (type == ClientEvent.ConsoleWriteInput)
-         {
-            ConsoleText input = event.getData();
-            eventBus_.dispatchEvent(new ConsoleWriteInputEvent(input));
-         }
-         else if (type == ClientEvent.ConsolePrompt)
-         {
-            ConsolePrompt prompt = event.getData();
-            eventBus_.dispatchEvent(new ConsolePromptEvent(prompt));
-         }
-         else if (type == ClientEvent.ShowEditor)
-         {
-            ShowEditorData data = event.getData();
-            eventBus_.dispatchEvent(new ShowEditorEvent(data));
-         }
-         else if (type == ClientEvent.FileChanged)
-         {
-            FileChange fileChange = event.getData();
-            eventBus_.dispatchEvent(new FileChangeEvent(fileChange));
-         }
-         else if (type == ClientEvent.WorkingDirChanged)
-         {
-            String path = event.getData();
-            eventBus_.dispatchEvent(new WorkingDirChangedEvent(path));
-         }
-         else if (type == ClientEvent.ShowHelp)
-         {
-            String helpUrl = event.getData();
-            eventBus_.dispatchEvent(new ShowHelpEvent(helpUrl));
-         }
-         else if (type == ClientEvent.ShowErrorMessage)
-         {
-            ErrorMessage errorMessage = event.getData();
-            eventBus_.dispatchEvent(new ShowErrorMessageEvent(errorMessage));
-         }
-         else if (type == ClientEvent.ChooseFile)
-         {
-            boolean newFile = event.<Bool>getData().getValue();
-            eventBus_.dispatchEvent(new ChooseFileEvent(newFile));
-         }
-         else if (type == ClientEvent.BrowseUrl)
-         {
-            BrowseUrlInfo urlInfo = event.getData();
-            eventBus_.dispatchEvent(new BrowseUrlEvent(urlInfo));
-         }
-         else if (type == ClientEvent.PlotsStateChanged)
-         {
-            PlotsState plotsState = event.getData();
-            eventBus_.dispatchEvent(new PlotsChangedEvent(plotsState));
-         }
-         else if (type == ClientEvent.PackageStateChanged)
-         {
-            PackageState newState = event.getData();
-            eventBus_.dispatchEvent(new PackageStateChangedEvent(newState));
-         }
-         else if (type == ClientEvent.PackageStatusChanged)
-         {
-            PackageStatus status = event.getData();
-            eventBus_.dispatchEvent(new PackageStatusChangedEvent(status));
-         }
-         else if (type == ClientEvent.Locator)
-         {
-            eventBus_.dispatchEvent(new LocatorEvent());
-         }
-         else if (type == ClientEvent.ConsoleResetHistory)
-         {
-            ConsoleResetHistory reset = event.getData();
-            eventBus_.dispatchEvent(new ConsoleResetHistoryEvent(reset));
-         }
-         else if (type == ClientEvent.SessionSerialization)
-         {
-            SessionSerializationAction action = event.getData();
-            eventBus_.dispatchEvent(new SessionSerializationEvent(action));
-         }
-         else if (type == ClientEvent.HistoryEntriesAdded)
-         {
-            RpcObjectList<HistoryEntry> entries = event.getData();
-            eventBus_.dispatchEvent(new HistoryEntriesAddedEvent(entries));
-         }
-         else if (type == ClientEvent.QuotaStatus)
-         {
-            QuotaStatus quotaStatus = event.getData();
-            eventBus_.dispatchEvent(new QuotaStatusEvent(quotaStatus));
-         }
-         else if (type == ClientEvent.FileEdit)
-         {
-            FileSystemItem file = event.getData();
-            eventBus_.dispatchEvent(new FileEditEvent(file));
-         }
-         else if (type == ClientEvent.ShowContent)
-         {
-            ContentItem content = event.getData();
-            eventBus_.dispatchEvent(new ShowContentEvent(content));
-         }
-         else if (type == ClientEvent.ShowData)
-         {
-            DataItem data = event.getData();
-            eventBus_.dispatchEvent(new ShowDataEvent(data));
-         }
-         else if (type == ClientEvent.AbendWarning)
-         {            
-            eventBus_.dispatchEvent(new SessionAbendWarningEvent());
-         }
-         else if (type == ClientEvent.ShowWarningBar)
-         {
-            WarningBarMessage message = event.getData();
-            eventBus_.dispatchEvent(new ShowWarningBarEvent(message));
-         }
-         else if (type == ClientEvent.OpenProjectError)
-         {
-            OpenProjectError error = event.getData();
-            eventBus_.dispatchEvent(new OpenProjectErrorEvent(error));
-         }
-         else if (type == ClientEvent.VcsRefresh)
-         {
-            JsObject data = event.getData();
-            eventBus_.dispatchEvent(new VcsRefreshEvent(Reason.NA,
-                                                    data.getInteger("delay")));
-         }
-         else if (type == ClientEvent.AskPass)
-         {
-            AskPassEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new AskPassEvent(data));
-         }
-         else if (type == ClientEvent.ConsoleProcessOutput)
-         {
-            ServerConsoleOutputEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ServerConsoleOutputEvent(data.getHandle(),
-                                                            data.getOutput()));
-         }
-         else if (type == ClientEvent.ConsoleProcessPrompt)
-         {
-            ServerConsolePromptEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ServerConsolePromptEvent(data.getHandle(),
-                                                             data.getPrompt()));
-         }
-         else if (type == ClientEvent.ConsoleProcessCreated)
-         {
-            ConsoleProcessCreatedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ConsoleProcessCreatedEvent(data));
-         }
-         else if (type == ClientEvent.ConsoleProcessExit)
-         {
-            ServerProcessExitEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ServerProcessExitEvent(data.getHandle(),
-                                                          data.getExitCode()));
-         }
-         else if (type == ClientEvent.HTMLPreviewStartedEvent)
-         {
-            HTMLPreviewStartedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new HTMLPreviewStartedEvent(data));
-         }
-         else if (type == ClientEvent.HTMLPreviewOutputEvent)
-         {
-            String output = event.getData();
-            eventBus_.dispatchEvent(new HTMLPreviewOutputEvent(output));
-         }
-         else if (type == ClientEvent.HTMLPreviewCompletedEvent)
-         {
-            HTMLPreviewResult result = event.getData();
-            eventBus_.dispatchEvent(new HTMLPreviewCompletedEvent(result));
-         }
-         else if (type == ClientEvent.CompilePdfStartedEvent)
-         {
-            CompilePdfStartedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new CompilePdfStartedEvent(data));
-         }
-         else if (type == ClientEvent.CompilePdfOutputEvent)
-         {
-            CompileOutput output = event.getData();
-            eventBus_.dispatchEvent(new CompilePdfOutputEvent(output));
-         }
-         else if (type == ClientEvent.CompilePdfErrorsEvent)
-         {
-            JsArray<SourceMarker> data = event.getData();
-            eventBus_.dispatchEvent(new CompilePdfErrorsEvent(data));
-         }
-         else if (type == ClientEvent.CompilePdfCompletedEvent)
-         {
-            CompilePdfResult result = event.getData();
-            eventBus_.dispatchEvent(new CompilePdfCompletedEvent(result));
-         }
-         else if (type == ClientEvent.SynctexEditFile)
-         {
-            SourceLocation sourceLocation = event.getData();
-            eventBus_.dispatchEvent(new SynctexEditFileEvent(sourceLocation));
-         }
-         else if (type == ClientEvent.FindResult)
-         {
-            FindResultEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new FindResultEvent(
-                  data.getHandle(), data.getResults().toArrayList()));
-         }
-         else if (type == ClientEvent.FindOperationEnded)
-         {
-            String data = event.getData();
-            eventBus_.dispatchEvent(new FindOperationEndedEvent(data));
-         }
-         else if (type == ClientEvent.RPubsUploadStatus)
-         {
-            RPubsUploadStatusEvent.Status status = event.getData();
-            eventBus_.dispatchEvent(new RPubsUploadStatusEvent(status));
-         }
-         else if (type == ClientEvent.BuildStarted)
-         {
-            BuildStartedEvent.Data buildStartedData = event.getData();
-            eventBus_.dispatchEvent(new BuildStartedEvent(buildStartedData));
-         }
-         else if (type == ClientEvent.BuildOutput)
-         {
-            CompileOutput data = event.getData();
-            eventBus_.dispatchEvent(new BuildOutputEvent(data));
-         }
-         else if (type == ClientEvent.BuildCompleted)
-         {
-            BuildCompletedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new BuildCompletedEvent(data));
-         }
-         else if (type == ClientEvent.BuildErrors)
-         {
-            BuildErrorsEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new BuildErrorsEvent(data));
-         }
-         else if (type == ClientEvent.DirectoryNavigate)
-         {
-            DirectoryNavigateEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new DirectoryNavigateEvent(data));
-         }
-         else if (type == ClientEvent.DeferredInitCompleted)
-         {
-            eventBus_.dispatchEvent(new DeferredInitCompletedEvent());
-         }
-         else if (type == ClientEvent.PlotsZoomSizeChanged)
-         {
-            PlotsZoomSizeChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new PlotsZoomSizeChangedEvent(data));
-         }
-         else if (type == ClientEvent.SourceCppStarted)
-         {
-            eventBus_.dispatchEvent(new SourceCppStartedEvent());
-         }
-         else if (type == ClientEvent.SourceCppCompleted)
-         {
-            SourceCppState state = event.getData();
-            eventBus_.dispatchEvent(new SourceCppCompletedEvent(state));
-         }
-         else if (type == ClientEvent.LoadedPackageUpdates)
-         {
-            String installCmd = event.getData();
-            eventBus_.dispatchEvent(new LoadedPackageUpdatesEvent(installCmd));
-         }
-         else if (type == ClientEvent.ActivatePane)
-         {
-            String pane = event.getData();
-            eventBus_.dispatchEvent(new ActivatePaneEvent(pane));
-         }
-         else if (type == ClientEvent.ShowPresentationPane)
-         {
-            PresentationState state = event.getData();
-            eventBus_.dispatchEvent(new ShowPresentationPaneEvent(state));
-         }
-         else if (type == ClientEvent.EnvironmentRefresh)
-         {
-            eventBus_.dispatchEvent(new EnvironmentRefreshEvent());
-         }
-         else if (type == ClientEvent.ListChanged)
-         {
-            eventBus_.dispatchEvent(new ListChangedEvent(event.<JsObject>getData()));
-         }
-         else if (type == ClientEvent.UiPrefsChanged)
-         {
-            UiPrefsChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new UiPrefsChangedEvent(data));
-         }
-         else if (type == ClientEvent.ContextDepthChanged) {
-            EnvironmentContextData data = event.getData();
-            eventBus_.dispatchEvent(new ContextDepthChangedEvent(data, true));
-         }
-         else if (type == ClientEvent.HandleUnsavedChanges)
-         {
-            eventBus_.dispatchEvent(new HandleUnsavedChangesEvent());
-         }
-         else if (type == ClientEvent.Quit)
-         {
-            QuitEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new QuitEvent(data));
-         }
-         else if (type == ClientEvent.Suicide)
-         {
-            // NOTE: we don't explicitly stop listening for events here
-            // for the reasons cited above in ClientEvent.Quit
-            
-            // fire event
-            String message = event.getData();
-            eventBus_.dispatchEvent(new SuicideEvent(message));
-         }
-         else if (type == ClientEvent.SaveActionChanged)
-         {
-            SaveAction action = event.getData();
-            eventBus_.dispatchEvent(new SaveActionChangedEvent(action));
-         }
-         else if (type == ClientEvent.EnvironmentAssigned)
-         {
-            RObject objectInfo = event.getData();
-            eventBus_.dispatchEvent(new EnvironmentObjectAssignedEvent(objectInfo));
-         }
-         else if (type == ClientEvent.EnvironmentRemoved)
-         {
-            String objectName = event.getData();
-            eventBus_.dispatchEvent(new EnvironmentObjectRemovedEvent(objectName));
-         }
-         else if (type == ClientEvent.BrowserLineChanged)
-         {
-            LineData lineData = event.getData();
-            eventBus_.dispatchEvent(new BrowserLineChangedEvent(lineData));
-         }
-         else if (type == ClientEvent.PackageLoaded)
-         {
-            eventBus_.dispatchEvent(new PackageLoadedEvent(
-                  (String)event.getData()));
-         }
-         else if (type == ClientEvent.PackageUnloaded)
-         {
-            eventBus_.dispatchEvent(new PackageUnloadedEvent(
-                  (String)event.getData()));
-         }
-         else if (type == ClientEvent.PresentationPaneRequestCompleted)
-         {
-            eventBus_.dispatchEvent(new PresentationPaneRequestCompletedEvent());
-         }
-         else if (type == ClientEvent.UnhandledError)
-         {
-            UnhandledError err = event.getData();
-            eventBus_.dispatchEvent(new UnhandledErrorEvent(err));
-         }
-         else if (type == ClientEvent.ErrorHandlerChanged)
-         {
-            ErrorHandlerType handlerType = event.getData();
-            eventBus_.dispatchEvent(new ErrorHandlerChangedEvent(handlerType));
-         }
-         else if (type == ClientEvent.ViewerNavigate)
-         {
-            ViewerNavigateEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ViewerNavigateEvent(data));
-         }
-         else if (type == ClientEvent.SourceExtendedTypeDetected)
-         {
-            SourceExtendedTypeDetectedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SourceExtendedTypeDetectedEvent(data));
-         }
-         else if (type == ClientEvent.ShinyViewer)
-         {
-            ShinyApplicationParams data = event.getData();
-            eventBus_.dispatchEvent(new ShinyApplicationStatusEvent(data, true));
-         }
-         else if (type == ClientEvent.DebugSourceCompleted)
-         {
-            DebugSourceResult result = (DebugSourceResult)event.getData();
-            eventBus_.dispatchEvent(new DebugSourceCompletedEvent(result));
-         }
-         else if (type == ClientEvent.RmdRenderStarted)
-         {
-            RmdRenderStartedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RmdRenderStartedEvent(data));
-         }
-         else if (type == ClientEvent.RmdRenderOutput)
-         {
-            CompileOutput data = event.getData();
-            eventBus_.dispatchEvent(new RmdRenderOutputEvent(data));
-         }
-         else if (type == ClientEvent.RmdRenderCompleted)
-         {
-            RmdRenderResult result = event.getData();
-            eventBus_.dispatchEvent(new RmdRenderCompletedEvent(result));
-         }
-         else if (type == ClientEvent.RmdShinyDocStarted)
-         {
-            RmdShinyDocInfo docInfo = event.getData();
-            eventBus_.dispatchEvent(new RmdShinyDocStartedEvent(docInfo));
-         }
-         else if (type == ClientEvent.RSConnectDeploymentOutput)
-         {
-            CompileOutput output = event.getData();
-            eventBus_.dispatchEvent(new RSConnectDeploymentOutputEvent(output));
-         }
-         else if (type == ClientEvent.RSConnectDeploymentCompleted)
-         {
-            String url = event.getData();
-            eventBus_.dispatchEvent(new RSConnectDeploymentCompletedEvent(url));
-         }
-         else if (type == ClientEvent.RSConnectDeploymentFailed)
-         {
-            RSConnectDeploymentFailedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RSConnectDeploymentFailedEvent(data));
-         }
-         else if (type == ClientEvent.UserPrompt)
-         {
-            UserPrompt prompt = event.getData();
-            eventBus_.dispatchEvent(new UserPromptEvent(prompt));
-         }
-         else if (type == ClientEvent.InstallRtools)
-         {
-            InstallRtoolsEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new InstallRtoolsEvent(data));
-         }
-         else if (type == ClientEvent.InstallShiny)
-         {
-            String userAction = event.getData();
-            eventBus_.dispatchEvent(new InstallShinyEvent(userAction));
-         }
-         else if (type == ClientEvent.SuspendAndRestart)
-         {
-            SuspendAndRestartEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SuspendAndRestartEvent(data));
-         }
-         else if (type == ClientEvent.DataViewChanged)
-         {
-            DataViewChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new DataViewChangedEvent(data));
-         }
-         else if (type == ClientEvent.ViewFunction)
-         {
-            SearchPathFunctionDefinition data = event.getData();
-            eventBus_.dispatchEvent(new CodeBrowserNavigationEvent(
-                  data, null, false, true));
-         }
-         else if (type == ClientEvent.MarkersChanged)
-         {
-            MarkersChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new MarkersChangedEvent(data));
-         }
-         else if (type == ClientEvent.EnableRStudioConnect)
-         {
-            EnableRStudioConnectUIEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new EnableRStudioConnectUIEvent(data));
-         }
-         else if (type == ClientEvent.UpdateGutterMarkers)
-         {
-            LintEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new LintEvent(data));
-         }
-         else if (type == ClientEvent.SnippetsChanged)
-         {
-            SnippetsChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SnippetsChangedEvent(data));
-         }
-         else if (type == ClientEvent.JumpToFunction)
-         {
-            JumpToFunctionEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new JumpToFunctionEvent(data));
-         }
-         else if (type == ClientEvent.CollabEditStarted)
-         {
-            CollabEditStartParams params = event.getData();
-            eventBus_.dispatchEvent(new CollabEditStartedEvent(params));
-         }
-         else if (type == ClientEvent.SessionCountChanged)
-         {
-            SessionCountChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SessionCountChangedEvent(data));
-         }
-         else if (type == ClientEvent.CollabEditEnded)
-         {
-            CollabEditEndedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new CollabEditEndedEvent(data));
-         }
-         else if (type == ClientEvent.ProjectUsersChanged)
-         {
-            ProjectUserChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ProjectUserChangedEvent(data));
-         }
-         else if (type == ClientEvent.RVersionsChanged)
-         {
-            RVersionsInfo versions = event.getData();
-            eventBus_.dispatchEvent(new RVersionsChangedEvent(versions));
-         }
-         else if (type == ClientEvent.ShinyGadgetDialog)
-         {
-            ShinyGadgetDialogEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ShinyGadgetDialogEvent(data));
-         }
-         else if (type == ClientEvent.RmdParamsReady)
-         {
-            String paramsFile = event.getData();
-            eventBus_.dispatchEvent(new RmdParamsReadyEvent(paramsFile));
-         }
-         else if (type == ClientEvent.RegisterUserCommand)
-         {
-            RegisterUserCommandEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RegisterUserCommandEvent(data));
-         }
-         else if (type == ClientEvent.SendToConsole)
-         {
-            SendToConsoleEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SendToConsoleEvent(data));
-         }
-         else if (type == ClientEvent.UserFollowStarted)
-         {
-            ProjectUser user = event.getData();
-            eventBus_.dispatchEvent(new FollowUserEvent(user, true));
-         }
-         else if (type == ClientEvent.UserFollowEnded)
-         {
-            ProjectUser user = event.getData();
-            eventBus_.dispatchEvent(new FollowUserEvent(user, false));
-         }
-         else if (type == ClientEvent.ProjectAccessRevoked)
-         {
-            eventBus_.dispatchEvent(new ProjectAccessRevokedEvent());
-         }
-         else if (type == ClientEvent.CollabEditSaved)
-         {
-            CollabEditSavedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new CollabEditSavedEvent(data));
-         }
-         else if (type == ClientEvent.AddinRegistryUpdated)
-         {
-            RAddins data = event.getData();
-            eventBus_.dispatchEvent(new AddinRegistryUpdatedEvent(data));
-         }
-         else if (type == ClientEvent.ChunkOutput)
-         {
-            RmdChunkOutput data = event.getData();
-            eventBus_.dispatchEvent(new RmdChunkOutputEvent(data));
-         }
-         else if (type == ClientEvent.ChunkOutputFinished)
-         {
-            RmdChunkOutputFinishedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RmdChunkOutputFinishedEvent(data));
-         }
-         else if (type == ClientEvent.RprofStarted)
-         {
-            eventBus_.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.START, null));
-         }
-         else if (type == ClientEvent.RprofStopped)
-         {
-            eventBus_.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.STOP, null));
-         }
-         else if (type == ClientEvent.RprofCreated)
-         {
-            RprofEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.CREATE, data));
-         }
-         else if (type == ClientEvent.EditorCommand)
-         {
-            EditorCommandEvent.Data data = event.getData();
-            EditorCommandEvent payload = new EditorCommandEvent(data);
-            eventBus_.dispatchEvent(new EditorCommandDispatchEvent(payload));
-         }
-         else if (type == ClientEvent.PreviewRmd)
-         {
-            PreviewRmdEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new PreviewRmdEvent(data));
-         }
-         else if (type == ClientEvent.WebsiteFileSaved)
-         {
-            FileSystemItem fsi = event.getData();
-            eventBus_.dispatchEvent(new WebsiteFileSavedEvent(fsi));
-         }
-         else if (type == ClientEvent.ChunkPlotRefreshed)
-         {
-            ChunkPlotRefreshedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ChunkPlotRefreshedEvent(data));
-         }
-         else if (type == ClientEvent.ChunkPlotRefreshFinished)
-         {
-            ChunkPlotRefreshFinishedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ChunkPlotRefreshFinishedEvent(data));
-         }
-         else if (type == ClientEvent.ReloadWithLastChanceSave)
-         {
-            eventBus_.dispatchEvent(new ReloadWithLastChanceSaveEvent());
-         }
-         else if (type == ClientEvent.ConnectionUpdated)
-         {
-            ConnectionUpdatedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ConnectionUpdatedEvent(data));
-         }
-         else if (type == ClientEvent.EnableConnections)
-         {
-            eventBus_.dispatchEvent(new EnableConnectionsEvent());
-         }
-         else if (type == ClientEvent.ConnectionListChanged)
-         {
-            JsArray<Connection> connections = event.getData();
-            eventBus_.dispatchEvent(new ConnectionListChangedEvent(connections));
-         }
-         else if (type == ClientEvent.ActiveConnectionsChanged)
-         {
-            JsArray<ConnectionId> connections = event.getData();
-            eventBus_.dispatchEvent(new ActiveConnectionsChangedEvent(connections));
-         }
-         else if (type == ClientEvent.ConnectionOpened)
-         {
-            Connection connection = event.getData();
-            eventBus_.dispatchEvent(new ConnectionOpenedEvent(connection));
-         }
-         else if (type == ClientEvent.NotebookRangeExecuted)
-         {
-            NotebookRangeExecutedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new NotebookRangeExecutedEvent(data));
-         }
-         else if (type == ClientEvent.ChunkExecStateChanged)
-         {
-            ChunkExecStateChangedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ChunkExecStateChangedEvent(data));
-         }
-         else if (type == ClientEvent.NavigateShinyFrame)
-         {
-            ShinyFrameNavigatedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ShinyFrameNavigatedEvent(data));
-         }
-         else if (type == ClientEvent.UpdateNewConnectionDialog)
-         {
-            NewConnectionDialogUpdatedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new NewConnectionDialogUpdatedEvent(data));
-         }
-         else if (type == ClientEvent.ProjectTemplateRegistryUpdated)
-         {
-            ProjectTemplateRegistry data = event.getData();
-            eventBus_.dispatchEvent(new ProjectTemplateRegistryUpdatedEvent(data));
-         }
-         else if (type == ClientEvent.TerminalSubProcs)
-         {
-            TerminalSubprocEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new TerminalSubprocEvent(data));
-         }
-         else if (type == ClientEvent.PackageExtensionIndexingCompleted)
-         {
-            PackageProvidedExtensions.Data data = event.getData();
-            eventBus_.dispatchEvent(new PackageExtensionIndexingCompletedEvent(data));
-         }
-         else if (type == ClientEvent.RStudioAPIShowDialog)
-         {
-            RStudioAPIShowDialogEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RStudioAPIShowDialogEvent(data));
-         }
-         else if (type == ClientEvent.ObjectExplorerEvent)
-         {
-            ObjectExplorerEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ObjectExplorerEvent(data));
-         }
-         else if (type == ClientEvent.SendToTerminal)
-         {
-            SendToTerminalEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new SendToTerminalEvent(data));
-         }
-         else if (type == ClientEvent.ClearTerminal)
-         {
-            ClearTerminalEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ClearTerminalEvent(data));
-         }
-         else if (type == ClientEvent.AddTerminal)
-         {
-            AddTerminalEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new AddTerminalEvent(data));
-         }
-         else if (type == ClientEvent.RemoveTerminal)
-         {
-            RemoveTerminalEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RemoveTerminalEvent(data));
-         }
-         else if (type == ClientEvent.ActivateTerminal)
-         {
-            ActivateNamedTerminalEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ActivateNamedTerminalEvent(data));
-         }
-         else if (type == ClientEvent.TerminalCwd)
-         {
-            TerminalCwdEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new TerminalCwdEvent(data));
-         }
-         else if (type == ClientEvent.AdminNotification)
-         {
-            AdminNotification notification = event.getData();
-            eventBus_.dispatchEvent(new AdminNotificationEvent(notification));
-         }
-         else if (type == ClientEvent.RequestDocumentSave)
-         {
-            RequestDocumentSaveEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RequestDocumentSaveEvent(data));
-         }
-         else if (type == ClientEvent.RequestOpenProject)
-         {
-            RequestOpenProjectEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RequestOpenProjectEvent(data));
-         }
-         else if (type == ClientEvent.OpenFileDialog)
-         {
-            OpenFileDialogEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new OpenFileDialogEvent(data));
-         }
-         else if (type == ClientEvent.ShowPageViewer)
-         {
-            HTMLPreviewParams params = event.getData();
-            eventBus_.dispatchEvent(new ShowPageViewerEvent(params));
-         }
-         else if (type == ClientEvent.AskSecret)
-         {
-            AskSecretEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new AskSecretEvent(data));
-         }
-         else if (type == ClientEvent.TestsStarted)
-         {
-            TestsStartedEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new TestsStartedEvent(data));
-         }
-         else if (type == ClientEvent.TestsOutput)
-         {
-            CompileOutput data = event.getData();
-            eventBus_.dispatchEvent(new TestsOutputEvent(data));
-         }
-         else if (type == ClientEvent.TestsCompleted)
-         {
-            TestsResult result = event.getData();
-            eventBus_.dispatchEvent(new TestsCompletedEvent(result));
-         }
-         else if (type == ClientEvent.JobUpdated)
-         {
-            JobUpdate data = event.getData();
-            eventBus_.dispatchEvent(new JobUpdatedEvent(data));
-         }
-         else if (type == ClientEvent.JobRefresh)
-         {
-            JobState data = event.getData();
-            eventBus_.dispatchEvent(new JobRefreshEvent(data));
-         }
-         else if (type == ClientEvent.JobOutput)
-         {
-            JobOutputEvent.Data output = event.getData();
-            eventBus_.dispatchEvent(new JobOutputEvent(output));
-         }
-         else if (type == ClientEvent.DataOutputCompleted)
-         {
-            DataOutputResult result = event.getData();
-            eventBus_.dispatchEvent(new DataOutputCompletedEvent(result));
-         }
-         else if (type == ClientEvent.NewDocumentWithCode)
-         {
-            NewDocumentWithCodeEvent.Data result = event.getData();
-            eventBus_.dispatchEvent(new NewDocumentWithCodeEvent(result));
-         }
-         else if (type == ClientEvent.AvailablePackagesReady)
-         {
-            AvailablePackagesReadyEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new AvailablePackagesReadyEvent(data));
-         }
-         else if (type == ClientEvent.PlumberViewer)
-         {
-            PlumberAPIParams data = event.getData();
-            eventBus_.dispatchEvent(new PlumberAPIStatusEvent(data, true));
-         }
-         else if (type == ClientEvent.ComputeThemeColors)
-         {
-            eventBus_.dispatchEvent(new ComputeThemeColorsEvent());
-         }
-         else if (type == ClientEvent.RequestDocumentClose)
-         {
-            RequestDocumentCloseEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new RequestDocumentCloseEvent(data));
-         }
-         else if (type == ClientEvent.ExecuteAppCommand)
-         {
-            ExecuteAppCommandEvent.Data data = event.getData();
-            eventBus_.dispatchEvent(new ExecuteAppCommandEvent(data));
-         }
-         else
-         {
-            GWT.log("WARNING: Server event not dispatched: " + type, null);
-         }
+         handler.dispatch(event, eventBus_);
       }
       catch(Throwable e)
       {
@@ -1035,10 +309,966 @@ public class ClientEventDispatcher
       }
    }
    
+   private static void register(String type, DispatchHandler handler)
+   {
+      HANDLERS.put(type, handler);
+   }
+   
+   // the handler table is built once, on first use of the dispatcher, and
+   // shared by the main window and satellite dispatchers
+   private static final Map<String, DispatchHandler> HANDLERS = new HashMap<String, DispatchHandler>();
+   
+   static
+   {
+      register(ClientEvent.Busy, (event, eventBus) ->
+      {
+         boolean busy = event.<Bool>getData().getValue();
+         eventBus.dispatchEvent(new BusyEvent(busy));
+      });
+
+      register(ClientEvent.ConsoleOutput, (event, eventBus) ->
+      {
+         ConsoleText output = event.getData();
+         eventBus.dispatchEvent(new ConsoleWriteOutputEvent(output));
+      });
+
+      register(ClientEvent.ConsoleError, (event, eventBus) ->
+      {
+         ConsoleText error = event.getData();
+         eventBus.dispatchEvent(new ConsoleWriteErrorEvent(error));
+      });
+
+      register(ClientEvent.ConsoleWritePrompt, (event, eventBus) ->
+      {
+         String prompt = event.getData();
+         eventBus.dispatchEvent(new ConsoleWritePromptEvent(prompt));
+      });
+
+      register(ClientEvent.ConsoleWriteInput, (event, eventBus) ->
+      {
+         ConsoleText input = event.getData();
+         eventBus.dispatchEvent(new ConsoleWriteInputEvent(input));
+      });
+
+      register(ClientEvent.ConsolePrompt, (event, eventBus) ->
+      {
+         ConsolePrompt prompt = event.getData();
+         eventBus.dispatchEvent(new ConsolePromptEvent(prompt));
+      });
+
+      register(ClientEvent.ShowEditor, (event, eventBus) ->
+      {
+         ShowEditorData data = event.getData();
+         eventBus.dispatchEvent(new ShowEditorEvent(data));
+      });
+
+      register(ClientEvent.FileChanged, (event, eventBus) ->
+      {
+         FileChange fileChange = event.getData();
+         eventBus.dispatchEvent(new FileChangeEvent(fileChange));
+      });
+
+      register(ClientEvent.WorkingDirChanged, (event, eventBus) ->
+      {
+         String path = event.getData();
+         eventBus.dispatchEvent(new WorkingDirChangedEvent(path));
+      });
+
+      register(ClientEvent.ShowHelp, (event, eventBus) ->
+      {
+         String helpUrl = event.getData();
+         eventBus.dispatchEvent(new ShowHelpEvent(helpUrl));
+      });
+
+      register(ClientEvent.ShowErrorMessage, (event, eventBus) ->
+      {
+         ErrorMessage errorMessage = event.getData();
+         eventBus.dispatchEvent(new ShowErrorMessageEvent(errorMessage));
+      });
+
+      register(ClientEvent.ChooseFile, (event, eventBus) ->
+      {
+         boolean newFile = event.<Bool>getData().getValue();
+         eventBus.dispatchEvent(new ChooseFileEvent(newFile));
+      });
+
+      register(ClientEvent.BrowseUrl, (event, eventBus) ->
+      {
+         BrowseUrlInfo urlInfo = event.getData();
+         eventBus.dispatchEvent(new BrowseUrlEvent(urlInfo));
+      });
+
+      register(ClientEvent.PlotsStateChanged, (event, eventBus) ->
+      {
+         PlotsState plotsState = event.getData();
+         eventBus.dispatchEvent(new PlotsChangedEvent(plotsState));
+      });
+
+      register(ClientEvent.PackageStateChanged, (event, eventBus) ->
+      {
+         PackageState newState = event.getData();
+         eventBus.dispatchEvent(new PackageStateChangedEvent(newState));
+      });
+
+      register(ClientEvent.PackageStatusChanged, (event, eventBus) ->
+      {
+         PackageStatus status = event.getData();
+         eventBus.dispatchEvent(new PackageStatusChangedEvent(status));
+      });
+
+      register(ClientEvent.Locator, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new LocatorEvent());
+      });
+
+      register(ClientEvent.ConsoleResetHistory, (event, eventBus) ->
+      {
+         ConsoleResetHistory reset = event.getData();
+         eventBus.dispatchEvent(new ConsoleResetHistoryEvent(reset));
+      });
+
+      register(ClientEvent.SessionSerialization, (event, eventBus) ->
+      {
+         SessionSerializationAction action = event.getData();
+         eventBus.dispatchEvent(new SessionSerializationEvent(action));
+      });
+
+      register(ClientEvent.HistoryEntriesAdded, (event, eventBus) ->
+      {
+         RpcObjectList<HistoryEntry> entries = event.getData();
+         eventBus.dispatchEvent(new HistoryEntriesAddedEvent(entries));
+      });
+
+      register(ClientEvent.QuotaStatus, (event, eventBus) ->
+      {
+         QuotaStatus quotaStatus = event.getData();
+         eventBus.dispatchEvent(new QuotaStatusEvent(quotaStatus));
+      });
+
+      register(ClientEvent.FileEdit, (event, eventBus) ->
+      {
+         FileSystemItem file = event.getData();
+         eventBus.dispatchEvent(new FileEditEvent(file));
+      });
+
+      register(ClientEvent.ShowContent, (event, eventBus) ->
+      {
+         ContentItem content = event.getData();
+         eventBus.dispatchEvent(new ShowContentEvent(content));
+      });
+
+      register(ClientEvent.ShowData, (event, eventBus) ->
+      {
+         DataItem data = event.getData();
+         eventBus.dispatchEvent(new ShowDataEvent(data));
+      });
+
+      register(ClientEvent.AbendWarning, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new SessionAbendWarningEvent());
+      });
+
+      register(ClientEvent.ShowWarningBar, (event, eventBus) ->
+      {
+         WarningBarMessage message = event.getData();
+         eventBus.dispatchEvent(new ShowWarningBarEvent(message));
+      });
+
+      register(ClientEvent.OpenProjectError, (event, eventBus) ->
+      {
+         OpenProjectError error = event.getData();
+         eventBus.dispatchEvent(new OpenProjectErrorEvent(error));
+      });
+
+      register(ClientEvent.VcsRefresh, (event, eventBus) ->
+      {
+         JsObject data = event.getData();
+         eventBus.dispatchEvent(new VcsRefreshEvent(Reason.NA,
+                                                 data.getInteger("delay")));
+      });
+
+      register(ClientEvent.AskPass, (event, eventBus) ->
+      {
+         AskPassEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new AskPassEvent(data));
+      });
+
+      register(ClientEvent.ConsoleProcessOutput, (event, eventBus) ->
+      {
+         ServerConsoleOutputEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ServerConsoleOutputEvent(data.getHandle(),
+                                                         data.getOutput()));
+      });
+
+      register(ClientEvent.ConsoleProcessPrompt, (event, eventBus) ->
+      {
+         ServerConsolePromptEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ServerConsolePromptEvent(data.getHandle(),
+                                                          data.getPrompt()));
+      });
+
+      register(ClientEvent.ConsoleProcessCreated, (event, eventBus) ->
+      {
+         ConsoleProcessCreatedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ConsoleProcessCreatedEvent(data));
+      });
+
+      register(ClientEvent.ConsoleProcessExit, (event, eventBus) ->
+      {
+         ServerProcessExitEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ServerProcessExitEvent(data.getHandle(),
+                                                       data.getExitCode()));
+      });
+
+      register(ClientEvent.HTMLPreviewStartedEvent, (event, eventBus) ->
+      {
+         HTMLPreviewStartedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new HTMLPreviewStartedEvent(data));
+      });
+
+      register(ClientEvent.HTMLPreviewOutputEvent, (event, eventBus) ->
+      {
+         String output = event.getData();
+         eventBus.dispatchEvent(new HTMLPreviewOutputEvent(output));
+      });
+
+      register(ClientEvent.HTMLPreviewCompletedEvent, (event, eventBus) ->
+      {
+         HTMLPreviewResult result = event.getData();
+         eventBus.dispatchEvent(new HTMLPreviewCompletedEvent(result));
+      });
+
+      register(ClientEvent.CompilePdfStartedEvent, (event, eventBus) ->
+      {
+         CompilePdfStartedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new CompilePdfStartedEvent(data));
+      });
+
+      register(ClientEvent.CompilePdfOutputEvent, (event, eventBus) ->
+      {
+         CompileOutput output = event.getData();
+         eventBus.dispatchEvent(new CompilePdfOutputEvent(output));
+      });
+
+      register(ClientEvent.CompilePdfErrorsEvent, (event, eventBus) ->
+      {
+         JsArray<SourceMarker> data = event.getData();
+         eventBus.dispatchEvent(new CompilePdfErrorsEvent(data));
+      });
+
+      register(ClientEvent.CompilePdfCompletedEvent, (event, eventBus) ->
+      {
+         CompilePdfResult result = event.getData();
+         eventBus.dispatchEvent(new CompilePdfCompletedEvent(result));
+      });
+
+      register(ClientEvent.SynctexEditFile, (event, eventBus) ->
+      {
+         SourceLocation sourceLocation = event.getData();
+         eventBus.dispatchEvent(new SynctexEditFileEvent(sourceLocation));
+      });
+
+      register(ClientEvent.FindResult, (event, eventBus) ->
+      {
+         FindResultEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new FindResultEvent(
+               data.getHandle(),
+               data.getResults().toArrayList(),
+               data.isOverflow()));
+      });
+
+      register(ClientEvent.FindOperationEnded, (event, eventBus) ->
+      {
+         String data = event.getData();
+         eventBus.dispatchEvent(new FindOperationEndedEvent(data));
+      });
+
+      register(ClientEvent.RPubsUploadStatus, (event, eventBus) ->
+      {
+         RPubsUploadStatusEvent.Status status = event.getData();
+         eventBus.dispatchEvent(new RPubsUploadStatusEvent(status));
+      });
+
+      register(ClientEvent.BuildStarted, (event, eventBus) ->
+      {
+         BuildStartedEvent.Data buildStartedData = event.getData();
+         eventBus.dispatchEvent(new BuildStartedEvent(buildStartedData));
+      });
+
+      register(ClientEvent.BuildOutput, (event, eventBus) ->
+      {
+         CompileOutput data = event.getData();
+         eventBus.dispatchEvent(new BuildOutputEvent(data));
+      });
+
+      register(ClientEvent.BuildCompleted, (event, eventBus) ->
+      {
+         BuildCompletedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new BuildCompletedEvent(data));
+      });
+
+      register(ClientEvent.BuildErrors, (event, eventBus) ->
+      {
+         BuildErrorsEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new BuildErrorsEvent(data));
+      });
+
+      register(ClientEvent.DirectoryNavigate, (event, eventBus) ->
+      {
+         DirectoryNavigateEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new DirectoryNavigateEvent(data));
+      });
+
+      register(ClientEvent.DeferredInitCompleted, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new DeferredInitCompletedEvent());
+      });
+
+      register(ClientEvent.PlotsZoomSizeChanged, (event, eventBus) ->
+      {
+         PlotsZoomSizeChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new PlotsZoomSizeChangedEvent(data));
+      });
+
+      register(ClientEvent.SourceCppStarted, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new SourceCppStartedEvent());
+      });
+
+      register(ClientEvent.SourceCppCompleted, (event, eventBus) ->
+      {
+         SourceCppState state = event.getData();
+         eventBus.dispatchEvent(new SourceCppCompletedEvent(state));
+      });
+
+      register(ClientEvent.LoadedPackageUpdates, (event, eventBus) ->
+      {
+         String installCmd = event.getData();
+         eventBus.dispatchEvent(new LoadedPackageUpdatesEvent(installCmd));
+      });
+
+      register(ClientEvent.ActivatePane, (event, eventBus) ->
+      {
+         String pane = event.getData();
+         eventBus.dispatchEvent(new ActivatePaneEvent(pane));
+      });
+
+      register(ClientEvent.ShowPresentationPane, (event, eventBus) ->
+      {
+         PresentationState state = event.getData();
+         eventBus.dispatchEvent(new ShowPresentationPaneEvent(state));
+      });
+
+      register(ClientEvent.EnvironmentRefresh, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new EnvironmentRefreshEvent());
+      });
+
+      register(ClientEvent.ListChanged, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new ListChangedEvent(event.<JsObject>getData()));
+      });
+
+      register(ClientEvent.UiPrefsChanged, (event, eventBus) ->
+      {
+         UiPrefsChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new UiPrefsChangedEvent(data));
+      });
+
+      register(ClientEvent.ContextDepthChanged, (event, eventBus) ->
+      {
+         EnvironmentContextData data = event.getData();
+         eventBus.dispatchEvent(new ContextDepthChangedEvent(data, true));
+      });
+
+      register(ClientEvent.HandleUnsavedChanges, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new HandleUnsavedChangesEvent());
+      });
+
+      register(ClientEvent.Quit, (event, eventBus) ->
+      {
+         QuitEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new QuitEvent(data));
+      });
+
+      register(ClientEvent.Suicide, (event, eventBus) ->
+      {
+         // NOTE: we don't explicitly stop listening for events here
+         // for the reasons cited above in ClientEvent.Quit
+
+         // fire event
+         String message = event.getData();
+         eventBus.dispatchEvent(new SuicideEvent(message));
+      });
+
+      register(ClientEvent.SaveActionChanged, (event, eventBus) ->
+      {
+         SaveAction action = event.getData();
+         eventBus.dispatchEvent(new SaveActionChangedEvent(action));
+      });
+
+      register(ClientEvent.EnvironmentAssigned, (event, eventBus) ->
+      {
+         RObject objectInfo = event.getData();
+         eventBus.dispatchEvent(new EnvironmentObjectAssignedEvent(objectInfo));
+      });
+
+      register(ClientEvent.EnvironmentRemoved, (event, eventBus) ->
+      {
+         String objectName = event.getData();
+         eventBus.dispatchEvent(new EnvironmentObjectRemovedEvent(objectName));
+      });
+
+      register(ClientEvent.BrowserLineChanged, (event, eventBus) ->
+      {
+         LineData lineData = event.getData();
+         eventBus.dispatchEvent(new BrowserLineChangedEvent(lineData));
+      });
+
+      register(ClientEvent.PackageLoaded, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new PackageLoadedEvent(
+               (String)event.getData()));
+      });
+
+      register(ClientEvent.PackageUnloaded, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new PackageUnloadedEvent(
+               (String)event.getData()));
+      });
+
+      register(ClientEvent.PresentationPaneRequestCompleted, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new PresentationPaneRequestCompletedEvent());
+      });
+
+      register(ClientEvent.UnhandledError, (event, eventBus) ->
+      {
+         UnhandledError err = event.getData();
+         eventBus.dispatchEvent(new UnhandledErrorEvent(err));
+      });
+
+      register(ClientEvent.ErrorHandlerChanged, (event, eventBus) ->
+      {
+         ErrorHandlerType handlerType = event.getData();
+         eventBus.dispatchEvent(new ErrorHandlerChangedEvent(handlerType));
+      });
+
+      register(ClientEvent.ViewerNavigate, (event, eventBus) ->
+      {
+         ViewerNavigateEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ViewerNavigateEvent(data));
+      });
+
+      register(ClientEvent.SourceExtendedTypeDetected, (event, eventBus) ->
+      {
+         SourceExtendedTypeDetectedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SourceExtendedTypeDetectedEvent(data));
+      });
+
+      register(ClientEvent.ShinyViewer, (event, eventBus) ->
+      {
+         ShinyApplicationParams data = event.getData();
+         eventBus.dispatchEvent(new ShinyApplicationStatusEvent(data, true));
+      });
+
+      register(ClientEvent.DebugSourceCompleted, (event, eventBus) ->
+      {
+         DebugSourceResult result = (DebugSourceResult)event.getData();
+         eventBus.dispatchEvent(new DebugSourceCompletedEvent(result));
+      });
+
+      register(ClientEvent.RmdRenderStarted, (event, eventBus) ->
+      {
+         RmdRenderStartedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RmdRenderStartedEvent(data));
+      });
+
+      register(ClientEvent.RmdRenderOutput, (event, eventBus) ->
+      {
+         CompileOutput data = event.getData();
+         eventBus.dispatchEvent(new RmdRenderOutputEvent(data));
+      });
+
+      register(ClientEvent.RmdRenderCompleted, (event, eventBus) ->
+      {
+         RmdRenderResult result = event.getData();
+         eventBus.dispatchEvent(new RmdRenderCompletedEvent(result));
+      });
+
+      register(ClientEvent.RmdShinyDocStarted, (event, eventBus) ->
+      {
+         RmdShinyDocInfo docInfo = event.getData();
+         eventBus.dispatchEvent(new RmdShinyDocStartedEvent(docInfo));
+      });
+
+      register(ClientEvent.RSConnectDeploymentOutput, (event, eventBus) ->
+      {
+         CompileOutput output = event.getData();
+         eventBus.dispatchEvent(new RSConnectDeploymentOutputEvent(output));
+      });
+
+      register(ClientEvent.RSConnectDeploymentCompleted, (event, eventBus) ->
+      {
+         String url = event.getData();
+         eventBus.dispatchEvent(new RSConnectDeploymentCompletedEvent(url));
+      });
+
+      register(ClientEvent.RSConnectDeploymentFailed, (event, eventBus) ->
+      {
+         RSConnectDeploymentFailedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RSConnectDeploymentFailedEvent(data));
+      });
+
+      register(ClientEvent.UserPrompt, (event, eventBus) ->
+      {
+         UserPrompt prompt = event.getData();
+         eventBus.dispatchEvent(new UserPromptEvent(prompt));
+      });
+
+      register(ClientEvent.InstallRtools, (event, eventBus) ->
+      {
+         InstallRtoolsEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new InstallRtoolsEvent(data));
+      });
+
+      register(ClientEvent.InstallShiny, (event, eventBus) ->
+      {
+         String userAction = event.getData();
+         eventBus.dispatchEvent(new InstallShinyEvent(userAction));
+      });
+
+      register(ClientEvent.SuspendAndRestart, (event, eventBus) ->
+      {
+         SuspendAndRestartEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SuspendAndRestartEvent(data));
+      });
+
+      register(ClientEvent.DataViewChanged, (event, eventBus) ->
+      {
+         DataViewChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new DataViewChangedEvent(data));
+      });
+
+      register(ClientEvent.ViewFunction, (event, eventBus) ->
+      {
+         SearchPathFunctionDefinition data = event.getData();
+         eventBus.dispatchEvent(new CodeBrowserNavigationEvent(
+               data, null, false, true));
+      });
+
+      register(ClientEvent.MarkersChanged, (event, eventBus) ->
+      {
+         MarkersChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new MarkersChangedEvent(data));
+      });
+
+      register(ClientEvent.EnableRStudioConnect, (event, eventBus) ->
+      {
+         EnableRStudioConnectUIEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new EnableRStudioConnectUIEvent(data));
+      });
+
+      register(ClientEvent.UpdateGutterMarkers, (event, eventBus) ->
+      {
+         LintEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new LintEvent(data));
+      });
+
+      register(ClientEvent.SnippetsChanged, (event, eventBus) ->
+      {
+         SnippetsChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SnippetsChangedEvent(data));
+      });
+
+      register(ClientEvent.JumpToFunction, (event, eventBus) ->
+      {
+         JumpToFunctionEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new JumpToFunctionEvent(data));
+      });
+
+      register(ClientEvent.CollabEditStarted, (event, eventBus) ->
+      {
+         CollabEditStartParams params = event.getData();
+         eventBus.dispatchEvent(new CollabEditStartedEvent(params));
+      });
+
+      register(ClientEvent.SessionCountChanged, (event, eventBus) ->
+      {
+         SessionCountChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SessionCountChangedEvent(data));
+      });
+
+      register(ClientEvent.CollabEditEnded, (event, eventBus) ->
+      {
+         CollabEditEndedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new CollabEditEndedEvent(data));
+      });
+
+      register(ClientEvent.ProjectUsersChanged, (event, eventBus) ->
+      {
+         ProjectUserChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ProjectUserChangedEvent(data));
+      });
+
+      register(ClientEvent.RVersionsChanged, (event, eventBus) ->
+      {
+         RVersionsInfo versions = event.getData();
+         eventBus.dispatchEvent(new RVersionsChangedEvent(versions));
+      });
+
+      register(ClientEvent.ShinyGadgetDialog, (event, eventBus) ->
+      {
+         ShinyGadgetDialogEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ShinyGadgetDialogEvent(data));
+      });
+
+      register(ClientEvent.RmdParamsReady, (event, eventBus) ->
+      {
+         String paramsFile = event.getData();
+         eventBus.dispatchEvent(new RmdParamsReadyEvent(paramsFile));
+      });
+
+      register(ClientEvent.RegisterUserCommand, (event, eventBus) ->
+      {
+         RegisterUserCommandEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RegisterUserCommandEvent(data));
+      });
+
+      register(ClientEvent.SendToConsole, (event, eventBus) ->
+      {
+         SendToConsoleEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SendToConsoleEvent(data));
+      });
+
+      register(ClientEvent.UserFollowStarted, (event, eventBus) ->
+      {
+         ProjectUser user = event.getData();
+         eventBus.dispatchEvent(new FollowUserEvent(user, true));
+      });
+
+      register(ClientEvent.UserFollowEnded, (event, eventBus) ->
+      {
+         ProjectUser user = event.getData();
+         eventBus.dispatchEvent(new FollowUserEvent(user, false));
+      });
+
+      register(ClientEvent.ProjectAccessRevoked, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new ProjectAccessRevokedEvent());
+      });
+
+      register(ClientEvent.CollabEditSaved, (event, eventBus) ->
+      {
+         CollabEditSavedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new CollabEditSavedEvent(data));
+      });
+
+      register(ClientEvent.AddinRegistryUpdated, (event, eventBus) ->
+      {
+         RAddins data = event.getData();
+         eventBus.dispatchEvent(new AddinRegistryUpdatedEvent(data));
+      });
+
+      register(ClientEvent.ChunkOutput, (event, eventBus) ->
+      {
+         RmdChunkOutput data = event.getData();
+         eventBus.dispatchEvent(new RmdChunkOutputEvent(data));
+      });
+
+      register(ClientEvent.ChunkOutputFinished, (event, eventBus) ->
+      {
+         RmdChunkOutputFinishedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RmdChunkOutputFinishedEvent(data));
+      });
+
+      register(ClientEvent.RprofStarted, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.START, null));
+      });
+
+      register(ClientEvent.RprofStopped, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.STOP, null));
+      });
+
+      register(ClientEvent.RprofCreated, (event, eventBus) ->
+      {
+         RprofEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RprofEvent(RprofEvent.RprofEventType.CREATE, data));
+      });
+
+      register(ClientEvent.EditorCommand, (event, eventBus) ->
+      {
+         EditorCommandEvent.Data data = event.getData();
+         EditorCommandEvent payload = new EditorCommandEvent(data);
+         eventBus.dispatchEvent(new EditorCommandDispatchEvent(payload));
+      });
+
+      register(ClientEvent.PreviewRmd, (event, eventBus) ->
+      {
+         PreviewRmdEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new PreviewRmdEvent(data));
+      });
+
+      register(ClientEvent.WebsiteFileSaved, (event, eventBus) ->
+      {
+         FileSystemItem fsi = event.getData();
+         eventBus.dispatchEvent(new WebsiteFileSavedEvent(fsi));
+      });
+
+      register(ClientEvent.ChunkPlotRefreshed, (event, eventBus) ->
+      {
+         ChunkPlotRefreshedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ChunkPlotRefreshedEvent(data));
+      });
+
+      register(ClientEvent.ChunkPlotRefreshFinished, (event, eventBus) ->
+      {
+         ChunkPlotRefreshFinishedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ChunkPlotRefreshFinishedEvent(data));
+      });
+
+      register(ClientEvent.ReloadWithLastChanceSave, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new ReloadWithLastChanceSaveEvent());
+      });
+
+      register(ClientEvent.ConnectionUpdated, (event, eventBus) ->
+      {
+         ConnectionUpdatedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ConnectionUpdatedEvent(data));
+      });
+
+      register(ClientEvent.EnableConnections, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new EnableConnectionsEvent());
+      });
+
+      register(ClientEvent.ConnectionListChanged, (event, eventBus) ->
+      {
+         JsArray<Connection> connections = event.getData();
+         eventBus.dispatchEvent(new ConnectionListChangedEvent(connections));
+      });
+
+      register(ClientEvent.ActiveConnectionsChanged, (event, eventBus) ->
+      {
+         JsArray<ConnectionId> connections = event.getData();
+         eventBus.dispatchEvent(new ActiveConnectionsChangedEvent(connections));
+      });
+
+      register(ClientEvent.ConnectionOpened, (event, eventBus) ->
+      {
+         Connection connection = event.getData();
+         eventBus.dispatchEvent(new ConnectionOpenedEvent(connection));
+      });
+
+      register(ClientEvent.NotebookRangeExecuted, (event, eventBus) ->
+      {
+         NotebookRangeExecutedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new NotebookRangeExecutedEvent(data));
+      });
+
+      register(ClientEvent.ChunkExecStateChanged, (event, eventBus) ->
+      {
+         ChunkExecStateChangedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ChunkExecStateChangedEvent(data));
+      });
+
+      register(ClientEvent.NavigateShinyFrame, (event, eventBus) ->
+      {
+         ShinyFrameNavigatedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ShinyFrameNavigatedEvent(data));
+      });
+
+      register(ClientEvent.UpdateNewConnectionDialog, (event, eventBus) ->
+      {
+         NewConnectionDialogUpdatedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new NewConnectionDialogUpdatedEvent(data));
+      });
+
+      register(ClientEvent.ProjectTemplateRegistryUpdated, (event, eventBus) ->
+      {
+         ProjectTemplateRegistry data = event.getData();
+         eventBus.dispatchEvent(new ProjectTemplateRegistryUpdatedEvent(data));
+      });
+
+      register(ClientEvent.TerminalSubProcs, (event, eventBus) ->
+      {
+         TerminalSubprocEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new TerminalSubprocEvent(data));
+      });
+
+      register(ClientEvent.PackageExtensionIndexingCompleted, (event, eventBus) ->
+      {
+         PackageProvidedExtensions.Data data = event.getData();
+         eventBus.dispatchEvent(new PackageExtensionIndexingCompletedEvent(data));
+      });
+
+      register(ClientEvent.RStudioAPIShowDialog, (event, eventBus) ->
+      {
+         RStudioAPIShowDialogEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RStudioAPIShowDialogEvent(data));
+      });
+
+      register(ClientEvent.ObjectExplorerEvent, (event, eventBus) ->
+      {
+         ObjectExplorerEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ObjectExplorerEvent(data));
+      });
+
+      register(ClientEvent.SendToTerminal, (event, eventBus) ->
+      {
+         SendToTerminalEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new SendToTerminalEvent(data));
+      });
+
+      register(ClientEvent.ClearTerminal, (event, eventBus) ->
+      {
+         ClearTerminalEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ClearTerminalEvent(data));
+      });
+
+      register(ClientEvent.AddTerminal, (event, eventBus) ->
+      {
+         AddTerminalEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new AddTerminalEvent(data));
+      });
+
+      register(ClientEvent.RemoveTerminal, (event, eventBus) ->
+      {
+         RemoveTerminalEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RemoveTerminalEvent(data));
+      });
+
+      register(ClientEvent.ActivateTerminal, (event, eventBus) ->
+      {
+         ActivateNamedTerminalEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ActivateNamedTerminalEvent(data));
+      });
+
+      register(ClientEvent.TerminalCwd, (event, eventBus) ->
+      {
+         TerminalCwdEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new TerminalCwdEvent(data));
+      });
+
+      register(ClientEvent.AdminNotification, (event, eventBus) ->
+      {
+         AdminNotification notification = event.getData();
+         eventBus.dispatchEvent(new AdminNotificationEvent(notification));
+      });
+
+      register(ClientEvent.RequestDocumentSave, (event, eventBus) ->
+      {
+         RequestDocumentSaveEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RequestDocumentSaveEvent(data));
+      });
+
+      register(ClientEvent.RequestOpenProject, (event, eventBus) ->
+      {
+         RequestOpenProjectEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RequestOpenProjectEvent(data));
+      });
+
+      register(ClientEvent.OpenFileDialog, (event, eventBus) ->
+      {
+         OpenFileDialogEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new OpenFileDialogEvent(data));
+      });
+
+      register(ClientEvent.ShowPageViewer, (event, eventBus) ->
+      {
+         HTMLPreviewParams params = event.getData();
+         eventBus.dispatchEvent(new ShowPageViewerEvent(params));
+      });
+
+      register(ClientEvent.AskSecret, (event, eventBus) ->
+      {
+         AskSecretEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new AskSecretEvent(data));
+      });
+
+      register(ClientEvent.TestsStarted, (event, eventBus) ->
+      {
+         TestsStartedEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new TestsStartedEvent(data));
+      });
+
+      register(ClientEvent.TestsOutput, (event, eventBus) ->
+      {
+         CompileOutput data = event.getData();
+         eventBus.dispatchEvent(new TestsOutputEvent(data));
+      });
+
+      register(ClientEvent.TestsCompleted, (event, eventBus) ->
+      {
+         TestsResult result = event.getData();
+         eventBus.dispatchEvent(new TestsCompletedEvent(result));
+      });
+
+      register(ClientEvent.JobUpdated, (event, eventBus) ->
+      {
+         JobUpdate data = event.getData();
+         eventBus.dispatchEvent(new JobUpdatedEvent(data));
+      });
+
+      register(ClientEvent.JobRefresh, (event, eventBus) ->
+      {
+         JobState data = event.getData();
+         eventBus.dispatchEvent(new JobRefreshEvent(data));
+      });
+
+      register(ClientEvent.JobOutput, (event, eventBus) ->
+      {
+         JobOutputEvent.Data output = event.getData();
+         eventBus.dispatchEvent(new JobOutputEvent(output));
+      });
+
+      register(ClientEvent.DataOutputCompleted, (event, eventBus) ->
+      {
+         DataOutputResult result = event.getData();
+         eventBus.dispatchEvent(new DataOutputCompletedEvent(result));
+      });
+
+      register(ClientEvent.NewDocumentWithCode, (event, eventBus) ->
+      {
+         NewDocumentWithCodeEvent.Data result = event.getData();
+         eventBus.dispatchEvent(new NewDocumentWithCodeEvent(result));
+      });
+
+      register(ClientEvent.AvailablePackagesReady, (event, eventBus) ->
+      {
+         AvailablePackagesReadyEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new AvailablePackagesReadyEvent(data));
+      });
+
+      register(ClientEvent.PlumberViewer, (event, eventBus) ->
+      {
+         PlumberAPIParams data = event.getData();
+         eventBus.dispatchEvent(new PlumberAPIStatusEvent(data, true));
+      });
+
+      register(ClientEvent.ComputeThemeColors, (event, eventBus) ->
+      {
+         eventBus.dispatchEvent(new ComputeThemeColorsEvent());
+      });
+
+      register(ClientEvent.RequestDocumentClose, (event, eventBus) ->
+      {
+         RequestDocumentCloseEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new RequestDocumentCloseEvent(data));
+      });
+
+      register(ClientEvent.ExecuteAppCommand, (event, eventBus) ->
+      {
+         ExecuteAppCommandEvent.Data data = event.getData();
+         eventBus.dispatchEvent(new ExecuteAppCommandEvent(data));
+      });
+   }
 
    private final EventBus eventBus_;
 
    private final ArrayList<ClientEvent> pendingEvents_ = new ArrayList<ClientEvent>();
-   
-
 }
@@ -188,6 +188,7 @@ import org.rstudio.studio.client.workbench.views.presentation.model.Presentation
 import org.rstudio.studio.client.workbench.views.source.editors.explorer.model.ObjectExplorerInspectionResult;
 import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileOperationRequest;
 import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileOperationResponse;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileSamples;
 import org.rstudio.studio.client.workbench.views.source.editors.text.IconvListResult;
 import org.rstudio.studio.client.workbench.views.source.editors.text.rmd.ChunkDefinition;
 import org.rstudio.studio.client.workbench.views.source.editors.text.themes.AceTheme;
@@ -2124,6 +2125,7 @@ public class RemoteServer implements Server
                                      String objectAccess,
                                      JsArrayString tags,
                                      int fromIndex,
+                                     int limit,
                                      ServerRequestCallback<ObjectExplorerInspectionResult> requestCallback)
    {
       JSONArray params = new JSONArrayBuilder()
@@ -2133,6 +2135,7 @@ public class RemoteServer implements Server
             .add(objectAccess)
             .add(tags)
             .add(fromIndex)
+            .add(limit)
             .get();
       
       sendRequest(RPC_SCOPE, EXPLORER_INSPECT_OBJECT, params, requestCallback);
@@ -3430,6 +3433,7 @@ public class RemoteServer implements Server
                // allow retry on success, otherwise handle unauthorized error
                if (response == RemoteServerAuth.CREDENTIALS_UPDATE_SUCCESS)
                {
+                  RequestLog.logRetry(request.getMethod());
                   retryHandler.onRetry();
                }
                else
@@ -3476,6 +3480,7 @@ public class RemoteServer implements Server
 
          setSessionRelaunchPending();
 
+         RequestLog.logRetry(request.getMethod());
          retryHandler.onModifiedRetry(modifiedRequest);
          return true;
       }
@@ -3702,14 +3707,23 @@ public class RemoteServer implements Server
       assert kwparams == null : "kwparams was not null for sendRequestViaMainWorkbench - not currently supported";
       assert resultFieldName == null : "resultFieldName was not null for sendRequestViaMainWorkbench - not currently supported";
 
-      JSONObject request = new JSONObject();
-      request.put("method", new JSONString(method));
-      if (params != null)
-         request.put("params", params);  
+      // the main workbench serializes the request and records its size
+      // when it sends it, so the request is only built here for display
+      String requestString = "[REDACTED]";
+      if (!redactLog)
+      {
+         JSONObject request = new JSONObject();
+         request.put("method", new JSONString(method));
+         if (params != null)
+            request.put("params", params);
+         requestString = request.toString();
+      }
       
       final RequestLogEntry requestLogEntry = RequestLog.log(
          Integer.toString(Random.nextInt()),
-         redactLog ? "[REDACTED]": request.toString());
+         method,
+         requestString,
+         0);
 
       sendRequestViaMainWorkbench(
             scope, 
@@ -5624,6 +5638,12 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, PROFILE_SOURCES, params, requestCallback);
    }
    
+   public void profileSamples(String path,
+                              ServerRequestCallback<ProfileSamples> requestCallback)
+   {
+      sendRequest(RPC_SCOPE, PROFILE_SAMPLES, path, requestCallback);
+   }
+   
    public void removeConnection(ConnectionId id, 
                                 ServerRequestCallback<Void> callback)
    {
@@ -6373,6 +6393,7 @@ public class RemoteServer implements Server
    private static final String COPY_PROFILE = "copy_profile";
    private static final String CLEAR_PROFILE = "clear_profile";
    private static final String PROFILE_SOURCES = "profile_sources";
+   private static final String PROFILE_SAMPLES = "profile_samples";
    
    private static final String REMOVE_CONNECTION = "remove_connection";
    private static final String CONNECTION_DISCONNECT = "connection_disconnect";
@@ -19,6 +19,7 @@ import com.google.inject.Inject;
 import org.rstudio.core.client.Barrier.Token;
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.TimeBufferedCommand;
+import org.rstudio.core.client.js.JsObject;
 import org.rstudio.studio.client.application.Desktop;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.server.ServerError;
@@ -45,6 +46,10 @@ public class ClientStateUpdater extends TimeBufferedCommand
     * (on request [though in fact also on a timer, just a shorter one]). Any
     * component can request that SaveClientStateEvent be fired: simply fire
     * PushClientStateEvent on the EventBus.
+    *
+    * Only values whose JSON differs from what was last sent successfully are
+    * sent to the server, so a component that can't cheaply tell whether its
+    * value changed may simply add it every time.
     */
    @Inject
    public ClientStateUpdater(EventBus events,
@@ -97,9 +102,10 @@ public class ClientStateUpdater extends TimeBufferedCommand
    protected void performAction(final boolean shouldSchedulePassive)
    {
       ClientState state = ClientState.create();
+      SaveClientStateEvent event = new SaveClientStateEvent(state);
       try
       {
-         events_.fireEvent(new SaveClientStateEvent(state));
+         events_.fireEvent(event);
       }
       catch (Exception e)
       {
@@ -113,6 +119,16 @@ public class ClientStateUpdater extends TimeBufferedCommand
          return;
       }
 
+      // drop values the server already has
+      final JsObject changed = JsObject.createJsObject();
+      state.removeUnchanged(sentValues_, changed);
+
+      if (state.isEmpty())
+      {
+         onComplete(shouldSchedulePassive);
+         return;
+      }
+
       try
       {
          if (pauseSendingUpdates_)
@@ -135,6 +151,7 @@ public class ClientStateUpdater extends TimeBufferedCommand
                   @Override
                   public void onResponseReceived(Void response)
                   {
+                     sentValues_.insert(changed);
                      onComplete(shouldSchedulePassive);
                   }
                });
@@ -167,4 +184,7 @@ public class ClientStateUpdater extends TimeBufferedCommand
    private final WorkbenchServerOperations server_;
    private Token barrierToken_;
    private boolean pauseSendingUpdates_ = false;
+
+   // the JSON of each value as last sent, keyed by "scope/group/name"
+   private final JsObject sentValues_ = JsObject.createJsObject();
 }
@@ -19,11 +19,8 @@ import java.util.ArrayList;
 import org.rstudio.core.client.FilePosition;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.widget.SearchDisplay;
-import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
 import org.rstudio.core.client.CodeNavigationTarget;
-import org.rstudio.studio.client.workbench.views.files.events.FileChangeEvent;
-import org.rstudio.studio.client.workbench.views.files.events.FileChangeHandler;
 
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
@@ -70,8 +67,7 @@ public class CodeSearch
    
    @Inject
    public CodeSearch(Display display, 
-                     final FileTypeRegistry fileTypeRegistry,
-                     final EventBus eventBus)
+                     final FileTypeRegistry fileTypeRegistry)
    {
       display_ = display;
       
@@ -141,22 +137,6 @@ public class CodeSearch
         }
      });
      
-     eventBusHandlers_.add(
-           eventBus.addHandler(FileChangeEvent.TYPE, new FileChangeHandler() {
-        @Override
-        public void onFileChange(FileChangeEvent event)
-        {           
-           // if this was an R file then invalide the cache
-           CodeSearchOracle oracle = display_.getSearchOracle();
-           if (oracle.hasCachedResults())
-           {
-              FileSystemItem fsi = event.getFileChange().getFile();
-              if (fsi.getExtension().toLowerCase().equals(".r"))
-                 oracle.clear();
-           }
-        } 
-     }));
-     
      searchDisplay.addValueChangeHandler(new ValueChangeHandler<String>() {
         @Override
         public void onValueChange(ValueChangeEvent<String> event)
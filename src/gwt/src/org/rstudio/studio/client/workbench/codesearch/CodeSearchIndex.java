@@ -0,0 +1,397 @@
+/*
+ * CodeSearchIndex.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.codesearch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.rstudio.core.client.FilePosition;
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.files.FileSystemItem;
+import org.rstudio.core.client.regex.Match;
+import org.rstudio.core.client.regex.Pattern;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.workbench.views.files.events.FileChangeEvent;
+import org.rstudio.studio.client.workbench.views.files.model.FileChange;
+import org.rstudio.studio.client.workbench.views.source.events.DocTabClosedEvent;
+import org.rstudio.studio.client.workbench.views.source.events.SourceDocAddedEvent;
+import org.rstudio.studio.client.workbench.views.source.events.SourceFileSavedEvent;
+import org.rstudio.studio.client.workbench.views.source.events.SourcePathChangedEvent;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * The file and function symbols returned by code searches, kept for the
+ * life of the session and shared by all code search widgets.
+ *
+ * Each symbol's lower-cased name and a character mask are computed once,
+ * when it's first returned by the server. The index also remembers which
+ * terms the server returned complete results for; since every match for a
+ * term is also a match for each of its prefixes, any refinement of such a
+ * term is searched for here rather than on the server, scoring each
+ * candidate once and keeping only the best few.
+ *
+ * Symbols are dropped as the files defining them change, and changes which
+ * may add matches (new files, edited sources) forget the complete terms.
+ */
+@Singleton
+public class CodeSearchIndex
+{
+   @Inject
+   public CodeSearchIndex(EventBus events)
+   {
+      entries_ = new LinkedHashMap<String, Entry>()
+      {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+         {
+            // a complete term may have lost a match, so forget them all
+            if (size() <= MAX_ENTRIES)
+               return false;
+            completeTerms_.clear();
+            return true;
+         }
+      };
+
+      events.addHandler(FileChangeEvent.TYPE,
+            event -> onFileChange(event.getFileChange()));
+      events.addHandler(SourcePathChangedEvent.TYPE, event ->
+      {
+         removeFile(event.getFrom(), false);
+         completeTerms_.clear();
+      });
+      events.addHandler(SourceFileSavedEvent.TYPE, event -> completeTerms_.clear());
+      events.addHandler(SourceDocAddedEvent.TYPE, event -> completeTerms_.clear());
+      events.addHandler(DocTabClosedEvent.TYPE, event -> completeTerms_.clear());
+   }
+
+   /**
+    * @return The part of a query that's matched against symbol names (that
+    *    is, without any trailing line:column)
+    */
+   static String termFor(String query)
+   {
+      int colonIndex = query.indexOf(":");
+      return colonIndex == -1 ? query : query.substring(0, colonIndex);
+   }
+
+   /**
+    * @return true if the index holds every symbol matching the term
+    */
+   boolean isComplete(String term)
+   {
+      String termLower = term.toLowerCase();
+      for (String complete : completeTerms_)
+         if (termLower.startsWith(complete))
+            return true;
+      return false;
+   }
+
+   /**
+    * Adds the symbols the server returned for a term, in place of any
+    * already in the index. If the results are complete, symbols which
+    * matched the term but weren't returned are dropped as stale.
+    *
+    * @return The indexed suggestions, in the order given
+    */
+   ArrayList<CodeSearchSuggestion> update(String term,
+                                          List<CodeSearchSuggestion> suggestions,
+                                          boolean moreAvailable)
+   {
+      ArrayList<CodeSearchSuggestion> indexed =
+            new ArrayList<CodeSearchSuggestion>(suggestions.size());
+      HashSet<String> returned = new HashSet<String>();
+      for (CodeSearchSuggestion suggestion : suggestions)
+      {
+         String key = keyFor(suggestion);
+         returned.add(key);
+         entries_.put(key, new Entry(suggestion));
+         indexed.add(suggestion);
+      }
+
+      if (moreAvailable)
+         return indexed;
+
+      Matcher matcher = new Matcher(term);
+      boolean removed = false;
+      Iterator<Map.Entry<String, Entry>> it = entries_.entrySet().iterator();
+      while (it.hasNext())
+      {
+         Map.Entry<String, Entry> entry = it.next();
+         if (!returned.contains(entry.getKey()) && matcher.matches(entry.getValue()))
+         {
+            it.remove();
+            removed = true;
+         }
+      }
+
+      // a symbol which went stale may have been counted on by another term
+      if (removed)
+         completeTerms_.clear();
+
+      if (completeTerms_.size() >= MAX_COMPLETE_TERMS)
+         completeTerms_.remove(completeTerms_.iterator().next());
+      completeTerms_.add(term.toLowerCase());
+      return indexed;
+   }
+
+   /**
+    * @return Up to limit indexed symbols matching the term, best first
+    */
+   ArrayList<CodeSearchSuggestion> search(String term, int limit)
+   {
+      Matcher matcher = new Matcher(term);
+      ArrayList<CodeSearchSuggestion> matches = new ArrayList<CodeSearchSuggestion>();
+      for (Entry entry : entries_.values())
+         if (matcher.matches(entry))
+            matches.add(entry.suggestion);
+      return rank(matches, term, limit);
+   }
+
+   /**
+    * @return The best limit suggestions for the term, best first; each
+    *    suggestion is scored once, and only the best are sorted
+    */
+   static ArrayList<CodeSearchSuggestion> rank(List<CodeSearchSuggestion> suggestions,
+                                               String term,
+                                               int limit)
+   {
+      // keep the best 'limit' matches, with the worst of them on top
+      PriorityQueue<Scored> best = new PriorityQueue<Scored>(
+            Math.max(1, limit),
+            Collections.reverseOrder(BY_SCORE));
+      for (CodeSearchSuggestion suggestion : suggestions)
+      {
+         Scored scored = new Scored(suggestion, CodeSearchOracle.scoreMatch(
+               suggestion.getMatchedString(), term, suggestion.isFileTarget()));
+         if (best.size() < limit)
+         {
+            best.add(scored);
+         }
+         else if (limit > 0 && BY_SCORE.compare(scored, best.peek()) < 0)
+         {
+            best.poll();
+            best.add(scored);
+         }
+      }
+
+      ArrayList<Scored> sorted = new ArrayList<Scored>(best);
+      Collections.sort(sorted, BY_SCORE);
+
+      ArrayList<CodeSearchSuggestion> ranked =
+            new ArrayList<CodeSearchSuggestion>(sorted.size());
+      for (Scored scored : sorted)
+         ranked.add(scored.suggestion);
+      return ranked;
+   }
+
+   /**
+    * @return true if both lists hold the same targets, in the same order
+    */
+   static boolean sameTargets(List<CodeSearchSuggestion> lhs,
+                              List<CodeSearchSuggestion> rhs)
+   {
+      if (lhs.size() != rhs.size())
+         return false;
+      for (int i = 0; i < lhs.size(); i++)
+         if (!keyFor(lhs.get(i)).equals(keyFor(rhs.get(i))))
+            return false;
+      return true;
+   }
+
+   int size()
+   {
+      return entries_.size();
+   }
+
+   void clear()
+   {
+      entries_.clear();
+      completeTerms_.clear();
+   }
+
+   void onFileChange(FileChange change)
+   {
+      FileSystemItem file = change.getFile();
+      switch (change.getType())
+      {
+      case FileChange.DELETE:
+         // removing symbols can't add matches for any term
+         removeFile(file.getPath(), file.isDirectory());
+         break;
+      case FileChange.MODIFIED:
+         if (!file.isDirectory() &&
+             SOURCE_EXTENSIONS.contains(file.getExtension().toLowerCase()))
+         {
+            removeFile(file.getPath(), false);
+            completeTerms_.clear();
+         }
+         break;
+      case FileChange.ADD:
+      default:
+         completeTerms_.clear();
+         break;
+      }
+   }
+
+   private void removeFile(String path, boolean isDirectory)
+   {
+      if (StringUtil.isNullOrEmpty(path))
+         return;
+
+      String prefix = path.endsWith("/") ? path : path + "/";
+      for (Iterator<Entry> it = entries_.values().iterator(); it.hasNext(); )
+      {
+         String file = it.next().suggestion.getNavigationTarget().getFile();
+         if (path.equals(file) || (isDirectory && file != null && file.startsWith(prefix)))
+            it.remove();
+      }
+   }
+
+   private static String keyFor(CodeSearchSuggestion suggestion)
+   {
+      if (suggestion.isFileTarget())
+         return "f:" + suggestion.getNavigationTarget().getFile();
+
+      FilePosition position = suggestion.getNavigationTarget().getPosition();
+      return "s:" + suggestion.getNavigationTarget().getFile() + ":" +
+             (position == null ? "" : position.getLine() + ":" + position.getColumn()) +
+             ":" + suggestion.getMatchedString();
+   }
+
+   /**
+    * A bit for each letter, plus one shared by all digits. A symbol can
+    * only match a term if its mask covers the term's.
+    */
+   private static int charMask(String lower)
+   {
+      int mask = 0;
+      for (int i = 0, n = lower.length(); i < n; i++)
+      {
+         char ch = lower.charAt(i);
+         if (ch >= 'a' && ch <= 'z')
+            mask |= 1 << (ch - 'a');
+         else if (ch >= '0' && ch <= '9')
+            mask |= 1 << 26;
+      }
+      return mask;
+   }
+
+   // matches symbols as the server does: terms containing '*' are patterns
+   // anchored at the start of the name, others are subsequences of it
+   private static class Matcher
+   {
+      Matcher(String term)
+      {
+         termLower_ = term.toLowerCase();
+         pattern_ = termLower_.indexOf('*') == -1 ? null : patternFor(termLower_);
+         mask_ = charMask(termLower_);
+      }
+
+      boolean matches(Entry entry)
+      {
+         if ((entry.mask & mask_) != mask_)
+            return false;
+
+         if (pattern_ != null)
+         {
+            Match match = pattern_.match(entry.nameLower, 0);
+            return match != null && match.getIndex() == 0;
+         }
+
+         return StringUtil.isSubsequence(entry.nameLower, termLower_);
+      }
+
+      private static Pattern patternFor(String term)
+      {
+         // split the term on *
+         StringBuilder regex = new StringBuilder();
+         String[] components = term.split("\\*", -1);
+         for (int i = 0; i < components.length; i++)
+         {
+            if (i > 0)
+               regex.append(".*");
+            regex.append(Pattern.escape(components[i]));
+         }
+         return Pattern.create(regex.toString());
+      }
+
+      private final String termLower_;
+      private final Pattern pattern_;
+      private final int mask_;
+   }
+
+   private static class Entry
+   {
+      Entry(CodeSearchSuggestion suggestion)
+      {
+         this.suggestion = suggestion;
+         this.nameLower = suggestion.getMatchedString().toLowerCase();
+         this.mask = charMask(nameLower);
+      }
+
+      final CodeSearchSuggestion suggestion;
+      final String nameLower;
+      final int mask;
+   }
+
+   private static class Scored
+   {
+      Scored(CodeSearchSuggestion suggestion, int score)
+      {
+         this.suggestion = suggestion;
+         this.score = score;
+      }
+
+      final CodeSearchSuggestion suggestion;
+      final int score;
+   }
+
+   // best score first, then shortest name
+   private static final Comparator<Scored> BY_SCORE = new Comparator<Scored>()
+   {
+      @Override
+      public int compare(Scored lhs, Scored rhs)
+      {
+         if (lhs.score != rhs.score)
+            return lhs.score < rhs.score ? -1 : 1;
+         return lhs.suggestion.getMatchedString().length() -
+                rhs.suggestion.getMatchedString().length();
+      }
+   };
+
+   private static final HashSet<String> SOURCE_EXTENSIONS = new HashSet<String>();
+   static
+   {
+      for (String ext : new String[] {
+            ".r", ".rmd", ".rnw", ".c", ".cc", ".cpp", ".h", ".hpp" })
+         SOURCE_EXTENSIONS.add(ext);
+   }
+
+   static final int MAX_ENTRIES = 20000;
+   private static final int MAX_COMPLETE_TERMS = 64;
+
+   private final LinkedHashMap<String, Entry> entries_;
+   private final LinkedHashSet<String> completeTerms_ = new LinkedHashSet<String>();
+}
@@ -15,7 +15,6 @@
 package org.rstudio.studio.client.workbench.codesearch;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 import org.rstudio.core.client.CodeNavigationTarget;
@@ -25,8 +24,6 @@ import org.rstudio.core.client.Invalidation;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.TimeBufferedCommand;
 import org.rstudio.core.client.files.FileSystemItem;
-import org.rstudio.core.client.regex.Match;
-import org.rstudio.core.client.regex.Pattern;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
@@ -43,15 +40,12 @@ public class CodeSearchOracle extends SuggestOracle
 {
    @Inject
    public CodeSearchOracle(CodeSearchServerOperations server,
-                           WorkbenchContext workbenchContext)
+                           WorkbenchContext workbenchContext,
+                           CodeSearchIndex index)
    {
       server_ = server;
       workbenchContext_ = workbenchContext;
-   }
-   
-   private static int scoreMatch(CodeSearchSuggestion suggestion, String query)
-   {
-      return scoreMatch(suggestion.getMatchedString(), query, suggestion.isFileTarget());
+      index_ = index;
    }
    
    // NOTE: When modifying this function, you should ensure that the associated
@@ -124,73 +118,27 @@ public class CodeSearchOracle extends SuggestOracle
       // invalidate any outstanding search
       searchInvalidation_.invalidate();
       
-      // first see if we can serve the request from the cache
-      for (int i=resultCache_.size() - 1; i >= 0; i--)
+      // refinements of a term the index holds every match for are searched
+      // for locally
+      String term = CodeSearchIndex.termFor(request.getQuery());
+      if (index_.isComplete(term))
       {
-         // get the previous result
-         SearchResult res = resultCache_.get(i);
+         ArrayList<CodeSearchSuggestion> suggestions =
+               labelFiles(index_.search(term, request.getLimit()));
+         callback.onSuggestionsReady(request, new Response(suggestions));
          
-         // exact match of previous query
-         if (request.getQuery() == res.getQuery())
+         // the index may have missed a change made while no search was
+         // open, so check the first result of each search with the server
+         if (!revalidated_)
          {
-            callback.onSuggestionsReady(request, 
-                                        new Response(res.getSuggestions()));
-            return;
+            revalidated_ = true;
+            codeSearch_.enqueRequest(request, callback, suggestions);
          }
-         
-         // if this query is a further refinement of a non-overflowed 
-         // previous query then satisfy it by filtering the previous results
-         if (!res.getMoreAvailable() && 
-             request.getQuery().startsWith(res.getQuery()))
-         {
-            Pattern pattern = null;
-            String query = request.getQuery();
-            String queryLower = query.toLowerCase();
-            
-            if (queryLower.indexOf('*') != -1)
-               pattern = patternForTerm(queryLower);
-            
-            ArrayList<CodeSearchSuggestion> suggestions =
-                                       new ArrayList<CodeSearchSuggestion>();
-            for (int s=0; s<res.getSuggestions().size(); s++)
-            {
-               CodeSearchSuggestion sugg = res.getSuggestions().get(s);
-               
-               String name = sugg.getMatchedString().toLowerCase();
-               if (pattern != null)
-               {
-                  Match match = pattern.match(name, 0);
-                  if (match != null && match.getIndex() == 0)
-                     suggestions.add(sugg);
-               }
-               else
-               {
-                  int colonIndex = query.indexOf(":");
-                  if (colonIndex == -1)
-                     colonIndex = query.length();
-                  
-                  if (StringUtil.isSubsequence(name, query.substring(0, colonIndex), true))
-                     suggestions.add(sugg);
-               }
-            }
-            
-            // process and cache suggestions. note that this adds an item to
-            // the end of the resultCache_ (which we are currently iterating
-            // over) no biggie because we are about to return from the loop
-            suggestions = processSuggestions(request, suggestions, false);
-            
-            // sort suggestions
-            sortSuggestions(suggestions, query);
-            
-            // return suggestions
-            callback.onSuggestionsReady(request, new Response(suggestions));
-            
-            return;
-         } 
+         return;
       }
       
-      // failed to short-circuit via the cache, hit the server
-      codeSearch_.enqueRequest(request, callback); 
+      // failed to short-circuit via the index, hit the server
+      codeSearch_.enqueRequest(request, callback, null);
    }
      
    public CodeNavigationTarget navigationTarget(String query,
@@ -246,14 +194,10 @@ public class CodeSearchOracle extends SuggestOracle
       searchInvalidation_.invalidate();
    }
    
-   public boolean hasCachedResults()
-   {
-      return !resultCache_.isEmpty();
-   }
-   
    public void clear()
    {
-      resultCache_.clear();
+      // the next search served by the index will be checked with the server
+      revalidated_ = false;
    }
    
    @Override
@@ -262,20 +206,6 @@ public class CodeSearchOracle extends SuggestOracle
       return true;
    }
    
-   private Pattern patternForTerm(String term)
-   {
-      // split the term on *
-      StringBuilder regex = new StringBuilder();
-      String[] components = term.split("\\*", -1);
-      for (int i=0; i<components.length; i++)
-      {
-         if (i > 0)
-            regex.append(".*");
-         regex.append(Pattern.escape(components[i]));
-      }    
-      return Pattern.create(regex.toString());
-   }
-   
    private class CodeSearchCommand extends TimeBufferedCommand  
    {
       public CodeSearchCommand()
@@ -283,10 +213,13 @@ public class CodeSearchOracle extends SuggestOracle
          super(300);
       }
       
-      public void enqueRequest(Request request, Callback callback)
+      public void enqueRequest(Request request,
+                               Callback callback,
+                               ArrayList<CodeSearchSuggestion> shown)
       {
          request_ = request;
          callback_ = callback;
+         shown_ = shown;
          invalidationToken_ = searchInvalidation_.getInvalidationToken();
          
          if (!executing_)
@@ -298,10 +231,15 @@ public class CodeSearchOracle extends SuggestOracle
       {
          executing_ = true;
          
-         // failed to short-circuit via the cache, hit the server
+         final Request request = request_;
+         final Callback callback = callback_;
+         final ArrayList<CodeSearchSuggestion> shown = shown_;
+         final Invalidation.Token invalidationToken = invalidationToken_;
+         final String term = CodeSearchIndex.termFor(request.getQuery());
+         
          server_.searchCode(
-               request_.getQuery(),
-               request_.getLimit(),
+               request.getQuery(),
+               request.getLimit(),
                new ServerRequestCallback<CodeSearchResults>() {
             
             @Override
@@ -327,22 +265,23 @@ public class CodeSearchOracle extends SuggestOracle
                      new CodeSearchSuggestion(srcResults.get(i), context));    
                }
                   
-               // process suggestions (disambiguate paths & cache)
-              suggestions = processSuggestions(request_, 
-                                               suggestions,
-                                               response.getMoreAvailable());
-              
-              // sort suggestions
-              sortSuggestions(suggestions, request_.getQuery());
+               // index the suggestions, then rank them: when the server
+               // returned every match the index now holds them all
+               boolean moreAvailable = response.getMoreAvailable();
+               index_.update(term, suggestions, moreAvailable);
+               suggestions = labelFiles(moreAvailable ?
+                     CodeSearchIndex.rank(suggestions, term, request.getLimit()) :
+                     index_.search(term, request.getLimit()));
                
-               // return suggestions
-               if (!invalidationToken_.isInvalid())
+               // return suggestions (unless they're already shown)
+               if (!invalidationToken.isInvalid() &&
+                   (shown == null || !CodeSearchIndex.sameTargets(shown, suggestions)))
                {
-                  callback_.onSuggestionsReady(request_, 
-                                               new Response(suggestions));
+                  callback.onSuggestionsReady(request, 
+                                              new Response(suggestions));
                }
                
-               executing_ = false;
+               onRequestFinished();
             }
 
             @Override
@@ -354,6 +293,16 @@ public class CodeSearchOracle extends SuggestOracle
                         "Code Search Error", error.getUserMessage());
                }
                
+               onRequestFinished();
+            }
+            
+            private void onRequestFinished()
+            {
+               executing_ = false;
+               
+               // run the request made while this one was in flight, if any
+               if (request_ != request)
+                  nudge();
             }
          });
          
@@ -361,121 +310,44 @@ public class CodeSearchOracle extends SuggestOracle
       
       private Request request_;
       private Callback callback_;
+      private ArrayList<CodeSearchSuggestion> shown_;
       private Invalidation.Token invalidationToken_;
       private boolean executing_;
    };
    
-   private void sortSuggestions(ArrayList<CodeSearchSuggestion> suggestions,
-                                String query)
+   private ArrayList<CodeSearchSuggestion> labelFiles(
+                                 ArrayList<CodeSearchSuggestion> suggestions)
    {
-      // sort the suggestions -- we want suggestions for which
-      // the query matches the start to come first
-      int colonIndex = query.indexOf(":");
-      final String localQuery = colonIndex > 0 ?
-            query.substring(0, colonIndex) :
-            query;
-      
-      java.util.Collections.sort(suggestions,
-            new Comparator<CodeSearchSuggestion>() {
-
-         @Override
-         public int compare(CodeSearchSuggestion lhs,
-                            CodeSearchSuggestion rhs)
-         {
-            int lhsScore = scoreMatch(lhs, localQuery);
-            int rhsScore = scoreMatch(rhs, localQuery);
-
-            if (lhsScore == rhsScore)
-            {
-               return lhs.getMatchedString().length() -
-                      rhs.getMatchedString().length();
-            }
-            else
-            {
-               return lhsScore < rhsScore ? -1 : 1;
-            }
-         }
-
-      });
-      
-   }
-   
-   
-   private ArrayList<CodeSearchSuggestion> processSuggestions(
-                                   Request request, 
-                                   ArrayList<CodeSearchSuggestion> suggestions,
-                                   boolean moreAvailable)
-   {
-      // get file paths for file targets (which are always at the beginning)
+      // get file paths for file targets
       ArrayList<String> filePaths = new ArrayList<String>();
-      for(CodeSearchSuggestion suggestion : suggestions)
+      ArrayList<CodeSearchSuggestion> fileSuggestions =
+                                       new ArrayList<CodeSearchSuggestion>();
+      for (CodeSearchSuggestion suggestion : suggestions)
       {
          if (!suggestion.isFileTarget())
-            break;
+            continue;
          
          filePaths.add(suggestion.getNavigationTarget().getFile());
+         fileSuggestions.add(suggestion);
       }
       
       // disambiguate them
       ArrayList<String> displayLabels = DuplicateHelper.getPathLabels(filePaths,
                                                                       true);
-      ArrayList<CodeSearchSuggestion> newSuggestions =
-                            new ArrayList<CodeSearchSuggestion>(suggestions);
       for (int i=0; i<displayLabels.size(); i++)
-         newSuggestions.get(i).setFileDisplayString(filePaths.get(i),
-                                                    displayLabels.get(i));
-      
-      
-      // cache the suggestions (up to 15 active result sets cached)
-      // NOTE: the cache is cleared on gain focus, lost focus, and 
-      // the search term reverting back to empty)
-      if (resultCache_.size() > 15)
-         resultCache_.remove(0);
-      resultCache_.add(new SearchResult(request.getQuery(), 
-                                        newSuggestions, 
-                                        moreAvailable));
+         fileSuggestions.get(i).setFileDisplayString(filePaths.get(i),
+                                                     displayLabels.get(i));
       
-      return newSuggestions;
+      return suggestions;
    }
    
    private final Invalidation searchInvalidation_ = new Invalidation();
    
    private final CodeSearchServerOperations server_ ;
    private final WorkbenchContext workbenchContext_;
+   private final CodeSearchIndex index_;
    private final CodeSearchCommand codeSearch_ = new CodeSearchCommand();
    
-   private final ArrayList<SearchResult> resultCache_ = 
-                                             new ArrayList<SearchResult>();
-   
-   private class SearchResult
-   {
-      public SearchResult(String query, 
-                          ArrayList<CodeSearchSuggestion> suggestions,
-                          boolean moreAvailable)
-      {
-         query_ = query;
-         suggestions_ = suggestions;
-         moveAvailable_ = moreAvailable;
-      }
-      
-      public String getQuery()
-      {
-         return query_;
-      }
-      
-      public ArrayList<CodeSearchSuggestion> getSuggestions()
-      {
-         return suggestions_;
-      }
-      
-      public boolean getMoreAvailable()
-      {
-         return moveAvailable_;
-      }
-      
-      private final String query_;
-      private final ArrayList<CodeSearchSuggestion> suggestions_;
-      private final boolean moveAvailable_;
-   }
-   
+   private boolean revalidated_;
+
 }
@@ -41,7 +41,7 @@ class CodeSearchSuggestion implements Suggestion
             
       // compute display string
       ImageResource image = 
-         fileTypeRegistry_.getIconForFilename(fileItem.getFilename());
+         getFileTypeRegistry().getIconForFilename(fileItem.getFilename());
    
       displayString_ = createDisplayString(image,
                                            RES.styles().fileImage(),
@@ -126,7 +126,7 @@ class CodeSearchSuggestion implements Suggestion
    public void setFileDisplayString(String file, String displayString)
    {
       // compute display string
-      ImageResource image =  fileTypeRegistry_.getIconForFilename(file);
+      ImageResource image =  getFileTypeRegistry().getIconForFilename(file);
       displayString_ = createDisplayString(image,
                                            RES.styles().fileImage(),
                                            displayString,
@@ -180,11 +180,16 @@ class CodeSearchSuggestion implements Suggestion
    }
    
    
+   // only file suggestions need the registry, so symbol suggestions don't
+   // depend on the injector
+   private static FileTypeRegistry getFileTypeRegistry()
+   {
+      return RStudioGinjector.INSTANCE.getFileTypeRegistry();
+   }
+   
    private final boolean isFileTarget_;
    private final CodeNavigationTarget navigationTarget_ ;
    private final String matchedString_;
    private String displayString_;
-   private static final FileTypeRegistry fileTypeRegistry_ =
-                              RStudioGinjector.INSTANCE.getFileTypeRegistry();
    private static final CodeSearchResources RES = CodeSearchResources.INSTANCE;
 }
\ No newline at end of file
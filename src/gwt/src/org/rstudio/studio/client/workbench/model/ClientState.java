@@ -17,6 +17,8 @@ package org.rstudio.studio.client.workbench.model;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArrayString;
 
+import org.rstudio.core.client.js.JsObject;
+
 public final class ClientState extends JavaScriptObject
 {
    public static final int TEMPORARY = 0;
@@ -60,6 +62,44 @@ public final class ClientState extends JavaScriptObject
       return this.project_persistent;
    }-*/;
 
+   /**
+    * Removes values that serialize to the same JSON as when last sent to the
+    * server. Values are keyed by scope, group and name ("1/group/name").
+    *
+    * @param sent The JSON of each value as last sent to the server
+    * @param changed Receives the JSON of each value that remains
+    */
+   public native final void removeUnchanged(JsObject sent,
+                                            JsObject changed) /*-{
+      var scopes = [this.temporary, this.persistent, this.project_persistent];
+      var isEmpty = true;
+      for (var i = 0; i < scopes.length; i++) {
+         var scope = scopes[i];
+         for (var group in scope) {
+            var values = scope[group];
+            var groupEmpty = true;
+            for (var name in values) {
+               var key = i + "/" + group + "/" + name;
+               var json = JSON.stringify(values[name]);
+               if (json === undefined)
+                  json = "null";
+               if (sent[key] === json) {
+                  delete values[name];
+               }
+               else {
+                  changed[key] = json;
+                  groupEmpty = false;
+               }
+            }
+            if (groupEmpty)
+               delete scope[group];
+            else
+               isEmpty = false;
+         }
+      }
+      this.isEmpty = isEmpty;
+   }-*/;
+
    public native final boolean isEmpty() /*-{
       return this.isEmpty;
    }-*/;
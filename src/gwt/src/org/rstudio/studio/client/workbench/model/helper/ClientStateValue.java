@@ -32,7 +32,9 @@ import org.rstudio.studio.client.workbench.model.ValueChangeTracker;
  * By default, getValue() will be called periodically to check for changes.
  * This will be called quite often so if it will be expensive and there's a
  * cheaper way to determine if the value changed, you can override hasChanged()
- * and have different logic. 
+ * and have different logic. Values that are reported as changed but serialize
+ * to the same JSON as last time are dropped by ClientStateUpdater before they
+ * are sent, so hasChanged() can err on the side of reporting a change.
  *
  * @param <T>
  */
@@ -0,0 +1,250 @@
+/*
+ * CompletionIndex.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.console.shell.assist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.studio.client.common.codetools.RCompletionType;
+import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionRequester.CompletionResult;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionRequester.QualifiedName;
+
+/**
+ * Narrows a cacheable completion result as the user keeps typing.
+ *
+ * The lower-cased match key and a character mask for each candidate are
+ * computed once, when the result arrives from the server. Narrowed results
+ * are kept in a small LRU keyed by the text typed since the request; since
+ * every match for a token is also a match for each of its prefixes, a new
+ * result is filtered from the closest cached prefix rather than from the
+ * full candidate list, and backspacing is served straight from the LRU.
+ * The unfiltered result is kept outside the LRU, so it's never evicted.
+ */
+class CompletionIndex
+{
+   public CompletionIndex(CompletionResult result)
+   {
+      result_ = result;
+
+      int n = result.completions.size();
+      keys_ = new String[n];
+      masks_ = new int[n];
+      isFile_ = new boolean[n];
+      int[] all = new int[n];
+      for (int i = 0; i < n; i++)
+      {
+         QualifiedName qname = result.completions.get(i);
+         isFile_[i] = RCompletionType.isFileType(qname.type);
+         keys_[i] = (isFile_[i] ? basename(qname.name) : qname.name).toLowerCase();
+         masks_[i] = charMask(keys_[i]);
+         all[i] = i;
+      }
+
+      unfiltered_ = new Entry(all, result);
+      narrowed_ = new LinkedHashMap<String, Entry>(16, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+         {
+            return size() > MAX_CACHED_PREFIXES;
+         }
+      };
+   }
+
+   public CompletionResult getResult()
+   {
+      return result_;
+   }
+
+   /**
+    * @param diff The text typed since the completions were requested
+    * @return The completions matching the original token plus diff
+    */
+   public CompletionResult narrow(String diff)
+   {
+      if (diff.isEmpty())
+         return unfiltered_.result;
+
+      Entry cached = narrowed_.get(diff);
+      if (cached != null)
+         return cached.result;
+
+      String token = result_.token + diff;
+      Entry entry = new Entry(
+            filter(closestPrefix(diff).indices, token),
+            token);
+      narrowed_.put(diff, entry);
+      return entry.result;
+   }
+
+   public int getCachedPrefixCount()
+   {
+      return narrowed_.size();
+   }
+
+   /**
+    * Finds the cached entry for the longest prefix of diff whose matches are
+    * guaranteed to include all matches for diff. File completions are matched
+    * on the text following the last '/' only, so a prefix is no good once
+    * another '/' has been typed after it.
+    */
+   private Entry closestPrefix(String diff)
+   {
+      int slash = diff.lastIndexOf('/');
+      for (int end = diff.length() - 1; end > slash; end--)
+      {
+         Entry entry = narrowed_.get(diff.substring(0, end));
+         if (entry != null)
+            return entry;
+      }
+
+      // the unfiltered result includes every possible match
+      return unfiltered_;
+   }
+
+   private int[] filter(int[] candidates, String token)
+   {
+      // file types are narrowed only by the file name
+      String tokenSub = token.substring(token.lastIndexOf('/') + 1);
+      String tokenFuzzy = fuzzy(tokenSub).toLowerCase();
+      int tokenMask = charMask(tokenFuzzy);
+      boolean allowDot = token.startsWith(".");
+
+      int[] matches = new int[candidates.length];
+      int count = 0;
+      for (int i = 0; i < candidates.length; i++)
+      {
+         int index = candidates[i];
+
+         // cheap rejection of candidates lacking characters in the token
+         if ((masks_[index] & tokenMask) != tokenMask)
+            continue;
+
+         if (!isFile_[index] && !allowDot && keys_[index].startsWith("."))
+            continue;
+
+         if (StringUtil.isSubsequence(keys_[index], tokenFuzzy))
+            matches[count++] = index;
+      }
+
+      int[] result = new int[count];
+      System.arraycopy(matches, 0, result, 0, count);
+      return result;
+   }
+
+   private static String basename(String absolutePath)
+   {
+      return absolutePath.substring(absolutePath.lastIndexOf('/') + 1);
+   }
+
+   private static final native String fuzzy(String string) /*-{
+      return string.replace(/(?!^)[._]/g, "");
+   }-*/;
+
+   /**
+    * A bit for each letter, plus one shared by all digits. A candidate can
+    * only match a token if its mask covers the token's.
+    */
+   private static int charMask(String lower)
+   {
+      int mask = 0;
+      for (int i = 0, n = lower.length(); i < n; i++)
+      {
+         char ch = lower.charAt(i);
+         if (ch >= 'a' && ch <= 'z')
+            mask |= 1 << (ch - 'a');
+         else if (ch >= '0' && ch <= '9')
+            mask |= 1 << 26;
+      }
+      return mask;
+   }
+
+   private class Entry
+   {
+      public Entry(int[] indices, CompletionResult result)
+      {
+         this.indices = indices;
+         this.result = result;
+      }
+
+      public Entry(int[] matches, String token)
+      {
+         String tokenSub = token.substring(token.lastIndexOf('/') + 1);
+
+         // score each match once, up front, rather than on every comparison
+         final int[] scores = new int[matches.length];
+         List<Integer> order = new ArrayList<Integer>(matches.length);
+         for (int i = 0; i < matches.length; i++)
+         {
+            int index = matches[i];
+            QualifiedName qname = result_.completions.get(index);
+            scores[i] = isFile_[index]
+                  ? CodeSearchOracle.scoreMatch(basename(qname.name), tokenSub, true)
+                  : CodeSearchOracle.scoreMatch(qname.name, token, false);
+
+            // Place arguments higher (give less penalty)
+            if (qname.type == RCompletionType.ARGUMENT)
+               scores[i] -= 3;
+
+            order.add(i);
+         }
+
+         Collections.sort(order, new Comparator<Integer>()
+         {
+            @Override
+            public int compare(Integer lhs, Integer rhs)
+            {
+               int lhsScore = scores[lhs];
+               int rhsScore = scores[rhs];
+               if (lhsScore == rhsScore)
+                  return result_.completions.get(matches[lhs]).compareTo(
+                        result_.completions.get(matches[rhs]));
+               return lhsScore < rhsScore ? -1 : 1;
+            }
+         });
+
+         ArrayList<QualifiedName> completions =
+               new ArrayList<QualifiedName>(order.size());
+         for (int i : order)
+            completions.add(result_.completions.get(matches[i]));
+
+         this.indices = matches;
+         this.result = new CompletionResult(
+               token,
+               completions,
+               result_.guessedFunctionName,
+               result_.suggestOnAccept,
+               result_.dontInsertParens);
+      }
+
+      public final int[] indices;
+      public final CompletionResult result;
+   }
+
+   private static final int MAX_CACHED_PREFIXES = 32;
+
+   private final CompletionResult result_;
+   private final String[] keys_;
+   private final int[] masks_;
+   private final boolean[] isFile_;
+   private final Entry unfiltered_;
+   private final LinkedHashMap<String, Entry> narrowed_;
+}
@@ -35,7 +35,6 @@ import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
 import org.rstudio.studio.client.common.icons.code.CodeIcons;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
-import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
 import org.rstudio.studio.client.workbench.snippets.SnippetHelper;
 import org.rstudio.studio.client.workbench.views.console.shell.ConsoleLanguageTracker;
@@ -57,7 +56,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 
 public class CompletionRequester
@@ -68,8 +66,7 @@ public class CompletionRequester
    private final SnippetHelper snippets_ ;
 
    private String cachedLinePrefix_ ;
-   private HashMap<String, CompletionResult> cachedCompletions_ =
-         new HashMap<String, CompletionResult>();
+   private CompletionIndex cachedCompletions_ ;
    private RnwCompletionContext rnwContext_ ;
    
    public CompletionRequester(RnwCompletionContext rnwContext,
@@ -107,26 +104,24 @@ public class CompletionRequester
       if (cachedLinePrefix_ == null)
          return false;
       
-      CompletionResult cachedResult = cachedCompletions_.get("");
-      if (cachedResult == null)
+      if (cachedCompletions_ == null)
          return false;
       
       if (token.toLowerCase().startsWith(cachedLinePrefix_.toLowerCase()))
       {
          String diff = token.substring(cachedLinePrefix_.length(), token.length());
 
-         // if we already have a cached result for this diff, use it
-         CompletionResult cached = cachedCompletions_.get(diff);
-         if (cached != null)
+         if (diff.length() == 0)
          {
-            callback.onResponseReceived(cached);
+            callback.onResponseReceived(cachedCompletions_.getResult());
             return true;
          }
-
-         // otherwise, produce a new completion list
-         if (diff.length() > 0 && !diff.endsWith("::"))
+         
+         // otherwise, produce a new completion list (previously narrowed
+         // lists are cached by the index)
+         if (!diff.endsWith("::"))
          {
-            callback.onResponseReceived(narrow(cachedResult.token + diff, diff, cachedResult)) ;
+            callback.onResponseReceived(cachedCompletions_.narrow(diff)) ;
             return true;
          }
       }
@@ -135,89 +130,6 @@ public class CompletionRequester
       
    }
    
-   private String basename(String absolutePath)
-   {
-      return absolutePath.substring(absolutePath.lastIndexOf('/') + 1);
-   }
-   
-   private boolean filterStartsWithDot(String item,
-                                       String token)
-   {
-      return !(!token.startsWith(".") && item.startsWith("."));
-   }
-   
-   private static final native String fuzzy(String string) /*-{
-      return string.replace(/(?!^)[._]/g, "");
-   }-*/;
-   
-   private CompletionResult narrow(final String token,
-                                   final String diff,
-                                   CompletionResult cachedResult)
-   {
-      ArrayList<QualifiedName> newCompletions = new ArrayList<QualifiedName>();
-      newCompletions.ensureCapacity(cachedResult.completions.size());
-      
-      // For completions that are files or directories, we need to post-process
-      // the token and the qualified name to strip out just the basename (filename).
-      // Note that we normalize the paths such that files will have no trailing slash,
-      // while directories will have one trailing slash (but we defend against multiple
-      // trailing slashes)
-      
-      // Transform the token once beforehand for completions.
-      final String tokenSub   = token.substring(token.lastIndexOf('/') + 1);
-      final String tokenFuzzy = fuzzy(tokenSub);
-      
-      for (QualifiedName qname : cachedResult.completions)
-      {
-         // File types are narrowed only by the file name
-         if (RCompletionType.isFileType(qname.type))
-         {
-            if (StringUtil.isSubsequence(basename(qname.name), tokenFuzzy, true))
-               newCompletions.add(qname);
-         }
-         else
-         {
-            if (StringUtil.isSubsequence(qname.name, tokenFuzzy, true) &&
-                filterStartsWithDot(qname.name, token))
-               newCompletions.add(qname) ;
-         }
-      }
-      
-      java.util.Collections.sort(newCompletions, new Comparator<QualifiedName>() {
-         
-         @Override
-         public int compare(QualifiedName lhs, QualifiedName rhs)
-         {
-            int lhsScore = RCompletionType.isFileType(lhs.type)
-                  ? CodeSearchOracle.scoreMatch(basename(lhs.name), tokenSub, true)
-                  : CodeSearchOracle.scoreMatch(lhs.name, token, false);
-            
-            int rhsScore = RCompletionType.isFileType(rhs.type)
-               ? CodeSearchOracle.scoreMatch(basename(rhs.name), tokenSub, true)
-               : CodeSearchOracle.scoreMatch(rhs.name, token, false);
-            
-            // Place arguments higher (give less penalty)
-            if (lhs.type == RCompletionType.ARGUMENT) lhsScore -= 3;
-            if (rhs.type == RCompletionType.ARGUMENT) rhsScore -= 3;
-            
-            if (lhsScore == rhsScore)
-               return lhs.compareTo(rhs);
-            
-            return lhsScore < rhsScore ? -1 : 1;
-         }
-      });
-      
-      CompletionResult result = new CompletionResult(
-            token,
-            newCompletions,
-            cachedResult.guessedFunctionName,
-            cachedResult.suggestOnAccept,
-            cachedResult.dontInsertParens) ;
-      
-      cachedCompletions_.put(diff, result);
-      return result;
-   }
-   
    public void getDplyrJoinCompletionsString(
          final String token,
          final String string,
@@ -310,7 +222,7 @@ public class CompletionRequester
 
       if (response.isCacheable())
       {
-         cachedCompletions_.put("", result);
+         cachedCompletions_ = new CompletionIndex(result);
       }
 
       if (!implicit || result.completions.size() != 0)
@@ -435,7 +347,7 @@ public class CompletionRequester
 
             if (response.isCacheable())
             {
-               cachedCompletions_.put("", result);
+               cachedCompletions_ = new CompletionIndex(result);
             }
 
             callback.onResponseReceived(result);
@@ -739,7 +651,7 @@ public class CompletionRequester
    public void flushCache()
    {
       cachedLinePrefix_ = null ;
-      cachedCompletions_.clear();
+      cachedCompletions_ = null;
    }
    
    public static class CompletionResult
@@ -17,8 +17,12 @@ package org.rstudio.studio.client.workbench.views.environment.view;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.google.gwt.animation.client.AnimationScheduler;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayString;
@@ -103,73 +107,33 @@ public class EnvironmentObjects extends ResizeComposite
       contextDepth_ = contextDepth;
    }
 
+   // object assignments and removals are applied in batches, once per
+   // animation frame, so that a burst of events (e.g. from list2env) costs a
+   // single pass over the category leaders and a single scroll
    public void addObject(RObject obj)
    {
-      int idx = indexOfExistingObject(obj.getName());
-      final RObjectEntry newEntry = entryFromRObject(obj);
-      boolean added = false;
-
-      // if the object is already in the environment, just update the value
-      if (idx >= 0)
-      {
-         final RObjectEntry oldEntry = objectDataProvider_.getList().get(idx);
-
-         if (oldEntry.rObject.getType() == obj.getType())
-         {
-            // type hasn't changed
-            if (oldEntry.expanded && 
-                newEntry.contentsAreDeferred)
-            {
-               // we're replacing an object that has server-deferred contents--
-               // refill it immediately. (another approach would be to push the
-               // set of currently expanded objects to the server so these
-               // objects would show up on the client already expanded)
-               fillEntryContents(newEntry, idx, false);
-            }
-            else
-            {
-               // contents aren't deferred, just use the expanded state directly
-               newEntry.expanded = oldEntry.expanded;
-            }
-            objectDataProvider_.getList().set(idx, newEntry);
-            added = true;
-         }
-         else
-         {
-            // types did change, do a full add/remove
-            objectDataProvider_.getList().remove(idx);
-         }
-         
-      }
-      if (!added)
-      {
-         RObjectEntry entry = entryFromRObject(obj);
-         idx = indexOfNewObject(entry);
-         objectDataProvider_.getList().add(idx, entry);
-      }
-      updateCategoryLeaders(true);
-      
-      // defer to give the display a chance to update + render
-      final int index = idx;
-      Scheduler.get().scheduleDeferred(() -> {
-         objectDisplay_.getRowElement(index).scrollIntoView();
-      });
+      pendingObjects_.put(obj.getName(), obj);
+      schedulePendingObjects();
    }
 
    public void removeObject(String objName)
    {
-      int idx = indexOfExistingObject(objName);
-      if (idx >= 0)
-      {
-         objectDataProvider_.getList().remove(idx);
-      }
-
-      updateCategoryLeaders(true);
+      pendingObjects_.put(objName, null);
+      schedulePendingObjects();
    }
    
    public void clearObjects()
    {
+      // any pending changes predate the objects we're about to receive
+      pendingObjects_.clear();
+      if (pendingObjectsHandle_ != null)
+      {
+         pendingObjectsHandle_.cancel();
+         pendingObjectsHandle_ = null;
+      }
+
       objectDataProvider_.getList().clear();
+      entriesByName_.clear();
    }
    
    public void clearSelection()
@@ -192,6 +156,8 @@ public class EnvironmentObjects extends ResizeComposite
 
       // push the list into the UI and update category leaders
       objectDataProvider_.getList().addAll(objectEntryList);
+      for (RObjectEntry entry : objectEntryList)
+         entriesByName_.put(entry.rObject.getName(), entry);
       updateCategoryLeaders(false);
 
       if (useStatePersistence())
@@ -510,42 +476,167 @@ public class EnvironmentObjects extends ResizeComposite
 
    // Private methods: object management --------------------------------------
 
-   private int indexOfExistingObject(String objectName)
+   private void schedulePendingObjects()
+   {
+      if (pendingObjectsHandle_ != null)
+         return;
+
+      pendingObjectsHandle_ = AnimationScheduler.get().requestAnimationFrame(
+            (double timestamp) -> applyPendingObjects());
+   }
+
+   private void applyPendingObjects()
+   {
+      pendingObjectsHandle_ = null;
+      if (pendingObjects_.isEmpty())
+         return;
+
+      RObjectEntry lastAdded = null;
+      for (Map.Entry<String, RObject> pending : pendingObjects_.entrySet())
+      {
+         if (pending.getValue() == null)
+            applyRemoveObject(pending.getKey());
+         else
+            lastAdded = applyAddObject(pending.getValue());
+      }
+      pendingObjects_.clear();
+
+      updateCategoryLeaders(true);
+
+      if (lastAdded == null)
+         return;
+      
+      // defer to give the display a chance to update + render
+      final RObjectEntry entry = lastAdded;
+      Scheduler.get().scheduleDeferred(() -> {
+         int idx = indexOfEntry(entry);
+         if (idx >= 0 && isRowRendered(idx))
+            objectDisplay_.getRowElement(idx).scrollIntoView();
+      });
+   }
+
+   private RObjectEntry applyAddObject(RObject obj)
    {
       List<RObjectEntry> objects = objectDataProvider_.getList();
+      final RObjectEntry newEntry = entryFromRObject(obj);
 
-      // find the position of the object in the list--we can't use binary
-      // search here since we're matching on names and the list isn't sorted
-      // by name (it's sorted by type, then name)
-      int index;
-      boolean foundObject = false;
-      for (index = 0; index < objects.size(); index++)
+      // if the object is already in the environment, just update the value
+      RObjectEntry oldEntry = entriesByName_.get(obj.getName());
+      int idx = oldEntry == null ? -1 : indexOfEntry(oldEntry);
+      if (idx >= 0)
       {
-         if (objects.get(index).rObject.getName() == objectName)
+         if (oldEntry.rObject.getType() == obj.getType() &&
+             isInSortedPosition(newEntry, idx))
          {
-            foundObject = true;
-            break;
+            // type hasn't changed
+            if (oldEntry.expanded && 
+                newEntry.contentsAreDeferred)
+            {
+               // we're replacing an object that has server-deferred contents--
+               // refill it immediately. (another approach would be to push the
+               // set of currently expanded objects to the server so these
+               // objects would show up on the client already expanded)
+               fillEntryContents(newEntry, idx, false);
+            }
+            else
+            {
+               // contents aren't deferred, just use the expanded state directly
+               newEntry.expanded = oldEntry.expanded;
+            }
+            objects.set(idx, newEntry);
+            entriesByName_.put(obj.getName(), newEntry);
+            return newEntry;
          }
+
+         // types (or sort position) did change, do a full add/remove
+         objects.remove(idx);
+      }
+
+      objects.add(indexOfNewObject(newEntry), newEntry);
+      entriesByName_.put(obj.getName(), newEntry);
+      return newEntry;
+   }
+
+   private void applyRemoveObject(String objName)
+   {
+      RObjectEntry entry = entriesByName_.remove(objName);
+      if (entry == null)
+         return;
+
+      int idx = indexOfEntry(entry);
+      if (idx >= 0)
+         objectDataProvider_.getList().remove(idx);
+   }
+
+   // finds the position of the given entry in the (sorted) list
+   private int indexOfEntry(RObjectEntry entry)
+   {
+      List<RObjectEntry> objects = objectDataProvider_.getList();
+
+      // the sort isn't unique (e.g. when sorting by size), so look through
+      // the run of entries that compare equal to this one
+      for (int idx = lowerBound(entry); idx < objects.size(); idx++)
+      {
+         RObjectEntry candidate = objects.get(idx);
+         if (candidate == entry)
+            return idx;
+         if (objectSort_.compare(entry, candidate) != 0)
+            break;
       }
 
-      return foundObject ? index : -1;
+      // the list should always be sorted, but fall back to a scan in case
+      // it isn't
+      return objects.indexOf(entry);
    }
 
    // returns the position a new object entry should occupy in the table
    private int indexOfNewObject(RObjectEntry obj)
    {
       List<RObjectEntry> objects = objectDataProvider_.getList();
-      int numObjects = objects.size();
-      int idx;
-      // consider: can we use binary search here?
-      for (idx = 0; idx < numObjects; idx++)
+
+      // find the first object that sorts after the new one
+      int lo = 0;
+      int hi = objects.size();
+      while (lo < hi)
       {
-         if (objectSort_.compare(obj, objects.get(idx)) < 0)
-         {
-            break;
-         }
+         int mid = (lo + hi) >>> 1;
+         if (objectSort_.compare(obj, objects.get(mid)) < 0)
+            hi = mid;
+         else
+            lo = mid + 1;
       }
-      return idx;
+      return lo;
+   }
+
+   // returns the position of the first object that doesn't sort before the
+   // given one
+   private int lowerBound(RObjectEntry obj)
+   {
+      List<RObjectEntry> objects = objectDataProvider_.getList();
+      int lo = 0;
+      int hi = objects.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (objectSort_.compare(objects.get(mid), obj) < 0)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      return lo;
+   }
+
+   // whether the entry can replace the one at the given index without
+   // breaking the sort order of the list
+   private boolean isInSortedPosition(RObjectEntry entry, int idx)
+   {
+      List<RObjectEntry> objects = objectDataProvider_.getList();
+      if (idx > 0 && objectSort_.compare(objects.get(idx - 1), entry) > 0)
+         return false;
+      if (idx < objects.size() - 1 &&
+          objectSort_.compare(entry, objects.get(idx + 1)) > 0)
+         return false;
+      return true;
    }
 
    // after adds or removes, we need to tag the new category-leading objects
@@ -704,15 +795,18 @@ public class EnvironmentObjects extends ResizeComposite
    // container's physical limit
    private void redrawRowSafely(int idx)
    {
-      boolean oob =
-            idx >= MAX_ENVIRONMENT_OBJECTS ||
-            idx >= objectDisplay_.getRowCount();
-
-      if (oob)
+      if (!isRowRendered(idx))
          return;
             
       objectDisplay_.redrawRow(idx);
    }
+
+   private boolean isRowRendered(int idx)
+   {
+      return objectDisplay_ != null &&
+             idx < MAX_ENVIRONMENT_OBJECTS &&
+             idx < objectDisplay_.getRowCount();
+   }
    
    private final static String EMPTY_ENVIRONMENT_MESSAGE =
            "Environment is empty";
@@ -728,6 +822,14 @@ public class EnvironmentObjects extends ResizeComposite
    Label environmentEmptyMessage_;
 
    private ListDataProvider<RObjectEntry> objectDataProvider_;
+   private final HashMap<String, RObjectEntry> entriesByName_ =
+         new HashMap<String, RObjectEntry>();
+
+   // object changes not yet applied to the list; a null value indicates
+   // that the object was removed
+   private final LinkedHashMap<String, RObject> pendingObjects_ =
+         new LinkedHashMap<String, RObject>();
+   private AnimationScheduler.AnimationHandle pendingObjectsHandle_;
    private RObjectEntrySort objectSort_;
 
    private EnvironmentObjectsObserver observer_;
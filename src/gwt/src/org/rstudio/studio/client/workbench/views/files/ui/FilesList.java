@@ -16,6 +16,8 @@ package org.rstudio.studio.client.workbench.views.files.ui;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
 
@@ -26,18 +28,23 @@ import org.rstudio.core.client.cellview.LinkColumn;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.resources.ImageResource2x;
 import org.rstudio.core.client.widget.OperationWithInput;
-import org.rstudio.core.client.widget.RStudioDataGrid;
+import org.rstudio.core.client.widget.VirtualizedDataGrid;
 import org.rstudio.studio.client.ResizableHeader;
 import org.rstudio.studio.client.common.filetypes.FileIconResources;
 import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
 import org.rstudio.studio.client.workbench.views.files.Files;
 import org.rstudio.studio.client.workbench.views.files.model.FileChange;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
 import com.google.gwt.cell.client.CheckboxCell;
 import com.google.gwt.cell.client.ImageResourceCell;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.dom.client.NodeList;
+import com.google.gwt.dom.client.TableRowElement;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.dom.client.Style.WhiteSpace;
 import com.google.gwt.event.logical.shared.ResizeEvent;
@@ -45,7 +52,6 @@ import com.google.gwt.event.logical.shared.ResizeHandler;
 import com.google.gwt.resources.client.ImageResource;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.safehtml.shared.SafeHtmlUtils;
-import com.google.gwt.user.cellview.client.DataGrid;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.ColumnSortEvent;
 import com.google.gwt.user.cellview.client.ColumnSortList;
@@ -66,16 +72,13 @@ public class FilesList extends Composite
    {
       observer_ = observer;
       
-      // create data provider and sort handler
+      // create data provider and sorted model
       dataProvider_ = new ListDataProvider<FileSystemItem>();
-      sortHandler_ = new ColumnSortEvent.ListHandler<FileSystemItem>(
-                                                      dataProvider_.getList());
+      model_ = new FilesListModel(dataProvider_.getList());
       
-      // create cell table
-      filesDataGrid_ = new RStudioDataGrid<FileSystemItem>(
-                                          15,
-                                          FilesListDataGridResources.INSTANCE,
-                                          KEY_PROVIDER);
+      // create cell table (only the rows near the viewport are drawn, so
+      // that large directories don't flood the DOM)
+      filesDataGrid_ = new FilesDataGrid();
       selectionModel_ = new MultiSelectionModel<FileSystemItem>(KEY_PROVIDER);
       filesDataGrid_.setSelectionModel(
          selectionModel_, 
@@ -161,7 +164,7 @@ public class FilesList extends Composite
                                 SafeHtmlUtils.fromSafeConstant("<br/>"));
       filesDataGrid_.setColumnWidth(iconColumn, ICON_COLUMN_WIDTH_PIXELS, Unit.PX);
     
-      sortHandler_.setComparator(iconColumn, new FilesListComparator() {
+      comparators_.put(iconColumn, new FilesListComparator() {
          @Override
          public int doCompare(FileSystemItem arg0, FileSystemItem arg1)
          {
@@ -201,7 +204,7 @@ public class FilesList extends Composite
       nameColumn.setSortable(true);
       filesDataGrid_.addColumn(nameColumn, "Name");
       
-      sortHandler_.setComparator(nameColumn, new FilesListComparator() {
+      comparators_.put(nameColumn, new FilesListComparator() {
          @Override
          public int doCompare(FileSystemItem arg0, FileSystemItem arg1)
          {
@@ -228,7 +231,7 @@ public class FilesList extends Composite
       filesDataGrid_.addColumn(sizeColumn, new ResizableHeader(filesDataGrid_, "Size"));
       filesDataGrid_.setColumnWidth(sizeColumn, SIZE_COLUMN_WIDTH_PIXELS, Unit.PX);
       
-      sortHandler_.setComparator(sizeColumn, new FoldersOnBottomComparator() {
+      comparators_.put(sizeColumn, new FoldersOnBottomComparator() {
          @Override
          public int doItemCompare(FileSystemItem arg0, FileSystemItem arg1)
          {
@@ -256,7 +259,7 @@ public class FilesList extends Composite
       filesDataGrid_.addColumn(modColumn, new ResizableHeader(filesDataGrid_, "Modified"));
       filesDataGrid_.setColumnWidth(modColumn, MODIFIED_COLUMN_WIDTH_PIXELS, Unit.PX); 
       
-      sortHandler_.setComparator(modColumn, new FoldersOnBottomComparator() {
+      comparators_.put(modColumn, new FoldersOnBottomComparator() {
          @Override
          public int doItemCompare(FileSystemItem arg0, FileSystemItem arg1)
          {
@@ -329,8 +332,30 @@ public class FilesList extends Composite
             // record active sort column ascending state
             activeSortColumnAscending_ = event.isSortAscending();
             
-            // delegate the sort
-            sortHandler_.onColumnSort(event);
+            // sort the model
+            final Comparator<FileSystemItem> comparator =
+                  comparators_.get(event.getColumn());
+            if (comparator == null)
+               return;
+            if (event.isSortAscending())
+            {
+               model_.setComparator(comparator);
+            }
+            else
+            {
+               model_.setComparator(new Comparator<FileSystemItem>()
+               {
+                  @Override
+                  public int compare(FileSystemItem o1, FileSystemItem o2)
+                  {
+                     return -comparator.compare(o1, o2);
+                  }
+               });
+            }
+            
+            // the listing is redrawn once it's complete
+            if (!applyingProgrammaticSort_)
+               updateRows();
          }
          
          private native final JsArray<ColumnSortInfo> newSortOrderArray()
@@ -365,27 +390,22 @@ public class FilesList extends Composite
       // clear the selection
       selectNone();
       
+      // changes not yet applied predate this listing
+      pendingChanges_.clear();
+      
       // set containing path
       containingPath_ = containingPath;
       parentPath_ = containingPath_.getParentPath();
       
-      // set page size (+1 for parent path)
-      filesDataGrid_.setPageSize(files.length() + 1);
-      
-      // get underlying list
-      List<FileSystemItem> fileList = dataProvider_.getList();
-      fileList.clear();
-            
-      // add entry for parent path if we have one
-      if (parentPath_ != null)
-         fileList.add(parentPath_);
-      
-      // add files to table
+      // add files (and an entry for the parent path if we have one)
+      List<FileSystemItem> fileList = new ArrayList<FileSystemItem>(files.length());
       for (int i=0; i<files.length(); i++)
          fileList.add(files.get(i));
+      model_.setFiles(parentPath_, fileList);
            
       // apply sort list
       applyColumnSortList();
+      updateRows();
       
       // fire selection changed
       observer_.onFileSelectionChanged();
@@ -408,6 +428,8 @@ public class FilesList extends Composite
    
    public ArrayList<FileSystemItem> getSelectedFiles()
    {    
+      applyPendingChanges();
+      
       // first make sure there are no leftover items in the selected set
       Set<FileSystemItem> selectedSet = selectionModel_.getSelectedSet();
       selectedSet.retainAll(dataProvider_.getList());
@@ -416,61 +438,89 @@ public class FilesList extends Composite
    }
    
    public void updateWithAction(FileChange viewAction)
+   {
+      // changes tend to arrive in bursts (e.g. from a script writing many
+      // files), so they're collected and applied once per frame; only the
+      // last change to each file matters, except that an add followed by
+      // modifications is still an add
+      String key = FilesListModel.keyFor(viewAction.getFile());
+      FileChange pending = pendingChanges_.remove(key);
+      if (pending != null &&
+          pending.getType() == FileChange.ADD &&
+          viewAction.getType() == FileChange.MODIFIED)
+      {
+         viewAction = FileChange.createAdd(viewAction.getFile());
+      }
+      pendingChanges_.put(key, viewAction);
+      
+      if (applyHandle_ == null)
+      {
+         applyHandle_ = AnimationScheduler.get().requestAnimationFrame(
+               new AnimationCallback()
+         {
+            @Override
+            public void execute(double timestamp)
+            {
+               applyHandle_ = null;
+               applyPendingChanges();
+            }
+         });
+      }
+   }
+   
+   private void applyPendingChanges()
+   {
+      if (applyHandle_ != null)
+      {
+         applyHandle_.cancel();
+         applyHandle_ = null;
+      }
+      
+      if (pendingChanges_.isEmpty())
+         return;
+      
+      for (FileChange change : pendingChanges_.values())
+         applyChange(change);
+      pendingChanges_.clear();
+      
+      // if a file is deleted and then re-added within the same
+      // event loop (as occurs when gedit saves a text file) the
+      // table doesn't always update correctly (it has a duplicate
+      // of the item deleted / re-added). the call to flush overcomes
+      // this issue
+      updateRows();
+   }
+   
+   private void applyChange(FileChange viewAction)
    {        
       final FileSystemItem file = viewAction.getFile();
-      final List<FileSystemItem> files = getFiles();
       switch(viewAction.getType())
       {
       case FileChange.ADD:
          if (file.getParentPath().equalTo(containingPath_))
          {
-            int row = rowForFile(file);
-            if (row == -1)
-            {
-               files.add(file);
-               filesDataGrid_.setPageSize(files.size() + 1);
-            }
-            else
-            {
-               // since we eagerly perform renames at the client UI
-               // layer then sometimes an "added" file is really just
-               // a rename. in this case the file already exists due
-               // to the eager rename in the client but still needs its
-               // metadata updated
-               files.set(row, file);
-            }
+            // since we eagerly perform renames at the client UI
+            // layer then sometimes an "added" file is really just
+            // a rename. in this case the file already exists due
+            // to the eager rename in the client but still needs its
+            // metadata updated
+            model_.put(file);
          }
          break;
          
       case FileChange.MODIFIED:
+         if (model_.get(file) != null)
          {
-            int row = rowForFile(file);
-            if (row != -1)
-            {
-               // the selection model loses the selection state when we update
-               // the row, so save and restore it manually.
-               boolean selected = selectionModel_.isSelected(file);
-               files.set(row, file);
-               selectionModel_.setSelected(file, selected);
-            }
+            // the selection model loses the selection state when we update
+            // the row, so save and restore it manually.
+            boolean selected = selectionModel_.isSelected(file);
+            model_.put(file);
+            selectionModel_.setSelected(file, selected);
          }
          break;
  
       case FileChange.DELETE:
-         {
-            int row = rowForFile(file);
-            if (row != -1)
-            {
-               files.remove(row);
-               
-               // if a file is deleted and then re-added within the same
-               // event loop (as occurs when gedit saves a text file) the
-               // table doesn't always update correctly (it has a duplicate
-               // of the item deleted / re-added). the call to flush overcomes
-               // this issue
-               dataProvider_.flush();
-            }
-         }
+         model_.remove(file);
          break;
       
       default:
@@ -482,27 +532,22 @@ public class FilesList extends Composite
    
    public void renameFile(FileSystemItem from, FileSystemItem to)
    {
-      int index = getFiles().indexOf(from);
-      if (index != -1)
+      applyPendingChanges();
+      if (model_.get(from) != null)
       {
          selectNone();
-         getFiles().set(index, to);
+         model_.replace(from, to);
+         updateRows();
       }
    }
    
-   private List<FileSystemItem> getFiles()
+   // pushes the list to the grid and moves the grid's row window to match
+   // it; the grid only draws the rows in the window, which isn't updated
+   // when the grid's data is
+   private void updateRows()
    {
-      return dataProvider_.getList();
-   }
-   
-   private int rowForFile(FileSystemItem file)
-   {
-      List<FileSystemItem> files = getFiles();
-      for (int i=0; i<files.size(); i++)
-         if (files.get(i).equalTo(file))
-            return i ;
-      
-      return -1;
+      dataProvider_.flush();
+      filesDataGrid_.redraw();
    }
    
    private void applyColumnSortList()
@@ -599,6 +644,44 @@ public class FilesList extends Composite
          }
     };
     
+    private class FilesDataGrid extends VirtualizedDataGrid<FileSystemItem>
+    {
+       public FilesDataGrid()
+       {
+          super(FilesListDataGridResources.INSTANCE, KEY_PROVIDER);
+       }
+       
+       @Override
+       public int getRowHeight()
+       {
+          // the row height depends on the font and theme, so measure it
+          // from the first row drawn (skipping the padding rows)
+          if (rowHeight_ > 0)
+             return rowHeight_;
+          
+          NodeList<TableRowElement> rows = getTableBodyElement().getRows();
+          for (int i = 0; i < rows.getLength(); i++)
+          {
+             TableRowElement row = rows.getItem(i);
+             if (!StringUtil.isNullOrEmpty(row.getAttribute("height")))
+                continue;
+             
+             rowHeight_ = row.getOffsetHeight();
+             if (rowHeight_ > 0)
+                return rowHeight_;
+          }
+          return DEFAULT_ROW_HEIGHT_PIXELS;
+       }
+       
+       @Override
+       public int getTotalNumberOfRows()
+       {
+          return dataProvider_.getList().size();
+       }
+       
+       private int rowHeight_ = 0;
+    }
+    
     // comparator which ensures that the parent path is always on top
     private abstract class FilesListComparator implements Comparator<FileSystemItem>
     {     
@@ -666,7 +749,7 @@ public class FilesList extends Composite
    private FileSystemItem containingPath_ = null;
    private FileSystemItem parentPath_ = null;
   
-   private final DataGrid<FileSystemItem> filesDataGrid_; 
+   private final VirtualizedDataGrid<FileSystemItem> filesDataGrid_; 
    private final LinkColumn<FileSystemItem> nameColumn_;
    private final TextColumn<FileSystemItem> sizeColumn_;
    private final TextColumn<FileSystemItem> modifiedColumn_;
@@ -676,11 +759,19 @@ public class FilesList extends Composite
    
    private final MultiSelectionModel<FileSystemItem> selectionModel_;
    private final ListDataProvider<FileSystemItem> dataProvider_;
-   private final ColumnSortEvent.ListHandler<FileSystemItem> sortHandler_;
+   private final FilesListModel model_;
+   private final HashMap<Column<?, ?>, Comparator<FileSystemItem>> comparators_ =
+         new HashMap<Column<?, ?>, Comparator<FileSystemItem>>();
+   
+   // changes not yet applied, by file
+   private final LinkedHashMap<String, FileChange> pendingChanges_ =
+         new LinkedHashMap<String, FileChange>();
+   private AnimationHandle applyHandle_;
 
    private final Files.Display.Observer observer_ ;
    private final ResizeLayoutPanel layoutPanel_ ;  
    
+   private static final int DEFAULT_ROW_HEIGHT_PIXELS = 22;
    private static final int CHECK_COLUMN_WIDTH_PIXELS = 30;
    private static final int ICON_COLUMN_WIDTH_PIXELS = 26;
    private static final int SIZE_COLUMN_WIDTH_PIXELS = 80;
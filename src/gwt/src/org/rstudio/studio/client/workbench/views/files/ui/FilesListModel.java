@@ -0,0 +1,227 @@
+/*
+ * FilesListModel.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.files.ui;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import org.rstudio.core.client.files.FileSystemItem;
+
+/**
+ * The files of a directory listing, kept in sorted order in the given list
+ * and indexed by path.
+ *
+ * Changes to individual files locate their position with a binary search
+ * rather than re-sorting the listing, and a file whose sort position isn't
+ * affected by a change is updated in place. Items other than files (such as
+ * the parent directory entry) may be placed in the list, as long as the
+ * comparator keeps them in place; they're not indexed.
+ */
+public class FilesListModel
+{
+   public FilesListModel(List<FileSystemItem> list)
+   {
+      list_ = list;
+   }
+
+   /**
+    * Replaces the contents of the list, without sorting them.
+    *
+    * @param header Item to place at the top of the list, or null
+    * @param files The files
+    */
+   public void setFiles(FileSystemItem header, List<FileSystemItem> files)
+   {
+      list_.clear();
+      index_.clear();
+
+      if (header != null)
+         list_.add(header);
+
+      list_.addAll(files);
+      for (FileSystemItem file : files)
+         index_.put(keyFor(file), file);
+   }
+
+   public void setComparator(Comparator<FileSystemItem> comparator)
+   {
+      comparator_ = comparator;
+      sort();
+   }
+
+   public void sort()
+   {
+      if (comparator_ != null)
+         Collections.sort(list_, comparator_);
+   }
+
+   public int size()
+   {
+      return index_.size();
+   }
+
+   /**
+    * @return The file at the given file's path, or null if there isn't one
+    */
+   public FileSystemItem get(FileSystemItem file)
+   {
+      return index_.get(keyFor(file));
+   }
+
+   /**
+    * @return The position of the file at the given file's path, or -1 if
+    *    there isn't one
+    */
+   public int indexOf(FileSystemItem file)
+   {
+      FileSystemItem existing = get(file);
+      if (existing == null)
+         return -1;
+      return find(existing);
+   }
+
+   /**
+    * Adds the file, or replaces the file at the same path.
+    *
+    * @return true if the file was added rather than replaced
+    */
+   public boolean put(FileSystemItem file)
+   {
+      FileSystemItem existing = index_.put(keyFor(file), file);
+      if (existing == null)
+      {
+         list_.add(insertionPoint(file), file);
+         return true;
+      }
+
+      int index = find(existing);
+      if (fits(index, file))
+      {
+         list_.set(index, file);
+      }
+      else
+      {
+         list_.remove(index);
+         list_.add(insertionPoint(file), file);
+      }
+      return false;
+   }
+
+   /**
+    * Replaces the file at the path of from with to (which may have a
+    * different path).
+    *
+    * @return false if there's no file at from's path
+    */
+   public boolean replace(FileSystemItem from, FileSystemItem to)
+   {
+      if (!remove(from))
+         return false;
+      put(to);
+      return true;
+   }
+
+   /**
+    * @return true if there was a file at the given file's path
+    */
+   public boolean remove(FileSystemItem file)
+   {
+      FileSystemItem existing = index_.remove(keyFor(file));
+      if (existing == null)
+         return false;
+
+      list_.remove(find(existing));
+      return true;
+   }
+
+   private int find(FileSystemItem item)
+   {
+      if (comparator_ != null)
+      {
+         // search the run of items that compare equal to this one
+         for (int i = lowerBound(item); i < list_.size(); i++)
+         {
+            FileSystemItem candidate = list_.get(i);
+            if (candidate == item)
+               return i;
+            if (comparator_.compare(candidate, item) != 0)
+               break;
+         }
+      }
+
+      // the list isn't in order (it's only sorted once a comparator is set)
+      return list_.indexOf(item);
+   }
+
+   private boolean fits(int index, FileSystemItem item)
+   {
+      if (comparator_ == null)
+         return true;
+      if (index > 0 && comparator_.compare(list_.get(index - 1), item) > 0)
+         return false;
+      if (index < list_.size() - 1 &&
+          comparator_.compare(item, list_.get(index + 1)) > 0)
+         return false;
+      return true;
+   }
+
+   private int insertionPoint(FileSystemItem item)
+   {
+      if (comparator_ == null)
+         return list_.size();
+
+      // after any equal items, as a stable sort would place it
+      int lo = 0;
+      int hi = list_.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (comparator_.compare(list_.get(mid), item) <= 0)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      return lo;
+   }
+
+   private int lowerBound(FileSystemItem item)
+   {
+      int lo = 0;
+      int hi = list_.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (comparator_.compare(list_.get(mid), item) < 0)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      return lo;
+   }
+
+   // files are equal if they're both files or both directories, and their
+   // paths differ only by case (see FileSystemItem.equalTo)
+   static String keyFor(FileSystemItem file)
+   {
+      return (file.isDirectory() ? "d:" : "f:") + file.getPath().toLowerCase();
+   }
+
+   private final List<FileSystemItem> list_;
+   private final HashMap<String, FileSystemItem> index_ =
+         new HashMap<String, FileSystemItem>();
+   private Comparator<FileSystemItem> comparator_;
+}
@@ -19,7 +19,6 @@ import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Style.Unit;
-import com.google.gwt.dom.client.TableRowElement;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.GwtEvent;
@@ -417,18 +416,20 @@ public class HistoryPane extends WorkbenchPane
 
    public void addRecentCommands(ArrayList<HistoryEntry> entries, boolean top)
    {
-      TableRowElement topRow = null;
-      if (top)
-         topRow = commandList_.getTopRow();
+      int oldRowCount = commandList_.getRowCount();
 
       commandList_.addItems(entries, top);
 
       if (top)
       {
-         if (topRow == null)
+         // keep the previous top row in place (its row element may not be
+         // rendered, so go by its index)
+         if (oldRowCount == 0)
             recentScrollPanel_.scrollToBottom();
          else
-            recentScrollPanel_.setVerticalScrollPosition(topRow.getOffsetTop());
+            recentScrollPanel_.setVerticalScrollPosition(
+                  commandList_.getRowOffsetTop(
+                        commandList_.getRowCount() - oldRowCount));
       }
       else
          recentScrollPanel_.onContentSizeChanged();
@@ -52,6 +52,10 @@ public class HistoryTable extends FastSelectTable<HistoryEntry, String, Long>
             true);
 
       searchResult_ = timestampMode == TimestampMode.ITEM;
+
+      // histories can run to many thousands of entries; grouped results
+      // can't be virtualized since their breaks depend on rendered rows
+      setVirtualized(timestampMode != TimestampMode.GROUP);
       
       applyWidthConstraints();
 
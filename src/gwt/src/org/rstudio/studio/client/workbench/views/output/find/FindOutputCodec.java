@@ -16,15 +16,26 @@ package org.rstudio.studio.client.workbench.views.output.find;
 
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.TableCellElement;
+import com.google.gwt.dom.client.TableElement;
 import com.google.gwt.dom.client.TableRowElement;
+import com.google.gwt.dom.client.TableSectionElement;
 import org.rstudio.core.client.CodeNavigationTarget;
 import org.rstudio.core.client.FilePosition;
-import org.rstudio.core.client.widget.HeaderBreaksItemCodec;
+import org.rstudio.core.client.widget.FastSelectTable.ItemCodec;
 import org.rstudio.studio.client.workbench.views.output.find.FindOutputResources.Styles;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
-
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultList.Group;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultList.Row;
+
+/**
+ * Renders the rows of a FindResultList. File headers are rows of the list
+ * like any other (rather than breaks inserted between rendered rows), so
+ * the table showing them can be virtualized; a header's secondary output
+ * is its group. Every row is a value row, so logical and physical offsets
+ * are the same.
+ */
 public class FindOutputCodec
-      extends HeaderBreaksItemCodec<FindResult, CodeNavigationTarget, Object>
+      implements ItemCodec<Row, CodeNavigationTarget, Group>
 {
    public FindOutputCodec(FindOutputResources resources)
    {
@@ -32,66 +43,54 @@ public class FindOutputCodec
    }
 
    @Override
-   public TableRowElement getRowForItem(FindResult entry)
+   public TableRowElement getRowForItem(Row entry)
    {
-      if (entry == null)
+      TableRowElement tr = Document.get().createTRElement();
+      tr.setPropertyObject(GROUP, entry.getGroup());
+
+      if (entry.isHeader())
       {
-         // Overflow message
-         TableRowElement tr = Document.get().createTRElement();
+         Group group = entry.getGroup();
+         tr.setClassName(styles_.headerRow());
+
          TableCellElement td = Document.get().createTDElement();
-         td.setClassName(styles_.overflowWarning());
          td.setColSpan(2);
-         td.setInnerText("More than 1000 matching lines were found. " +
-                         "Only the first 1000 lines are shown.");
+         td.setInnerText((group.isCollapsed() ? "\u25B8 " : "\u25BE ") +
+                         group.getFile() +
+                         (group.isCollapsed() ?
+                               " (" + group.getResultCount() + ")" : ""));
          tr.appendChild(td);
          return tr;
       }
 
-      TableRowElement tr = Document.get().createTRElement();
-      tr.setAttribute(DATA_FILE, entry.getFile());
-      tr.setAttribute(DATA_LINE, entry.getLine() + "");
+      FindResult result = entry.getResult();
+      tr.setAttribute(DATA_FILE, result.getFile());
+      tr.setAttribute(DATA_LINE, result.getLine() + "");
 
       TableCellElement td1 = Document.get().createTDElement();
       td1.setClassName(styles_.line());
-      td1.setInnerText(entry.getLine() + ":\u00A0");
+      td1.setInnerText(result.getLine() + ":\u00A0");
       tr.appendChild(td1);
 
       TableCellElement td2 = Document.get().createTDElement();
       td2.setClassName(styles_.lineValue());
-      td2.setInnerHTML(entry.getLineHTML().asString());
+      td2.setInnerHTML(result.getLineHTML().asString());
       tr.appendChild(td2);
 
       return tr;
    }
 
    @Override
-   protected boolean needsBreak(TableRowElement prevRow, TableRowElement row)
-   {
-      if (!row.hasAttribute(DATA_FILE))
-         return false;
-
-      return prevRow == null ||
-             prevRow.getAttribute(DATA_FILE) != row.getAttribute(DATA_FILE);
-   }
-
-   @Override
-   protected int addBreak(TableRowElement row)
+   public void onRowsChanged(TableSectionElement tbody)
    {
-      TableRowElement tr = Document.get().createTRElement();
-      tr.setClassName(styles_.headerRow());
-
-      TableCellElement td = Document.get().createTDElement();
-      td.setColSpan(2);
-      td.setInnerText(row.getAttribute(DATA_FILE));
-      tr.appendChild(td);
-
-      row.getParentElement().insertBefore(tr, row);
-      return 1;
    }
 
    @Override
    public CodeNavigationTarget getOutputForRow(TableRowElement row)
    {
+      if (!row.hasAttribute(DATA_FILE))
+         return null;
+
       String file = row.getAttribute(DATA_FILE);
       int line = Integer.parseInt(row.getAttribute(DATA_LINE));
 
@@ -99,25 +98,46 @@ public class FindOutputCodec
    }
 
    @Override
-   public Object getOutputForRow2(TableRowElement row)
+   public Group getOutputForRow2(TableRowElement row)
    {
-      return null;
+      if (row.hasAttribute(DATA_FILE))
+         return null;
+      return (Group) row.getPropertyObject(GROUP);
    }
 
    @Override
    public boolean isValueRow(TableRowElement row)
    {
-      return row.hasAttribute(DATA_FILE);
+      return true;
    }
 
    @Override
    public boolean hasNonValueRows()
    {
-      return true;
+      return false;
+   }
+
+   @Override
+   public Integer logicalOffsetToPhysicalOffset(TableElement table, int offset)
+   {
+      return offset;
+   }
+
+   @Override
+   public Integer physicalOffsetToLogicalOffset(TableElement table, int offset)
+   {
+      return offset;
+   }
+
+   @Override
+   public int getLogicalRowCount(TableElement table)
+   {
+      return table.getRows().getLength();
    }
 
    private Styles styles_;
 
    private static final String DATA_FILE = "data-file";
    private static final String DATA_LINE = "data-line";
+   private static final String GROUP = "__findGroup";
 }
@@ -20,12 +20,14 @@ import com.google.gwt.dom.client.TableRowElement;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+import com.google.gwt.user.client.ui.FlowPanel;
 import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.user.client.ui.SimplePanel;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.inject.Inject;
 import org.rstudio.core.client.CodeNavigationTarget;
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.events.EnsureVisibleEvent;
 import org.rstudio.core.client.events.HasSelectionCommitHandlers;
@@ -36,8 +38,12 @@ import org.rstudio.core.client.widget.events.SelectionChangedHandler;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.ui.WorkbenchPane;
 import org.rstudio.studio.client.workbench.views.output.find.model.FindResult;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultList;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultList.Group;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultList.Row;
 
 import java.util.ArrayList;
+import java.util.List;
 
 
 public class FindOutputPane extends WorkbenchPane
@@ -79,7 +85,7 @@ public class FindOutputPane extends WorkbenchPane
       FindOutputResources resources = GWT.create(FindOutputResources.class);
       resources.styles().ensureInjected();
 
-      table_ = new FastSelectTable<FindResult, CodeNavigationTarget, Object>(
+      table_ = new FastSelectTable<Row, CodeNavigationTarget, Group>(
             new FindOutputCodec(resources),
             resources.styles().selectedRow(),
             true,
@@ -94,6 +100,14 @@ public class FindOutputPane extends WorkbenchPane
             if (event.getNativeButton() != NativeEvent.BUTTON_LEFT)
                return;
 
+            // a click on a file's header collapses or expands its results
+            Group group = getSelectedGroup();
+            if (group != null)
+            {
+               toggleGroup(group);
+               return;
+            }
+
             if (dblClick_.checkForDoubleClick(event.getNativeEvent()))
                fireSelectionCommitted();
          }
@@ -107,7 +121,13 @@ public class FindOutputPane extends WorkbenchPane
          public void onKeyDown(KeyDownEvent event)
          {
             if (event.getNativeKeyCode() == KeyCodes.KEY_ENTER)
-               fireSelectionCommitted();
+            {
+               Group group = getSelectedGroup();
+               if (group != null)
+                  toggleGroup(group);
+               else
+                  fireSelectionCommitted();
+            }
             event.stopPropagation();
             event.preventDefault();
          }
@@ -118,12 +138,52 @@ public class FindOutputPane extends WorkbenchPane
       container_.setSize("100%", "100%");
       statusPanel_ = new StatusPanel();
       statusPanel_.setSize("100%", "100%");
-      scrollPanel_ = new ScrollPanel(table_);
+      overflowLabel_ = new Label();
+      overflowLabel_.addStyleName(resources.styles().overflowWarning());
+      overflowLabel_.setVisible(false);
+      FlowPanel results = new FlowPanel();
+      results.add(table_);
+      results.add(overflowLabel_);
+      scrollPanel_ = new ScrollPanel(results);
       scrollPanel_.setSize("100%", "100%");
       container_.setWidget(scrollPanel_);
+
+      // only the rows near the viewport are rendered
+      table_.setOwningScrollPanel(scrollPanel_);
+      table_.setVirtualized(true);
       return container_;
    }
 
+   private Group getSelectedGroup()
+   {
+      ArrayList<Group> groups = table_.getSelectedValues2();
+      return groups.size() == 1 ? groups.get(0) : null;
+   }
+
+   private void toggleGroup(Group group)
+   {
+      int index = results_.indexOfHeader(group);
+      if (index < 0)
+         return;
+
+      // only the group's own rows are inserted or removed
+      boolean collapsed = !group.isCollapsed();
+      results_.setCollapsed(group, collapsed);
+      if (collapsed)
+      {
+         table_.removeRows(index + 1, group.getResultCount());
+      }
+      else
+      {
+         table_.insertItems(index + 1, results_.getRows().subList(
+               index + 1, index + 1 + group.getResultCount()));
+      }
+
+      table_.refreshRow(index);
+      table_.clearSelection();
+      table_.setSelected(index, 1, true);
+   }
+
    private void fireSelectionCommitted()
    {
       ArrayList<CodeNavigationTarget> values = table_.getSelectedValues();
@@ -134,19 +194,23 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    public void addMatches(ArrayList<FindResult> findResults)
    {
-      int matchesToAdd = Math.min(findResults.size(), MAX_COUNT - matchCount_);
+      // results for a collapsed group add no rows, but change its header
+      List<Group> groups = results_.getGroups();
+      Group last = groups.isEmpty() ? null : groups.get(groups.size() - 1);
+      int lastCount = last == null ? 0 : last.getResultCount();
 
-      if (matchesToAdd > 0)
-      {
-         matchCount_ += matchesToAdd;
-         
-         if (matchCount_ > 0 && container_.getWidget() != scrollPanel_)
-            container_.setWidget(scrollPanel_);
-            
-         table_.addItems(findResults.subList(0, matchesToAdd), false);
-      }
-      
-      if (matchesToAdd != findResults.size())
+      ArrayList<Row> rows = results_.add(findResults);
+
+      if (results_.getResultCount() > 0 && container_.getWidget() != scrollPanel_)
+         container_.setWidget(scrollPanel_);
+
+      if (last != null && last.isCollapsed() && last.getResultCount() != lastCount)
+         table_.refreshRow(results_.indexOfHeader(last));
+
+      if (!rows.isEmpty())
+         table_.addItems(rows, false);
+
+      if (results_.isOverflow())
          showOverflow();
    }
 
@@ -155,8 +219,8 @@ public class FindOutputPane extends WorkbenchPane
    {
       context_.reset();
       table_.clear();
-      overflow_ = false;
-      matchCount_ = 0;
+      results_.clear();
+      overflowLabel_.setVisible(false);
       statusPanel_.setStatusText("");
       container_.setWidget(statusPanel_);
    }
@@ -164,7 +228,7 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    public void showSearchCompleted()
    {
-      if (matchCount_ == 0)
+      if (results_.getResultCount() == 0)
          statusPanel_.setStatusText("(No results found)");
    }
    
@@ -218,12 +282,12 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    public void showOverflow()
    {
-      if (overflow_)
-         return;
-      overflow_ = true;
-      ArrayList<FindResult> items = new ArrayList<FindResult>();
-      items.add(null);
-      table_.addItems(items, false);
+      results_.setOverflow();
+      overflowLabel_.setText(
+            "More matching lines were found than can be shown. Only the first " +
+            StringUtil.formatGeneralNumber(results_.getResultCount()) +
+            " lines are shown.");
+      overflowLabel_.setVisible(true);
    }
 
    @Override
@@ -270,7 +334,8 @@ public class FindOutputPane extends WorkbenchPane
       
    }
    
-   private FastSelectTable<FindResult, CodeNavigationTarget, Object> table_;
+   private FastSelectTable<Row, CodeNavigationTarget, Group> table_;
+   private final FindResultList results_ = new FindResultList();
    private FindResultContext context_;
    private final Commands commands_;
    private Label searchLabel_;
@@ -278,9 +343,5 @@ public class FindOutputPane extends WorkbenchPane
    private SimplePanel container_;
    private ScrollPanel scrollPanel_;
    private StatusPanel statusPanel_;
-   private boolean overflow_ = false;
-   private int matchCount_;
-
-   // This must be the same as MAX_COUNT in SessionFind.cpp
-   private static final int MAX_COUNT = 1000;
+   private Label overflowLabel_;
 }
@@ -130,6 +130,8 @@ public class FindOutputPresenter extends BasePresenter
             if (event.getHandle() != currentFindHandle_)
                return;
             view_.addMatches(event.getResults());
+            if (event.isOverflow())
+               view_.showOverflow();
             
             view_.ensureVisible(true);
          }
@@ -214,6 +216,8 @@ public class FindOutputPresenter extends BasePresenter
 
       currentFindHandle_ = state.getHandle();
       view_.addMatches(state.getResults().toArrayList());
+      if (state.isOverflow())
+         view_.showOverflow();
       updateSearchLabel(state.getInput(), state.getPath(), state.isRegex());
 
       if (state.isRunning())
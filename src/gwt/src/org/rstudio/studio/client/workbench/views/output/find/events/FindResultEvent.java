@@ -42,12 +42,19 @@ public class FindResultEvent extends GwtEvent<FindResultEvent.Handler>
       public native final RpcObjectList<FindResult> getResults() /*-{
          return this.results;
       }-*/;
+
+      public native final boolean isOverflow() /*-{
+         return !!this.overflow;
+      }-*/;
    }
 
-   public FindResultEvent(String handle, ArrayList<FindResult> results)
+   public FindResultEvent(String handle,
+                          ArrayList<FindResult> results,
+                          boolean overflow)
    {
       handle_ = handle;
       results_ = results;
+      overflow_ = overflow;
    }
 
    public String getHandle()
@@ -60,6 +67,14 @@ public class FindResultEvent extends GwtEvent<FindResultEvent.Handler>
       return results_;
    }
 
+   /**
+    * @return true if the server dropped results beyond these
+    */
+   public boolean isOverflow()
+   {
+      return overflow_;
+   }
+
    @Override
    public Type<Handler> getAssociatedType()
    {
@@ -74,6 +89,7 @@ public class FindResultEvent extends GwtEvent<FindResultEvent.Handler>
 
    private final String handle_;
    private final ArrayList<FindResult> results_;
+   private final boolean overflow_;
 
    public static final Type<Handler> TYPE = new Type<Handler>();
 }
@@ -42,6 +42,10 @@ public class FindInFilesState extends JavaScriptObject
       return this.running;
    }-*/;
 
+   public native final boolean isOverflow() /*-{
+      return !!this.overflow;
+   }-*/;
+
    public native final String getInput() /*-{
       return this.input;
    }-*/;
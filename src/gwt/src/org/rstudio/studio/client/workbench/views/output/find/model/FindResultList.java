@@ -0,0 +1,251 @@
+/*
+ * FindResultList.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.output.find.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The results of a find in files operation, grouped by file, as they
+ * stream in from the server.
+ *
+ * Results are kept within a memory budget (estimated from the size of
+ * their text) and the server's result limit; results arriving once either
+ * is reached are dropped and the list marked as overflowed. The list also
+ * maintains the rows to display: a header for each file followed by its
+ * results, unless the file's group is collapsed.
+ */
+public class FindResultList
+{
+   public static class Group
+   {
+      private Group(String file)
+      {
+         file_ = file;
+      }
+
+      public String getFile()
+      {
+         return file_;
+      }
+
+      public int getResultCount()
+      {
+         return results_.size();
+      }
+
+      public boolean isCollapsed()
+      {
+         return collapsed_;
+      }
+
+      private final String file_;
+      private final ArrayList<FindResult> results_ = new ArrayList<FindResult>();
+      private boolean collapsed_;
+   }
+
+   public static class Row
+   {
+      private Row(Group group, FindResult result)
+      {
+         group_ = group;
+         result_ = result;
+      }
+
+      public Group getGroup()
+      {
+         return group_;
+      }
+
+      /**
+       * @return The result shown by the row, or null for a group's header
+       */
+      public FindResult getResult()
+      {
+         return result_;
+      }
+
+      public boolean isHeader()
+      {
+         return result_ == null;
+      }
+
+      private final Group group_;
+      private final FindResult result_;
+   }
+
+   public FindResultList()
+   {
+      this(MAX_RESULT_BYTES, MAX_RESULT_COUNT);
+   }
+
+   public FindResultList(int budgetBytes, int maxResults)
+   {
+      budgetBytes_ = budgetBytes;
+      maxResults_ = maxResults;
+   }
+
+   /**
+    * Adds results, up to the memory budget and result limit. Once either is
+    * reached, no more results are added, so the rows never skip over
+    * dropped results.
+    *
+    * @return The rows to append to those already displayed
+    */
+   public ArrayList<Row> add(List<FindResult> results)
+   {
+      ArrayList<Row> added = new ArrayList<Row>();
+      if (overflow_)
+         return added;
+
+      for (FindResult result : results)
+      {
+         int size = estimateSize(result);
+         if (resultCount_ >= maxResults_ || usedBytes_ + size > budgetBytes_)
+         {
+            overflow_ = true;
+            break;
+         }
+         usedBytes_ += size;
+         resultCount_++;
+
+         // results arrive grouped by file, so only the last group can grow
+         Group group = groups_.isEmpty() ? null : groups_.get(groups_.size() - 1);
+         if (group == null || !group.getFile().equals(result.getFile()))
+         {
+            group = new Group(result.getFile());
+            groups_.add(group);
+            usedBytes_ += 2 * group.getFile().length();
+
+            Row header = new Row(group, null);
+            rows_.add(header);
+            added.add(header);
+         }
+
+         group.results_.add(result);
+         if (!group.isCollapsed())
+         {
+            Row row = new Row(group, result);
+            rows_.add(row);
+            added.add(row);
+         }
+      }
+      return added;
+   }
+
+   /**
+    * Marks the list as missing results, e.g. because the server stopped
+    * short of the search's matches.
+    */
+   public void setOverflow()
+   {
+      overflow_ = true;
+   }
+
+   public boolean isOverflow()
+   {
+      return overflow_;
+   }
+
+   public void clear()
+   {
+      groups_.clear();
+      rows_.clear();
+      usedBytes_ = 0;
+      resultCount_ = 0;
+      overflow_ = false;
+   }
+
+   public int getResultCount()
+   {
+      return resultCount_;
+   }
+
+   public List<Group> getGroups()
+   {
+      return groups_;
+   }
+
+   /**
+    * @return The rows to display, in order
+    */
+   public List<Row> getRows()
+   {
+      return rows_;
+   }
+
+   /**
+    * @return The index of the group's header among the rows, or -1
+    */
+   public int indexOfHeader(Group group)
+   {
+      // searched from the end, as that's where streamed results land
+      for (int i = rows_.size() - 1; i >= 0; i--)
+      {
+         Row row = rows_.get(i);
+         if (row.isHeader() && row.getGroup() == group)
+            return i;
+      }
+      return -1;
+   }
+
+   /**
+    * Collapses or expands a group, updating the rows to display.
+    */
+   public void setCollapsed(Group group, boolean collapsed)
+   {
+      if (group.collapsed_ == collapsed)
+         return;
+      group.collapsed_ = collapsed;
+
+      int index = indexOfHeader(group);
+      if (index < 0)
+         return;
+
+      if (collapsed)
+      {
+         rows_.subList(index + 1, index + 1 + group.getResultCount()).clear();
+      }
+      else
+      {
+         ArrayList<Row> rows = new ArrayList<Row>(group.getResultCount());
+         for (FindResult result : group.results_)
+            rows.add(new Row(group, result));
+         rows_.addAll(index + 1, rows);
+      }
+   }
+
+   // the line text dominates a result's size; the rest (line number, match
+   // offsets, object overhead) is about the same for every result
+   private static int estimateSize(FindResult result)
+   {
+      return 2 * result.getLineValue().length() + RESULT_OVERHEAD_BYTES;
+   }
+
+   private final int budgetBytes_;
+   private final int maxResults_;
+   private final ArrayList<Group> groups_ = new ArrayList<Group>();
+   private final ArrayList<Row> rows_ = new ArrayList<Row>();
+   private int usedBytes_;
+   private int resultCount_;
+   private boolean overflow_;
+
+   private static final int MAX_RESULT_BYTES = 32 * 1024 * 1024;
+
+   // the server sends one result past its limit (MAX_COUNT in SessionFind.cpp)
+   // to signal that there are more; that result isn't shown
+   private static final int MAX_RESULT_COUNT = 100000;
+   private static final int RESULT_OVERHEAD_BYTES = 64;
+}
@@ -126,6 +126,7 @@ import org.rstudio.studio.client.workbench.views.output.find.events.FindInFilesE
 import org.rstudio.studio.client.workbench.views.source.NewShinyWebApplication.Result;
 import org.rstudio.studio.client.workbench.views.source.SourceWindowManager.NavigationResult;
 import org.rstudio.studio.client.workbench.views.source.editors.EditingTarget;
+import org.rstudio.studio.client.workbench.views.source.editors.PlaceholderEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.EditingTargetSource;
 import org.rstudio.studio.client.workbench.views.source.editors.codebrowser.CodeBrowserEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.data.DataEditingTarget;
@@ -615,10 +616,12 @@ public class Source implements InsertSourceHandler,
          @Override
          protected void onInit(Integer value)
          {
+            int index = getRestoredTabIndex(value, view_.getTabCount());
+            if (index >= 0)
+               activateRestoredTab(index);
+            
             if (value == null)
                return;
-            if (value >= 0 && view_.getTabCount() > value)
-               view_.selectTab(value);
 
             if (view_.getTabCount() > 0 && view_.getActiveTabIndex() >= 0)
             {
@@ -857,6 +860,9 @@ public class Source implements InsertSourceHandler,
       final JsArray<SourceDocument> docs =
             session.getSessionInfo().getSourceDocuments();
 
+      // tabs aren't activated as they're restored; the one to show is 
+      // activated once they're all in place (see activateRestoredTab)
+      restoringDocuments_ = true;
       for (int i = 0; i < docs.length(); i++)
       {
          // restore the docs assigned to this source window
@@ -880,7 +886,10 @@ public class Source implements InsertSourceHandler,
             EditingTarget sourceEditor = null;
             try
             {
-               sourceEditor = addTab(doc, true, OPEN_REPLAY);
+               FileType type = fileTypeRegistry_.getTypeByTypeName(doc.getType());
+               sourceEditor = canDeferEditor(doc, type) ?
+                     addPlaceholderTab(doc) :
+                     addTab(doc, true, OPEN_REPLAY);
             }
             catch (Exception e)
             {
@@ -893,6 +902,42 @@ public class Source implements InsertSourceHandler,
                continue;
          }
       }
+      restoringDocuments_ = false;
+   }
+   
+   // restored text documents are opened as placeholders, and their editors
+   // built only when first activated or needed by a command; documents
+   // with state that must be live from the start are built immediately
+   static boolean canDeferEditor(SourceDocument doc, FileType type)
+   {
+      if (!(type instanceof TextFileType))
+         return false;
+      
+      // untitled documents are named as their editors are built
+      boolean hasName = doc.getPath() != null ||
+            !StringUtil.isNullOrEmpty(doc.getProperties().getString("tempName"));
+      
+      return hasName && !doc.isDirty() && doc.getCollabParams() == null;
+   }
+   
+   // the tab to activate once documents are restored: the tab that was
+   // active when the state was saved, or else the last tab (-1 if none)
+   static int getRestoredTabIndex(Integer savedIndex, int tabCount)
+   {
+      if (savedIndex != null && savedIndex >= 0 && savedIndex < tabCount)
+         return savedIndex;
+      return tabCount - 1;
+   }
+   
+   // the tab panel selects the first tab added, which isn't activated while
+   // documents are restored; select the given tab, activating it directly
+   // if it's already selected
+   private void activateRestoredTab(int index)
+   {
+      if (view_.getActiveTabIndex() == index)
+         activateTab(index);
+      else
+         view_.selectTab(index);
    }
    
    private void openEditPublishedDocs()
@@ -2296,9 +2341,9 @@ public class Source implements InsertSourceHandler,
    
    private EditingTarget getEditingTargetForId(String id)
    {
-      for (EditingTarget target : editors_)
-         if (id == target.getId())
-            return target;
+      for (int i = 0; i < editors_.size(); i++)
+         if (id == editors_.get(i).getId())
+            return ensureEditor(i);
 
       return null;
    }
@@ -2887,7 +2932,7 @@ public class Source implements InsertSourceHandler,
                else
                {
                   view_.selectTab(i);
-                  editingTargetAction.execute(target);
+                  editingTargetAction.execute(ensureEditor(i));
                }
                return;
             }
@@ -3154,7 +3199,7 @@ public class Source implements InsertSourceHandler,
             view_.selectTab(i);
             pMruList_.get().add(thisPath);
             if (resultCallback != null)
-               resultCallback.onSuccess(target);
+               resultCallback.onSuccess(ensureEditor(i));
             return true;
          }
       }
@@ -3319,6 +3364,110 @@ public class Source implements InsertSourceHandler,
       
       final Widget widget = createWidget(target);
 
+      insertEditor(target, position);
+
+      view_.addTab(widget,
+                   target.getIcon(),
+                   target.getId(),
+                   target.getName().getValue(),
+                   target.getTabTooltip(), // used as tooltip, if non-null
+                   position,
+                   true);
+      fireDocTabsChanged();
+
+      attachEditor(target, widget);
+      
+      events_.fireEvent(new SourceDocAddedEvent(doc, mode));
+      
+      if (target instanceof TextEditingTarget && doc.isReadOnly())
+      {
+         ((TextEditingTarget) target).setIntendedAsReadOnly(
+               JsUtil.toList(doc.getReadOnlyAlternatives()));
+      }
+      
+      // adding a tab may enable commands that are only available when 
+      // multiple documents are open; if this is the second document, go check
+      if (editors_.size() == 2)
+         manageMultiTabCommands();
+      
+      // if the target had an editing session active, attempt to resume it
+      if (doc.getCollabParams() != null)
+         target.beginCollabSession(doc.getCollabParams());
+      
+      return target;
+   }
+   
+   // adds a tab for a restored document, without building its editor 
+   private EditingTarget addPlaceholderTab(SourceDocument doc)
+   {
+      TextFileType type = 
+            (TextFileType) fileTypeRegistry_.getTypeByTypeName(doc.getType());
+      PlaceholderEditingTarget placeholder = new PlaceholderEditingTarget(
+            doc, type, (target) -> buildEditor(target));
+      
+      insertEditor(placeholder, null);
+      view_.addTab(placeholder.asWidget(),
+                   placeholder.getIcon(),
+                   placeholder.getId(),
+                   placeholder.getName().getValue(),
+                   placeholder.getTabTooltip(),
+                   null,
+                   false);
+      fireDocTabsChanged();
+      
+      events_.fireEvent(new SourceDocAddedEvent(doc, OPEN_REPLAY));
+      
+      if (editors_.size() == 2)
+         manageMultiTabCommands();
+      
+      return placeholder;
+   }
+   
+   // builds the editor for a restored document (as the placeholder's
+   // builder, so the placeholder itself may be what asked for it)
+   private void buildEditor(PlaceholderEditingTarget placeholder)
+   {
+      SourceDocument doc = placeholder.getDocument();
+      final String defaultNamePrefix = editingTargetSource_.getDefaultNamePrefix(doc);
+      EditingTarget target = editingTargetSource_.getEditingTarget(
+            doc, fileContext_, () -> getNextDefaultName(defaultNamePrefix));
+      placeholder.attach(target, createWidget(target));
+      
+      if (target instanceof TextEditingTarget && doc.isReadOnly())
+      {
+         ((TextEditingTarget) target).setIntendedAsReadOnly(
+               JsUtil.toList(doc.getReadOnlyAlternatives()));
+      }
+      
+      // the placeholder's widget stays as the tab's widget
+      int index = editors_.indexOf(placeholder);
+      if (index >= 0)
+      {
+         attachEditor(target, placeholder.asWidget());
+         ensureEditor(editors_, index);
+      }
+   }
+   
+   private EditingTarget ensureEditor(int index)
+   {
+      return ensureEditor(editors_, index);
+   }
+   
+   // the editor at the given index, building it if it's a placeholder and
+   // replacing the placeholder with it
+   static EditingTarget ensureEditor(ArrayList<EditingTarget> editors, int index)
+   {
+      EditingTarget target = editors.get(index);
+      if (target instanceof PlaceholderEditingTarget)
+      {
+         target = ((PlaceholderEditingTarget) target).build();
+         editors.set(index, target);
+      }
+      return target;
+   }
+   
+   private void insertEditor(EditingTarget target, Integer position)
+   {
       if (position == null)
       {
          editors_.add(target);
@@ -3338,16 +3487,11 @@ public class Source implements InsertSourceHandler,
          // add this tab in its "natural" position
          tabOrder_.add(position, position);
       }
-
-      view_.addTab(widget,
-                   target.getIcon(),
-                   target.getId(),
-                   target.getName().getValue(),
-                   target.getTabTooltip(), // used as tooltip, if non-null
-                   position,
-                   true);
-      fireDocTabsChanged();
-
+   }
+   
+   // hooks the editor up to the tab showing its widget
+   private void attachEditor(final EditingTarget target, final Widget widget)
+   {
       target.getName().addValueChangeHandler(new ValueChangeHandler<String>()
       {
          public void onValueChange(ValueChangeEvent<String> event)
@@ -3385,25 +3529,6 @@ public class Source implements InsertSourceHandler,
             view_.closeTab(widget, false);
          }
       });
-      
-      events_.fireEvent(new SourceDocAddedEvent(doc, mode));
-      
-      if (target instanceof TextEditingTarget && doc.isReadOnly())
-      {
-         ((TextEditingTarget) target).setIntendedAsReadOnly(
-               JsUtil.toList(doc.getReadOnlyAlternatives()));
-      }
-      
-      // adding a tab may enable commands that are only available when 
-      // multiple documents are open; if this is the second document, go check
-      if (editors_.size() == 2)
-         manageMultiTabCommands();
-      
-      // if the target had an editing session active, attempt to resume it
-      if (doc.getCollabParams() != null)
-         target.beginCollabSession(doc.getCollabParams());
-      
-      return target;
    }
 
    private String getNextDefaultName(String defaultNamePrefix)
@@ -3625,15 +3750,23 @@ public class Source implements InsertSourceHandler,
    }
 
    public void onSelection(SelectionEvent<Integer> event)
+   {
+      if (restoringDocuments_)
+         return;
+      
+      activateTab(event.getSelectedItem());
+   }
+   
+   private void activateTab(int index)
    {
       if (activeEditor_ != null)
          activeEditor_.onDeactivate();
 
       activeEditor_ = null;
 
-      if (event.getSelectedItem() >= 0)
+      if (index >= 0)
       {
-         activeEditor_ = editors_.get(event.getSelectedItem());
+         activeEditor_ = ensureEditor(index);
          activeEditor_.onActivate();
          
          // let any listeners know this tab was activated
@@ -3673,6 +3806,29 @@ public class Source implements InsertSourceHandler,
    }
    
    private void manageCommands(boolean forceSync)
+   {
+      // a forced sync re-announces the state of every command, so it can't
+      // be batched (the batch would find most commands unchanged)
+      if (forceSync)
+      {
+         doManageCommands(true);
+         return;
+      }
+      
+      // batch the changes, so that menus and toolbars are updated once for
+      // the whole set rather than for each command
+      AppCommand.beginStateChanges();
+      try
+      {
+         doManageCommands(false);
+      }
+      finally
+      {
+         AppCommand.endStateChanges();
+      }
+   }
+   
+   private void doManageCommands(boolean forceSync)
    {
       boolean hasDocs = editors_.size() > 0;
 
@@ -4673,7 +4829,7 @@ public class Source implements InsertSourceHandler,
          String editorPath = editors_.get(i).getPath();
          if (editorPath != null && editorPath.equals(path))
          {
-            onEditorLocated.execute(editors_.get(i));
+            onEditorLocated.execute(ensureEditor(i));
             break;
          }
       }
@@ -4687,7 +4843,7 @@ public class Source implements InsertSourceHandler,
          String editorId = editors_.get(i).getId();
          if (editorId != null && editorId.equals(id))
          {
-            onEditorLocated.execute(editors_.get(i));
+            onEditorLocated.execute(ensureEditor(i));
             break;
          }
       }
@@ -4873,6 +5029,7 @@ public class Source implements InsertSourceHandler,
 
    private boolean suspendSourceNavigationAdding_;
    private boolean suspendDocumentClose_ = false;
+   private boolean restoringDocuments_ = false;
   
    private static final String MODULE_SOURCE = "source-pane";
    private static final String KEY_ACTIVETAB = "activeTab";
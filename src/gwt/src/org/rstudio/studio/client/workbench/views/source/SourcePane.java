@@ -136,7 +136,7 @@ public class SourcePane extends Composite implements Display,
 
    public void closeTab(Widget child, boolean interactive, Command onClosed)
    {
-      closeTab(tabPanel_.getWidgetIndex(child), interactive, onClosed);
+      closeTab(getTabIndex(child), interactive, onClosed);
    }
    
    public void closeTab(int index, boolean interactive)
@@ -171,7 +171,7 @@ public class SourcePane extends Composite implements Display,
                          String value,
                          String tooltip)
    {
-      tabPanel_.replaceDocName(tabPanel_.getWidgetIndex(child),
+      tabPanel_.replaceDocName(getTabIndex(child),
                                icon,
                                value,
                                tooltip);
@@ -189,7 +189,26 @@ public class SourcePane extends Composite implements Display,
 
    public void selectTab(Widget child)
    {
-      tabPanel_.selectTab(child);
+      tabPanel_.selectTab(getTabIndex(child));
+   }
+   
+   private int getTabIndex(Widget child)
+   {
+      return getTabIndex(tabPanel_, child);
+   }
+   
+   // the index of the tab showing the widget; an editor built for a 
+   // restored document is shown within its placeholder's widget, which
+   // remains the tab's widget
+   static int getTabIndex(IndexedPanel tabs, Widget child)
+   {
+      for (Widget widget = child; widget != null; widget = widget.getParent())
+      {
+         int index = tabs.getWidgetIndex(widget);
+         if (index >= 0)
+            return index;
+      }
+      return -1;
    }
 
    public int getTabCount()
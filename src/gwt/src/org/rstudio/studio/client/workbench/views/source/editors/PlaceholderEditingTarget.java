@@ -0,0 +1,522 @@
+/*
+ * PlaceholderEditingTarget.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import com.google.gwt.event.logical.shared.CloseHandler;
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.resources.client.ImageResource;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.ui.HasValue;
+import com.google.gwt.user.client.ui.SimpleLayoutPanel;
+import com.google.gwt.user.client.ui.Widget;
+import com.google.inject.Provider;
+
+import org.rstudio.core.client.CommandWithArg;
+import org.rstudio.core.client.command.AppCommand;
+import org.rstudio.core.client.events.EnsureHeightHandler;
+import org.rstudio.core.client.events.EnsureVisibleHandler;
+import org.rstudio.core.client.files.FileSystemContext;
+import org.rstudio.core.client.files.FileSystemItem;
+import org.rstudio.studio.client.common.ReadOnlyValue;
+import org.rstudio.studio.client.common.Value;
+import org.rstudio.studio.client.common.filetypes.FileType;
+import org.rstudio.studio.client.common.filetypes.TextFileType;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.events.CollabEditStartParams;
+import org.rstudio.studio.client.workbench.views.source.model.SourceDocument;
+import org.rstudio.studio.client.workbench.views.source.model.SourcePosition;
+
+/**
+ * Stands in for the editor of a restored document until the editor is
+ * needed. The placeholder answers questions about the document (its id,
+ * name, path and type) from the document itself; anything else builds the
+ * editor, via the supplied builder, and is passed on to it.
+ *
+ * The placeholder's widget is the document's tab; the editor, once built,
+ * is shown inside it. Handlers added to the placeholder before then are
+ * added to the editor once it's built.
+ */
+public class PlaceholderEditingTarget implements EditingTarget
+{
+   public PlaceholderEditingTarget(SourceDocument document,
+                                   TextFileType fileType,
+                                   CommandWithArg<PlaceholderEditingTarget> builder)
+   {
+      document_ = document;
+      fileType_ = fileType;
+      builder_ = builder;
+
+      String name = document.getPath() != null ?
+            FileSystemItem.getNameFromPath(document.getPath()) :
+            document.getProperties().getString("tempName");
+      name_ = new Value<String>(name);
+   }
+
+   public SourceDocument getDocument()
+   {
+      return document_;
+   }
+
+   /**
+    * @return The editor built for the document, or null if it hasn't been
+    *    built yet
+    */
+   public EditingTarget getTarget()
+   {
+      return target_;
+   }
+
+   /**
+    * @return The editor for the document, building it if necessary
+    */
+   public EditingTarget build()
+   {
+      return target();
+   }
+
+   /**
+    * Shows the editor built for the document in place of the placeholder.
+    */
+   public void attach(EditingTarget target, Widget widget)
+   {
+      target_ = target;
+      panel_.setWidget(widget);
+      panel_.onResize();
+      
+      for (PendingHandler handler : pendingHandlers_)
+         handler.addTo(target);
+      pendingHandlers_.clear();
+   }
+
+   private EditingTarget target()
+   {
+      if (target_ == null)
+         builder_.execute(this);
+      return target_;
+   }
+
+   @Override
+   public String getId()
+   {
+      return document_.getId();
+   }
+
+   @Override
+   public HasValue<String> getName()
+   {
+      return target_ != null ? target_.getName() : name_;
+   }
+
+   @Override
+   public String getTitle()
+   {
+      return getName().getValue();
+   }
+
+   @Override
+   public String getPath()
+   {
+      return target_ != null ? target_.getPath() : document_.getPath();
+   }
+
+   @Override
+   public String getContext()
+   {
+      return target_ != null ? target_.getContext() : null;
+   }
+
+   @Override
+   public ImageResource getIcon()
+   {
+      return target_ != null ? target_.getIcon() : fileType_.getDefaultIcon();
+   }
+
+   @Override
+   public String getTabTooltip()
+   {
+      return getPath();
+   }
+
+   @Override
+   public FileType getFileType()
+   {
+      return target_ != null ? target_.getFileType() : fileType_;
+   }
+
+   @Override
+   public TextFileType getTextFileType()
+   {
+      return target_ != null ? target_.getTextFileType() : fileType_;
+   }
+
+   @Override
+   public void adaptToExtendedFileType(String extendedType)
+   {
+      // the editor picks up the extended type from the document when built
+      if (target_ != null)
+         target_.adaptToExtendedFileType(extendedType);
+      else
+         document_.setExtendedType(extendedType);
+   }
+
+   @Override
+   public String getExtendedFileType()
+   {
+      return target_ != null ?
+            target_.getExtendedFileType() :
+            document_.getExtendedType();
+   }
+
+   @Override
+   public HashSet<AppCommand> getSupportedCommands()
+   {
+      return target().getSupportedCommands();
+   }
+
+   @Override
+   public void manageCommands()
+   {
+      target().manageCommands();
+   }
+
+   @Override
+   public boolean canCompilePdf()
+   {
+      return target().canCompilePdf();
+   }
+
+   @Override
+   public void verifyCppPrerequisites()
+   {
+      target().verifyCppPrerequisites();
+   }
+
+   @Override
+   public void verifyPythonPrerequisites()
+   {
+      target().verifyPythonPrerequisites();
+   }
+
+   @Override
+   public void verifyD3Prerequisites()
+   {
+      target().verifyD3Prerequisites();
+   }
+
+   @Override
+   public void verifyNewSqlPrerequisites()
+   {
+      target().verifyNewSqlPrerequisites();
+   }
+
+   @Override
+   public void focus()
+   {
+      target().focus();
+   }
+
+   @Override
+   public void onActivate()
+   {
+      target().onActivate();
+   }
+
+   @Override
+   public void onDeactivate()
+   {
+      if (target_ != null)
+         target_.onDeactivate();
+   }
+
+   @Override
+   public void onInitiallyLoaded()
+   {
+      target().onInitiallyLoaded();
+   }
+
+   @Override
+   public void recordCurrentNavigationPosition()
+   {
+      target().recordCurrentNavigationPosition();
+   }
+
+   @Override
+   public void navigateToPosition(SourcePosition position,
+                                  boolean recordCurrent)
+   {
+      target().navigateToPosition(position, recordCurrent);
+   }
+
+   @Override
+   public void navigateToPosition(SourcePosition position,
+                                  boolean recordCurrent,
+                                  boolean highlightLine)
+   {
+      target().navigateToPosition(position, recordCurrent, highlightLine);
+   }
+
+   @Override
+   public void restorePosition(SourcePosition position)
+   {
+      target().restorePosition(position);
+   }
+
+   @Override
+   public SourcePosition currentPosition()
+   {
+      return target().currentPosition();
+   }
+
+   @Override
+   public boolean isAtSourceRow(SourcePosition position)
+   {
+      return target().isAtSourceRow(position);
+   }
+
+   @Override
+   public void forceLineHighlighting()
+   {
+      target().forceLineHighlighting();
+   }
+
+   @Override
+   public void setSourceOnSave(boolean sourceOnSave)
+   {
+      target().setSourceOnSave(sourceOnSave);
+   }
+
+   @Override
+   public void setCursorPosition(Position position)
+   {
+      target().setCursorPosition(position);
+   }
+
+   @Override
+   public void ensureCursorVisible()
+   {
+      target().ensureCursorVisible();
+   }
+
+   @Override
+   public Position search(String regex)
+   {
+      return target().search(regex);
+   }
+
+   @Override
+   public Position search(Position startPos, String regex)
+   {
+      return target().search(startPos, regex);
+   }
+
+   @Override
+   public void highlightDebugLocation(SourcePosition startPos,
+                                      SourcePosition endPos,
+                                      boolean executing)
+   {
+      target().highlightDebugLocation(startPos, endPos, executing);
+   }
+
+   @Override
+   public void endDebugHighlighting()
+   {
+      // nothing is highlighted in an editor which hasn't been built
+      if (target_ != null)
+         target_.endDebugHighlighting();
+   }
+
+   @Override
+   public void beginCollabSession(CollabEditStartParams params)
+   {
+      target().beginCollabSession(params);
+   }
+
+   @Override
+   public void endCollabSession()
+   {
+      if (target_ != null)
+         target_.endCollabSession();
+   }
+
+   @Override
+   public boolean onBeforeDismiss()
+   {
+      return target_ != null ? target_.onBeforeDismiss() : true;
+   }
+
+   @Override
+   public void onDismiss(int dismissType)
+   {
+      if (target_ != null)
+         target_.onDismiss(dismissType);
+   }
+
+   @Override
+   public ReadOnlyValue<Boolean> dirtyState()
+   {
+      // only documents without unsaved changes are left unbuilt, and they
+      // can't be changed until built
+      return target_ != null ? target_.dirtyState() : dirtyState_;
+   }
+
+   @Override
+   public boolean isSaveCommandActive()
+   {
+      return target_ != null ? target_.isSaveCommandActive() : false;
+   }
+
+   @Override
+   public void forceSaveCommandActive()
+   {
+      target().forceSaveCommandActive();
+   }
+
+   @Override
+   public void save(Command onCompleted)
+   {
+      target().save(onCompleted);
+   }
+
+   @Override
+   public void saveWithPrompt(Command onCompleted, Command onCancelled)
+   {
+      target().saveWithPrompt(onCompleted, onCancelled);
+   }
+
+   @Override
+   public void revertChanges(Command onCompleted)
+   {
+      target().revertChanges(onCompleted);
+   }
+
+   @Override
+   public void initialize(SourceDocument document,
+                          FileSystemContext fileContext,
+                          FileType type,
+                          Provider<String> defaultNameProvider)
+   {
+      // the editor is initialized by the builder, from the document the
+      // placeholder was created for
+      throw new IllegalStateException(
+            "Placeholder for document " + getId() + " can't be initialized");
+   }
+
+   @Override
+   public long getFileSizeLimit()
+   {
+      return target().getFileSizeLimit();
+   }
+
+   @Override
+   public long getLargeFileSize()
+   {
+      return target().getLargeFileSize();
+   }
+
+   @Override
+   public String getDefaultNamePrefix()
+   {
+      return target().getDefaultNamePrefix();
+   }
+
+   @Override
+   public Widget asWidget()
+   {
+      return panel_;
+   }
+
+   // the placeholder itself never fires any events, so handlers are held
+   // until the editor is built
+   @Override
+   public HandlerRegistration addEnsureVisibleHandler(
+                                          final EnsureVisibleHandler handler)
+   {
+      return addHandler(target -> target.addEnsureVisibleHandler(handler));
+   }
+
+   @Override
+   public HandlerRegistration addEnsureHeightHandler(
+                                          final EnsureHeightHandler handler)
+   {
+      return addHandler(target -> target.addEnsureHeightHandler(handler));
+   }
+
+   @Override
+   public HandlerRegistration addCloseHandler(final CloseHandler<Void> handler)
+   {
+      return addHandler(target -> target.addCloseHandler(handler));
+   }
+
+   @Override
+   public void fireEvent(GwtEvent<?> event)
+   {
+      target().fireEvent(event);
+   }
+
+   private HandlerRegistration addHandler(HandlerAdder adder)
+   {
+      if (target_ != null)
+         return adder.addTo(target_);
+
+      PendingHandler handler = new PendingHandler(adder);
+      pendingHandlers_.add(handler);
+      return handler;
+   }
+
+   private interface HandlerAdder
+   {
+      HandlerRegistration addTo(EditingTarget target);
+   }
+
+   // a handler added before the editor is built
+   private class PendingHandler implements HandlerRegistration
+   {
+      public PendingHandler(HandlerAdder adder)
+      {
+         adder_ = adder;
+      }
+
+      public void addTo(EditingTarget target)
+      {
+         registration_ = adder_.addTo(target);
+      }
+
+      @Override
+      public void removeHandler()
+      {
+         if (registration_ != null)
+            registration_.removeHandler();
+         else
+            pendingHandlers_.remove(this);
+      }
+
+      private final HandlerAdder adder_;
+      private HandlerRegistration registration_;
+   }
+
+   private final SourceDocument document_;
+   private final TextFileType fileType_;
+   private final CommandWithArg<PlaceholderEditingTarget> builder_;
+   private final Value<String> name_;
+   private final Value<Boolean> dirtyState_ = new Value<Boolean>(false);
+   private final SimpleLayoutPanel panel_ = new SimpleLayoutPanel();
+   private final ArrayList<PendingHandler> pendingHandlers_ =
+         new ArrayList<PendingHandler>();
+   private EditingTarget target_;
+}
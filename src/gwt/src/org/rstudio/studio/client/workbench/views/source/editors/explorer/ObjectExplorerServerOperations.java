@@ -29,6 +29,7 @@ public interface ObjectExplorerServerOperations
          String objectAccess,
          JsArrayString tags,
          int fromIndex,
+         int limit,
          ServerRequestCallback<ObjectExplorerInspectionResult> requestCallback);
    
    void explorerBeginInspect(
@@ -15,7 +15,10 @@
 package org.rstudio.studio.client.workbench.views.source.editors.explorer.view;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.JsVectorString;
@@ -140,21 +143,23 @@ public class ObjectExplorerDataGrid
          return hasTag(TAG_ATTRIBUTES);
       }
       
-      // The number of child rows that should be shown
-      // for this node.
-      public final native void setMaximumChildRowsShown(int limit)
+      // Whether the server has more children for this node
+      // than have been fetched so far.
+      public final native void setMoreAvailable(boolean more)
       /*-{
-         this["maxChildRowsShown"] = limit;
+         this["more"] = more;
       }-*/;
       
-      public final int getMaximumChildRowsShown()
-      {
-         return getMaximumChildRowsShownImpl(DEFAULT_ROW_LIMIT);
-      }
+      // Whether a request for (a page of) this node's children
+      // is in flight.
+      public final native boolean isLoading()
+      /*-{
+         return !!this["loading"];
+      }-*/;
       
-      private final native int getMaximumChildRowsShownImpl(int defaultLimit)
+      public final native void setLoading(boolean loading)
       /*-{
-         return this["maxChildRowsShown"] || defaultLimit;
+         this["loading"] = loading;
       }-*/;
       
       // Whether this node is matched, according to the
@@ -248,6 +253,13 @@ public class ObjectExplorerDataGrid
          this["children"] = children;
       }-*/;
       
+      // Drops the fetched children of this node; they'll be
+      // requested again when the node is next opened.
+      public final native void clearChildrenData()
+      /*-{
+         delete this["children"];
+      }-*/;
+      
       // Return the node's depth, or the number of parents.
       public final int getDepth()
       {
@@ -994,27 +1006,38 @@ public class ObjectExplorerDataGrid
       if (!data.isExpandable())
          assert false: "Attempted to expand non-recursive row " + row;
       
+      if (data.getExpansionState() == ExpansionState.OPEN)
+         return;
+      
       // toggle expansion state
       data.setExpansionState(ExpansionState.OPEN);
+      uncacheSubtree(data);
       
       // resolve children and show
-      withChildren(data, false, new Command()
+      withChildren(data, new Command()
       {
          @Override
          public void execute()
          {
-            // set all direct children as visible
-            JsArray<Data> children = data.getChildrenData();
-            for (int i = 0, n = children.length(); i < n; i++)
-               children.get(i).setVisible(true);
+            // the row may have been closed again while we were
+            // waiting for its children
+            if (data.getExpansionState() != ExpansionState.OPEN)
+               return;
             
-            // set attributes as visible if available
-            Data attributes = data.getObjectAttributes().<Data>cast();
-            if (attributes != null)
-               attributes.setVisible(true);
+            setChildrenVisible(data, true);
+            
+            // splice the newly visible rows in below this one
+            int index = indexOfRow(data, row);
+            if (index == -1 || isFiltered())
+            {
+               synchronize();
+            }
+            else
+            {
+               saveScrollPosition();
+               replaceRows(index + 1, index + 1, flattenChildren(data, 0, true));
+            }
             
-            // force update of data grid
-            synchronize();
             setFocusDeferred(true);
          }
       });
@@ -1028,30 +1051,44 @@ public class ObjectExplorerDataGrid
       if (!data.isExpandable())
          assert false: "Attempted to close non-recursive row " + row;
       
+      if (data.getExpansionState() == ExpansionState.CLOSED)
+         return;
+      
       // toggle expansion state
       data.setExpansionState(ExpansionState.CLOSED);
+      setChildrenVisible(data, false);
       
-      // set direct children as non-visible
-      withChildren(data, false, new Command()
+      // remove the rows of this node's subtree
+      int index = indexOfRow(data, row);
+      if (index == -1 || isFiltered())
       {
-         @Override
-         public void execute()
-         {
-            // set all direct children as invisible
-            JsArray<Data> children = data.getChildrenData();
-            for (int i = 0, n = children.length(); i < n; i++)
-               children.get(i).setVisible(false);
-            
-            // set attributes as invisible if available
-            Data attributes = data.getObjectAttributes().<Data>cast();
-            if (attributes != null)
-               attributes.setVisible(false);
-            
-            // force update of data grid
-            synchronize();
-            setFocusDeferred(true);
-         }
-      });
+         synchronize();
+      }
+      else
+      {
+         saveScrollPosition();
+         replaceRows(index + 1, endOfSubtree(index), new ArrayList<Data>());
+      }
+      
+      // keep the children around in case the row is re-opened
+      cacheSubtree(data);
+      setFocusDeferred(true);
+   }
+   
+   private void setChildrenVisible(Data data, boolean visible)
+   {
+      // set all direct children as (in)visible
+      JsArray<Data> children = data.getChildrenData();
+      if (children != null)
+      {
+         for (int i = 0, n = children.length(); i < n; i++)
+            children.get(i).setVisible(visible);
+      }
+      
+      // set attributes as (in)visible if available
+      Data attributes = data.getObjectAttributes().<Data>cast();
+      if (attributes != null)
+         attributes.setVisible(visible);
    }
    
    private void setFocusDeferred(final boolean focused)
@@ -1089,36 +1126,59 @@ public class ObjectExplorerDataGrid
       if (parent == null)
          return;
       
-      // select the previous row (so that we don't end up scrolling all over the place)
-      selectRowRelative(row);
-      
-      // update the limit on the number of children we're showing
-      parent.setMaximumChildRowsShown(parent.getMaximumChildRowsShown() + DEFAULT_ROW_LIMIT);
-      
-      withChildren(parent, true, new Command()
+      fetchPage(parent);
+   }
+   
+   // Requests the next page of children for an open node, and
+   // puts them in place of its 'More...' row.
+   private void fetchPage(final Data parent)
+   {
+      final int offset = parent.getNumChildren();
+      requestChildren(parent, offset, new Command()
       {
          @Override
          public void execute()
          {
-            synchronize();
+            if (parent.getExpansionState() != ExpansionState.OPEN)
+               return;
+            
+            int index = indexOfPlaceholder(parent);
+            if (index == -1 || isFiltered())
+            {
+               synchronize();
+               return;
+            }
+            
+            replaceRows(index, index + 1, flattenChildren(parent, offset, false));
          }
       });
    }
    
    private void withChildren(final Data data,
-                             final boolean forceRequest,
                              final Command command)
    {
       // if we already have children, exit early
       JsArray<Data> children = data.getChildrenData();
-      if (!forceRequest && children != null)
+      if (children != null)
       {
          if (command != null)
             command.execute();
          return;
       }
       
-      // no children; make a server RPC request and then call back
+      // no children; request the first page and then call back
+      requestChildren(data, 0, command);
+   }
+   
+   private void requestChildren(final Data data,
+                                final int offset,
+                                final Command command)
+   {
+      // a request for this node is already in flight
+      if (data.isLoading())
+         return;
+      
+      data.setLoading(true);
       String extractingCode = generateExtractingRCode(data, "`__OBJECT__`");
       server_.explorerInspectObject(
             handle_.getId(),
@@ -1126,21 +1186,34 @@ public class ObjectExplorerDataGrid
             data.getDisplayName(),
             data.getObjectAccess(),
             data.getTags().<JsArrayString>cast(),
-            data.getNumChildren(),
+            offset,
+            CHILD_PAGE_SIZE,
             new ServerRequestCallback<ObjectExplorerInspectionResult>()
             {
                @Override
                public void onResponseReceived(ObjectExplorerInspectionResult result)
                {
+                  data.setLoading(false);
+                  
+                  // drop the response if the children were evicted
+                  // while it was in flight
+                  if (data.getNumChildren() != offset)
+                     return;
+                  
                   // set parent ownership for children
+                  boolean visible = data.getExpansionState() == ExpansionState.OPEN;
                   JsArray<Data> children = result.getChildren().cast();
                   data.addChildrenData(children);
                   for (int i = 0, n = children.length(); i < n; i++)
+                  {
                      children.get(i).setParentData(data);
+                     children.get(i).setVisible(visible);
+                  }
+                  data.setMoreAvailable(result.isMoreAvailable());
                   
                   // set parent ownership for attributes
                   Data attributes = result.getObjectAttributes().<Data>cast();
-                  if (attributes != null)
+                  if (offset == 0 && attributes != null)
                   {
                      data.setObjectAttributes(attributes);
                      attributes.setParentData(data);
@@ -1154,6 +1227,7 @@ public class ObjectExplorerDataGrid
                @Override
                public void onError(ServerError error)
                {
+                  data.setLoading(false);
                   Debug.logError(error);
                }
             });
@@ -1176,6 +1250,9 @@ public class ObjectExplorerDataGrid
                @Override
                public void onResponseReceived(ObjectExplorerInspectionResult result)
                {
+                  cachedSubtrees_.clear();
+                  cachedChildCount_ = 0;
+                  
                   root_ = result.cast();
                   root_.updateChildOwnership();
                   root_.setExpansionState(ExpansionState.OPEN);
@@ -1209,10 +1286,8 @@ public class ObjectExplorerDataGrid
       
       final String filter = StringUtil.notNull(filter_).trim();
       
-      // only include visible data in the table
-      // TODO: we should consider how to better handle
-      // piecewise updates to the table, rather than
-      // shunting a whole new list in
+      // only include visible data in the table (opening and closing
+      // rows splices their subtrees in and out instead; see replaceRows)
       List<Data> data = flatten(root_, new Filter<Data>()
       {
          @Override
@@ -1269,6 +1344,135 @@ public class ObjectExplorerDataGrid
       redraw();
    }
    
+   // Replaces the rows [from, to) with the given rows.
+   private void replaceRows(int from, int to, List<Data> rows)
+   {
+      List<Data> data = getData();
+      List<Data> updated = new ArrayList<Data>(data.size() - (to - from) + rows.size());
+      for (int i = 0; i < from; i++)
+         updated.add(data.get(i));
+      updated.addAll(rows);
+      for (int i = to, n = data.size(); i < n; i++)
+         updated.add(data.get(i));
+      
+      setData(updated);
+      redraw();
+   }
+   
+   // The index of the row displaying the given node; 'hint' is
+   // checked first as it's usually where the node was last seen.
+   private int indexOfRow(Data data, int hint)
+   {
+      List<Data> rows = getData();
+      if (hint >= 0 && hint < rows.size() && rows.get(hint) == data)
+         return hint;
+      return rows.indexOf(data);
+   }
+   
+   // The index just past the rows of the subtree displayed
+   // below the row at 'index'.
+   private int endOfSubtree(int index)
+   {
+      List<Data> rows = getData();
+      Data data = rows.get(index);
+      
+      int end = index + 1;
+      while (end < rows.size() && rows.get(end).hasParentData(data))
+         end++;
+      return end;
+   }
+   
+   private int indexOfPlaceholder(Data parent)
+   {
+      List<Data> rows = getData();
+      int index = rows.indexOf(parent);
+      if (index == -1)
+         return -1;
+      
+      for (int i = index + 1, n = endOfSubtree(index); i < n; i++)
+      {
+         Data row = rows.get(i);
+         if (row.isMorePlaceholder() && row.getParentData() == parent)
+            return i;
+      }
+      
+      return -1;
+   }
+   
+   private boolean isFiltered()
+   {
+      return !StringUtil.notNull(filter_).trim().isEmpty();
+   }
+   
+   // Closed subtrees keep their children, so that re-opening them doesn't
+   // need a server round trip; once the closed subtrees hold more than
+   // MAX_CACHED_CHILDREN children between them, the least recently closed
+   // ones are dropped (and re-fetched if they're opened again).
+   private void cacheSubtree(Data data)
+   {
+      int size = data.getNumChildren();
+      if (size == 0)
+         return;
+      
+      uncacheSubtree(data);
+      cachedSubtrees_.put(data, size);
+      cachedChildCount_ += size;
+      
+      while (cachedChildCount_ > MAX_CACHED_CHILDREN && !cachedSubtrees_.isEmpty())
+         evictSubtree(cachedSubtrees_.keySet().iterator().next());
+   }
+   
+   private void uncacheSubtree(Data data)
+   {
+      Integer size = cachedSubtrees_.remove(data);
+      if (size != null)
+         cachedChildCount_ -= size;
+   }
+   
+   private void evictSubtree(Data data)
+   {
+      uncacheSubtree(data);
+      
+      // closed subtrees within this one are dropped along with it
+      Iterator<Map.Entry<Data, Integer>> it = cachedSubtrees_.entrySet().iterator();
+      while (it.hasNext())
+      {
+         Map.Entry<Data, Integer> entry = it.next();
+         if (entry.getKey().hasParentData(data))
+         {
+            cachedChildCount_ -= entry.getValue();
+            it.remove();
+         }
+      }
+      
+      data.clearChildrenData();
+   }
+   
+   @Override
+   public void redraw()
+   {
+      super.redraw();
+      fetchActivePages();
+   }
+   
+   // Requests the next page of children for any 'More...' rows within the
+   // rows being drawn, so that scrolling through a long list of children
+   // fetches them as they come into view.
+   private void fetchActivePages()
+   {
+      if (dataProvider_ == null || server_ == null)
+         return;
+      
+      List<Data> rows = getData();
+      int last = Math.min(getLastActiveRow(), rows.size() - 1);
+      for (int i = Math.max(0, getFirstActiveRow()); i <= last; i++)
+      {
+         Data row = rows.get(i);
+         if (row.isMorePlaceholder())
+            fetchPage(row.getParentData());
+      }
+   }
+   
    @Override
    public int getRowHeight()
    {
@@ -1321,13 +1525,37 @@ public class ObjectExplorerDataGrid
       output.add(data);
       
       // recurse through children
+      flattenChildrenImpl(data, 0, true, filter, output);
+   }
+   
+   // The visible rows below 'data', starting from the child at 'offset'.
+   private final List<Data> flattenChildren(Data data,
+                                            int offset,
+                                            boolean includeAttributes)
+   {
+      List<Data> list = new ArrayList<Data>();
+      flattenChildrenImpl(data, offset, includeAttributes, new Filter<Data>()
+      {
+         @Override
+         public boolean accept(Data data)
+         {
+            return data.isVisible();
+         }
+      }, list);
+      return list;
+   }
+   
+   private final void flattenChildrenImpl(Data data,
+                                          int offset,
+                                          boolean includeAttributes,
+                                          Filter<Data> filter,
+                                          List<Data> output)
+   {
       JsArray<Data> children = data.getChildrenData();
       if (children == null)
          return;
       
-      // only add children within the drawing limit to this list
-      int n = Math.min(children.length(), data.getMaximumChildRowsShown());
-      for (int i = 0; i < n; i++)
+      for (int i = offset, n = children.length(); i < n; i++)
          flattenImpl(children.get(i), filter, output);
       
       // add a dummy 'More...' element
@@ -1339,11 +1567,11 @@ public class ObjectExplorerDataGrid
          output.add(Data.createMorePlaceholder(data));
       
       // add attributes if relevant
-      if (showAttributes_)
+      if (includeAttributes && showAttributes_)
       {
          Data attributes = data.getObjectAttributes().<Data>cast();
          if (attributes != null)
-            flattenImpl(data.getObjectAttributes().<Data>cast(), filter, output);
+            flattenImpl(attributes, filter, output);
       }
    }
    
@@ -1379,6 +1607,10 @@ public class ObjectExplorerDataGrid
    private String filter_;
    private boolean didReceiveNonRepeatingKeyDownEvent_ = false;
    
+   private final LinkedHashMap<Data, Integer> cachedSubtrees_ =
+         new LinkedHashMap<Data, Integer>();
+   private int cachedChildCount_ = 0;
+   
    // Injected ----
    private ObjectExplorerServerOperations server_;
    private EventBus events_;
@@ -1387,9 +1619,12 @@ public class ObjectExplorerDataGrid
    private static final int DEFAULT_NAME_COLUMN_WIDTH = 180;
    private static final int DEFAULT_TYPE_COLUMN_WIDTH = 180;
    
-   // NOTE: this should be synchronized with '.rs.explorer.defaultRowLimit' in
-   // SessionObjectExplorer.R
-   private static final int DEFAULT_ROW_LIMIT = 1000;
+   // the number of children requested at a time when a node is opened, or
+   // when its 'More...' row comes into view (the root's first page is sized
+   // by '.rs.explorer.defaultRowLimit' in SessionObjectExplorer.R)
+   private static final int CHILD_PAGE_SIZE = 200;
+   
+   private static final int MAX_CACHED_CHILDREN = 20000;
    
    private static final String ACTION_OPEN    = "open";
    private static final String ACTION_CLOSE   = "close";
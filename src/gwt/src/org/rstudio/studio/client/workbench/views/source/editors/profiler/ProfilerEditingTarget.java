@@ -67,7 +67,9 @@ import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.model.RemoteFileSystemContext;
 import org.rstudio.studio.client.workbench.views.source.SourceWindowManager;
 import org.rstudio.studio.client.workbench.views.source.editors.EditingTarget;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileIndex;
 import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileOperationResponse;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileSamples;
 import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfilerContents;
 import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfilerServerOperations;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
@@ -275,7 +277,11 @@ public class ProfilerEditingTarget implements EditingTarget,
                htmlLocalPath_ = getContents().getHtmlLocalPath();
                isUserSaved_ = getContents().isUserSaved();
                
-               if (htmlPath_ == null)
+               if (htmlPath_ == null && isRprofPath(getPath()))
+               {
+                  showFlameGraph();
+               }
+               else if (htmlPath_ == null)
                {
                   presenter_.buildHtmlPath(new OperationWithInput<ProfileOperationResponse>()
                   {
@@ -364,6 +370,81 @@ public class ProfilerEditingTarget implements EditingTarget,
       commandHandlerReg_ = commandBinder.bind(commands_, this);
    }
 
+   // shows the profile as a flame graph, falling back on the profile page if
+   // the samples can't be read
+   private void showFlameGraph()
+   {
+      server_.profileSamples(getPath(), new ServerRequestCallback<ProfileSamples>()
+      {
+         @Override
+         public void onResponseReceived(ProfileSamples samples)
+         {
+            if (samples.getErrorMessage() != null)
+            {
+               Debug.log(samples.getErrorMessage());
+               showProfilePage();
+               return;
+            }
+            
+            view_.showFlameGraph(new ProfileIndex(samples), () -> showProfilePage());
+            pSourceWindowManager_.get().maximizeSourcePaneIfNecessary();
+         }
+         
+         @Override
+         public void onError(ServerError error)
+         {
+            Debug.logError(error);
+            showProfilePage();
+         }
+      });
+   }
+   
+   private void showProfilePage()
+   {
+      ensureHtml(() ->
+      {
+         view_.showProfilePage(htmlPath_);
+         pSourceWindowManager_.get().maximizeSourcePaneIfNecessary();
+      });
+   }
+   
+   // the profile page (needed to view details, print, publish, or save the
+   // profile) is only built when first needed
+   private void ensureHtml(final Command onReady)
+   {
+      if (htmlPath_ != null)
+      {
+         onReady.execute();
+         return;
+      }
+      
+      presenter_.buildHtmlPath(new OperationWithInput<ProfileOperationResponse>()
+      {
+         @Override
+         public void execute(ProfileOperationResponse response)
+         {
+            htmlPath_ = response.getHtmlPath();
+            htmlLocalPath_ = response.getHtmlLocalPath();
+            
+            persistDocumentProperty("htmlPath", htmlPath_);
+            persistDocumentProperty("htmlLocalPath", htmlLocalPath_);
+            
+            onReady.execute();
+         }
+      }, new Operation()
+      {
+         @Override
+         public void execute()
+         {
+         }
+      }, getPath());
+   }
+   
+   private static boolean isRprofPath(String path)
+   {
+      return path != null && path.toLowerCase().endsWith(".rprof");
+   }
+
    public void onDeactivate()
    {
       if (activeProfilerEditingTarger_ == this)
@@ -499,7 +580,12 @@ public class ProfilerEditingTarget implements EditingTarget,
       {
          public void execute()
          {
-            view_.print();
+            // the profile page may need to be built (and loaded) first
+            ensureHtml(() ->
+            {
+               view_.showProfilePage(htmlPath_);
+               view_.print();
+            });
          }
       });
    }
@@ -537,7 +623,7 @@ public class ProfilerEditingTarget implements EditingTarget,
          @Override
          public void generatePublishHtml(CommandWithArg<String> onComplete)
          {
-            onComplete.execute(htmlLocalPath_) ;
+            ensureHtml(() -> onComplete.execute(htmlLocalPath_));
          }
 
          @Override
@@ -547,7 +633,16 @@ public class ProfilerEditingTarget implements EditingTarget,
          }
       };
       
-      view_ = new ProfilerEditingTargetWidget(commands_, publishHtmlSource);
+      ProfilerFlameGraph.Observer flameGraphObserver = (file, line) ->
+      {
+         // resolved the same way as a selection in the profile page
+         if (file != null)
+            onMessage("sourcefile", file, file, "select", line);
+      };
+      
+      view_ = new ProfilerEditingTargetWidget(commands_,
+                                              publishHtmlSource,
+                                              flameGraphObserver);
       defaultNameProvider_ = defaultNameProvider;
       
       getName().setValue(getAndSetInitialName());
@@ -645,7 +740,7 @@ public class ProfilerEditingTarget implements EditingTarget,
    @Handler
    public void onOpenProfileInBrowser()
    {
-      globalDisplay_.showHtmlFile(htmlLocalPath_);
+      ensureHtml(() -> globalDisplay_.showHtmlFile(htmlLocalPath_));
    }
    
    public String getDefaultNamePrefix()
@@ -694,6 +789,11 @@ public class ProfilerEditingTarget implements EditingTarget,
    }
 
    private void saveNewFile(final String suggestedPath)
+   {
+      ensureHtml(() -> promptForSavePath(suggestedPath));
+   }
+   
+   private void promptForSavePath(final String suggestedPath)
    {
       FileSystemItem fsi;
       if (suggestedPath != null)
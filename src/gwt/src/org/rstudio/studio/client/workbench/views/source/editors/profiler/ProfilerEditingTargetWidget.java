@@ -14,6 +14,8 @@
  */
 package org.rstudio.studio.client.workbench.views.source.editors.profiler;
 
+import com.google.gwt.resources.client.ImageResource;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.VerticalPanel;
 import com.google.gwt.user.client.ui.Widget;
@@ -23,11 +25,13 @@ import org.rstudio.core.client.dom.WindowEx;
 import org.rstudio.core.client.theme.ThemeColors;
 import org.rstudio.core.client.widget.RStudioThemedFrame;
 import org.rstudio.core.client.widget.Toolbar;
+import org.rstudio.core.client.widget.ToolbarButton;
 import org.rstudio.studio.client.rsconnect.RSConnect;
 import org.rstudio.studio.client.rsconnect.model.PublishHtmlSource;
 import org.rstudio.studio.client.rsconnect.ui.RSConnectPublishButton;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.views.source.PanelWithToolbars;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileIndex;
 import org.rstudio.studio.client.workbench.views.source.editors.EditingTargetToolbar;
 
 public class ProfilerEditingTargetWidget extends Composite
@@ -36,7 +40,9 @@ public class ProfilerEditingTargetWidget extends Composite
 {
    private RStudioThemedFrame profilePage_;
    
-   public ProfilerEditingTargetWidget(Commands commands, PublishHtmlSource publishHtmlSource)
+   public ProfilerEditingTargetWidget(Commands commands,
+                                      PublishHtmlSource publishHtmlSource,
+                                      ProfilerFlameGraph.Observer flameGraphObserver)
    {
       VerticalPanel panel = new VerticalPanel();
 
@@ -53,7 +59,21 @@ public class ProfilerEditingTargetWidget extends Composite
 
       profilePage_.setWidth("100%");
       profilePage_.setHeight("100%");
+      profilePage_.addLoadHandler(event ->
+      {
+         pageLoaded_ = true;
+         if (printOnLoad_)
+         {
+            printOnLoad_ = false;
+            print();
+         }
+      });
       
+      flameGraph_ = new ProfilerFlameGraph(flameGraphObserver);
+      flameGraph_.setSize("100%", "100%");
+      flameGraph_.setVisible(false);
+      
+      panel.add(flameGraph_);
       panel.add(profilePage_);
       panel.setWidth("100%");
       panel.setHeight("100%");
@@ -138,8 +158,17 @@ public class ProfilerEditingTargetWidget extends Composite
          "}\n";
    }
 
+   /**
+    * Prints the profile page, once it has loaded.
+    */
    public void print()
    {
+      if (!pageLoaded_)
+      {
+         printOnLoad_ = true;
+         return;
+      }
+      
       WindowEx window = profilePage_.getWindow();
       window.focus();
       window.print();
@@ -153,6 +182,26 @@ public class ProfilerEditingTargetWidget extends Composite
       toolbar.addLeftWidget(commands.saveProfileAs().createToolbarButton());
       toolbar.addLeftSeparator();
       toolbar.addLeftWidget(commands.openProfileInBrowser().createToolbarButton());
+      toolbar.addLeftSeparator();
+      
+      viewToggle_ = new ToolbarButton(
+            "Details",
+            "Switch between the flame graph and the full profile",
+            (ImageResource) null,
+            event ->
+            {
+               if (flameGraph_.isVisible())
+               {
+                  if (showDetails_ != null)
+                     showDetails_.execute();
+               }
+               else
+               {
+                  showFlameGraph();
+               }
+            });
+      viewToggle_.setVisible(false);
+      toolbar.addLeftWidget(viewToggle_);
       
       toolbar.addRightWidget(
             publishButton_ = new RSConnectPublishButton(
@@ -172,7 +221,37 @@ public class ProfilerEditingTargetWidget extends Composite
    
    public void showProfilePage(String path)
    {
-      profilePage_.setUrl(path);
+      if (!path.equals(pagePath_))
+      {
+         pagePath_ = path;
+         pageLoaded_ = false;
+         profilePage_.setUrl(path);
+      }
+      
+      flameGraph_.setVisible(false);
+      profilePage_.setVisible(true);
+      viewToggle_.setText("Flame Graph");
+   }
+   
+   /**
+    * Shows a flame graph of the profile in place of the profile page.
+    * @param index the profile's call tree
+    * @param showDetails called when the user asks for the profile page
+    */
+   public void showFlameGraph(ProfileIndex index, Command showDetails)
+   {
+      showDetails_ = showDetails;
+      flameGraph_.setIndex(index);
+      viewToggle_.setVisible(true);
+      showFlameGraph();
+   }
+   
+   private void showFlameGraph()
+   {
+      profilePage_.setVisible(false);
+      flameGraph_.setVisible(true);
+      flameGraph_.onResize();
+      viewToggle_.setText("Details");
    }
    
    public String getUrl()
@@ -181,4 +260,10 @@ public class ProfilerEditingTargetWidget extends Composite
    }
    
    private RSConnectPublishButton publishButton_;
+   private ToolbarButton viewToggle_;
+   private final ProfilerFlameGraph flameGraph_;
+   private Command showDetails_;
+   private String pagePath_;
+   private boolean pageLoaded_;
+   private boolean printOnLoad_;
 }
@@ -0,0 +1,309 @@
+/*
+ * ProfilerFlameGraph.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.profiler;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileIndex;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
+import com.google.gwt.canvas.client.Canvas;
+import com.google.gwt.canvas.dom.client.Context2d;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.user.client.ui.CheckBox;
+import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.DockLayoutPanel;
+import com.google.gwt.user.client.ui.FlowPanel;
+import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.RequiresResize;
+import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.user.client.ui.TextBox;
+
+/**
+ * Draws a profile's call tree as an icicle-style flame graph: outermost calls
+ * at the top, each call as wide as the samples it spans.
+ *
+ * Click a call to select it (and its source location, which Go to Source
+ * then opens); double-click a call to zoom into it, or the call zoomed into
+ * to zoom back out a level. Only calls at least a couple of pixels wide at
+ * the current zoom are drawn.
+ */
+public class ProfilerFlameGraph extends Composite implements RequiresResize
+{
+   public interface Observer
+   {
+      /**
+       * Called when a call is selected.
+       * @param file file from which the call was made, or null if unknown
+       * @param line line from which the call was made, or -1 if unknown
+       */
+      void onCallSelected(String file, int line);
+   }
+
+   public ProfilerFlameGraph(Observer observer)
+   {
+      observer_ = observer;
+
+      search_ = new TextBox();
+      search_.getElement().setAttribute("placeholder", "Find calls");
+      search_.addKeyUpHandler(event -> updateSearch());
+
+      filter_ = new CheckBox("Only matching stacks");
+      filter_.addValueChangeHandler(event -> updateSearch());
+
+      status_ = new Label();
+
+      FlowPanel header = new FlowPanel();
+      header.add(search_);
+      header.add(filter_);
+      header.add(status_);
+      search_.getElement().getStyle().setMarginRight(8, Unit.PX);
+      filter_.getElement().getStyle().setMarginRight(8, Unit.PX);
+      search_.getElement().getStyle().setProperty("display", "inline-block");
+      filter_.getElement().getStyle().setProperty("display", "inline-block");
+      status_.getElement().getStyle().setProperty("display", "inline-block");
+      header.getElement().getStyle().setPadding(4, Unit.PX);
+
+      scroller_ = new ScrollPanel();
+      canvas_ = Canvas.createIfSupported();
+      if (canvas_ != null)
+      {
+         scroller_.add(canvas_);
+         canvas_.addClickHandler(event ->
+               select(hitTest(event.getX(), event.getY())));
+         canvas_.addDoubleClickHandler(event ->
+               zoom(hitTest(event.getX(), event.getY())));
+         canvas_.addMouseMoveHandler(event ->
+               describe(hitTest(event.getX(), event.getY())));
+      }
+      else
+      {
+         status_.setText("Flame graph requires HTML5 canvas support");
+      }
+
+      DockLayoutPanel panel = new DockLayoutPanel(Unit.PX);
+      panel.addNorth(header, HEADER_HEIGHT);
+      panel.add(scroller_);
+      panel.setSize("100%", "100%");
+      initWidget(panel);
+   }
+
+   public void setIndex(ProfileIndex index)
+   {
+      index_ = index;
+      zoomNode_ = ProfileIndex.ROOT;
+      selectedNode_ = -1;
+      updateSearch();
+   }
+
+   @Override
+   public void onResize()
+   {
+      scheduleRender();
+   }
+
+   private void updateSearch()
+   {
+      if (index_ == null)
+         return;
+
+      String query = search_.getValue();
+      int matched = index_.search(query);
+      index_.setFiltered(filter_.getValue() && !StringUtil.isNullOrEmpty(query.trim()));
+
+      if (StringUtil.isNullOrEmpty(query.trim()))
+         status_.setText(describeSamples(index_.getSampleCount()));
+      else
+         status_.setText("Matched: " + describeSamples(matched));
+
+      scheduleRender();
+   }
+
+   private void select(int node)
+   {
+      if (node <= ProfileIndex.ROOT)
+         return;
+
+      selectedNode_ = node;
+      observer_.onCallSelected(index_.getFile(node), index_.getLine(node));
+      scheduleRender();
+   }
+
+   private void zoom(int node)
+   {
+      if (node < ProfileIndex.ROOT)
+         return;
+
+      // zooming into the current zoom target zooms out a level
+      if (node == zoomNode_ && node != ProfileIndex.ROOT)
+         node = index_.getParent(node);
+
+      zoomNode_ = node;
+      scheduleRender();
+   }
+
+   private void describe(int node)
+   {
+      if (node <= ProfileIndex.ROOT)
+      {
+         canvas_.setTitle("");
+         return;
+      }
+
+      StringBuilder builder = new StringBuilder(index_.getLabel(node));
+      String file = index_.getFile(node);
+      if (file != null)
+         builder.append(" (").append(file).append(":").append(index_.getLine(node)).append(")");
+      builder.append("\n").append(describeSamples(index_.getTotal(node)));
+      canvas_.setTitle(builder.toString());
+   }
+
+   private String describeSamples(int samples)
+   {
+      int total = Math.max(1, index_.getSampleCount());
+      long millis = Math.round(samples * index_.getInterval());
+      return samples + " samples, " + millis + "ms (" +
+             Math.round(100.0 * samples / total) + "%)";
+   }
+
+   private void scheduleRender()
+   {
+      if (renderHandle_ != null)
+         return;
+
+      renderHandle_ = AnimationScheduler.get().requestAnimationFrame(timestamp ->
+      {
+         renderHandle_ = null;
+         render();
+      });
+   }
+
+   private void render()
+   {
+      if (index_ == null || canvas_ == null || !isAttached())
+         return;
+
+      int width = Math.max(1, scroller_.getElement().getClientWidth());
+      int height = Math.max(1, index_.getMaxDepth() * ROW_HEIGHT);
+      canvas_.setCoordinateSpaceWidth(width);
+      canvas_.setCoordinateSpaceHeight(height);
+      canvas_.setPixelSize(width, height);
+
+      final Context2d context = canvas_.getContext2d();
+      context.clearRect(0, 0, width, height);
+      context.setFont(FONT);
+
+      final int from = index_.getOffset(zoomNode_);
+      final int span = Math.max(1, index_.getTotal(zoomNode_));
+      final double scale = (double) width / span;
+
+      // the calls enclosing the zoomed call span the whole width
+      for (int node = zoomNode_; node > ProfileIndex.ROOT; node = index_.getParent(node))
+         drawNode(context, node, 0, width);
+
+      int minSamples = (int) Math.max(1, Math.ceil(MIN_WIDTH / scale));
+      index_.visit(zoomNode_, from, from + span, minSamples, node ->
+      {
+         if (node == zoomNode_ || node == ProfileIndex.ROOT)
+            return;
+         double x = (index_.getOffset(node) - from) * scale;
+         drawNode(context, node, x, index_.getTotal(node) * scale);
+      });
+   }
+
+   private void drawNode(Context2d context, int node, double x, double width)
+   {
+      double y = (index_.getDepth(node) - 1) * ROW_HEIGHT;
+
+      if (node == selectedNode_)
+         context.setFillStyle(SELECTED_COLOR);
+      else if (index_.isMatched(node))
+         context.setFillStyle(MATCHED_COLOR);
+      else
+         context.setFillStyle(colorFor(index_.getLabel(node)));
+      context.fillRect(x, y, Math.max(1, width - 1), ROW_HEIGHT - 1);
+
+      // label calls wide enough to show a few characters
+      int chars = (int) ((width - 2 * TEXT_PADDING) / CHAR_WIDTH);
+      if (chars < 3)
+         return;
+
+      String label = index_.getLabel(node);
+      if (label.length() > chars)
+         label = label.substring(0, chars - 1) + "\u2026";
+      context.setFillStyle(TEXT_COLOR);
+      context.fillText(label, x + TEXT_PADDING, y + ROW_HEIGHT - 6);
+   }
+
+   // the node drawn at the given point, or -1 for none
+   private int hitTest(int x, int y)
+   {
+      if (index_ == null)
+         return -1;
+
+      int depth = y / ROW_HEIGHT + 1;
+      if (depth <= index_.getDepth(zoomNode_))
+      {
+         int node = zoomNode_;
+         while (index_.getDepth(node) > depth)
+            node = index_.getParent(node);
+         return node;
+      }
+
+      int width = Math.max(1, canvas_.getCoordinateSpaceWidth());
+      int span = Math.max(1, index_.getTotal(zoomNode_));
+      int sample = index_.getOffset(zoomNode_) + (int) ((long) x * span / width);
+
+      final int[] hit = { -1 };
+      index_.visit(zoomNode_, sample, sample + 1, 1, node ->
+      {
+         if (index_.getDepth(node) == depth)
+            hit[0] = node;
+      });
+      return hit[0];
+   }
+
+   // a stable warm color per label, as is traditional for flame graphs
+   private static String colorFor(String label)
+   {
+      int hash = label.hashCode();
+      int red = 205 + ((hash & 0xFF) % 50);
+      int green = 80 + (((hash >> 8) & 0xFF) % 120);
+      int blue = 30 + (((hash >> 16) & 0xFF) % 50);
+      return "rgb(" + red + "," + green + "," + blue + ")";
+   }
+
+   private final Observer observer_;
+   private final TextBox search_;
+   private final CheckBox filter_;
+   private final Label status_;
+   private final ScrollPanel scroller_;
+   private final Canvas canvas_;
+
+   private ProfileIndex index_;
+   private int zoomNode_ = ProfileIndex.ROOT;
+   private int selectedNode_ = -1;
+   private AnimationHandle renderHandle_;
+
+   private static final int HEADER_HEIGHT = 32;
+   private static final int ROW_HEIGHT = 20;
+   private static final int TEXT_PADDING = 4;
+   private static final double CHAR_WIDTH = 7;
+   private static final double MIN_WIDTH = 2;
+   private static final String FONT = "11px sans-serif";
+   private static final String TEXT_COLOR = "#000";
+   private static final String MATCHED_COLOR = "#e040fb";
+   private static final String SELECTED_COLOR = "#7ab8f5";
+}
@@ -0,0 +1,387 @@
+/*
+ * ProfileIndex.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.profiler.model;
+
+import java.util.HashMap;
+
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.core.client.JsArrayString;
+
+/**
+ * The call tree of a profile, laid out as a flame graph: each node is a call
+ * path, spanning the samples in which that path was on the stack. Node 0 is
+ * the root, spanning all samples.
+ *
+ * Nodes are stored in parallel int arrays, in the order they're first seen,
+ * so a node's parent always precedes it. Searching and filtering work on the
+ * distinct labels and nodes rather than on the samples, and visiting the
+ * nodes in a range skips any subtree too narrow to be drawn.
+ */
+public class ProfileIndex
+{
+   public interface Visitor
+   {
+      void visit(int node);
+   }
+
+   public ProfileIndex(ProfileSamples samples)
+   {
+      interval_ = samples.getInterval();
+      labels_ = toArray(samples.getLabels());
+      files_ = toArray(samples.getFiles());
+      matched_ = new boolean[labels_.length];
+
+      allocate(INITIAL_CAPACITY);
+      addNode(-1, -1, -1, -1, 0);
+      build(samples);
+      layout();
+   }
+
+   public double getInterval()
+   {
+      return interval_;
+   }
+
+   public int getNodeCount()
+   {
+      return size_;
+   }
+
+   public int getSampleCount()
+   {
+      return total_[ROOT];
+   }
+
+   public int getMaxDepth()
+   {
+      return maxDepth_;
+   }
+
+   public int getParent(int node)
+   {
+      return parent_[node];
+   }
+
+   public int getDepth(int node)
+   {
+      return depth_[node];
+   }
+
+   public String getLabel(int node)
+   {
+      return node == ROOT ? "" : labels_[label_[node]];
+   }
+
+   /**
+    * @return The file from which the node was (first) called, or null if
+    *    unknown
+    */
+   public String getFile(int node)
+   {
+      return file_[node] < 0 ? null : files_[file_[node]];
+   }
+
+   /**
+    * @return The line from which the node was (first) called, or -1 if
+    *    unknown
+    */
+   public int getLine(int node)
+   {
+      return line_[node];
+   }
+
+   /**
+    * @return The number of samples in which this node was on the stack
+    */
+   public int getTotal(int node)
+   {
+      return total_[node];
+   }
+
+   /**
+    * @return The number of samples in which this node was the innermost call
+    */
+   public int getSelf(int node)
+   {
+      return self_[node];
+   }
+
+   /**
+    * @return The offset, in samples, of the node from the left of the graph
+    */
+   public int getOffset(int node)
+   {
+      return offset_[node];
+   }
+
+   /**
+    * Visits the nodes of the subtree at 'node' which overlap the samples
+    * [from, to) and span at least minSamples samples, parents first.
+    */
+   public void visit(int node, int from, int to, int minSamples, Visitor visitor)
+   {
+      if (offset_[node] >= to || offset_[node] + total_[node] <= from)
+         return;
+      if (total_[node] < minSamples)
+         return;
+      if (filtering_ && !kept_[node])
+         return;
+
+      visitor.visit(node);
+      for (int child = firstChild_[node]; child != -1; child = nextSibling_[child])
+         visit(child, from, to, minSamples, visitor);
+   }
+
+   /**
+    * Marks the nodes whose label contains the query (case-insensitively).
+    *
+    * @return The number of samples within matching nodes
+    */
+   public int search(String query)
+   {
+      query = query == null ? "" : query.trim().toLowerCase();
+      for (int i = 0; i < labels_.length; i++)
+         matched_[i] = !query.isEmpty() && labels_[i].toLowerCase().contains(query);
+
+      // count each sample once, at the outermost match on its path
+      int samples = 0;
+      for (int node = 1; node < size_; node++)
+         if (isMatched(node) && !hasMatchedAncestor(node))
+            samples += total_[node];
+      return samples;
+   }
+
+   public boolean isMatched(int node)
+   {
+      return node != ROOT && matched_[label_[node]];
+   }
+
+   /**
+    * Restricts visit() to nodes on a path through a node matched by the last
+    * search: matches, their ancestors and their descendants.
+    */
+   public void setFiltered(boolean filtered)
+   {
+      filtering_ = filtered;
+      if (!filtered)
+         return;
+
+      if (kept_ == null || kept_.length < size_)
+         kept_ = new boolean[size_];
+
+      // parents precede children: a forward pass marks the subtrees of
+      // matches, then a backward pass marks their ancestors
+      for (int node = 0; node < size_; node++)
+         kept_[node] = isMatched(node) || (node != ROOT && kept_[parent_[node]]);
+      for (int node = size_ - 1; node > 0; node--)
+         if (kept_[node])
+            kept_[parent_[node]] = true;
+   }
+
+   public boolean isFiltered()
+   {
+      return filtering_;
+   }
+
+   private boolean hasMatchedAncestor(int node)
+   {
+      for (int parent = parent_[node]; parent > ROOT; parent = parent_[parent])
+         if (isMatched(parent))
+            return true;
+      return false;
+   }
+
+   private void build(ProfileSamples samples)
+   {
+      JsArrayInteger time = samples.getTime();
+      JsArrayInteger depth = samples.getDepth();
+      JsArrayInteger label = samples.getLabel();
+      JsArrayInteger file = samples.getFile();
+      JsArrayInteger line = samples.getLine();
+
+      // the nodes on the stack of the current sample, by depth; consecutive
+      // samples usually share most of their stack, so a frame is first
+      // checked against the previous sample's node at the same depth
+      int[] path = new int[64];
+      int pathLength = 0;
+      int currentTime = Integer.MIN_VALUE;
+
+      for (int row = 0, n = time.length(); row < n; row++)
+      {
+         if (time.get(row) != currentTime)
+         {
+            if (pathLength > 0)
+               finishSample(path, pathLength);
+            currentTime = time.get(row);
+            pathLength = 0;
+         }
+
+         int d = depth.get(row);
+         if (d != pathLength + 1)
+            continue; // malformed; frames should arrive outermost first
+
+         int parent = pathLength == 0 ? ROOT : path[pathLength - 1];
+         if (path.length <= pathLength)
+         {
+            int[] grown = new int[path.length * 2];
+            System.arraycopy(path, 0, grown, 0, path.length);
+            path = grown;
+         }
+
+         int previous = path[pathLength];
+         int node;
+         if (previous > ROOT && previous < size_ &&
+             parent_[previous] == parent && label_[previous] == label.get(row))
+         {
+            node = previous;
+         }
+         else
+         {
+            node = findOrAddChild(parent, label.get(row), file.get(row), line.get(row), d);
+         }
+
+         path[pathLength++] = node;
+      }
+
+      if (pathLength > 0)
+         finishSample(path, pathLength);
+   }
+
+   private void finishSample(int[] path, int pathLength)
+   {
+      total_[ROOT]++;
+      for (int i = 0; i < pathLength; i++)
+         total_[path[i]]++;
+      self_[path[pathLength - 1]]++;
+
+      // so that the next sample doesn't match frames beyond this one's stack
+      if (pathLength < path.length)
+         path[pathLength] = -1;
+   }
+
+   private int findOrAddChild(int parent, int label, int file, int line, int depth)
+   {
+      String key = parent + ":" + label;
+      Integer existing = children_.get(key);
+      if (existing != null)
+         return existing;
+
+      int node = addNode(parent, label, file, line, depth);
+      children_.put(key, node);
+      return node;
+   }
+
+   private int addNode(int parent, int label, int file, int line, int depth)
+   {
+      if (size_ == parent_.length)
+         allocate(size_ * 2);
+
+      int node = size_++;
+      parent_[node] = parent;
+      label_[node] = label;
+      file_[node] = file;
+      line_[node] = line;
+      depth_[node] = depth;
+      firstChild_[node] = -1;
+      nextSibling_[node] = -1;
+      lastChild_[node] = -1;
+      maxDepth_ = Math.max(maxDepth_, depth);
+
+      if (parent >= 0)
+      {
+         if (lastChild_[parent] == -1)
+            firstChild_[parent] = node;
+         else
+            nextSibling_[lastChild_[parent]] = node;
+         lastChild_[parent] = node;
+      }
+
+      return node;
+   }
+
+   // children are laid out left to right in the order they were first seen
+   private void layout()
+   {
+      for (int node = 0; node < size_; node++)
+      {
+         int offset = offset_[node];
+         for (int child = firstChild_[node]; child != -1; child = nextSibling_[child])
+         {
+            offset_[child] = offset;
+            offset += total_[child];
+         }
+      }
+
+      // only needed while building
+      children_.clear();
+   }
+
+   private void allocate(int capacity)
+   {
+      parent_ = grow(parent_, capacity);
+      label_ = grow(label_, capacity);
+      file_ = grow(file_, capacity);
+      line_ = grow(line_, capacity);
+      depth_ = grow(depth_, capacity);
+      total_ = grow(total_, capacity);
+      self_ = grow(self_, capacity);
+      offset_ = grow(offset_, capacity);
+      firstChild_ = grow(firstChild_, capacity);
+      nextSibling_ = grow(nextSibling_, capacity);
+      lastChild_ = grow(lastChild_, capacity);
+   }
+
+   private static int[] grow(int[] array, int capacity)
+   {
+      int[] grown = new int[capacity];
+      if (array != null)
+         System.arraycopy(array, 0, grown, 0, array.length);
+      return grown;
+   }
+
+   private static String[] toArray(JsArrayString strings)
+   {
+      String[] array = new String[strings.length()];
+      for (int i = 0; i < array.length; i++)
+         array[i] = strings.get(i);
+      return array;
+   }
+
+   public static final int ROOT = 0;
+   private static final int INITIAL_CAPACITY = 256;
+
+   private final double interval_;
+   private final String[] labels_;
+   private final String[] files_;
+   private final boolean[] matched_;
+   private final HashMap<String, Integer> children_ = new HashMap<String, Integer>();
+
+   private int size_;
+   private int maxDepth_;
+   private int[] parent_;
+   private int[] label_;
+   private int[] file_;
+   private int[] line_;
+   private int[] depth_;
+   private int[] total_;
+   private int[] self_;
+   private int[] offset_;
+   private int[] firstChild_;
+   private int[] nextSibling_;
+   private int[] lastChild_;
+
+   private boolean filtering_;
+   private boolean[] kept_;
+}
@@ -0,0 +1,69 @@
+/*
+ * ProfileSamples.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.profiler.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.core.client.JsArrayString;
+
+/**
+ * The samples of an Rprof profile, in columns: one row per stack frame per
+ * sample, ordered by sample and then by depth (1 being the outermost call).
+ * Labels and files are given as indices into the labels and files vectors;
+ * files and lines are -1 where unknown.
+ */
+public class ProfileSamples extends JavaScriptObject
+{
+   protected ProfileSamples()
+   {
+   }
+
+   public final native String getErrorMessage() /*-{
+      return this.error;
+   }-*/;
+
+   // the sampling interval, in milliseconds
+   public final native double getInterval() /*-{
+      return this.interval || 0;
+   }-*/;
+
+   public final native JsArrayString getLabels() /*-{
+      return this.labels || [];
+   }-*/;
+
+   public final native JsArrayString getFiles() /*-{
+      return this.files || [];
+   }-*/;
+
+   public final native JsArrayInteger getTime() /*-{
+      return this.time || [];
+   }-*/;
+
+   public final native JsArrayInteger getDepth() /*-{
+      return this.depth || [];
+   }-*/;
+
+   public final native JsArrayInteger getLabel() /*-{
+      return this.label || [];
+   }-*/;
+
+   public final native JsArrayInteger getFile() /*-{
+      return this.file || [];
+   }-*/;
+
+   public final native JsArrayInteger getLine() /*-{
+      return this.line || [];
+   }-*/;
+}
@@ -39,4 +39,7 @@ public interface ProfilerServerOperations
 
    void profileSources(String path, String normPath,
                        ServerRequestCallback<String> requestCallback);
+   
+   void profileSamples(String path,
+                       ServerRequestCallback<ProfileSamples> requestCallback);
 }
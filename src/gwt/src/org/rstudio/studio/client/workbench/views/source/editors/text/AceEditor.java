@@ -1436,6 +1436,12 @@ public class AceEditor implements DocDisplay,
    {
       return getSession().getDocument().getLength();
    }
+   
+   @Override
+   public int getDroppedChangeCount()
+   {
+      return widget_.getDroppedChangeCount();
+   }
 
    @Override
    public int getPixelWidth()
@@ -1460,6 +1466,12 @@ public class AceEditor implements DocDisplay,
       return Position.create(lastRow, getLength(lastRow));
    }
    
+   @Override
+   public int positionToIndex(Position position)
+   {
+      return getSession().getDocument().positionToIndex(position, 0);
+   }
+   
    @Override
    public void setInsertMatching(boolean value)
    {
@@ -121,6 +121,7 @@ public class AceEditorWidget extends Composite
             if (inOnChangeHandler_)
             {
                Debug.log("Warning: ignoring recursive ACE change event");
+               droppedChangeCount_++;
                return;
             }
             inOnChangeHandler_ = true;
@@ -150,6 +151,9 @@ public class AceEditorWidget extends Composite
             {
                Debug.log("Exception occurred during ACE change event: " + 
                          ex.getMessage());
+               
+               // not every handler necessarily saw the change
+               droppedChangeCount_++;
             }
             inOnChangeHandler_ = false;
          }
@@ -1181,12 +1185,22 @@ public class AceEditorWidget extends Composite
    {
       return isRendered_;
    }
+   
+   /**
+    * @return The number of document changes which may not have been
+    *    delivered to every DocumentChangedEvent handler
+    */
+   public int getDroppedChangeCount()
+   {
+      return droppedChangeCount_;
+   }
 
    private final AceEditorNative editor_;
    private final HandlerManager capturingHandlers_;
    private final List<HandlerRegistration> aceEventHandlers_;
    private boolean initToEmptyString_ = true;
    private boolean inOnChangeHandler_ = false;
+   private int droppedChangeCount_ = 0;
    private boolean isRendered_ = false;
    private ArrayList<Breakpoint> breakpoints_ = new ArrayList<Breakpoint>();
    private ArrayList<AnchoredAceAnnotation> annotations_ =
@@ -0,0 +1,267 @@
+/*
+ * ChunkConsoleOutput.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import java.util.ArrayList;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.core.client.VirtualConsole;
+import org.rstudio.core.client.VirtualConsoleFactory;
+import org.rstudio.core.client.widget.PreWidget;
+
+import com.google.gwt.dom.client.Style.Cursor;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.ui.FlowPanel;
+import com.google.gwt.user.client.ui.Label;
+
+/**
+ * The console output of a chunk, kept within a line budget.
+ *
+ * Output is written into segments of a few hundred lines each. The first
+ * HEAD_LINES lines stay in the DOM, as do the most recent TAIL_LINES; once
+ * a segment falls out of the tail it is removed from the DOM and only its
+ * rendered HTML is kept. The lines in between are stood in for by a marker
+ * which reveals them a page at a time when clicked.
+ */
+public class ChunkConsoleOutput extends FlowPanel
+{
+   public ChunkConsoleOutput(VirtualConsoleFactory vcFactory,
+                             Command onHeightChanged)
+   {
+      vcFactory_ = vcFactory;
+      onHeightChanged_ = onHeightChanged;
+
+      elision_ = new Label();
+      elision_.setVisible(false);
+      elision_.getElement().getStyle().setCursor(Cursor.POINTER);
+      elision_.getElement().getStyle().setOpacity(0.6);
+      elision_.getElement().getStyle().setPaddingTop(2, Unit.PX);
+      elision_.getElement().getStyle().setPaddingBottom(2, Unit.PX);
+      elision_.addClickHandler(event -> showOmitted());
+   }
+
+   public void submit(String text, String clazz)
+   {
+      // split the text at segment boundaries, so that no segment grows
+      // beyond its budget however much output arrives at once
+      while (!StringUtil.isNullOrEmpty(text))
+      {
+         if (current_ == null || current_.lines() >= SEGMENT_LINES)
+            startSegment();
+
+         int split = indexAfterLines(text, SEGMENT_LINES - current_.lines());
+         if (split < 0 || split == text.length())
+         {
+            current_.console.submit(text, clazz);
+            text = null;
+         }
+         else
+         {
+            current_.console.submit(text.substring(0, split), clazz);
+            text = text.substring(split);
+         }
+
+         if (current_.isTail)
+            trimTail();
+      }
+   }
+
+   public void clear()
+   {
+      super.clear();
+      head_.clear();
+      tail_.clear();
+      omitted_.clear();
+      omittedLines_.clear();
+      omittedLineCount_ = 0;
+      headLines_ = 0;
+      current_ = null;
+   }
+
+   public boolean hasOutput()
+   {
+      for (Segment segment : head_)
+         if (segment.pre.getElement().getChildCount() > 0)
+            return true;
+      return !tail_.isEmpty() || omittedLineCount_ > 0;
+   }
+
+   /**
+    * @return The number of lines held out of the DOM
+    */
+   public int getOmittedLineCount()
+   {
+      return omittedLineCount_;
+   }
+
+   /**
+    * @return The text of the output in the DOM (the head, any revealed
+    *    lines, and the tail)
+    */
+   public String getText()
+   {
+      StringBuilder builder = new StringBuilder();
+      for (int i = 0; i < getWidgetCount(); i++)
+         if (getWidget(i) instanceof PreWidget)
+            builder.append(getWidget(i).getElement().getInnerText());
+      return builder.toString();
+   }
+
+   private void startSegment()
+   {
+      // output written before the head is full stays in the head
+      if (current_ != null && !current_.isTail)
+         headLines_ += current_.lines();
+
+      boolean isTail = headLines_ >= HEAD_LINES;
+      current_ = new Segment(isTail, vcFactory_);
+      if (isTail)
+      {
+         if (getWidgetIndex(elision_) < 0)
+            add(elision_);
+         tail_.add(current_);
+      }
+      else
+      {
+         head_.add(current_);
+      }
+      add(current_.pre);
+   }
+
+   private void trimTail()
+   {
+      int lines = 0;
+      for (Segment segment : tail_)
+         lines += segment.lines();
+
+      // the current segment is never dropped, as it may still be written to
+      while (lines > TAIL_LINES && tail_.size() > 1)
+      {
+         Segment oldest = tail_.remove(0);
+         lines -= oldest.lines();
+
+         omitted_.add(oldest.pre.getElement().getInnerHTML());
+         omittedLines_.add(oldest.lines());
+         omittedLineCount_ += oldest.lines();
+         remove(oldest.pre);
+      }
+
+      updateElision();
+   }
+
+   /**
+    * Reveals the next page of the lines held out of the DOM.
+    */
+   public void showOmitted()
+   {
+      // reveal the oldest omitted lines, directly below those already shown
+      int shown = 0;
+      while (!omitted_.isEmpty() && shown < PAGE_LINES)
+      {
+         PreWidget pre = createPre();
+         pre.getElement().setInnerHTML(omitted_.remove(0));
+         insert(pre, getWidgetIndex(elision_));
+
+         int lines = omittedLines_.remove(0);
+         shown += lines;
+         omittedLineCount_ -= lines;
+      }
+
+      updateElision();
+      onHeightChanged_.execute();
+   }
+
+   private void updateElision()
+   {
+      if (omittedLineCount_ == 0)
+      {
+         elision_.setVisible(false);
+         return;
+      }
+
+      int page = Math.min(omittedLineCount_, PAGE_LINES);
+      elision_.setText("\u2026 " +
+            StringUtil.formatGeneralNumber(omittedLineCount_) +
+            " lines not shown (click to show " +
+            StringUtil.formatGeneralNumber(page) + " more)");
+      elision_.setVisible(true);
+   }
+
+   // the index just past the n'th newline in the text, or -1 if there are
+   // fewer than n
+   private static int indexAfterLines(String text, int n)
+   {
+      if (n <= 0)
+         return 0;
+
+      int index = -1;
+      for (int i = 0; i < n; i++)
+      {
+         index = text.indexOf('\n', index + 1);
+         if (index < 0)
+            return -1;
+      }
+      return index + 1;
+   }
+
+   private static PreWidget createPre()
+   {
+      PreWidget pre = new PreWidget();
+      pre.getElement().removeAttribute("tabIndex");
+      pre.getElement().getStyle().setMarginTop(0, Unit.PX);
+      pre.getElement().getStyle().setMarginBottom(0, Unit.PX);
+      pre.getElement().getStyle().setProperty("whiteSpace", "pre-wrap");
+      return pre;
+   }
+
+   private static class Segment
+   {
+      Segment(boolean isTail, VirtualConsoleFactory vcFactory)
+      {
+         this.isTail = isTail;
+         pre = createPre();
+         console = vcFactory.create(pre.getElement());
+      }
+
+      int lines()
+      {
+         return console.getLineCount();
+      }
+
+      final boolean isTail;
+      final PreWidget pre;
+      final VirtualConsole console;
+   }
+
+   private final VirtualConsoleFactory vcFactory_;
+   private final Command onHeightChanged_;
+   private final Label elision_;
+
+   private final ArrayList<Segment> head_ = new ArrayList<Segment>();
+   private final ArrayList<Segment> tail_ = new ArrayList<Segment>();
+   private Segment current_;
+   private int headLines_;
+
+   // rendered HTML of the segments dropped from the DOM, oldest first
+   private final ArrayList<String> omitted_ = new ArrayList<String>();
+   private final ArrayList<Integer> omittedLines_ = new ArrayList<Integer>();
+   private int omittedLineCount_;
+
+   private static final int SEGMENT_LINES = 250;
+   private static final int HEAD_LINES = 1000;
+   private static final int TAIL_LINES = 1000;
+   private static final int PAGE_LINES = 1000;
+}
@@ -20,10 +20,8 @@ import java.util.List;
 import java.util.Map;
 
 import org.rstudio.core.client.StringUtil;
-import org.rstudio.core.client.VirtualConsole;
 import org.rstudio.core.client.js.JsArrayEx;
 import org.rstudio.core.client.widget.FixedRatioWidget;
-import org.rstudio.core.client.widget.PreWidget;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.common.debugging.model.UnhandledError;
 import org.rstudio.studio.client.common.debugging.ui.ConsoleError;
@@ -121,12 +119,12 @@ public class ChunkOutputStream extends FlowPanel
             // release any queued errors
             if (!queuedError_.isEmpty())
             {
-               vconsole_.submit(queuedError_, classOfOutput(
+               console_.submit(queuedError_, classOfOutput(
                      ChunkConsolePage.CONSOLE_ERROR));
                queuedError_ = "";
             }
 
-            vconsole_.submit(outputText, classOfOutput(outputType));
+            console_.submit(outputText, classOfOutput(outputType));
          }
       }
    }
@@ -351,8 +349,8 @@ public class ChunkOutputStream extends FlowPanel
    public void clearOutput()
    {
       clear();
-      if (vconsole_ != null)
-         vconsole_.clear();
+      if (console_ != null)
+         console_.clear();
       lastOutputType_ = RmdChunkOutputUnit.TYPE_NONE;
    }
 
@@ -555,7 +553,8 @@ public class ChunkOutputStream extends FlowPanel
       for (Widget w: this)
       {
          // ignore consoles with no content
-         if (w instanceof PreWidget && w.getElement().getChildCount() == 0)
+         if (w instanceof ChunkConsoleOutput && 
+             !((ChunkConsoleOutput)w).hasOutput())
             continue;
          
          // ignore ordinals
@@ -574,15 +573,21 @@ public class ChunkOutputStream extends FlowPanel
       return 0;
    }
    
+   /**
+    * Gets the text of the console output shown in the stream. Output held
+    * back by the consoles' line budgets isn't included.
+    * 
+    * @return The console text
+    */
    public String getAllConsoleText()
    {
-      String text = "";
+      StringBuilder text = new StringBuilder();
       for (Widget w: this)
       {
-         if (w instanceof PreWidget)
-            text += w.getElement().getInnerText();
+         if (w instanceof ChunkConsoleOutput)
+            text.append(((ChunkConsoleOutput)w).getText());
       }
-      return text;
+      return text.toString();
    }
    
    // Private methods ---------------------------------------------------------
@@ -629,9 +634,7 @@ public class ChunkOutputStream extends FlowPanel
       }
       else if (lastOutputType_ == RmdChunkOutputUnit.TYPE_TEXT)
       {
-         // if switching from textual input, clear the text accumulator
-         if (vconsole_ != null)
-            vconsole_.clear();
+         // if switching from textual input, start a new console next time
          console_ = null;
       }
       lastOutputType_ = outputType;
@@ -639,21 +642,13 @@ public class ChunkOutputStream extends FlowPanel
 
    private void initConsole()
    {
+      // the console keeps only the head and tail of long output in the DOM
       if (console_ == null)
-      {
-         console_ = new PreWidget();
-         console_.getElement().removeAttribute("tabIndex");
-         console_.getElement().getStyle().setMarginTop(0, Unit.PX);
-         console_.getElement().getStyle().setProperty("whiteSpace", "pre-wrap");
-      }
-      else
-      {
-         console_.getElement().setInnerHTML("");
-      }
-      if (vconsole_ == null)
-         vconsole_ = RStudioGinjector.INSTANCE.getVirtualConsoleFactory().create(console_.getElement());
+         console_ = new ChunkConsoleOutput(
+               RStudioGinjector.INSTANCE.getVirtualConsoleFactory(),
+               () -> onHeightChanged());
       else
-         vconsole_.clear();
+         console_.clear();
 
       // attach the console
       addWithOrdinal(console_, maxOrdinal_ + 1);
@@ -662,7 +657,7 @@ public class ChunkOutputStream extends FlowPanel
    private void renderConsoleOutput(String text, String clazz)
    {
       initializeOutput(RmdChunkOutputUnit.TYPE_TEXT);
-      vconsole_.submit(text, clazz);
+      console_.submit(text, clazz);
       onHeightChanged();
    }
    
@@ -692,9 +687,8 @@ public class ChunkOutputStream extends FlowPanel
    private final ChunkOutputPresenter.Host host_;
    private final Map<Integer, JavaScriptObject> metadata_;
    
-   private PreWidget console_;
+   private ChunkConsoleOutput console_;
    private String queuedError_ = "";
-   private VirtualConsole vconsole_;
    private int lastOutputType_ = RmdChunkOutputUnit.TYPE_NONE;
    private boolean hasErrors_ = false;
    private ChunkOutputSize chunkOutputSize_;
@@ -318,6 +318,10 @@ public interface DocDisplay extends HasValueChangeHandlers<Void>,
    
    int getLength(int row);
    int getRowCount();
+   
+   // the number of changes which may not have reached every
+   // DocumentChangedEvent handler
+   int getDroppedChangeCount();
    String getLine(int row);
    int getPixelWidth();
    
@@ -447,6 +451,7 @@ public interface DocDisplay extends HasValueChangeHandlers<Void>,
    void setChunkLineExecState(int start, int end, int state);
 
    Position getDocumentEnd();
+   int positionToIndex(Position position);
    
    void setInsertMatching(boolean value);
    void setSurroundSelectionPref(String value);
@@ -15,18 +15,16 @@
 package org.rstudio.studio.client.workbench.views.source.editors.text.ace;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.ListUtil;
-import org.rstudio.core.client.MapUtil;
-import org.rstudio.core.client.MapUtil.ForEachCommand;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.ListUtil.FilterPredicate;
 import org.rstudio.core.client.MouseTracker;
 import org.rstudio.core.client.command.KeyboardShortcut;
-import org.rstudio.core.client.container.SafeMap;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.regex.Match;
@@ -47,6 +45,7 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.EditorModeChangedEvent;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.CommandClickEvent;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.RenderFinishedEvent;
 
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptObject;
@@ -76,7 +75,8 @@ public class AceEditorBackgroundLinkHighlighter
             DocumentChangedEvent.Handler,
             EditorModeChangedEvent.Handler,
             MouseMoveHandler,
-            MouseUpHandler
+            MouseUpHandler,
+            RenderFinishedEvent.Handler
 {
    interface Highlighter
    {
@@ -102,23 +102,31 @@ public class AceEditorBackgroundLinkHighlighter
       RStudioGinjector.INSTANCE.injectMembers(this);
       
       editor_ = editor;
-      activeMarkers_ = new SafeMap<Integer, List<MarkerRegistration>>();
+      rows_ = new ArrayList<HighlightedRow>();
       
-      nextHighlightStart_ = 0;
       timer_ = new Timer()
       {
          @Override
          public void run()
          {
-            int n = editor_.getCurrentLineCount();
-            int startRow = nextHighlightStart_;
-            int endRow   = Math.min(nextHighlightStart_ + N_HIGHLIGHT_ROWS, n);
+            // highlight the rows in (and just around) the viewport that
+            // haven't been scanned since they were last edited; rows
+            // elsewhere are scanned once they're scrolled into view
+            int startRow = getViewportStartRow();
+            int endRow   = getViewportEndRow();
             
-            for (int row = startRow; row < endRow; row++)
+            int budget = N_HIGHLIGHT_ROWS;
+            int row = startRow;
+            for (; row < endRow && budget > 0; row++)
+            {
+               if (isScanned(row))
+                  continue;
+               
                highlightRow(row);
+               budget--;
+            }
             
-            nextHighlightStart_ = endRow;
-            if (endRow != n)
+            if (row != endRow)
                timer_.schedule(5);
          }
       };
@@ -133,6 +141,7 @@ public class AceEditorBackgroundLinkHighlighter
       handlers_.add(editor_.addEditorModeChangedHandler(this));
       handlers_.add(editor_.addMouseMoveHandler(this));
       handlers_.add(editor_.addMouseUpHandler(this));
+      handlers_.add(editor_.addRenderFinishedHandler(this));
       
       refreshHighlighters(editor_.getModeId());
    }
@@ -150,7 +159,6 @@ public class AceEditorBackgroundLinkHighlighter
             highlighters_.add(webLinkHighlighter());
             if (fileType != null && (fileType.isMarkdown() || fileType.isRmd()))
                highlighters_.add(markdownLinkHighlighter());
-            nextHighlightStart_ = 0;
             timer_.schedule(700);
          }
       });
@@ -158,18 +166,108 @@ public class AceEditorBackgroundLinkHighlighter
    
    private void highlightRow(int row)
    {
+      HighlightedRow highlightedRow = getOrCreateRow(row);
+      relocateMarkers(row, highlightedRow);
+      highlightedRow.scanned = true;
+      
       for (Highlighter highlighter : highlighters_)
          highlighter.highlight(editor_, editor_.getLine(row), row);
    }
    
+   private int getViewportStartRow()
+   {
+      return Math.max(0, editor_.getFirstVisibleRow() - N_VIEWPORT_MARGIN_ROWS);
+   }
+   
+   private int getViewportEndRow()
+   {
+      return Math.min(editor_.getCurrentLineCount(),
+                      editor_.getLastVisibleRow() + N_VIEWPORT_MARGIN_ROWS + 1);
+   }
+   
+   // Row-indexed markers ----
+   
+   private boolean isScanned(int row)
+   {
+      return row < rows_.size() && rows_.get(row) != null && rows_.get(row).scanned;
+   }
+   
+   private List<MarkerRegistration> getMarkers(int row)
+   {
+      if (row < 0 || row >= rows_.size() || rows_.get(row) == null)
+         return null;
+      return rows_.get(row).markers;
+   }
+   
+   private HighlightedRow getOrCreateRow(int row)
+   {
+      while (rows_.size() <= row)
+         rows_.add(null);
+      
+      HighlightedRow highlightedRow = rows_.get(row);
+      if (highlightedRow == null)
+      {
+         highlightedRow = new HighlightedRow();
+         rows_.set(row, highlightedRow);
+      }
+      return highlightedRow;
+   }
+   
+   private void invalidateRow(int row)
+   {
+      if (row < rows_.size() && rows_.get(row) != null)
+         rows_.get(row).scanned = false;
+   }
+   
+   // moves any markers whose anchors no longer sit on this row to the
+   // row they're now on
+   private void relocateMarkers(int row, HighlightedRow highlightedRow)
+   {
+      List<MarkerRegistration> markers = highlightedRow.markers;
+      for (int i = markers.size() - 1; i >= 0; i--)
+      {
+         MarkerRegistration marker = markers.get(i);
+         int markerRow = marker.getRange().getStart().getRow();
+         if (markerRow != row)
+         {
+            markers.remove(i);
+            getOrCreateRow(markerRow).markers.add(marker);
+         }
+      }
+   }
+   
+   // rows [row, row + count) were inserted into the document
+   private void insertRows(int row, int count)
+   {
+      if (row >= rows_.size())
+         return;
+      rows_.addAll(row, Collections.<HighlightedRow>nCopies(count, null));
+   }
+   
+   // rows [row, row + count) were removed from the document; any markers
+   // on them that survived the removal now live on the preceding row
+   private void removeRows(int row, int count)
+   {
+      if (row >= rows_.size())
+         return;
+      
+      int end = Math.min(row + count, rows_.size());
+      for (int i = row; i < end; i++)
+      {
+         List<MarkerRegistration> markers = getMarkers(i);
+         if (markers != null && !markers.isEmpty())
+            getOrCreateRow(row - 1).markers.addAll(markers);
+      }
+      rows_.subList(row, end).clear();
+   }
+   
    private void registerActiveMarker(int row,
                                      String id,
                                      int markerId,
                                      final AnchoredRange range)
    {
-      if (!activeMarkers_.containsKey(row))
-         activeMarkers_.put(row, new ArrayList<MarkerRegistration>());
-      List<MarkerRegistration> markers = activeMarkers_.get(row);
+      HighlightedRow highlightedRow = getOrCreateRow(row);
+      List<MarkerRegistration> markers = highlightedRow.markers;
       
       // if we're adding a marker that subsumes an old one, clear the old marker
       List<MarkerRegistration> filtered = ListUtil.filter(markers, new FilterPredicate<MarkerRegistration>()
@@ -188,7 +286,7 @@ public class AceEditorBackgroundLinkHighlighter
       
       // add our new marker
       filtered.add(new MarkerRegistration(id, markerId, range));
-      activeMarkers_.put(row, filtered);
+      highlightedRow.markers = filtered;
    }
    
    private boolean isRequiredClickModifier(int modifier)
@@ -213,11 +311,10 @@ public class AceEditorBackgroundLinkHighlighter
    private MarkerRegistration getTargetedMarker(int pageX, int pageY)
    {
       Position position = editor_.screenCoordinatesToDocumentPosition(pageX, pageY);
-      int row = position.getRow();
-      if (!activeMarkers_.containsKey(row))
+      List<MarkerRegistration> markers = getMarkers(position.getRow());
+      if (markers == null)
          return null;
       
-      List<MarkerRegistration> markers = activeMarkers_.get(row);
       for (MarkerRegistration marker : markers)
          if (marker.getRange().contains(position))
             return marker;
@@ -273,16 +370,15 @@ public class AceEditorBackgroundLinkHighlighter
    
    private void clearAllMarkers()
    {
-      MapUtil.forEach(activeMarkers_, new ForEachCommand<Integer, List<MarkerRegistration>>()
+      for (HighlightedRow row : rows_)
       {
-         @Override
-         public void execute(Integer row, List<MarkerRegistration> markers)
-         {
-            for (MarkerRegistration marker : markers)
-               marker.detach();
-         }
-      });
-      activeMarkers_.clear();
+         if (row == null)
+            continue;
+         
+         for (MarkerRegistration marker : row.markers)
+            marker.detach();
+      }
+      rows_.clear();
    }
    
    private void clearMarkers(final Range range)
@@ -291,11 +387,11 @@ public class AceEditorBackgroundLinkHighlighter
            row <= range.getEnd().getRow();
            row++)
       {
-         if (!activeMarkers_.containsKey(row))
+         List<MarkerRegistration> markers = getMarkers(row);
+         if (markers == null)
             continue;
          
          // clear markers that are included within this range
-         List<MarkerRegistration> markers = activeMarkers_.get(row);
          List<MarkerRegistration> filtered = ListUtil.filter(markers, new FilterPredicate<MarkerRegistration>()
          {
             @Override
@@ -312,7 +408,7 @@ public class AceEditorBackgroundLinkHighlighter
          });
          
          // update active markers for this row
-         activeMarkers_.put(row, filtered);
+         rows_.get(row).markers = filtered;
       }
    }
    
@@ -384,9 +480,9 @@ public class AceEditorBackgroundLinkHighlighter
       Position start = Position.create(row, startColumn);
       Position end   = Position.create(row, endColumn);
       Range range = Range.fromPoints(start, end);
-      if (activeMarkers_.containsKey(row))
+      List<MarkerRegistration> markers = getMarkers(row);
+      if (markers != null)
       {
-         List<MarkerRegistration> markers = activeMarkers_.get(row);
          for (MarkerRegistration marker : markers)
          {
             if (marker.getRange().isEqualTo(range))
@@ -575,39 +671,63 @@ public class AceEditorBackgroundLinkHighlighter
    @Override
    public void onDocumentChanged(DocumentChangedEvent event)
    {
-      // clear markers within the delete range
-      clearMarkers(event.getEvent().getRange());
+      AceDocumentChangeEventNative change = event.getEvent();
+      Range range = change.getRange();
+      int startRow = range.getStart().getRow();
+      int endRow   = range.getEnd().getRow();
       
-      // prepare highlighter
-      int row = event.getEvent().getRange().getStart().getRow();
-      nextHighlightStart_ = Math.min(nextHighlightStart_, row);
-      timer_.schedule(700);
+      // clear markers within the delete range
+      clearMarkers(range);
       
-      // update marker positions (deferred so that anchors update)
-      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      // shift the rows following the edit, rather than rebuilding the
+      // marker index; the markers' anchors take care of their own positions
+      if (endRow > startRow)
       {
-         @Override
-         public void execute()
+         if (change.getAction() == "insert")
          {
-            final SafeMap<Integer, List<MarkerRegistration>> newMarkers =
-                  new SafeMap<Integer, List<MarkerRegistration>>();
-            MapUtil.forEach(activeMarkers_, new ForEachCommand<Integer, List<MarkerRegistration>>()
+            insertRows(startRow + 1, endRow - startRow);
+            
+            // text following the insertion point moves to the last new row
+            List<MarkerRegistration> markers = getMarkers(startRow);
+            int column = range.getStart().getColumn();
+            for (int i = markers == null ? -1 : markers.size() - 1; i >= 0; i--)
             {
-               @Override
-               public void execute(Integer oldRow, List<MarkerRegistration> markers)
+               MarkerRegistration marker = markers.get(i);
+               if (marker.getRange().getStart().getColumn() >= column)
                {
-                  if (markers == null || markers.isEmpty())
-                     return;
-
-                  // all markers here should have same row
-                  int newRow = markers.get(0).getRange().getStart().getRow();
-                  newMarkers.put(newRow, markers);
+                  markers.remove(i);
+                  getOrCreateRow(endRow).markers.add(marker);
                }
-            });
-            activeMarkers_.clear();
-            activeMarkers_ = newMarkers;
+            }
+            invalidateRow(endRow);
          }
-      });
+         else
+         {
+            removeRows(startRow + 1, endRow - startRow);
+         }
+      }
+      
+      // only the edited rows need to be scanned again
+      invalidateRow(startRow);
+      timer_.schedule(700);
+   }
+   
+   @Override
+   public void onRenderFinished(RenderFinishedEvent event)
+   {
+      // scan rows scrolled into view (unless a scan is already pending)
+      if (timer_.isRunning() || highlighters_.isEmpty())
+         return;
+      
+      int endRow = getViewportEndRow();
+      for (int row = getViewportStartRow(); row < endRow; row++)
+      {
+         if (!isScanned(row))
+         {
+            timer_.schedule(N_SCROLL_DELAY_MS);
+            return;
+         }
+      }
    }
    
    @Override
@@ -620,11 +740,10 @@ public class AceEditorBackgroundLinkHighlighter
    public void onCommandClick(CommandClickEvent event)
    {
       Position position = event.getEvent().getDocumentPosition();
-      int row = position.getRow();
-      if (!activeMarkers_.containsKey(row))
+      List<MarkerRegistration> markers = getMarkers(position.getRow());
+      if (markers == null)
          return;
       
-      List<MarkerRegistration> markers = activeMarkers_.get(row);
       for (MarkerRegistration registration : markers)
       {
          if (registration.getRange().contains(position))
@@ -749,6 +868,13 @@ public class AceEditorBackgroundLinkHighlighter
       }-*/;
    }
    
+   private static class HighlightedRow
+   {
+      // false if the row was edited since it was last scanned for links
+      public boolean scanned = false;
+      public List<MarkerRegistration> markers = new ArrayList<MarkerRegistration>();
+   }
+   
    private class MarkerRegistration
    {
       public MarkerRegistration(String id, int markerId, AnchoredRange range)
@@ -789,9 +915,11 @@ public class AceEditorBackgroundLinkHighlighter
    private final Timer timer_;
    private final List<HandlerRegistration> handlers_;
    
-   private SafeMap<Integer, List<MarkerRegistration>> activeMarkers_;
-   private int nextHighlightStart_;
+   // indexed by document row; null for rows not yet scanned
+   private final ArrayList<HighlightedRow> rows_;
    private static final int N_HIGHLIGHT_ROWS = 200;
+   private static final int N_VIEWPORT_MARGIN_ROWS = 50;
+   private static final int N_SCROLL_DELAY_MS = 100;
    
    private HandlerRegistration previewHandler_;
    private Element activeHighlightMarkerEl_;
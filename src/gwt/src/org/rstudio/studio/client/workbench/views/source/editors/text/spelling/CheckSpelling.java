@@ -185,17 +185,22 @@ public class CheckSpelling
             wordRanges.add(r);
             words.add(docDisplay_.getTextForRange(r));
 
-            SourcePosition startPos = SourcePosition.create(r.getStart().getRow(), r.getStart().getColumn());
-            SourcePosition endPos = SourcePosition.create(r.getEnd().getRow(), r.getEnd().getColumn());
-            docDisplay_.highlightDebugLocation(startPos, endPos, true);
-
             // Check a maximum of N words at a time
-            if (wordRanges.size() == 100)
+            if (wordRanges.size() == MAX_BATCH_WORDS)
                break;
          }
 
          if (wordRanges.size() > 0)
          {
+            // show progress once per batch rather than once per word
+            Range last = wordRanges.get(wordRanges.size() - 1);
+            docDisplay_.highlightDebugLocation(
+                  SourcePosition.create(last.getStart().getRow(), last.getStart().getColumn()),
+                  SourcePosition.create(last.getEnd().getRow(), last.getEnd().getColumn()),
+                  true);
+
+            // words not yet known to the spell checker are checked off the
+            // UI thread, so the response may arrive asynchronously
             spellChecker_.checkSpelling(words, new SimpleRequestCallback<SpellCheckerResult>()
             {
                @Override
@@ -331,6 +336,9 @@ public class CheckSpelling
       }
    }
 
+   // words checked per batch; the editor stays responsive between batches
+   private static final int MAX_BATCH_WORDS = 500;
+
    private final TypoSpellChecker spellChecker_;
    private final DocDisplay docDisplay_;
    private final Display view_;
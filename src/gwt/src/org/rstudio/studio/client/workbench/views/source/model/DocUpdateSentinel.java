@@ -79,6 +79,7 @@ public class DocUpdateSentinel
       {
          sourceDoc_ = response;
          docDisplay_.setCode(sourceDoc_.getContents(), true);
+         incrementalDiff_.invalidate();
          dirtyState_.markClean();
 
          if (progress_ != null)
@@ -139,6 +140,15 @@ public class DocUpdateSentinel
          }
       };
 
+      // track edits as they arrive so that updates don't require diffing
+      // the entire document; until the first successful update we can't
+      // be sure the editor matches sourceDoc_, so start out invalidated
+      incrementalDiff_ = new IncrementalDocDiff(docDisplay_);
+      docDisplay_.addDocumentChangedHandler((event) ->
+      {
+         incrementalDiff_.onDocumentChanged(event.getEvent());
+      });
+
       docDisplay_.addValueChangeHandler(this);
       docDisplay_.addFoldChangeHandler(this);
 
@@ -378,7 +388,6 @@ public class DocUpdateSentinel
          actually sent to the server. */
       final ChangeTracker thisChangeTracker = changeTracker_.fork();
 
-      final String newContents = docDisplay_.getCode();
       String oldContents = sourceDoc_.getContents();
       final String hash = sourceDoc_.getHash();
 
@@ -389,8 +398,13 @@ public class DocUpdateSentinel
       JsArray<ChunkDefinition> oldChunkDefs = 
             sourceDoc_.getNotebookDoc().getChunkDefs();
       
+      // use the edits accumulated since the last update if we can; fall
+      // back to diffing the full document if they don't apply
       //String patch = DiffMatchPatch.diff(oldContents, newContents);
-      SubstringDiff diff = new SubstringDiff(oldContents, newContents);
+      SubstringDiff diff = incrementalDiff_.getDiff(oldContents);
+      if (diff == null)
+         diff = new SubstringDiff(oldContents, docDisplay_.getCode());
+      final String newContents = diff.patch(oldContents);
 
       // Don't auto-save when there are no changes. In addition to being
       // wasteful, it causes the server to think the document is dirty.
@@ -430,6 +444,10 @@ public class DocUpdateSentinel
          Debug.logException(e);
       }
 
+      // edits made while this update is in flight are relative to the
+      // contents we're sending
+      incrementalDiff_.reset(newContents);
+      
       server_.saveDocumentDiff(
             sourceDoc_.getId(),
             path,
@@ -447,6 +465,7 @@ public class DocUpdateSentinel
                public void onError(ServerError error)
                {
                   Debug.logError(error);
+                  incrementalDiff_.invalidate();
                   if (progress != null)
                      progress.onError(error.getUserMessage());
                   try
@@ -506,6 +525,7 @@ public class DocUpdateSentinel
                   {
                      // We just hit a race condition where two updates
                      // happened at once. Try again
+                     incrementalDiff_.invalidate();
                      doSave(path, fileType, encoding, progress);
                   }
                   else
@@ -570,6 +590,7 @@ public class DocUpdateSentinel
                public void onError(ServerError error)
                {
                   Debug.logError(error);
+                  incrementalDiff_.invalidate();
                   if (progress != null)
                      progress.onError(error.getUserMessage());
                }
@@ -650,6 +671,7 @@ public class DocUpdateSentinel
                public void onError(ServerError error)
                {
                   Debug.logError(error);
+                  incrementalDiff_.invalidate();
                   if (progress != null)
                      progress.onError(error.getUserMessage());
                }
@@ -800,6 +822,7 @@ public class DocUpdateSentinel
    private final DirtyState dirtyState_;
    private final EventBus eventBus_;
    private final DebouncedCommand autosaver_;
+   private final IncrementalDocDiff incrementalDiff_;
    private HandlerRegistration closeHandlerReg_;
    private HandlerRegistration lastChanceSaveHandlerReg_;
    private final HashMap<String, ValueChangeHandlerManager<String>> 
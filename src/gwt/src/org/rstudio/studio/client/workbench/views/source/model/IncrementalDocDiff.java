@@ -0,0 +1,250 @@
+/*
+ * IncrementalDocDiff.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import com.google.gwt.core.client.JsArrayString;
+
+import org.rstudio.core.client.patch.SubstringDiff;
+import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+
+/**
+ * Accumulates the region of a document touched by editor change deltas
+ * since the last sync with the server, so the replacement to send can be
+ * read out of the editor directly rather than by diffing the whole document.
+ *
+ * The unchanged head is tracked as a position from the start of the document
+ * and the unchanged tail as a (rows, columns) offset from the end of the
+ * document; neither moves when an edit is made on the other side of it, so
+ * each delta is folded in with constant work.
+ *
+ * The length of the document is tracked alongside, as a cheap check that
+ * no delta has gone missing: if it doesn't match the editor's, the tracked
+ * region can't be trusted and a full diff is required.
+ */
+class IncrementalDocDiff
+{
+   /**
+    * The parts of the editor the diff reads.
+    */
+   interface Editor
+   {
+      int getRowCount();
+      int getLength(int row);
+      Position getDocumentEnd();
+      int positionToIndex(Position position);
+      String getCode(Position start, Position end);
+      int getDroppedChangeCount();
+   }
+
+   public IncrementalDocDiff(final DocDisplay docDisplay)
+   {
+      this(new Editor()
+      {
+         public int getRowCount()
+         {
+            return docDisplay.getRowCount();
+         }
+
+         public int getLength(int row)
+         {
+            return docDisplay.getLength(row);
+         }
+
+         public Position getDocumentEnd()
+         {
+            return docDisplay.getDocumentEnd();
+         }
+
+         public int positionToIndex(Position position)
+         {
+            return docDisplay.positionToIndex(position);
+         }
+
+         public String getCode(Position start, Position end)
+         {
+            return docDisplay.getCode(start, end);
+         }
+
+         public int getDroppedChangeCount()
+         {
+            return docDisplay.getDroppedChangeCount();
+         }
+      });
+   }
+
+   IncrementalDocDiff(Editor editor)
+   {
+      editor_ = editor;
+   }
+
+   /**
+    * Mark the editor as in sync with the given contents; subsequent deltas
+    * are tracked relative to it.
+    */
+   public void reset(String baseline)
+   {
+      baseline_ = baseline;
+      head_ = null;
+      tailRows_ = 0;
+      tailColumns_ = 0;
+      length_ = baseline.length();
+      droppedChangeCount_ = editor_.getDroppedChangeCount();
+   }
+
+   /**
+    * Forget the current baseline; the next diff will need to be computed
+    * against the full document contents.
+    */
+   public void invalidate()
+   {
+      baseline_ = null;
+      head_ = null;
+   }
+
+   public void onDocumentChanged(AceDocumentChangeEventNative event)
+   {
+      if (baseline_ == null)
+         return;
+
+      // the editor may have made changes we were never told about
+      if (editor_.getDroppedChangeCount() != droppedChangeCount_)
+      {
+         invalidate();
+         return;
+      }
+
+      if (event.lines == null)
+      {
+         invalidate();
+         return;
+      }
+
+      // the position at which unchanged text resumes after this change
+      Position end;
+      String action = event.getAction();
+      if (action.startsWith("insert"))
+      {
+         end = event.end;
+         length_ += getLength(event.lines);
+      }
+      else if (action.startsWith("remove"))
+      {
+         end = event.start;
+         length_ -= getLength(event.lines);
+      }
+      else
+      {
+         invalidate();
+         return;
+      }
+
+      Position start = event.start;
+      int rows = editor_.getRowCount() - 1 - end.getRow();
+      int columns = editor_.getLength(end.getRow()) - end.getColumn();
+
+      if (head_ == null)
+      {
+         head_ = Position.create(start.getRow(), start.getColumn());
+         tailRows_ = rows;
+         tailColumns_ = columns;
+         return;
+      }
+
+      if (start.isBefore(head_))
+         head_ = Position.create(start.getRow(), start.getColumn());
+
+      if (rows < tailRows_ || (rows == tailRows_ && columns < tailColumns_))
+      {
+         tailRows_ = rows;
+         tailColumns_ = columns;
+      }
+   }
+
+   /**
+    * Compute the diff between the given contents and the editor.
+    *
+    * @return The diff, or null if the tracked deltas don't apply to
+    *    the given contents (in which case a full diff is required).
+    */
+   public SubstringDiff getDiff(String contents)
+   {
+      if (baseline_ == null || baseline_ != contents)
+         return null;
+
+      if (editor_.getDroppedChangeCount() != droppedChangeCount_)
+         return null;
+
+      // the contents patched by the deltas we've seen must be as long as
+      // the editor's
+      int documentLength = editor_.positionToIndex(editor_.getDocumentEnd());
+      if (length_ != documentLength)
+         return null;
+
+      if (head_ == null)
+         return new SubstringDiff("", 0, 0);
+
+      int tailRow = editor_.getRowCount() - 1 - tailRows_;
+      if (tailRow < 0)
+         return null;
+
+      int tailColumn = editor_.getLength(tailRow) - tailColumns_;
+      if (tailColumn < 0)
+         return null;
+
+      Position tail = Position.create(tailRow, tailColumn);
+      if (tail.isBefore(head_))
+         return null;
+
+      int headIndex = editor_.positionToIndex(head_);
+      int tailIndex = editor_.positionToIndex(tail);
+      int tailLength = documentLength - tailIndex;
+      int length = contents.length() - headIndex - tailLength;
+      if (tailLength < 0 || length < 0)
+         return null;
+
+      return new SubstringDiff(
+            editor_.getCode(head_, tail),
+            headIndex,
+            length);
+   }
+
+   // the length of the given lines once joined by the editor's newlines
+   private int getLength(JsArrayString lines)
+   {
+      int length = 0;
+      for (int i = 0; i < lines.length(); i++)
+         length += lines.get(i).length();
+      return length + (lines.length() - 1) * getNewlineLength();
+   }
+
+   private int getNewlineLength()
+   {
+      if (editor_.getRowCount() < 2)
+         return 1;
+      return editor_.positionToIndex(Position.create(1, 0)) -
+             editor_.getLength(0);
+   }
+
+   private final Editor editor_;
+
+   private String baseline_;
+   private Position head_;
+   private int tailRows_;
+   private int tailColumns_;
+   private int length_;
+   private int droppedChangeCount_;
+}
@@ -14,6 +14,9 @@
  */
 package org.rstudio.studio.client.workbench.views.terminal;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.rstudio.core.client.StringUtil;
 
 public class TerminalDiagnostics
@@ -41,6 +44,49 @@ public class TerminalDiagnostics
    {
       diagnostic_ = null;
    }
+   
+   /**
+    * Adds to a named running counter.
+    * @param counter name of counter, shown in getCounters
+    * @param amount amount to add
+    */
+   public void count(String counter, long amount)
+   {
+      Long value = counters_.get(counter);
+      counters_.put(counter, (value == null ? 0 : value) + amount);
+   }
+   
+   /**
+    * Records a value for a counter that tracks its highest value seen.
+    */
+   public void countMax(String counter, long value)
+   {
+      Long max = counters_.get(counter);
+      if (max == null || value > max)
+         counters_.put(counter, value);
+   }
+   
+   public String getCounters()
+   {
+      if (counters_.isEmpty())
+         return("<none>\n");
+      
+      StringBuilder counters = new StringBuilder();
+      for (Map.Entry<String, Long> entry : counters_.entrySet())
+      {
+         counters.append(entry.getKey());
+         counters.append(": ");
+         counters.append(entry.getValue());
+         counters.append("\n");
+      }
+      return counters.toString();
+   }
+   
+   public void resetCounters()
+   {
+      counters_.clear();
+   }
 
    private StringBuilder diagnostic_;
+   private final LinkedHashMap<String, Long> counters_ = new LinkedHashMap<>();
 }
@@ -85,6 +85,9 @@ public class TerminalInfoDialog extends ModalDialogBase
          diagnostics.append("\nConnection Information\n----------------------\n");
          diagnostics.append(session.getSocket().getConnectionDiagnostics());
 
+         diagnostics.append("\nChannel Counters\n----------------\n");
+         diagnostics.append(session.getSocket().getChannelCounters());
+
          diagnostics.append("\nLocal-echo Match Failures\n-------------------------\n");
          if (!localEchoEnabled)
             diagnostics.append("<Not applicable>\n");
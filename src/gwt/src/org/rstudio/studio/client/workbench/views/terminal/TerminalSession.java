@@ -346,13 +346,25 @@ public class TerminalSession extends XTermWidget
     */
    private void sendUserInput()
    {
-      final int MAXCHUNK = 128;
-      String userInput;
-
-      if (inputQueue_.length() == 0)
+      // Over WebSockets, send chunks until the socket's window of
+      // unacknowledged input is full; the rest is sent (batched with anything
+      // typed meanwhile) as acks arrive. Over RPC, send one chunk at a time,
+      // and the next once it completes.
+      boolean pipelined = consoleProcess_ != null &&
+            consoleProcess_.getChannelMode() == ConsoleProcessInfo.CHANNEL_WEBSOCKET;
+      while (inputQueue_.length() > 0 && socket_.canDispatchInput())
       {
-         return;
+         sendUserInputChunk();
+         if (!pipelined)
+            break;
       }
+   }
+   
+   private void sendUserInputChunk()
+   {
+      final int MAXCHUNK = socket_.getMaxInputChunk();
+      String userInput;
+
       if (inputQueue_.length() > MAXCHUNK)
       {
          userInput = inputQueue_.substring(0, MAXCHUNK);
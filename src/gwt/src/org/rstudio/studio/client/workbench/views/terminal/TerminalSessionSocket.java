@@ -15,6 +15,7 @@
 
 package org.rstudio.studio.client.workbench.views.terminal;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 
 import com.google.gwt.user.client.Timer;
@@ -34,6 +35,8 @@ import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.terminal.events.TerminalDataInputEvent;
 import org.rstudio.studio.client.workbench.views.terminal.xterm.XTermWidget;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.sksamuel.gwt.websockets.CloseEvent;
@@ -42,6 +45,12 @@ import com.sksamuel.gwt.websockets.WebsocketListenerExt;
 
 /**
  * Manages input and output for the terminal session.
+ * 
+ * Over WebSockets, input is sent in frames that the server acknowledges, with
+ * at most INPUT_WINDOW frames unacknowledged; input arriving while the window
+ * is full is batched into the next frame. Output is gathered and passed on to
+ * the terminal once per animation frame, and the server is asked to hold
+ * output while a large batch of it is being rendered.
  */
 public class TerminalSessionSocket
    implements ConsoleOutputEvent.Handler, 
@@ -294,6 +303,8 @@ public class TerminalSessionSocket
                   socket_ = null;
                   keepAliveTimer_.cancel();
                   connectWebSocketTimer_.cancel();
+                  flushOutput();
+                  resetFlowControl();
                   session_.connectionDisconnected();
                }
             }
@@ -305,9 +316,13 @@ public class TerminalSessionSocket
                {
                   receivedKeepAlive();
                }
+               else if (TerminalSocketPacket.isInputAck(msg))
+               {
+                  receivedInputAck();
+               }
                else
                {
-                  onConsoleOutput(new ConsoleOutputEvent(TerminalSocketPacket.getMessage(msg)));
+                  queueOutput(TerminalSocketPacket.getMessage(msg));
                }
             }
 
@@ -351,6 +366,8 @@ public class TerminalSessionSocket
       socket_ = null;
       keepAliveTimer_.cancel();
       connectWebSocketTimer_.cancel();
+      flushOutput();
+      resetFlowControl();
    
       // Unable to connect client to server via websocket; let server
       // know we'll be using rpc, instead
@@ -372,12 +389,43 @@ public class TerminalSessionSocket
       });
    }      
    
+   /**
+    * @return false if input should be held (and batched with later input)
+    * until the server acknowledges input already sent
+    */
+   public boolean canDispatchInput()
+   {
+      if (consoleProcess_ == null ||
+            consoleProcess_.getChannelMode() != ConsoleProcessInfo.CHANNEL_WEBSOCKET)
+      {
+         return true;
+      }
+
+      // with the socket gone, input is held until the session reconnects
+      return socket_ != null && inputInFlight_ < INPUT_WINDOW;
+   }
+   
+   /**
+    * @return the largest amount of input to send in a single call to
+    * dispatchInput
+    */
+   public int getMaxInputChunk()
+   {
+      if (consoleProcess_ != null &&
+            consoleProcess_.getChannelMode() == ConsoleProcessInfo.CHANNEL_WEBSOCKET)
+      {
+         return WEBSOCKET_INPUT_CHUNK;
+      }
+      return RPC_INPUT_CHUNK;
+   }
+   
    /**
     * Send user input to the server.
     * @param inputSequence used to fix out-of-order RPC calls
     * @param input text to send
     * @param localEcho echo input locally
-    * @param requestCallback callback
+    * @param requestCallback callback; over WebSockets, called once the server
+    *                        acknowledges the input
     */
    public void dispatchInput(int inputSequence,
                              String input,
@@ -400,11 +448,17 @@ public class TerminalSessionSocket
          if (socket_ != null)
          {
             socket_.send(TerminalSocketPacket.textPacket(input));
+            inputCallbacks_.add(requestCallback);
+            inputInFlight_++;
+            diagnostic_.count("Input frames", 1);
+            diagnostic_.count("Input chars", input.length());
+            diagnostic_.countMax("Max input frames in flight", inputInFlight_);
          }
          else
+         {
             diagnosticError("Tried to send user input over null websocket");
-            
-         requestCallback.onResponseReceived(null);
+            requestCallback.onResponseReceived(null);
+         }
          break;
       case ConsoleProcessInfo.CHANNEL_PIPE:
       default:
@@ -475,6 +529,8 @@ public class TerminalSessionSocket
       if (socket_ != null)
          socket_.close();
       socket_ = null;
+      cancelOutput();
+      resetFlowControl();
       registrations_.removeHandler();
       if (permanent)
       {
@@ -485,6 +541,7 @@ public class TerminalSessionSocket
    public void resetDiagnostics()
    {
       diagnostic_.resetLog();
+      diagnostic_.resetCounters();
       localEcho_.resetDiagnostics();
    }
    
@@ -493,6 +550,11 @@ public class TerminalSessionSocket
       return diagnostic_.getLog();
    }
    
+   public String getChannelCounters()
+   {
+      return diagnostic_.getCounters();
+   }
+   
    public String getLocalEchoDiagnostics()
    {
       return localEcho_.getDiagnostics();
@@ -512,6 +574,102 @@ public class TerminalSessionSocket
    private void receivedKeepAlive()
    {
    }
+   
+   private void receivedInputAck()
+   {
+      diagnostic_.count("Input acks", 1);
+      if (inputInFlight_ > 0)
+         inputInFlight_--;
+      
+      // lets the session send whatever input has queued up meanwhile
+      VoidServerRequestCallback callback = inputCallbacks_.poll();
+      if (callback != null)
+         callback.onResponseReceived(null);
+   }
+   
+   private void queueOutput(String output)
+   {
+      diagnostic_.count("Output frames", 1);
+      diagnostic_.count("Output chars", output.length());
+      
+      pendingOutput_.append(output);
+      if (outputHandle_ == null)
+      {
+         outputHandle_ = AnimationScheduler.get().requestAnimationFrame(
+               timestamp -> flushOutput());
+      }
+   }
+   
+   private void flushOutput()
+   {
+      if (outputHandle_ != null)
+      {
+         outputHandle_.cancel();
+         outputHandle_ = null;
+      }
+      
+      if (pendingOutput_.length() == 0)
+         return;
+      
+      String output = pendingOutput_.toString();
+      pendingOutput_.setLength(0);
+      diagnostic_.count("Terminal writes", 1);
+      onConsoleOutput(new ConsoleOutputEvent(output));
+      
+      // the terminal takes a while to render a large batch of output; have
+      // the server hold further output until a frame has gone by
+      if (output.length() > OUTPUT_HIGH_WATER && socket_ != null)
+      {
+         if (!outputPaused_)
+         {
+            outputPaused_ = true;
+            socket_.send(TerminalSocketPacket.flowControlPacket(true));
+            diagnostic_.count("Output pauses", 1);
+         }
+         
+         if (resumeHandle_ != null)
+            resumeHandle_.cancel();
+         resumeHandle_ = AnimationScheduler.get().requestAnimationFrame(
+               timestamp -> resumeOutput());
+      }
+   }
+   
+   private void resumeOutput()
+   {
+      resumeHandle_ = null;
+      if (outputPaused_ && socket_ != null)
+         socket_.send(TerminalSocketPacket.flowControlPacket(false));
+      outputPaused_ = false;
+   }
+   
+   private void cancelOutput()
+   {
+      if (outputHandle_ != null)
+      {
+         outputHandle_.cancel();
+         outputHandle_ = null;
+      }
+      pendingOutput_.setLength(0);
+   }
+   
+   private void resetFlowControl()
+   {
+      if (resumeHandle_ != null)
+      {
+         resumeHandle_.cancel();
+         resumeHandle_ = null;
+      }
+      outputPaused_ = false;
+      inputInFlight_ = 0;
+
+      // input awaiting an ack won't get one; complete it so the session goes
+      // on to send (or, once reconnected, resend) whatever input is queued
+      ArrayList<VoidServerRequestCallback> callbacks =
+            new ArrayList<>(inputCallbacks_);
+      inputCallbacks_.clear();
+      for (VoidServerRequestCallback callback : callbacks)
+         callback.onResponseReceived(null);
+   }
  
    private final HandlerRegistrations registrations_ = new HandlerRegistrations();
    private final Session session_;
@@ -524,6 +682,19 @@ public class TerminalSessionSocket
    private final TerminalLocalEcho localEcho_;
    private final TerminalDiagnostics diagnostic_ = new TerminalDiagnostics();
    
+   // WebSocket flow control
+   private int inputInFlight_;
+   private final LinkedList<VoidServerRequestCallback> inputCallbacks_ = new LinkedList<>();
+   private final StringBuilder pendingOutput_ = new StringBuilder();
+   private AnimationHandle outputHandle_;
+   private AnimationHandle resumeHandle_;
+   private boolean outputPaused_;
+   
+   private static final int INPUT_WINDOW = 8;
+   private static final int WEBSOCKET_INPUT_CHUNK = 4096;
+   private static final int RPC_INPUT_CHUNK = 128;
+   private static final int OUTPUT_HIGH_WATER = 64 * 1024;
+   
    // RegEx to match common password prompts
    private static final String PASSWORD_REGEX = 
          "(?:password:)|(?:passphrase:)";
@@ -25,8 +25,11 @@ import org.rstudio.core.client.StringUtil;
  * First character is a method indicator, as follows:
  *    "a" = send text, e.g. "aHello"
  *    "b" = ping/pong, e.g. "b"
+ *    "c" = input acknowledgement (server to client), one per "a" packet received
+ *    "d" = flow control (client to server), "d1" to hold output, "d0" to resume
  *    
- * Only the "send text" method has a payload (everything after the "a").
+ * Only the "send text" and "flow control" methods have a payload (everything
+ * after the first character).
  * 
  * See SessionConsoleProcessSocketPacket in session code for C++ side of this sophisticated
  * wire format.
@@ -47,6 +50,16 @@ public class TerminalSocketPacket
       return StringUtil.equals(text, keepAlivePrefix);
    }
    
+   public static boolean isInputAck(String text)
+   {
+      return StringUtil.equals(text, inputAckPrefix);
+   }
+   
+   public static String flowControlPacket(boolean pause)
+   {
+      return flowControlPrefix + (pause ? "1" : "0");
+   }
+   
    public static String getMessage(String text)
    {
       if (text.startsWith(textPrefix))
@@ -58,4 +71,6 @@ public class TerminalSocketPacket
 
    private static final String keepAlivePrefix = "b";
    private static final String textPrefix = "a";
+   private static final String inputAckPrefix = "c";
+   private static final String flowControlPrefix = "d";
 }
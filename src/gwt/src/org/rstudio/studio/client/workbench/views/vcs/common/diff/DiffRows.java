@@ -0,0 +1,154 @@
+/*
+ * DiffRows.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.common.diff;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * The rows of a diff as displayed in a LineTableView. Chunks with more than
+ * COLLAPSE_THRESHOLD lines show only their first COLLAPSED_LINES lines,
+ * followed by a placeholder row standing in for the rest until expanded.
+ */
+public class DiffRows
+{
+   public DiffRows(ArrayList<ChunkOrLine> lines)
+   {
+      this(lines, COLLAPSE_THRESHOLD, COLLAPSED_LINES);
+   }
+
+   public DiffRows(ArrayList<ChunkOrLine> lines,
+                   int collapseThreshold,
+                   int collapsedLines)
+   {
+      lines_ = lines;
+      collapseThreshold_ = collapseThreshold;
+      collapsedLines_ = collapsedLines;
+      build();
+   }
+
+   /**
+    * Creates the rows for a refreshed diff of the same file, with the chunks
+    * that were expanded in the previous rows still expanded.
+    */
+   public DiffRows(ArrayList<ChunkOrLine> lines, DiffRows previous)
+   {
+      lines_ = lines;
+      collapseThreshold_ = previous.collapseThreshold_;
+      collapsedLines_ = previous.collapsedLines_;
+      expanded_.addAll(previous.expanded_);
+      build();
+   }
+
+   /**
+    * @return All lines of the diff, including those hidden in collapsed chunks
+    */
+   public ArrayList<ChunkOrLine> getLines()
+   {
+      return lines_;
+   }
+
+   /**
+    * @return The rows to display
+    */
+   public ArrayList<ChunkOrLine> getRows()
+   {
+      return rows_;
+   }
+
+   public boolean isPlaceholder(ChunkOrLine row)
+   {
+      return placeholders_.containsKey(row);
+   }
+
+   /**
+    * Shows the lines hidden behind the given placeholder row.
+    *
+    * @return true if the rows changed
+    */
+   public boolean expand(ChunkOrLine placeholder)
+   {
+      Integer start = placeholders_.get(placeholder);
+      if (start == null)
+         return false;
+
+      expanded_.add(start);
+      build();
+      return true;
+   }
+
+   private void build()
+   {
+      rows_ = new ArrayList<ChunkOrLine>(lines_.size());
+      placeholders_.clear();
+
+      int n = lines_.size();
+      int i = 0;
+      while (i < n)
+      {
+         if (lines_.get(i).getLine() == null)
+            rows_.add(lines_.get(i++));
+
+         // find the extent of this chunk's lines
+         int start = i;
+         while (i < n && lines_.get(i).getLine() != null)
+            i++;
+         int end = i;
+
+         int hiddenStart = start + collapsedLines_;
+         boolean collapse = end - start > collapseThreshold_ &&
+                            !expanded_.contains(hiddenStart);
+
+         for (int j = start; j < (collapse ? hiddenStart : end); j++)
+            rows_.add(lines_.get(j));
+
+         if (collapse)
+         {
+            ChunkOrLine placeholder = createPlaceholder(
+                  lines_.get(hiddenStart).getLine(),
+                  end - hiddenStart);
+            placeholders_.put(placeholder, hiddenStart);
+            rows_.add(placeholder);
+         }
+      }
+   }
+
+   private ChunkOrLine createPlaceholder(Line firstHidden, int hiddenCount)
+   {
+      // the placeholder borrows the diff index of the first line it hides;
+      // that line isn't displayed, so the index is still unique among rows
+      int columns = firstHidden.getLines().length;
+      return new ChunkOrLine(new Line(
+            Line.Type.Info,
+            new boolean[columns],
+            new int[columns],
+            "... " + hiddenCount + " more lines (click to show)",
+            firstHidden.getDiffIndex()));
+   }
+
+   public static final int COLLAPSE_THRESHOLD = 2000;
+   public static final int COLLAPSED_LINES = 500;
+
+   private final ArrayList<ChunkOrLine> lines_;
+   private final int collapseThreshold_;
+   private final int collapsedLines_;
+
+   // index (into lines_) of the first hidden line of each expanded chunk
+   private final HashSet<Integer> expanded_ = new HashSet<Integer>();
+   private final HashMap<ChunkOrLine, Integer> placeholders_ =
+         new HashMap<ChunkOrLine, Integer>();
+   private ArrayList<ChunkOrLine> rows_;
+}
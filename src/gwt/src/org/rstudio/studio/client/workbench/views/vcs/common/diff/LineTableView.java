@@ -21,12 +21,15 @@ import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.dom.client.Node;
 import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.dom.client.ScrollEvent;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.user.cellview.client.CellTable;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.RowStyles;
 import com.google.gwt.user.cellview.client.TextColumn;
+import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.user.client.ui.Widget;
 import com.google.gwt.view.client.MultiSelectionModel;
 import com.google.gwt.view.client.ProvidesKey;
 import com.google.gwt.view.client.SelectionChangeEvent;
@@ -97,6 +100,16 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
                                  NativeEvent event,
                                  ValueUpdater<ChunkOrLine> chunkOrLineValueUpdater)
       {
+         if ("mousedown".equals(event.getType())
+             && event.getButton() == NativeEvent.BUTTON_LEFT
+             && diffRows_.isPlaceholder(value))
+         {
+            event.preventDefault();
+            event.stopPropagation();
+            expandRows(value);
+            return;
+         }
+
          if ("mousedown".equals(event.getType())
              && event.getButton() == NativeEvent.BUTTON_LEFT
              && parent.isOrHasChild(event.getEventTarget().<Node>cast()))
@@ -378,12 +391,12 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       });
       setSelectionModel(selectionModel_);
 
-      setData(new ArrayList<ChunkOrLine>(), PatchMode.Working);
+      clear();
    }
 
    private void refreshValue(ChunkOrLine value)
    {
-      int index = lines_.indexOf(value);
+      int index = rows_.indexOf(value);
       if (index >= 0)
       {
          ArrayList<ChunkOrLine> list = new ArrayList<ChunkOrLine>();
@@ -441,20 +454,40 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
             break;
       }
 
+      // a refresh of the same file's diff (e.g. after staging) keeps the
+      // expanded chunks and rendered rows; clear() resets them
       lines_ = diffData;
-      setPageSize(diffData.size());
+      diffRows_ = diffRows_ == null ?
+            new DiffRows(diffData) :
+            new DiffRows(diffData, diffRows_);
       selectionModel_.clear();
       firstSelectedLine_ = null;
-      setRowData(diffData);
+      updateRows();
+   }
+
+   // Large diffs are rendered progressively: only the first renderedRowCount_
+   // rows are in the table, and more are added as the bottom of the table
+   // scrolls into view. Rows hidden in collapsed chunks (see DiffRows) aren't
+   // rendered until expanded.
+   private void updateRows()
+   {
+      rows_ = diffRows_.getRows();
+      
+      // setRowData(rows_) would make every row visible, so set the count
+      // and the visible range separately
+      int count = Math.min(rows_.size(), renderedRowCount_);
+      setRowCount(rows_.size());
+      setVisibleRange(0, count);
+      setRowData(0, rows_.subList(0, count));
 
       startRows_.clear();
       endRows_.clear();
 
       Line.Type state = Line.Type.Same;
       boolean suppressNextStart = true; // Suppress at start to avoid 2px border
-      for (int i = 0; i < lines_.size(); i++)
+      for (int i = 0; i < rows_.size(); i++)
       {
-         ChunkOrLine chunkOrLine = lines_.get(i);
+         ChunkOrLine chunkOrLine = rows_.get(i);
          Line line = chunkOrLine.getLine();
          boolean isChunk = line == null;
          Line.Type newState = isChunk ? Line.Type.Same : line.getType();
@@ -463,7 +496,7 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
             startRows_.add(i);
 
          // Edge case: last line is a diff line
-         if (useEndBorder_ && i == lines_.size() - 1)
+         if (useEndBorder_ && i == rows_.size() - 1)
             endRows_.add(i);
 
          if (newState != state)
@@ -483,13 +516,72 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       }
    }
 
+   void expandRows(ChunkOrLine placeholder)
+   {
+      int index = rows_.indexOf(placeholder);
+      if (!diffRows_.expand(placeholder))
+         return;
+
+      renderedRowCount_ = Math.max(renderedRowCount_, index + RENDER_INCREMENT);
+      updateRows();
+   }
+
+   private void renderMoreRowsIfNeeded()
+   {
+      int rendered = getPageSize();
+      if (rendered >= rows_.size() || !isAttached())
+         return;
+
+      int tableBottom = getAbsoluteTop() + getOffsetHeight();
+      int viewBottom = scrollPanel_.getAbsoluteTop() +
+                       scrollPanel_.getOffsetHeight();
+      if (tableBottom - viewBottom > RENDER_AHEAD_PX)
+         return;
+
+      renderedRowCount_ = rendered + RENDER_INCREMENT;
+      int count = Math.min(rows_.size(), renderedRowCount_);
+      setPageSize(count);
+      setRowData(rendered, rows_.subList(rendered, count));
+   }
+
+   @Override
+   protected void onLoad()
+   {
+      super.onLoad();
+
+      // listen for scrolling in the nearest enclosing scroll panel
+      for (Widget parent = getParent(); parent != null; parent = parent.getParent())
+      {
+         if (parent instanceof ScrollPanel)
+         {
+            scrollPanel_ = (ScrollPanel) parent;
+            scrollRegistration_ = scrollPanel_.addScrollHandler(
+                  (ScrollEvent event) -> renderMoreRowsIfNeeded());
+            break;
+         }
+      }
+   }
+
+   @Override
+   protected void onUnload()
+   {
+      if (scrollRegistration_ != null)
+      {
+         scrollRegistration_.removeHandler();
+         scrollRegistration_ = null;
+      }
+      scrollPanel_ = null;
+
+      super.onUnload();
+   }
+
    @Override
    protected boolean canSelectVisibleRow(int visibleRow)
    {
-      if (visibleRow < 0 || visibleRow >= lines_.size())
+      if (visibleRow < 0 || visibleRow >= rows_.size())
          return false;
 
-      Line line = lines_.get(visibleRow).getLine();
+      Line line = rows_.get(visibleRow).getLine();
       return line != null && (line.getType() == Type.Insertion
                               || line.getType() == Type.Deletion);
    }
@@ -497,6 +589,8 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    @Override
    public void clear()
    {
+      diffRows_ = null;
+      renderedRowCount_ = RENDER_INCREMENT;
       setData(new ArrayList<ChunkOrLine>(), PatchMode.Working);
    }
 
@@ -545,6 +639,11 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
 
    private boolean showActions_ = true;
    private ArrayList<ChunkOrLine> lines_;
+   private DiffRows diffRows_;
+   private ArrayList<ChunkOrLine> rows_;
+   private int renderedRowCount_;
+   private ScrollPanel scrollPanel_;
+   private HandlerRegistration scrollRegistration_;
    private SwitchableSelectionModel<ChunkOrLine> selectionModel_;
    private HashSet<Integer> startRows_ = new HashSet<Integer>();
    private HashSet<Integer> endRows_ = new HashSet<Integer>();
@@ -552,6 +651,8 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    private boolean useEndBorder_ = true;
    // Keep explicit track of the first selected line so we can render it differently
    private ChunkOrLine firstSelectedLine_;
+   static final int RENDER_INCREMENT = 1000;
+   private static final int RENDER_AHEAD_PX = 2000;
    private static final LineTableViewCellTableResources RES = GWT.create(LineTableViewCellTableResources.class);
    private static final LineActionButtonRenderer blueButtonRenderer_ = LineActionButtonRenderer.createBlue();
    private static final LineActionButtonRenderer grayButtonRenderer_ = LineActionButtonRenderer.createGray();
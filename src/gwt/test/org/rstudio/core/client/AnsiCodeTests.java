@@ -179,5 +179,126 @@ public class AnsiCodeTests extends GWTTestCase
       newClazz = ansi.processCode(resetAll);
       Assert.assertNull(newClazz.blockClazzes);
       Assert.assertNull(newClazz.inlineClazzes);
-    } 
-}
\ No newline at end of file
+    }
+
+   public void testProcessCodeInRange()
+   {
+      AnsiCode ansi = new AnsiCode();
+      String data = "abc\033[1;31mdef";
+      AnsiCode.AnsiClazzes newClazz = ansi.processCode(data, 3, 10);
+      Assert.assertEquals("xtermBold xtermColor1", newClazz.inlineClazzes);
+   }
+
+   // Records tokens reported by AnsiTokenizer as a readable string
+   private static class TokenRecorder implements AnsiTokenizer.Handler
+   {
+      @Override
+      public void onText(String data, int start, int end)
+      {
+         result.append("T[" + data.substring(start, end) + "]");
+      }
+
+      @Override
+      public void onControl(char control)
+      {
+         result.append("C[" + AnsiCode.prettyPrint(String.valueOf(control)) + "]");
+      }
+
+      @Override
+      public void onEscape(String data, int start, int end, boolean isSgr)
+      {
+         result.append((isSgr ? "S[" : "E[") +
+               AnsiCode.prettyPrint(data.substring(start, end)) + "]");
+      }
+
+      public StringBuilder result = new StringBuilder();
+   }
+
+   private static String tokenize(String... chunks)
+   {
+      AnsiTokenizer tokenizer = new AnsiTokenizer();
+      TokenRecorder recorder = new TokenRecorder();
+      for (String chunk : chunks)
+         tokenizer.process(chunk, recorder);
+      return recorder.result.toString();
+   }
+
+   public void testTokenizePlainText()
+   {
+      Assert.assertEquals("T[hello world]", tokenize("hello world"));
+   }
+
+   public void testTokenizeControlCharacters()
+   {
+      Assert.assertEquals("T[a]C[<LF>]T[b]C[<CR>]C[<BS>]T[c]C[<FF>]",
+            tokenize("a\nb\r\bc\f"));
+   }
+
+   public void testTokenizeSgr()
+   {
+      Assert.assertEquals("T[a]S[<ESC>[31m]T[red]S[<ESC>[39m]",
+            tokenize("a\033[31mred\033[39m"));
+   }
+
+   public void testTokenizeUnsupportedSequences()
+   {
+      Assert.assertEquals("E[<ESC>[?25l]T[x]E[<ESC>[[K]",
+            tokenize("\033[?25lx\033[[K"));
+   }
+
+   public void testTokenizeMalformedSequence()
+   {
+      // an escape character that doesn't start a sequence is dropped
+      Assert.assertEquals("T[]x]", tokenize("\033]x"));
+
+      // a trailing parameter digit can act as the final character
+      Assert.assertEquals("E[<ESC>[12]T[x]", tokenize("\033[12x"));
+   }
+
+   public void testTokenizeSplitAfterEscape()
+   {
+      Assert.assertEquals("T[a]S[<ESC>[31m]T[b]", tokenize("a\033", "[31mb"));
+   }
+
+   public void testTokenizeSplitAfterBracket()
+   {
+      Assert.assertEquals("T[a]S[<ESC>[31m]T[b]", tokenize("a\033[", "31mb"));
+   }
+
+   public void testTokenizeSplitInParameters()
+   {
+      Assert.assertEquals("S[<ESC>[1;31m]T[b]", tokenize("\033[1", ";3", "1mb"));
+   }
+
+   public void testTokenizeSplitUnsupportedSequence()
+   {
+      Assert.assertEquals("T[a]E[<ESC>[?25l]T[b]", tokenize("a\033[?2", "5lb"));
+   }
+
+   public void testTokenizeSplitBeforeControl()
+   {
+      Assert.assertEquals("T[a]S[<ESC>[32m]C[<CR>]T[b]",
+            tokenize("a\033[32", "m\rb"));
+   }
+
+   public void testTokenizeWithoutEscapes()
+   {
+      AnsiTokenizer tokenizer = new AnsiTokenizer();
+      tokenizer.setProcessEscapes(false);
+      TokenRecorder recorder = new TokenRecorder();
+      tokenizer.process("a\033[31mb\n", recorder);
+      Assert.assertEquals("T[a\033[31mb]C[<LF>]", recorder.result.toString());
+      Assert.assertFalse(tokenizer.hasPartial());
+   }
+
+   public void testTokenizeReset()
+   {
+      AnsiTokenizer tokenizer = new AnsiTokenizer();
+      TokenRecorder recorder = new TokenRecorder();
+      tokenizer.process("a\033[3", recorder);
+      Assert.assertTrue(tokenizer.hasPartial());
+      tokenizer.reset();
+      tokenizer.process("1mb", recorder);
+      Assert.assertEquals("T[a]T[1mb]", recorder.result.toString());
+   }
+}
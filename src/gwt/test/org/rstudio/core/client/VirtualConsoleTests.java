@@ -1010,4 +1010,62 @@ public class VirtualConsoleTests extends GWTTestCase
       Assert.assertEquals(expected, ele.getInnerHTML());
       Assert.assertEquals("cc 33 ", vc.toString());
    }
- }
+
+   public void testLineCount()
+   {
+      VirtualConsole vc = getVC(null);
+      vc.submit("one\ntwo\nthree");
+      Assert.assertEquals(2, vc.getLineCount());
+      vc.submit("\rTHREE\n");
+      Assert.assertEquals(3, vc.getLineCount());
+      Assert.assertEquals("one\ntwo\nTHREE\n", vc.toString());
+   }
+
+   public void testMaxLinesBoundsBuffer()
+   {
+      VirtualConsole vc = getVC(null);
+      vc.setMaxLines(10);
+      for (int i = 0; i < 1000; i++)
+         vc.submit("line " + i + "\n");
+
+      Assert.assertEquals(1000, vc.getLineCount());
+      String output = vc.toString();
+      Assert.assertTrue(output.endsWith("line 998\nline 999\n"));
+      Assert.assertTrue(StringUtil.split(output, "\n").length() <= 10 + 10 / 4 + 1);
+   }
+
+   public void testMaxLinesPreservesDom()
+   {
+      PreElement ele = Document.get().createPreElement();
+      VirtualConsole vc = getVC(ele);
+      vc.setMaxLines(4);
+
+      StringBuilder expected = new StringBuilder();
+      for (int i = 0; i < 100; i++)
+      {
+         vc.submit("\033[31mred " + i + "\033[39m plain\n");
+         expected.append("red " + i + " plain\n");
+      }
+
+      // trimming the buffer must not alter what has already been rendered
+      Assert.assertEquals(expected.toString(), ele.getInnerText());
+
+      // output written after trimming lands in the right place
+      vc.submit("abc\rX");
+      expected.append("Xbc");
+      Assert.assertEquals(expected.toString(), ele.getInnerText());
+      Assert.assertTrue(vc.toString().endsWith("red 99 plain\nXbc"));
+   }
+
+   public void testMaxLinesStyledRangeSpansCut()
+   {
+      PreElement ele = Document.get().createPreElement();
+      VirtualConsole vc = getVC(ele);
+      vc.setMaxLines(1);
+
+      vc.submit("a\nb\nc", "one");
+      vc.submit("\rC", "two");
+      Assert.assertEquals("a\nb\nC", ele.getInnerText());
+      Assert.assertTrue(vc.toString().endsWith("C"));
+   }
+}
@@ -0,0 +1,103 @@
+/*
+ * AppCommandTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.command;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class AppCommandTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testUnbatchedChangesFireImmediately()
+   {
+      AppCommand command = new AppCommand();
+      int[] counts = listen(command);
+
+      command.setEnabled(false);
+      command.setVisible(false);
+      assertEquals(1, counts[0]);
+      assertEquals(1, counts[1]);
+   }
+
+   public void testBatchedChangesFireOnce()
+   {
+      AppCommand command = new AppCommand();
+      int[] counts = listen(command);
+
+      AppCommand.beginStateChanges();
+      command.setEnabled(false);
+      command.setVisible(false);
+      command.setVisible(true);
+      command.setVisible(false);
+      AppCommand.endStateChanges();
+
+      // the new state is visible right away, but not yet announced
+      assertFalse(command.isVisible());
+      assertEquals(0, counts[0]);
+      assertEquals(0, counts[1]);
+
+      AppCommand.flushStateChanges();
+      assertEquals(1, counts[0]);
+      assertEquals(1, counts[1]);
+   }
+
+   public void testRevertedChangeDoesNotFire()
+   {
+      AppCommand command = new AppCommand();
+      int[] counts = listen(command);
+
+      AppCommand.beginStateChanges();
+      command.setEnabled(false);
+      command.setEnabled(true);
+      AppCommand.endStateChanges();
+      AppCommand.flushStateChanges();
+
+      assertEquals(0, counts[0]);
+   }
+
+   public void testNestedBatches()
+   {
+      AppCommand command = new AppCommand();
+      int[] counts = listen(command);
+
+      AppCommand.beginStateChanges();
+      AppCommand.beginStateChanges();
+      command.setEnabled(false);
+      AppCommand.endStateChanges();
+
+      // still inside the outer batch
+      command.setVisible(false);
+      AppCommand.endStateChanges();
+      assertEquals(0, counts[0]);
+      assertEquals(0, counts[1]);
+
+      AppCommand.flushStateChanges();
+      assertEquals(1, counts[0]);
+      assertEquals(1, counts[1]);
+   }
+
+   // counts of enabled and visible change events fired by the command
+   private static int[] listen(AppCommand command)
+   {
+      final int[] counts = new int[2];
+      command.addEnabledChangedHandler(changed -> counts[0]++);
+      command.addVisibleChangedHandler(changed -> counts[1]++);
+      return counts;
+   }
+}
@@ -0,0 +1,134 @@
+/*
+ * RequestLogTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.jsonrpc;
+
+import java.util.ArrayList;
+
+import org.rstudio.core.client.jsonrpc.RequestLogEntry.ResponseType;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class RequestLogTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testBucketBounds()
+   {
+      for (long millis = 0; millis < 100000; millis++)
+      {
+         int index = RequestMethodStats.bucketIndex(millis);
+         assertTrue(RequestMethodStats.bucketLowerBound(index) <= millis);
+         assertTrue(RequestMethodStats.bucketLowerBound(index + 1) > millis);
+      }
+   }
+
+   public void testPercentiles()
+   {
+      RequestMethodStats stats = new RequestMethodStats("test");
+      assertEquals(0, stats.getPercentile(50));
+
+      for (int i = 1; i <= 100; i++)
+         stats.recordResponse(i, 10, 20);
+
+      assertEquals(100, stats.getCount());
+      assertEquals(1000, stats.getRequestBytes());
+      assertEquals(2000, stats.getResponseBytes());
+      assertEquals(100, stats.getMaxMillis());
+
+      // percentiles are reported to within 25% (below) of the true value
+      assertPercentile(50, stats.getPercentile(50));
+      assertPercentile(95, stats.getPercentile(95));
+      assertPercentile(99, stats.getPercentile(99));
+      assertEquals(1, stats.getPercentile(0));
+   }
+
+   public void testRingBuffer()
+   {
+      RequestLogEntry stuck = RequestLog.log("stuck", "test_stuck", "", 0);
+      for (int i = 0; i < 200; i++)
+      {
+         RequestLogEntry entry = RequestLog.log("id" + i, "test_ring", "", 0);
+         entry.logResponse(ResponseType.Normal, "");
+      }
+
+      // the in-flight request survives eviction from the ring buffer
+      RequestLogEntry[] entries = RequestLog.getEntries();
+      assertEquals(51, entries.length);
+      assertEquals("stuck", entries[0].getRequestId());
+      assertEquals("id150", entries[1].getRequestId());
+      assertEquals("id199", entries[50].getRequestId());
+
+      stuck.logResponse(ResponseType.Cancelled, "Cancelled");
+      entries = RequestLog.getEntries();
+      assertEquals(50, entries.length);
+      assertEquals("id150", entries[0].getRequestId());
+   }
+
+   public void testInFlightCapped()
+   {
+      ArrayList<RequestLogEntry> stuck = new ArrayList<RequestLogEntry>();
+      for (int i = 0; i < 500; i++)
+         stuck.add(RequestLog.log("stuck" + i, "test_cap", "", 0));
+
+      // only the most recently evicted of the requests which never
+      // complete are kept
+      RequestLogEntry[] entries = RequestLog.getEntries();
+      assertEquals(50 + RequestLog.MAX_IN_FLIGHT, entries.length);
+      assertEquals("stuck400", entries[0].getRequestId());
+      assertEquals("stuck499", entries[entries.length - 1].getRequestId());
+
+      for (RequestLogEntry entry : stuck)
+         entry.logResponse(ResponseType.Cancelled, "Cancelled");
+      assertEquals(50, RequestLog.getEntries().length);
+   }
+
+   public void testStatsByMethod()
+   {
+      RequestLog.resetStats();
+
+      RequestLogEntry entry = RequestLog.log("1", "test_stats", "", 5);
+      entry.logResponse(ResponseType.Normal, "abc");
+      entry = RequestLog.log("2", "test_stats", "", 5);
+      entry.logResponse(ResponseType.Error, "failed");
+      entry = RequestLog.log("3", "test_stats", "", 5);
+      entry.logResponse(ResponseType.Cancelled, "Cancelled");
+      RequestLog.logRetry("test_stats");
+
+      // a later outcome for the same request isn't counted again
+      entry.logResponse(ResponseType.Cancelled, "Cancelled");
+
+      ArrayList<RequestMethodStats> all = RequestLog.getStats();
+      assertEquals(1, all.size());
+
+      RequestMethodStats stats = all.get(0);
+      assertEquals("test_stats", stats.getMethod());
+      assertEquals(2, stats.getCount());
+      assertEquals(1, stats.getErrorCount());
+      assertEquals(1, stats.getCancelCount());
+      assertEquals(1, stats.getRetryCount());
+      assertEquals(5, stats.getRequestBytes());
+      assertEquals(3, stats.getResponseBytes());
+   }
+
+   private void assertPercentile(long expected, long actual)
+   {
+      assertTrue(actual <= expected);
+      assertTrue(actual >= expected * 3 / 4);
+   }
+}
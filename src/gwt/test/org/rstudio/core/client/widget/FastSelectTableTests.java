@@ -0,0 +1,206 @@
+/*
+ * FastSelectTableTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.widget;
+
+import java.util.ArrayList;
+
+import org.rstudio.core.client.widget.FastSelectTable.ItemCodec;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.TableCellElement;
+import com.google.gwt.dom.client.TableElement;
+import com.google.gwt.dom.client.TableRowElement;
+import com.google.gwt.dom.client.TableSectionElement;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.ui.RootPanel;
+import com.google.gwt.user.client.ui.ScrollPanel;
+
+public class FastSelectTableTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      table_ = new FastSelectTable<Integer, String, Integer>(
+            new Codec(), "selected", true, true);
+      scrollPanel_ = new ScrollPanel(table_);
+      scrollPanel_.setSize("400px", "400px");
+      table_.setOwningScrollPanel(scrollPanel_);
+      table_.setVirtualized(true);
+      RootPanel.get().add(scrollPanel_);
+   }
+
+   @Override
+   protected void gwtTearDown()
+   {
+      RootPanel.get().remove(scrollPanel_);
+   }
+
+   public void testSelection()
+   {
+      table_.addItems(items(0, 1000), false);
+      assertEquals(1000, table_.getRowCount());
+      assertTrue(countRenderedRows() < 1000);
+
+      // rows needn't be rendered to be selected or read
+      table_.setSelected(900, 3, true);
+      assertEquals(900, (int) table_.getSelectedRowIndexes().get(0));
+      ArrayList<String> values = table_.getSelectedValues();
+      assertEquals(3, values.size());
+      assertEquals("item900", values.get(0));
+      assertEquals("item902", values.get(2));
+      assertEquals(902, (int) table_.getSelectedValues2().get(2));
+
+      table_.selectNextRow();
+      assertEquals(1, table_.getSelectedRowIndexes().size());
+      assertEquals("item903", table_.getSelectedValues().get(0));
+
+      table_.selectPreviousRow();
+      assertEquals("item902", table_.getSelectedValues().get(0));
+   }
+
+   public void testAddToTopAndTruncate()
+   {
+      table_.addItems(items(100, 200), false);
+      table_.addItems(items(0, 100), true);
+      assertEquals(200, table_.getRowCount());
+
+      table_.setSelected(150, 1, true);
+      table_.removeTopRows(50);
+      assertEquals(150, table_.getRowCount());
+      assertEquals(100, (int) table_.getSelectedRowIndexes().get(0));
+      assertEquals("item150", table_.getSelectedValues().get(0));
+
+      table_.clear();
+      assertEquals(0, table_.getRowCount());
+      assertTrue(table_.getSelectedValues().isEmpty());
+   }
+
+   public void testInsertAndRemoveRows()
+   {
+      table_.addItems(items(0, 10), false);
+      table_.addItems(items(20, 30), false);
+
+      table_.insertItems(10, items(10, 20));
+      assertEquals(30, table_.getRowCount());
+      table_.setSelected(15, 1, true);
+      assertEquals("item15", table_.getSelectedValues().get(0));
+
+      table_.insertItems(30, items(30, 31));
+      table_.setSelected(30, 1, true);
+      assertEquals(30, (int) table_.getSelectedValues2().get(1));
+
+      // the removed rows span both bodies and take their selection with them
+      table_.removeRows(5, 20);
+      assertEquals(11, table_.getRowCount());
+      assertEquals(1, table_.getSelectedValues().size());
+      table_.clearSelection();
+      table_.setSelected(4, 2, true);
+      assertEquals(4, (int) table_.getSelectedValues2().get(0));
+      assertEquals(25, (int) table_.getSelectedValues2().get(1));
+   }
+
+   public void testPopulateAndScroll()
+   {
+      int count = 100000;
+      table_.addItems(items(0, count), false);
+      assertEquals(count, table_.getRowCount());
+
+      int steps = 200;
+      int scrollHeight = scrollPanel_.getMaximumVerticalScrollPosition();
+      for (int i = 0; i <= steps; i++)
+      {
+         scrollPanel_.setVerticalScrollPosition(scrollHeight * i / steps);
+         table_.updateWindow();
+      }
+      assertTrue(countRenderedRows() < 1000);
+
+      table_.setSelected(count - 1, 1, true);
+      assertEquals("item" + (count - 1), table_.getSelectedValues().get(0));
+   }
+
+   private int countRenderedRows()
+   {
+      return table_.getElement().getElementsByTagName("td").getLength();
+   }
+
+   private static ArrayList<Integer> items(int from, int to)
+   {
+      ArrayList<Integer> items = new ArrayList<Integer>();
+      for (int i = from; i < to; i++)
+         items.add(i);
+      return items;
+   }
+
+   private static class Codec implements ItemCodec<Integer, String, Integer>
+   {
+      public TableRowElement getRowForItem(Integer entry)
+      {
+         TableRowElement tr = Document.get().createTRElement();
+         tr.setAttribute("data-item", entry + "");
+         TableCellElement td = Document.get().createTDElement();
+         td.setInnerText("item" + entry);
+         tr.appendChild(td);
+         return tr;
+      }
+
+      public void onRowsChanged(TableSectionElement tbody)
+      {
+      }
+
+      public String getOutputForRow(TableRowElement row)
+      {
+         return row.getCells().getItem(0).getInnerText();
+      }
+
+      public Integer getOutputForRow2(TableRowElement row)
+      {
+         return Integer.parseInt(row.getAttribute("data-item"));
+      }
+
+      public boolean isValueRow(TableRowElement row)
+      {
+         return true;
+      }
+
+      public boolean hasNonValueRows()
+      {
+         return false;
+      }
+
+      public Integer logicalOffsetToPhysicalOffset(TableElement table, int offset)
+      {
+         return offset;
+      }
+
+      public Integer physicalOffsetToLogicalOffset(TableElement table, int offset)
+      {
+         return offset;
+      }
+
+      public int getLogicalRowCount(TableElement table)
+      {
+         return table.getRows().getLength();
+      }
+   }
+
+   private FastSelectTable<Integer, String, Integer> table_;
+   private ScrollPanel scrollPanel_;
+}
@@ -0,0 +1,98 @@
+/*
+ * RowWindowTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.widget;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class RowWindowTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testEmpty()
+   {
+      RowWindow window = new RowWindow(10);
+      window.update(0, 20, 0, 400);
+      assertTrue(window.getLast() < window.getFirst());
+      assertFalse(window.contains(0));
+      assertEquals(0, window.getTopPadding());
+      assertEquals(0, window.getBottomPadding());
+   }
+
+   public void testTop()
+   {
+      RowWindow window = new RowWindow(10);
+      assertTrue(window.update(1000, 20, 0, 400));
+
+      // 21 rows in view (0-20), plus a margin of 10 below
+      assertEquals(0, window.getFirst());
+      assertEquals(30, window.getLast());
+      assertEquals(0, window.getTopPadding());
+      assertEquals((1000 - 31) * 20, window.getBottomPadding());
+   }
+
+   public void testPaddingCoversAllRows()
+   {
+      RowWindow window = new RowWindow(10);
+      window.update(1000, 20, 10000, 400);
+
+      int rendered = window.getLast() - window.getFirst() + 1;
+      assertEquals(1000 * 20,
+                   window.getTopPadding() +
+                   rendered * 20 +
+                   window.getBottomPadding());
+      assertTrue(window.contains(500));
+      assertTrue(window.contains(520));
+   }
+
+   public void testBottom()
+   {
+      RowWindow window = new RowWindow(10);
+      window.update(1000, 20, 1000 * 20 - 400, 400);
+      assertEquals(999, window.getLast());
+      assertEquals(0, window.getBottomPadding());
+   }
+
+   public void testHysteresis()
+   {
+      RowWindow window = new RowWindow(10);
+      assertTrue(window.update(1000, 20, 10000, 400));
+      int first = window.getFirst();
+
+      // scrolling less than half a margin keeps the window
+      assertFalse(window.update(1000, 20, 10000 + 4 * 20, 400));
+      assertFalse(window.update(1000, 20, 10000 - 4 * 20, 400));
+      assertEquals(first, window.getFirst());
+
+      // scrolling further moves it
+      assertTrue(window.update(1000, 20, 10000 + 6 * 20, 400));
+      assertTrue(window.contains(506 + 20 + 5));
+   }
+
+   public void testRowCountChange()
+   {
+      RowWindow window = new RowWindow(10);
+      window.update(1000, 20, 0, 400);
+      assertTrue(window.update(20, 20, 0, 400));
+      assertEquals(19, window.getLast());
+
+      window.reset();
+      assertFalse(window.contains(0));
+      assertTrue(window.update(20, 20, 0, 400));
+   }
+}
@@ -19,14 +19,32 @@ import org.rstudio.core.client.ConsoleOutputWriterTests;
 import org.rstudio.core.client.StringUtilTests;
 import org.rstudio.core.client.URIUtilsTests;
 import org.rstudio.core.client.VirtualConsoleTests;
+import org.rstudio.core.client.command.AppCommandTests;
 import org.rstudio.core.client.dom.DomUtilsTests;
+import org.rstudio.core.client.jsonrpc.RequestLogTests;
+import org.rstudio.core.client.widget.FastSelectTableTests;
+import org.rstudio.core.client.widget.RowWindowTests;
 import org.rstudio.studio.client.application.model.SessionScopeTests;
 import org.rstudio.studio.client.common.r.RTokenizerTests;
+import org.rstudio.studio.client.common.satellite.SatelliteManagerTests;
+import org.rstudio.studio.client.server.remote.ClientEventDispatcherTests;
+import org.rstudio.studio.client.workbench.codesearch.CodeSearchIndexTests;
+import org.rstudio.studio.client.workbench.model.ClientStateTests;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionIndexTests;
+import org.rstudio.studio.client.workbench.views.files.ui.FilesListModelTests;
+import org.rstudio.studio.client.workbench.views.files.ui.FilesListTests;
 import org.rstudio.studio.client.workbench.views.jobs.model.JobManagerTests;
 import org.rstudio.studio.client.workbench.views.jobs.view.JobsListTests;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultListTests;
+import org.rstudio.studio.client.workbench.views.source.SourceTests;
+import org.rstudio.studio.client.workbench.views.source.editors.PlaceholderEditingTargetTests;
+import org.rstudio.studio.client.workbench.views.source.editors.profiler.model.ProfileIndexTests;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ChunkConsoleOutputTests;
 import org.rstudio.studio.client.workbench.views.source.editors.text.assist.RChunkHeaderParserTests;
+import org.rstudio.studio.client.workbench.views.source.model.IncrementalDocDiffTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalLocalEchoTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalSessionSocketTests;
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.LineTableViewTests;
 
 import com.google.gwt.junit.tools.GWTTestSuite;
 
@@ -51,6 +69,24 @@ public class RStudioUnitTestSuite extends GWTTestSuite
       // suite.addTestSuite(RChunkHeaderParserTests.class);
       suite.addTestSuite(SessionScopeTests.class);
       suite.addTestSuite(JobsListTests.class);
+      suite.addTestSuite(ClientEventDispatcherTests.class);
+      suite.addTestSuite(CompletionIndexTests.class);
+      suite.addTestSuite(RequestLogTests.class);
+      suite.addTestSuite(RowWindowTests.class);
+      suite.addTestSuite(FastSelectTableTests.class);
+      suite.addTestSuite(FilesListModelTests.class);
+      suite.addTestSuite(FilesListTests.class);
+      suite.addTestSuite(ProfileIndexTests.class);
+      suite.addTestSuite(ChunkConsoleOutputTests.class);
+      suite.addTestSuite(FindResultListTests.class);
+      suite.addTestSuite(AppCommandTests.class);
+      suite.addTestSuite(IncrementalDocDiffTests.class);
+      suite.addTestSuite(LineTableViewTests.class);
+      suite.addTestSuite(SatelliteManagerTests.class);
+      suite.addTestSuite(CodeSearchIndexTests.class);
+      suite.addTestSuite(SourceTests.class);
+      suite.addTestSuite(PlaceholderEditingTargetTests.class);
+      suite.addTestSuite(ClientStateTests.class);
       
       // Pro-only tests
       
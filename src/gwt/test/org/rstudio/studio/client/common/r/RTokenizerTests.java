@@ -119,6 +119,60 @@ public class RTokenizerTests extends GWTTestCase
       }) ;
    }
    
+   public void testTokenBuffer()
+   {
+      String code = "x <- c(1, 'a', \"b) # done" ;
+      RTokenBuffer buffer = RTokenizer.tokenize(code) ;
+      RTokenizer rt = new RTokenizer(code) ;
+      for (int i = 0; i < buffer.size(); i++)
+      {
+         RToken token = rt.nextToken() ;
+         Assert.assertNotNull(token) ;
+         Assert.assertEquals(token.getTokenType(), buffer.getTokenType(i)) ;
+         Assert.assertEquals(token.getOffset(), buffer.getOffset(i)) ;
+         Assert.assertEquals(token.getLength(), buffer.getLength(i)) ;
+         Assert.assertEquals(token.getContent(), buffer.getContent(i)) ;
+         Assert.assertEquals(token, buffer.get(i)) ;
+      }
+      Assert.assertNull(rt.nextToken()) ;
+
+      // the second string is unterminated and runs to the end of the code
+      RStringToken single = (RStringToken) buffer.get(9) ;
+      Assert.assertEquals("'a'", single.getContent()) ;
+      Assert.assertTrue(single.isWellFormed()) ;
+      RStringToken unterminated = (RStringToken) buffer.get(12) ;
+      Assert.assertEquals("\"b) # done", unterminated.getContent()) ;
+      Assert.assertFalse(unterminated.isWellFormed()) ;
+   }
+   
+   public void testLazyTokenEquality()
+   {
+      RToken lazy = RTokenizer.asTokens("foo(bar)").get(2) ;
+      RToken eager = new RToken(RToken.ID, "bar", 4, 3) ;
+      Assert.assertEquals(eager, lazy) ;
+      Assert.assertEquals(lazy, eager) ;
+      Assert.assertEquals(eager.hashCode(), lazy.hashCode()) ;
+   }
+   
+   public void testLargeInput()
+   {
+      // tokenize a 50k line file; the scanner does constant work per
+      // character, so this should take time proportional to the input
+      StringBuilder sb = new StringBuilder() ;
+      for (int i = 0; i < 50000; i++)
+         sb.append("x").append(i).append(" <- f(\"s\", 1e3) # note\n") ;
+      String code = sb.toString() ;
+
+      RTokenBuffer buffer = RTokenizer.tokenize(code) ;
+
+      // x <- f ( "s" , 1e3 ) # note \n, with whitespace between
+      Assert.assertEquals(50000 * 14, buffer.size()) ;
+      int last = buffer.size() - 1 ;
+      Assert.assertEquals(RToken.WHITESPACE, buffer.getTokenType(last)) ;
+      Assert.assertEquals(code.length(),
+                          buffer.getOffset(last) + buffer.getLength(last)) ;
+   }
+   
    protected void verify(String data,
                          int tokenType,
                          String content)
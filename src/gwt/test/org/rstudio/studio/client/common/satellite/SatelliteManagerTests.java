@@ -0,0 +1,121 @@
+/*
+ * SatelliteManagerTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.satellite;
+
+import java.util.ArrayList;
+
+import org.rstudio.studio.client.server.remote.ClientEvent;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class SatelliteManagerTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      manager_ = new SatelliteManager(null, null, null, null, null);
+   }
+
+   public void testIsSubscribed()
+   {
+      // satellites which don't declare a subscription get every event
+      assertTrue(manager_.isSubscribed("shiny", ClientEvent.ConsoleOutput));
+
+      manager_.setSubscription("shiny", types(ClientEvent.ShinyViewer));
+      assertTrue(manager_.isSubscribed("shiny", ClientEvent.ShinyViewer));
+      assertFalse(manager_.isSubscribed("shiny", ClientEvent.ConsoleOutput));
+
+      // events every window handles are always delivered
+      assertTrue(manager_.isSubscribed("shiny", ClientEvent.UiPrefsChanged));
+      assertTrue(manager_.isSubscribed("shiny", ClientEvent.Quit));
+
+      // other satellites are unaffected
+      assertTrue(manager_.isSubscribed("plumber", ClientEvent.ConsoleOutput));
+
+      manager_.setSubscription("shiny", null);
+      assertTrue(manager_.isSubscribed("shiny", ClientEvent.ConsoleOutput));
+   }
+
+   public void testPendingEventsFiltered()
+   {
+      manager_.setSubscription("shiny", types(ClientEvent.ShinyViewer));
+      manager_.bufferEvents("shiny");
+      manager_.bufferEvents("other");
+
+      manager_.dispatchClientEvent(event(ClientEvent.ConsoleOutput, 0));
+      manager_.dispatchClientEvent(event(ClientEvent.ShinyViewer, 1));
+      manager_.dispatchClientEvent(event(ClientEvent.Quit, 2));
+
+      ArrayList<JavaScriptObject> pending = manager_.getPendingEvents("shiny");
+      assertEquals(2, pending.size());
+      assertEquals(ClientEvent.ShinyViewer, type(pending.get(0)));
+      assertEquals(ClientEvent.Quit, type(pending.get(1)));
+      assertEquals(1, stats("shiny").getFiltered());
+
+      assertEquals(3, manager_.getPendingEvents("other").size());
+   }
+
+   public void testPendingEventsCapped()
+   {
+      manager_.bufferEvents("shiny");
+
+      int count = SatelliteManager.MAX_PENDING_EVENTS + 5;
+      for (int i = 0; i < count; i++)
+         manager_.dispatchClientEvent(event(ClientEvent.ConsoleOutput, i));
+
+      // the oldest events are dropped
+      ArrayList<JavaScriptObject> pending = manager_.getPendingEvents("shiny");
+      assertEquals(SatelliteManager.MAX_PENDING_EVENTS, pending.size());
+      assertEquals(5, index(pending.get(0)));
+      assertEquals(count - 1, index(pending.get(pending.size() - 1)));
+      assertEquals(5, stats("shiny").getDropped());
+   }
+
+   private SatelliteManager.SatelliteEventStats stats(String name)
+   {
+      return manager_.getEventStats(name);
+   }
+
+   private static JsArrayString types(String... types)
+   {
+      JsArrayString array = JavaScriptObject.createArray().cast();
+      for (String type : types)
+         array.push(type);
+      return array;
+   }
+
+   private static String type(JavaScriptObject event)
+   {
+      return event.<ClientEvent>cast().getType();
+   }
+
+   private static native JavaScriptObject event(String type, int index) /*-{
+      return { type: type, data: index };
+   }-*/;
+
+   private static native int index(JavaScriptObject event) /*-{
+      return event.data;
+   }-*/;
+
+   private SatelliteManager manager_;
+}
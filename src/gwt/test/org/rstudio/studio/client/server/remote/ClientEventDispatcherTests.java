@@ -0,0 +1,262 @@
+/*
+ * ClientEventDispatcherTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.server.remote;
+
+import java.util.ArrayList;
+
+import org.rstudio.studio.client.workbench.views.console.model.ConsoleText;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class ClientEventDispatcherTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+   
+   public void testAllEventTypesHaveHandlers()
+   {
+      for (String type : DISPATCHED_TYPES)
+      {
+         assertTrue("No handler registered for " + type,
+               ClientEventDispatcher.hasHandler(type));
+      }
+   }
+   
+   public void testUndispatchedEventTypesHaveNoHandlers()
+   {
+      // these types were never dispatched to the event bus on the client
+      assertFalse(ClientEventDispatcher.hasHandler(ClientEvent.AsyncCompletion));
+      assertFalse(ClientEventDispatcher.hasHandler(ClientEvent.PosixShellOutput));
+      assertFalse(ClientEventDispatcher.hasHandler(ClientEvent.PosixShellExit));
+      assertFalse(ClientEventDispatcher.hasHandler(ClientEvent.UpdateCheck));
+      assertFalse(ClientEventDispatcher.hasHandler(ClientEvent.TerminalBusy));
+      assertFalse(ClientEventDispatcher.hasHandler("no_such_event"));
+   }
+   
+   public void testAdjacentConsoleOutputCoalesced()
+   {
+      // events are only queued here; dispatching them is deferred
+      ClientEventDispatcher dispatcher = new ClientEventDispatcher(null);
+      dispatcher.enqueEvent(output(1, ClientEvent.ConsoleOutput, "a", null));
+      dispatcher.enqueEvent(output(2, ClientEvent.ConsoleOutput, "b", null));
+      dispatcher.enqueEvent(output(3, ClientEvent.ConsoleError, "c", null));
+      dispatcher.enqueEvent(output(4, ClientEvent.ConsoleError, "d", null));
+      dispatcher.enqueEvent(output(5, ClientEvent.ConsoleOutput, "e", null));
+      
+      ArrayList<ClientEvent> pending = dispatcher.getPendingEvents();
+      assertEquals(3, pending.size());
+      assertEquals("ab", text(pending.get(0)));
+      assertEquals(2, pending.get(0).getId());
+      assertEquals(ClientEvent.ConsoleError, pending.get(1).getType());
+      assertEquals("cd", text(pending.get(1)));
+      assertEquals("e", text(pending.get(2)));
+   }
+   
+   public void testOutputForOtherConsolesNotCoalesced()
+   {
+      ClientEventDispatcher dispatcher = new ClientEventDispatcher(null);
+      dispatcher.enqueEvent(output(1, ClientEvent.ConsoleOutput, "a", null));
+      dispatcher.enqueEvent(output(2, ClientEvent.ConsoleOutput, "b", "chunk"));
+      dispatcher.enqueEvent(output(3, ClientEvent.Busy, null, null));
+      dispatcher.enqueEvent(output(4, ClientEvent.ConsoleOutput, "c", "chunk"));
+      
+      ArrayList<ClientEvent> pending = dispatcher.getPendingEvents();
+      assertEquals(4, pending.size());
+      assertEquals("a", text(pending.get(0)));
+      assertEquals("b", text(pending.get(1)));
+      assertEquals("c", text(pending.get(3)));
+   }
+   
+   private static ClientEvent output(int id,
+                                     String type,
+                                     String text,
+                                     String console)
+   {
+      ConsoleText data = new ConsoleText();
+      data.text = text;
+      data.console = console;
+      return ClientEvent.create(id, type, data);
+   }
+   
+   private static String text(ClientEvent event)
+   {
+      return event.<ConsoleText>getData().text;
+   }
+   
+   // every event type handled by the original if/else dispatch chain
+   private static final String[] DISPATCHED_TYPES = new String[] {
+         ClientEvent.Busy,
+         ClientEvent.ConsoleOutput,
+         ClientEvent.ConsoleError,
+         ClientEvent.ConsoleWritePrompt,
+         ClientEvent.ConsoleWriteInput,
+         ClientEvent.ConsolePrompt,
+         ClientEvent.ShowEditor,
+         ClientEvent.FileChanged,
+         ClientEvent.WorkingDirChanged,
+         ClientEvent.ShowHelp,
+         ClientEvent.ShowErrorMessage,
+         ClientEvent.ChooseFile,
+         ClientEvent.BrowseUrl,
+         ClientEvent.PlotsStateChanged,
+         ClientEvent.PackageStateChanged,
+         ClientEvent.PackageStatusChanged,
+         ClientEvent.Locator,
+         ClientEvent.ConsoleResetHistory,
+         ClientEvent.SessionSerialization,
+         ClientEvent.HistoryEntriesAdded,
+         ClientEvent.QuotaStatus,
+         ClientEvent.FileEdit,
+         ClientEvent.ShowContent,
+         ClientEvent.ShowData,
+         ClientEvent.AbendWarning,
+         ClientEvent.ShowWarningBar,
+         ClientEvent.OpenProjectError,
+         ClientEvent.VcsRefresh,
+         ClientEvent.AskPass,
+         ClientEvent.ConsoleProcessOutput,
+         ClientEvent.ConsoleProcessPrompt,
+         ClientEvent.ConsoleProcessCreated,
+         ClientEvent.ConsoleProcessExit,
+         ClientEvent.HTMLPreviewStartedEvent,
+         ClientEvent.HTMLPreviewOutputEvent,
+         ClientEvent.HTMLPreviewCompletedEvent,
+         ClientEvent.CompilePdfStartedEvent,
+         ClientEvent.CompilePdfOutputEvent,
+         ClientEvent.CompilePdfErrorsEvent,
+         ClientEvent.CompilePdfCompletedEvent,
+         ClientEvent.SynctexEditFile,
+         ClientEvent.FindResult,
+         ClientEvent.FindOperationEnded,
+         ClientEvent.RPubsUploadStatus,
+         ClientEvent.BuildStarted,
+         ClientEvent.BuildOutput,
+         ClientEvent.BuildCompleted,
+         ClientEvent.BuildErrors,
+         ClientEvent.DirectoryNavigate,
+         ClientEvent.DeferredInitCompleted,
+         ClientEvent.PlotsZoomSizeChanged,
+         ClientEvent.SourceCppStarted,
+         ClientEvent.SourceCppCompleted,
+         ClientEvent.LoadedPackageUpdates,
+         ClientEvent.ActivatePane,
+         ClientEvent.ShowPresentationPane,
+         ClientEvent.EnvironmentRefresh,
+         ClientEvent.ListChanged,
+         ClientEvent.UiPrefsChanged,
+         ClientEvent.ContextDepthChanged,
+         ClientEvent.HandleUnsavedChanges,
+         ClientEvent.Quit,
+         ClientEvent.Suicide,
+         ClientEvent.SaveActionChanged,
+         ClientEvent.EnvironmentAssigned,
+         ClientEvent.EnvironmentRemoved,
+         ClientEvent.BrowserLineChanged,
+         ClientEvent.PackageLoaded,
+         ClientEvent.PackageUnloaded,
+         ClientEvent.PresentationPaneRequestCompleted,
+         ClientEvent.UnhandledError,
+         ClientEvent.ErrorHandlerChanged,
+         ClientEvent.ViewerNavigate,
+         ClientEvent.SourceExtendedTypeDetected,
+         ClientEvent.ShinyViewer,
+         ClientEvent.DebugSourceCompleted,
+         ClientEvent.RmdRenderStarted,
+         ClientEvent.RmdRenderOutput,
+         ClientEvent.RmdRenderCompleted,
+         ClientEvent.RmdShinyDocStarted,
+         ClientEvent.RSConnectDeploymentOutput,
+         ClientEvent.RSConnectDeploymentCompleted,
+         ClientEvent.RSConnectDeploymentFailed,
+         ClientEvent.UserPrompt,
+         ClientEvent.InstallRtools,
+         ClientEvent.InstallShiny,
+         ClientEvent.SuspendAndRestart,
+         ClientEvent.DataViewChanged,
+         ClientEvent.ViewFunction,
+         ClientEvent.MarkersChanged,
+         ClientEvent.EnableRStudioConnect,
+         ClientEvent.UpdateGutterMarkers,
+         ClientEvent.SnippetsChanged,
+         ClientEvent.JumpToFunction,
+         ClientEvent.CollabEditStarted,
+         ClientEvent.SessionCountChanged,
+         ClientEvent.CollabEditEnded,
+         ClientEvent.ProjectUsersChanged,
+         ClientEvent.RVersionsChanged,
+         ClientEvent.ShinyGadgetDialog,
+         ClientEvent.RmdParamsReady,
+         ClientEvent.RegisterUserCommand,
+         ClientEvent.SendToConsole,
+         ClientEvent.UserFollowStarted,
+         ClientEvent.UserFollowEnded,
+         ClientEvent.ProjectAccessRevoked,
+         ClientEvent.CollabEditSaved,
+         ClientEvent.AddinRegistryUpdated,
+         ClientEvent.ChunkOutput,
+         ClientEvent.ChunkOutputFinished,
+         ClientEvent.RprofStarted,
+         ClientEvent.RprofStopped,
+         ClientEvent.RprofCreated,
+         ClientEvent.EditorCommand,
+         ClientEvent.PreviewRmd,
+         ClientEvent.WebsiteFileSaved,
+         ClientEvent.ChunkPlotRefreshed,
+         ClientEvent.ChunkPlotRefreshFinished,
+         ClientEvent.ReloadWithLastChanceSave,
+         ClientEvent.ConnectionUpdated,
+         ClientEvent.EnableConnections,
+         ClientEvent.ConnectionListChanged,
+         ClientEvent.ActiveConnectionsChanged,
+         ClientEvent.ConnectionOpened,
+         ClientEvent.NotebookRangeExecuted,
+         ClientEvent.ChunkExecStateChanged,
+         ClientEvent.NavigateShinyFrame,
+         ClientEvent.UpdateNewConnectionDialog,
+         ClientEvent.ProjectTemplateRegistryUpdated,
+         ClientEvent.TerminalSubProcs,
+         ClientEvent.PackageExtensionIndexingCompleted,
+         ClientEvent.RStudioAPIShowDialog,
+         ClientEvent.ObjectExplorerEvent,
+         ClientEvent.SendToTerminal,
+         ClientEvent.ClearTerminal,
+         ClientEvent.AddTerminal,
+         ClientEvent.RemoveTerminal,
+         ClientEvent.ActivateTerminal,
+         ClientEvent.TerminalCwd,
+         ClientEvent.AdminNotification,
+         ClientEvent.RequestDocumentSave,
+         ClientEvent.RequestOpenProject,
+         ClientEvent.OpenFileDialog,
+         ClientEvent.ShowPageViewer,
+         ClientEvent.AskSecret,
+         ClientEvent.TestsStarted,
+         ClientEvent.TestsOutput,
+         ClientEvent.TestsCompleted,
+         ClientEvent.JobUpdated,
+         ClientEvent.JobRefresh,
+         ClientEvent.JobOutput,
+         ClientEvent.DataOutputCompleted,
+         ClientEvent.NewDocumentWithCode,
+         ClientEvent.AvailablePackagesReady,
+         ClientEvent.PlumberViewer,
+         ClientEvent.ComputeThemeColors,
+         ClientEvent.RequestDocumentClose,
+         ClientEvent.ExecuteAppCommand
+   };
+}
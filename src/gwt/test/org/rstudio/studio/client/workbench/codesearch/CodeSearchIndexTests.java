@@ -0,0 +1,170 @@
+/*
+ * CodeSearchIndexTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.codesearch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.rstudio.core.client.files.FileSystemItem;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.workbench.codesearch.model.SourceItem;
+import org.rstudio.studio.client.workbench.views.files.model.FileChange;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class CodeSearchIndexTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      index_ = new CodeSearchIndex(new EventBus(null, null));
+   }
+
+   public void testRankingOrder()
+   {
+      List<CodeSearchSuggestion> suggestions = symbols(
+            "read_plot", "xplotx", "plot", "plot_data");
+
+      // an exact match first, then by the position of the matched characters
+      assertEquals("plot,plot_data,xplotx,read_plot",
+                   names(CodeSearchIndex.rank(suggestions, "plot", 10)));
+   }
+
+   public void testTopK()
+   {
+      List<CodeSearchSuggestion> suggestions = symbols(
+            "read_plot", "xplotx", "plot", "plot_data");
+
+      assertEquals("plot,plot_data",
+                   names(CodeSearchIndex.rank(suggestions, "plot", 2)));
+      assertEquals("", names(CodeSearchIndex.rank(suggestions, "plot", 0)));
+   }
+
+   public void testSearchRejectsNonMatches()
+   {
+      index_.update("p", symbols("plot", "pilot", "print", "split", "apply"), false);
+
+      // symbols lacking the term's characters, or having them out of order,
+      // aren't returned
+      assertEquals("pilot,plot,split", sorted(index_.search("plt", 10)));
+
+      // patterns are anchored at the start of the name
+      assertEquals("pilot,plot,print", sorted(index_.search("p*t", 10)));
+   }
+
+   public void testEviction()
+   {
+      index_.update("zzz", symbols(), false);
+      assertTrue(index_.isComplete("zzz"));
+
+      ArrayList<CodeSearchSuggestion> suggestions = new ArrayList<CodeSearchSuggestion>();
+      for (int i = 0; i < CodeSearchIndex.MAX_ENTRIES + 10; i++)
+         suggestions.add(symbol("fn" + i, "/project/R/fns.R", i + 1));
+      index_.update("fn", suggestions, true);
+
+      // the oldest symbols are evicted, and with them the complete terms
+      // which may have counted on them
+      assertEquals(CodeSearchIndex.MAX_ENTRIES, index_.size());
+      assertFalse(index_.isComplete("zzz"));
+      assertEquals("fn10", names(index_.search("fn10", 1)));
+      assertFalse("fn9".equals(names(index_.search("fn9", 1))));
+   }
+
+   public void testCompletenessAfterUpdates()
+   {
+      index_.update("plot", symbols("plot", "plot_data"), false);
+      assertTrue(index_.isComplete("plot"));
+      assertTrue(index_.isComplete("plot_d"));
+      assertFalse(index_.isComplete("pl"));
+      assertEquals("plot_data", names(index_.search("plot_d", 10)));
+
+      // incomplete results don't make a term complete
+      index_.update("read", symbols("read_csv"), true);
+      assertFalse(index_.isComplete("read"));
+
+      // a symbol missing from complete results is stale
+      index_.update("plot", symbols("plot"), false);
+      assertEquals(2, index_.size());
+      assertTrue(index_.isComplete("plot"));
+      assertEquals("plot", names(index_.search("plot", 10)));
+
+      // deleting a file can't add matches, but adding one can
+      index_.onFileChange(FileChange.createDelete(
+            FileSystemItem.createFile("/project/R/plot.R")));
+      assertEquals(1, index_.size());
+      assertTrue(index_.isComplete("plot"));
+
+      index_.onFileChange(FileChange.createAdd(
+            FileSystemItem.createFile("/project/R/new.R")));
+      assertFalse(index_.isComplete("plot"));
+   }
+
+   private static List<CodeSearchSuggestion> symbols(String... names)
+   {
+      ArrayList<CodeSearchSuggestion> suggestions = new ArrayList<CodeSearchSuggestion>();
+      for (String name : names)
+         suggestions.add(symbol(name, "/project/R/" + name + ".R", 1));
+      return suggestions;
+   }
+
+   private static CodeSearchSuggestion symbol(String name, String file, int line)
+   {
+      return new CodeSearchSuggestion(sourceItem(name, file, line), null);
+   }
+
+   private static native SourceItem sourceItem(String name,
+                                               String file,
+                                               int line) /*-{
+      return {
+         type: 1,
+         name: name,
+         parent_name: "",
+         extra_info: "",
+         context: file,
+         line: line,
+         column: 1
+      };
+   }-*/;
+
+   private static String names(List<CodeSearchSuggestion> suggestions)
+   {
+      StringBuilder builder = new StringBuilder();
+      for (CodeSearchSuggestion suggestion : suggestions)
+      {
+         if (builder.length() > 0)
+            builder.append(",");
+         builder.append(suggestion.getMatchedString());
+      }
+      return builder.toString();
+   }
+
+   private static String sorted(List<CodeSearchSuggestion> suggestions)
+   {
+      ArrayList<CodeSearchSuggestion> sorted =
+            new ArrayList<CodeSearchSuggestion>(suggestions);
+      Collections.sort(sorted, (lhs, rhs) ->
+            lhs.getMatchedString().compareTo(rhs.getMatchedString()));
+      return names(sorted);
+   }
+
+   private CodeSearchIndex index_;
+}
@@ -0,0 +1,141 @@
+/*
+ * ClientStateTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.model;
+
+import org.rstudio.core.client.js.JsObject;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class ClientStateTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      sent_ = JsObject.createJsObject();
+   }
+
+   public void testNewValuesKept()
+   {
+      ClientState state = ClientState.create();
+      state.putString("source", "path", "a.R", ClientState.PERSISTENT);
+      state.putInt("source", "tab", 1, ClientState.PERSISTENT);
+
+      JsObject changed = JsObject.createJsObject();
+      state.removeUnchanged(sent_, changed);
+
+      assertFalse(state.isEmpty());
+      assertEquals("\"a.R\"", changed.getString("1/source/path"));
+      assertEquals("1", changed.getString("1/source/tab"));
+      assertTrue(group(state.getPersistentData(), "source").hasKey("path"));
+   }
+
+   public void testUnchangedValuesRemoved()
+   {
+      send("source", "path", "a.R", ClientState.PERSISTENT);
+
+      ClientState state = ClientState.create();
+      state.putString("source", "path", "a.R", ClientState.PERSISTENT);
+      state.putString("source", "folder", "~", ClientState.PERSISTENT);
+
+      JsObject changed = JsObject.createJsObject();
+      state.removeUnchanged(sent_, changed);
+
+      assertFalse(state.isEmpty());
+      assertFalse(changed.hasKey("1/source/path"));
+      assertTrue(changed.hasKey("1/source/folder"));
+
+      JsObject source = group(state.getPersistentData(), "source");
+      assertFalse(source.hasKey("path"));
+      assertTrue(source.hasKey("folder"));
+   }
+
+   public void testAllUnchangedLeavesStateEmpty()
+   {
+      send("source", "path", "a.R", ClientState.PERSISTENT);
+
+      ClientState state = ClientState.create();
+      state.putString("source", "path", "a.R", ClientState.PERSISTENT);
+
+      JsObject changed = JsObject.createJsObject();
+      state.removeUnchanged(sent_, changed);
+
+      assertTrue(state.isEmpty());
+      assertEquals(0, changed.keys().length());
+      assertNull(group(state.getPersistentData(), "source"));
+   }
+
+   public void testEqualObjectsUnchanged()
+   {
+      // contributors commonly build a fresh object each time; it's unchanged
+      // if it serializes the same
+      ClientState first = ClientState.create();
+      first.putObject("env", "view", view(2), ClientState.TEMPORARY);
+      JsObject changed = JsObject.createJsObject();
+      first.removeUnchanged(sent_, changed);
+      sent_.insert(changed);
+
+      ClientState second = ClientState.create();
+      second.putObject("env", "view", view(2), ClientState.TEMPORARY);
+      second.removeUnchanged(sent_, JsObject.createJsObject());
+      assertTrue(second.isEmpty());
+
+      ClientState third = ClientState.create();
+      third.putObject("env", "view", view(3), ClientState.TEMPORARY);
+      third.removeUnchanged(sent_, JsObject.createJsObject());
+      assertFalse(third.isEmpty());
+   }
+
+   public void testScopesComparedSeparately()
+   {
+      send("source", "path", "a.R", ClientState.TEMPORARY);
+
+      ClientState state = ClientState.create();
+      state.putString("source", "path", "a.R", ClientState.PROJECT_PERSISTENT);
+
+      JsObject changed = JsObject.createJsObject();
+      state.removeUnchanged(sent_, changed);
+
+      assertFalse(state.isEmpty());
+      assertTrue(changed.hasKey("2/source/path"));
+   }
+
+   // records a value as sent to the server
+   private void send(String group, String name, String value, int persist)
+   {
+      ClientState state = ClientState.create();
+      state.putString(group, name, value, persist);
+      JsObject changed = JsObject.createJsObject();
+      state.removeUnchanged(sent_, changed);
+      sent_.insert(changed);
+   }
+
+   private static JsObject group(JavaScriptObject scope, String group)
+   {
+      return scope.<JsObject>cast().getObject(group);
+   }
+
+   private static native JavaScriptObject view(int rows) /*-{
+      return { rows: rows, sort: "name" };
+   }-*/;
+
+   private JsObject sent_;
+}
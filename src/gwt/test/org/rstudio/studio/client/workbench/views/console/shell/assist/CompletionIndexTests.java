@@ -0,0 +1,109 @@
+/*
+ * CompletionIndexTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.console.shell.assist;
+
+import java.util.ArrayList;
+
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionRequester.CompletionResult;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionRequester.QualifiedName;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import junit.framework.Assert;
+
+public class CompletionIndexTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private static CompletionIndex createIndex(String token, String... names)
+   {
+      ArrayList<QualifiedName> completions = new ArrayList<QualifiedName>();
+      for (String name : names)
+         completions.add(new QualifiedName(name, "base"));
+      return new CompletionIndex(
+            new CompletionResult(token, completions, "", false, false));
+   }
+
+   private static String names(CompletionResult result)
+   {
+      StringBuilder builder = new StringBuilder();
+      for (QualifiedName qname : result.completions)
+      {
+         if (builder.length() > 0)
+            builder.append(",");
+         builder.append(qname.name);
+      }
+      return builder.toString();
+   }
+
+   public void testNarrowSortsByScore()
+   {
+      CompletionIndex index = createIndex("r",
+            "sum", "rbind", "read.csv", "runif", "rnorm", ".rs.foo");
+
+      CompletionResult result = index.narrow("n");
+      Assert.assertEquals("rn", result.token);
+      Assert.assertEquals("rnorm,runif,rbind", names(result));
+
+      Assert.assertEquals("rnorm", names(index.narrow("no")));
+   }
+
+   public void testBackspaceUsesCache()
+   {
+      CompletionIndex index = createIndex("r", "rnorm", "runif", "rbind");
+
+      CompletionResult first = index.narrow("n");
+      index.narrow("no");
+      index.narrow("nor");
+      Assert.assertSame(first, index.narrow("n"));
+      Assert.assertEquals(3, index.getCachedPrefixCount());
+   }
+
+   public void testNarrowDotPrefix()
+   {
+      CompletionIndex index = createIndex("",
+            "sum", "read.csv", ".rs.foo");
+
+      // hidden names are only offered once a '.' has been typed
+      Assert.assertEquals(-1, names(index.narrow("s")).indexOf(".rs.foo"));
+      Assert.assertEquals(".rs.foo,read.csv", names(index.narrow(".")));
+   }
+
+   public void testPrefixCacheIsBounded()
+   {
+      CompletionIndex index = createIndex("", "alpha", "beta", "gamma");
+      for (int i = 0; i < 40; i++)
+         index.narrow("a" + i);
+
+      Assert.assertEquals(32, index.getCachedPrefixCount());
+      Assert.assertEquals(3, index.narrow("").completions.size());
+   }
+
+   public void testPrefixCacheEvictsWhenNarrowingFromPrefix()
+   {
+      // each of these is narrowed from the cached "a" rather than from the
+      // unfiltered result, which must not stop the LRU from evicting
+      CompletionIndex index = createIndex("", "alpha", "beta", "gamma");
+      index.narrow("a");
+      for (int i = 0; i < 40; i++)
+         index.narrow("a" + i);
+
+      Assert.assertEquals(32, index.getCachedPrefixCount());
+      Assert.assertEquals(3, index.narrow("").completions.size());
+   }
+}
@@ -0,0 +1,140 @@
+/*
+ * FilesListModelTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.files.ui;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+import org.rstudio.core.client.files.FileSystemItem;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class FilesListModelTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      list_ = new ArrayList<FileSystemItem>();
+      model_ = new FilesListModel(list_);
+      parent_ = FileSystemItem.createDir("/home");
+
+      ArrayList<FileSystemItem> files = new ArrayList<FileSystemItem>();
+      files.add(file("c.R", 30));
+      files.add(file("a.R", 10));
+      files.add(file("b.R", 20));
+      model_.setFiles(parent_, files);
+      model_.setComparator(BY_SIZE);
+   }
+
+   public void testSorted()
+   {
+      assertOrder("..", "a.R", "b.R", "c.R");
+      assertEquals(3, model_.size());
+      assertEquals(2, model_.indexOf(file("b.R", 0)));
+   }
+
+   public void testAdd()
+   {
+      assertTrue(model_.put(file("ab.R", 15)));
+      assertTrue(model_.put(file("z.R", 0)));
+      assertOrder("..", "z.R", "a.R", "ab.R", "b.R", "c.R");
+
+      // paths are matched without regard to case, like FileSystemItem.equalTo
+      assertFalse(model_.put(file("Z.R", 5)));
+      assertEquals(5, model_.size());
+   }
+
+   public void testModify()
+   {
+      // the order is unaffected, so the file is replaced in place
+      FileSystemItem b = file("b.R", 25);
+      assertFalse(model_.put(b));
+      assertSame(b, list_.get(2));
+
+      // the order is affected, so the file moves
+      assertFalse(model_.put(file("a.R", 40)));
+      assertOrder("..", "b.R", "c.R", "a.R");
+   }
+
+   public void testRemove()
+   {
+      assertTrue(model_.remove(file("b.R", 0)));
+      assertFalse(model_.remove(file("b.R", 0)));
+      assertOrder("..", "a.R", "c.R");
+
+      // a directory at the same path is a different item
+      assertFalse(model_.remove(FileSystemItem.createDir("/home/user/a.R")));
+      assertEquals(2, model_.size());
+   }
+
+   public void testReplace()
+   {
+      assertTrue(model_.replace(file("a.R", 0), file("d.R", 35)));
+      assertOrder("..", "b.R", "c.R", "d.R");
+      assertEquals(-1, model_.indexOf(file("a.R", 0)));
+   }
+
+   public void testEqualKeys()
+   {
+      model_.put(file("d.R", 20));
+      model_.put(file("e.R", 20));
+
+      // equal items keep their insertion order, and can each be found
+      assertOrder("..", "a.R", "b.R", "d.R", "e.R", "c.R");
+      assertEquals(3, model_.indexOf(file("d.R", 0)));
+      assertTrue(model_.remove(file("b.R", 0)));
+      assertOrder("..", "a.R", "d.R", "e.R", "c.R");
+   }
+
+   private void assertOrder(String... names)
+   {
+      assertEquals(names.length, list_.size());
+      for (int i = 0; i < names.length; i++)
+      {
+         FileSystemItem item = list_.get(i);
+         assertEquals(names[i], item == parent_ ? ".." : item.getName());
+      }
+   }
+
+   private static FileSystemItem file(String name, int length)
+   {
+      return FileSystemItem.create("/home/user/" + name, false, length, 0);
+   }
+
+   // sorts by size, keeping the parent entry on top
+   private final Comparator<FileSystemItem> BY_SIZE =
+         new Comparator<FileSystemItem>()
+   {
+      @Override
+      public int compare(FileSystemItem o1, FileSystemItem o2)
+      {
+         if (o1 == parent_)
+            return o2 == parent_ ? 0 : -1;
+         if (o2 == parent_)
+            return 1;
+         return o1.getLength() - o2.getLength();
+      }
+   };
+
+   private ArrayList<FileSystemItem> list_;
+   private FilesListModel model_;
+   private FileSystemItem parent_;
+}
@@ -0,0 +1,122 @@
+/*
+ * FilesListTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.files.ui;
+
+import org.rstudio.core.client.cellview.ColumnSortInfo;
+import org.rstudio.core.client.files.FileSystemItem;
+import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
+import org.rstudio.studio.client.workbench.views.files.Files;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.NodeList;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.ui.RootPanel;
+
+public class FilesListTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      list_ = new FilesList(new Observer(),
+                            new FileTypeRegistry(null, null, null, null, null));
+      list_.setSize("400px", "400px");
+      list_.setColumnSortOrder(null);
+      RootPanel.get().add(list_);
+   }
+
+   @Override
+   protected void gwtTearDown()
+   {
+      RootPanel.get().remove(list_);
+   }
+
+   public void testRendersRows()
+   {
+      // only the rows near the viewport are drawn, but those must be drawn
+      // for the first listing as well as for those that follow it
+      list_.displayFiles(DIR, files(1000));
+      delayTestFinish(5000);
+      Scheduler.get().scheduleDeferred(() ->
+      {
+         int rendered = countRenderedFiles();
+         assertTrue(rendered > 0);
+         assertTrue(rendered < 1000);
+
+         list_.displayFiles(DIR, files(5));
+         Scheduler.get().scheduleDeferred(() ->
+         {
+            assertEquals(5, countRenderedFiles());
+            finishTest();
+         });
+      });
+   }
+
+   // every file row has a check box (the parent directory's row doesn't)
+   private int countRenderedFiles()
+   {
+      int count = 0;
+      NodeList<Element> inputs = list_.getElement().getElementsByTagName("input");
+      for (int i = 0; i < inputs.getLength(); i++)
+      {
+         if (inputs.getItem(i).getAttribute("type").equals("checkbox"))
+            count++;
+      }
+      return count;
+   }
+
+   private static JsArray<FileSystemItem> files(int count)
+   {
+      JsArray<FileSystemItem> files = JavaScriptObject.createArray().cast();
+      for (int i = 0; i < count; i++)
+      {
+         files.push(FileSystemItem.create(
+               DIR.getPath() + "/file" + i + ".R", false, i, 0));
+      }
+      return files;
+   }
+
+   private static class Observer implements Files.Display.Observer
+   {
+      public void onFileNavigation(FileSystemItem file)
+      {
+      }
+
+      public void onSelectAllValueChanged(boolean value)
+      {
+      }
+
+      public void onFileSelectionChanged()
+      {
+      }
+
+      public void onColumnSortOrderChanaged(JsArray<ColumnSortInfo> sortOrder)
+      {
+      }
+   }
+
+   private static final FileSystemItem DIR =
+         FileSystemItem.createDir("/home/user");
+
+   private FilesList list_;
+}
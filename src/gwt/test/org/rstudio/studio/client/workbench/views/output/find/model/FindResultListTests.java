@@ -0,0 +1,145 @@
+/*
+ * FindResultListTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.output.find.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultList.Group;
+import org.rstudio.studio.client.workbench.views.output.find.model.FindResultList.Row;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class FindResultListTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testGroupsByFile()
+   {
+      FindResultList list = new FindResultList();
+      ArrayList<Row> added = list.add(results("a.R", 1, 2));
+      assertRows(added, "a.R", "a.R:1", "a.R:2");
+
+      // a batch continuing the last file adds no header
+      added = list.add(results("a.R", 3));
+      assertRows(added, "a.R:3");
+
+      added = list.add(results("b.R", 1));
+      assertRows(added, "b.R", "b.R:1");
+
+      assertEquals(2, list.getGroups().size());
+      assertEquals(4, list.getResultCount());
+      assertRows(list.getRows(), "a.R", "a.R:1", "a.R:2", "a.R:3", "b.R", "b.R:1");
+   }
+
+   public void testCollapse()
+   {
+      FindResultList list = new FindResultList();
+      list.add(results("a.R", 1, 2));
+      list.add(results("b.R", 1));
+
+      Group a = list.getGroups().get(0);
+      list.setCollapsed(a, true);
+      assertRows(list.getRows(), "a.R", "b.R", "b.R:1");
+      assertEquals(1, list.indexOfHeader(list.getGroups().get(1)));
+
+      list.setCollapsed(a, false);
+      assertRows(list.getRows(), "a.R", "a.R:1", "a.R:2", "b.R", "b.R:1");
+   }
+
+   public void testCollapsedGroupKeepsStreaming()
+   {
+      FindResultList list = new FindResultList();
+      list.add(results("a.R", 1));
+
+      Group a = list.getGroups().get(0);
+      list.setCollapsed(a, true);
+      assertRows(list.add(results("a.R", 2, 3)));
+      assertEquals(3, a.getResultCount());
+      assertRows(list.getRows(), "a.R");
+
+      list.setCollapsed(a, false);
+      assertRows(list.getRows(), "a.R", "a.R:1", "a.R:2", "a.R:3");
+   }
+
+   public void testBudget()
+   {
+      // each result here takes a little over 64 bytes
+      FindResultList list = new FindResultList(200, 100);
+      list.add(results("a.R", 1, 2, 3, 4));
+
+      assertTrue(list.isOverflow());
+      assertEquals(2, list.getResultCount());
+      assertRows(list.getRows(), "a.R", "a.R:1", "a.R:2");
+
+      list.clear();
+      assertFalse(list.isOverflow());
+      assertEquals(0, list.getRows().size());
+   }
+
+   public void testNothingAddedAfterOverflow()
+   {
+      // a later, smaller result would fit the budget, but adding it would
+      // leave a gap where the dropped results were
+      FindResultList list = new FindResultList(210, 100);
+      ArrayList<FindResult> large = new ArrayList<FindResult>(results("a.R", 1, 2));
+      large.add(FindResult.create("a.R", 3, "xxxxxxxxxx"));
+      list.add(large);
+      assertTrue(list.isOverflow());
+
+      ArrayList<FindResult> small = new ArrayList<FindResult>();
+      small.add(FindResult.create("b.R", 1, ""));
+      assertRows(list.add(small));
+      assertEquals(2, list.getResultCount());
+      assertRows(list.getRows(), "a.R", "a.R:1", "a.R:2");
+   }
+
+   public void testResultLimit()
+   {
+      // the result past the limit only signals there are more
+      FindResultList list = new FindResultList(1024 * 1024, 3);
+      list.add(results("a.R", 1, 2));
+      list.add(results("b.R", 1, 2));
+
+      assertTrue(list.isOverflow());
+      assertEquals(3, list.getResultCount());
+      assertRows(list.getRows(), "a.R", "a.R:1", "a.R:2", "b.R", "b.R:1");
+   }
+
+   private static List<FindResult> results(String file, int... lines)
+   {
+      ArrayList<FindResult> results = new ArrayList<FindResult>();
+      for (int line : lines)
+         results.add(FindResult.create(file, line, "x"));
+      return results;
+   }
+
+   private static void assertRows(List<Row> rows, String... expected)
+   {
+      assertEquals(expected.length, rows.size());
+      for (int i = 0; i < expected.length; i++)
+      {
+         Row row = rows.get(i);
+         String actual = row.isHeader() ?
+               row.getGroup().getFile() :
+               row.getResult().getFile() + ":" + row.getResult().getLine();
+         assertEquals(expected[i], actual);
+      }
+   }
+}
@@ -0,0 +1,165 @@
+/*
+ * SourceTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source;
+
+import java.util.ArrayList;
+
+import org.rstudio.core.client.CommandWithArg;
+import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
+import org.rstudio.studio.client.workbench.views.source.editors.EditingTarget;
+import org.rstudio.studio.client.workbench.views.source.editors.PlaceholderEditingTarget;
+import org.rstudio.studio.client.workbench.views.source.events.CollabEditStartParams;
+import org.rstudio.studio.client.workbench.views.source.model.SourceDocument;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsonUtils;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.TabLayoutPanel;
+
+public class SourceTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testCanDeferSavedTextDocument()
+   {
+      SourceDocument doc = document("{\"id\":\"1\",\"path\":\"/a.R\",\"dirty\":false}");
+      assertTrue(Source.canDeferEditor(doc, FileTypeRegistry.R));
+   }
+
+   public void testCannotDeferNonTextDocument()
+   {
+      SourceDocument doc = document("{\"id\":\"1\",\"path\":\"/a.RData\",\"dirty\":false}");
+      assertFalse(Source.canDeferEditor(doc, FileTypeRegistry.RDATA));
+   }
+
+   public void testCannotDeferDirtyDocument()
+   {
+      SourceDocument doc = document("{\"id\":\"1\",\"path\":\"/a.R\",\"dirty\":true}");
+      assertFalse(Source.canDeferEditor(doc, FileTypeRegistry.R));
+   }
+
+   public void testCannotDeferCollabDocument()
+   {
+      SourceDocument doc = document("{\"id\":\"1\",\"path\":\"/a.R\",\"dirty\":false}");
+      CollabEditStartParams params = JavaScriptObject.createObject().cast();
+      doc.setCollabParams(params);
+      assertFalse(Source.canDeferEditor(doc, FileTypeRegistry.R));
+   }
+
+   public void testCanDeferUntitledDocumentOnlyWhenNamed()
+   {
+      SourceDocument unnamed = document("{\"id\":\"1\",\"path\":null,\"dirty\":false}");
+      assertFalse(Source.canDeferEditor(unnamed, FileTypeRegistry.R));
+
+      SourceDocument named = document(
+            "{\"id\":\"2\",\"path\":null,\"dirty\":false," +
+            "\"properties\":{\"tempName\":\"Untitled1\"}}");
+      assertTrue(Source.canDeferEditor(named, FileTypeRegistry.R));
+   }
+
+   public void testRestoredTabIndex()
+   {
+      assertEquals(0, Source.getRestoredTabIndex(0, 3));
+      assertEquals(1, Source.getRestoredTabIndex(1, 3));
+   }
+
+   public void testRestoredTabIndexFallsBackToLastTab()
+   {
+      assertEquals(2, Source.getRestoredTabIndex(null, 3));
+      assertEquals(2, Source.getRestoredTabIndex(3, 3));
+      assertEquals(2, Source.getRestoredTabIndex(-1, 3));
+      assertEquals(-1, Source.getRestoredTabIndex(null, 0));
+   }
+
+   public void testEnsureEditorReplacesPlaceholder()
+   {
+      final int[] builds = new int[1];
+      final EditingTarget editor = placeholder("2", "/b.R", null);
+      PlaceholderEditingTarget placeholder = placeholder("1", "/a.R", target ->
+      {
+         builds[0]++;
+         target.attach(editor, new Label());
+      });
+
+      ArrayList<EditingTarget> editors = new ArrayList<EditingTarget>();
+      editors.add(placeholder);
+
+      assertSame(editor, Source.ensureEditor(editors, 0));
+      assertSame(editor, editors.get(0));
+      assertSame(editor, placeholder.getTarget());
+      assertEquals(1, builds[0]);
+   }
+
+   public void testEnsureEditorBuildsOnce()
+   {
+      final int[] builds = new int[1];
+      final EditingTarget editor = placeholder("2", "/b.R", null);
+      PlaceholderEditingTarget placeholder = placeholder("1", "/a.R", target ->
+      {
+         builds[0]++;
+         target.attach(editor, new Label());
+      });
+
+      // a placeholder already built through some other path is replaced
+      // without being built again
+      placeholder.build();
+      ArrayList<EditingTarget> editors = new ArrayList<EditingTarget>();
+      editors.add(placeholder);
+
+      assertSame(editor, Source.ensureEditor(editors, 0));
+      assertSame(editor, editors.get(0));
+      assertEquals(1, builds[0]);
+   }
+
+   public void testTabIndexOfBuiltEditor()
+   {
+      TabLayoutPanel tabs = new TabLayoutPanel(20, Unit.PX);
+      tabs.add(new Label(), "first");
+
+      PlaceholderEditingTarget placeholder = placeholder("1", "/a.R", null);
+      tabs.add(placeholder.asWidget(), "second");
+
+      // the built editor's widget is shown within the placeholder's
+      Label widget = new Label();
+      placeholder.attach(placeholder("2", "/a.R", null), widget);
+
+      assertEquals(1, SourcePane.getTabIndex(tabs, widget));
+      assertEquals(1, SourcePane.getTabIndex(tabs, placeholder.asWidget()));
+      assertEquals(-1, SourcePane.getTabIndex(tabs, new Label()));
+   }
+
+   private static SourceDocument document(String json)
+   {
+      return JsonUtils.safeEval(json);
+   }
+
+   // any editing target will do as a built editor; a placeholder is the
+   // simplest to create
+   private static PlaceholderEditingTarget placeholder(
+                           String id,
+                           String path,
+                           CommandWithArg<PlaceholderEditingTarget> builder)
+   {
+      SourceDocument doc = document(
+            "{\"id\":\"" + id + "\",\"path\":\"" + path + "\",\"dirty\":false}");
+      return new PlaceholderEditingTarget(doc, FileTypeRegistry.R, builder);
+   }
+}
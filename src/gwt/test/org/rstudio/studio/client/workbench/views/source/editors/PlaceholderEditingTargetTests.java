@@ -0,0 +1,138 @@
+/*
+ * PlaceholderEditingTargetTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors;
+
+import org.rstudio.core.client.CommandWithArg;
+import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
+import org.rstudio.studio.client.workbench.views.source.model.SourceDocument;
+
+import com.google.gwt.core.client.JsonUtils;
+import com.google.gwt.event.logical.shared.CloseHandler;
+import com.google.gwt.event.logical.shared.ValueChangeEvent;
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.user.client.ui.Label;
+
+public class PlaceholderEditingTargetTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testHandlersAddedToBuiltEditor()
+   {
+      PlaceholderEditingTarget placeholder = placeholder(null);
+      placeholder.addCloseHandler(event -> {});
+      placeholder.addCloseHandler(event -> {});
+
+      Editor editor = new Editor();
+      placeholder.attach(editor, new Label());
+      assertEquals(2, editor.closeHandlers_);
+
+      // handlers added once the editor is built go straight to it
+      placeholder.addCloseHandler(event -> {});
+      assertEquals(3, editor.closeHandlers_);
+   }
+
+   public void testRemovedHandlerNotAdded()
+   {
+      PlaceholderEditingTarget placeholder = placeholder(null);
+      HandlerRegistration registration =
+            placeholder.addCloseHandler(event -> {});
+      registration.removeHandler();
+
+      Editor editor = new Editor();
+      placeholder.attach(editor, new Label());
+      assertEquals(0, editor.closeHandlers_);
+   }
+
+   public void testHandlerRemovedFromBuiltEditor()
+   {
+      PlaceholderEditingTarget placeholder = placeholder(null);
+      HandlerRegistration registration =
+            placeholder.addCloseHandler(event -> {});
+
+      Editor editor = new Editor();
+      placeholder.attach(editor, new Label());
+      registration.removeHandler();
+      assertEquals(0, editor.closeHandlers_);
+   }
+
+   public void testFireEventBuildsEditor()
+   {
+      final Editor editor = new Editor();
+      PlaceholderEditingTarget placeholder =
+            placeholder(target -> target.attach(editor, new Label()));
+
+      GwtEvent<?> event = new ValueChangeEvent<String>("value") {};
+      placeholder.fireEvent(event);
+
+      assertSame(editor, placeholder.getTarget());
+      assertSame(event, editor.fired_);
+   }
+
+   public void testInitializeFails()
+   {
+      try
+      {
+         placeholder(null).initialize(null, null, null, null);
+         fail("Expected IllegalStateException");
+      }
+      catch (IllegalStateException e)
+      {
+      }
+   }
+
+   private static PlaceholderEditingTarget placeholder(
+                           CommandWithArg<PlaceholderEditingTarget> builder)
+   {
+      SourceDocument doc = JsonUtils.safeEval(
+            "{\"id\":\"1\",\"path\":\"/a.R\",\"dirty\":false}");
+      return new PlaceholderEditingTarget(doc, FileTypeRegistry.R, builder);
+   }
+
+   // records the handlers added to it and the events fired at it; any
+   // editing target will do as a built editor, and a placeholder is the
+   // simplest to create
+   private static class Editor extends PlaceholderEditingTarget
+   {
+      public Editor()
+      {
+         super(JsonUtils.safeEval(
+                  "{\"id\":\"2\",\"path\":\"/a.R\",\"dirty\":false}"),
+               FileTypeRegistry.R,
+               null);
+      }
+
+      @Override
+      public HandlerRegistration addCloseHandler(CloseHandler<Void> handler)
+      {
+         closeHandlers_++;
+         return () -> closeHandlers_--;
+      }
+
+      @Override
+      public void fireEvent(GwtEvent<?> event)
+      {
+         fired_ = event;
+      }
+
+      private int closeHandlers_;
+      private GwtEvent<?> fired_;
+   }
+}
@@ -0,0 +1,128 @@
+/*
+ * ProfileIndexTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.profiler.model;
+
+import java.util.ArrayList;
+
+import com.google.gwt.core.client.JsonUtils;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class ProfileIndexTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      // four samples: f > g, f > g, f > h, k
+      ProfileSamples samples = JsonUtils.safeEval(
+            "{\"interval\": 10," +
+            " \"labels\": [\"f\", \"g\", \"h\", \"k\"]," +
+            " \"files\": [\"a.R\"]," +
+            " \"time\":  [1, 1, 2, 2, 3, 3, 4]," +
+            " \"depth\": [1, 2, 1, 2, 1, 2, 1]," +
+            " \"label\": [0, 1, 0, 1, 0, 2, 3]," +
+            " \"file\":  [0, 0, 0, 0, 0, -1, -1]," +
+            " \"line\":  [3, 7, 3, 7, 3, -1, -1]}");
+      index_ = new ProfileIndex(samples);
+   }
+
+   public void testTree()
+   {
+      assertEquals(4, index_.getSampleCount());
+      assertEquals(5, index_.getNodeCount());
+      assertEquals(2, index_.getMaxDepth());
+
+      int f = find("f");
+      int g = find("g");
+      int h = find("h");
+      int k = find("k");
+
+      assertEquals(ProfileIndex.ROOT, index_.getParent(f));
+      assertEquals(f, index_.getParent(g));
+      assertEquals(f, index_.getParent(h));
+
+      assertEquals(3, index_.getTotal(f));
+      assertEquals(0, index_.getSelf(f));
+      assertEquals(2, index_.getSelf(g));
+      assertEquals(1, index_.getTotal(k));
+
+      assertEquals("a.R", index_.getFile(g));
+      assertEquals(7, index_.getLine(g));
+      assertNull(index_.getFile(h));
+      assertEquals(-1, index_.getLine(h));
+   }
+
+   public void testLayout()
+   {
+      assertEquals(0, index_.getOffset(find("f")));
+      assertEquals(0, index_.getOffset(find("g")));
+      assertEquals(2, index_.getOffset(find("h")));
+      assertEquals(3, index_.getOffset(find("k")));
+   }
+
+   public void testVisitSkipsNarrowNodes()
+   {
+      assertEquals("f g", visit(0, 4, 2));
+      assertEquals("f h k", visit(2, 4, 1));
+   }
+
+   public void testSearch()
+   {
+      assertEquals(1, index_.search("H"));
+      assertTrue(index_.isMatched(find("h")));
+      assertFalse(index_.isMatched(find("g")));
+
+      // samples are counted once, however many matches are on their stack
+      assertEquals(3, index_.search("f"));
+      assertEquals(0, index_.search(""));
+   }
+
+   public void testFilter()
+   {
+      index_.search("h");
+      index_.setFiltered(true);
+      assertEquals("f h", visit(0, 4, 1));
+
+      index_.setFiltered(false);
+      assertEquals("f g h k", visit(0, 4, 1));
+   }
+
+   private int find(String label)
+   {
+      for (int node = 1; node < index_.getNodeCount(); node++)
+         if (index_.getLabel(node).equals(label))
+            return node;
+      fail("no node labeled " + label);
+      return -1;
+   }
+
+   private String visit(int from, int to, int minSamples)
+   {
+      final ArrayList<String> labels = new ArrayList<String>();
+      index_.visit(ProfileIndex.ROOT, from, to, minSamples, node ->
+      {
+         if (node != ProfileIndex.ROOT)
+            labels.add(index_.getLabel(node));
+      });
+      return String.join(" ", labels);
+   }
+
+   private ProfileIndex index_;
+}
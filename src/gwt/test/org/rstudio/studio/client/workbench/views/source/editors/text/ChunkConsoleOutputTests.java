@@ -0,0 +1,142 @@
+/*
+ * ChunkConsoleOutputTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text;
+
+import org.rstudio.core.client.VirtualConsole;
+import org.rstudio.core.client.VirtualConsoleFactory;
+
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class ChunkConsoleOutputTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   private static class FakePrefs implements VirtualConsole.Preferences
+   {
+      @Override
+      public int truncateLongLinesInConsoleHistory()
+      {
+         return 1000;
+      }
+
+      @Override
+      public int consoleAnsiMode()
+      {
+         return VirtualConsole.ANSI_COLOR_ON;
+      }
+   }
+
+   private static class VCFactory implements VirtualConsoleFactory
+   {
+      @Override
+      public VirtualConsole create(Element elem)
+      {
+         return new VirtualConsole(elem, new FakePrefs());
+      }
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      heightChanges_ = 0;
+      output_ = new ChunkConsoleOutput(new VCFactory(), () -> heightChanges_++);
+   }
+
+   public void testShortOutputKept()
+   {
+      assertFalse(output_.hasOutput());
+      output_.submit(lines(0, 10), null);
+      assertTrue(output_.hasOutput());
+      assertEquals(0, output_.getOmittedLineCount());
+      assertEquals(lines(0, 10), output_.getText());
+   }
+
+   public void testLongOutputKeepsHeadAndTail()
+   {
+      output_.submit(lines(0, 5000), null);
+
+      // 1000 lines of head and (at least) 1000 of tail stay in the DOM
+      int omitted = output_.getOmittedLineCount();
+      assertTrue(omitted > 0);
+      assertTrue(omitted <= 3000);
+
+      String text = output_.getText();
+      assertTrue(text.startsWith(lines(0, 1000)));
+      assertTrue(text.endsWith(lines(4000, 5000)));
+      assertEquals(5000 - omitted, count(text));
+   }
+
+   public void testOutputSplitAcrossSubmits()
+   {
+      for (int i = 0; i < 5000; i++)
+         output_.submit(i + "\n", null);
+
+      String text = output_.getText();
+      assertTrue(text.startsWith(lines(0, 1000)));
+      assertTrue(text.endsWith(lines(4000, 5000)));
+      assertEquals(5000 - output_.getOmittedLineCount(), count(text));
+   }
+
+   public void testShowOmitted()
+   {
+      output_.submit(lines(0, 5000), null);
+      int omitted = output_.getOmittedLineCount();
+
+      output_.showOmitted();
+      assertEquals(1, heightChanges_);
+      assertEquals(omitted - 1000, output_.getOmittedLineCount());
+
+      // revealed lines follow on from the head
+      assertTrue(output_.getText().startsWith(lines(0, 2000)));
+
+      while (output_.getOmittedLineCount() > 0)
+         output_.showOmitted();
+      assertEquals(lines(0, 5000), output_.getText());
+   }
+
+   public void testClear()
+   {
+      output_.submit(lines(0, 5000), null);
+      output_.clear();
+      assertFalse(output_.hasOutput());
+      assertEquals(0, output_.getOmittedLineCount());
+      assertEquals("", output_.getText());
+   }
+
+   private static String lines(int from, int to)
+   {
+      StringBuilder builder = new StringBuilder();
+      for (int i = from; i < to; i++)
+         builder.append(i).append("\n");
+      return builder.toString();
+   }
+
+   private static int count(String text)
+   {
+      int count = 0;
+      for (int i = 0; i < text.length(); i++)
+         if (text.charAt(i) == '\n')
+            count++;
+      return count;
+   }
+
+   private ChunkConsoleOutput output_;
+   private int heightChanges_;
+}
@@ -0,0 +1,229 @@
+/*
+ * IncrementalDocDiffTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import org.rstudio.core.client.patch.SubstringDiff;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class IncrementalDocDiffTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testInsert()
+   {
+      String base = start("hello world\n");
+      change(editor_.insert(5, ","));
+      change(editor_.insert(12, "!"));
+      assertPatches(base);
+   }
+
+   public void testRemove()
+   {
+      String base = start("hello, big world\n");
+      change(editor_.remove(5, 5));
+      assertPatches(base);
+   }
+
+   public void testMultiLine()
+   {
+      String base = start("one\ntwo\nthree\nfour\n");
+      change(editor_.insert(4, "a\nb\n"));
+      change(editor_.remove(10, 7));
+      change(editor_.insert(2, "\n\n"));
+      assertPatches(base);
+   }
+
+   public void testEditAtStart()
+   {
+      String base = start("x <- 1\ny <- 2\n");
+      change(editor_.insert(0, "# header\n"));
+      SubstringDiff diff = assertPatches(base);
+      assertEquals(0, diff.getOffset());
+      assertEquals(0, diff.getLength());
+   }
+
+   public void testEditAtEnd()
+   {
+      String base = start("x <- 1\ny <- 2");
+      change(editor_.insert(base.length(), "\nz <- 3"));
+      change(editor_.remove(base.length() - 1, 1));
+      SubstringDiff diff = assertPatches(base);
+      assertEquals(base.length() - 1, diff.getOffset());
+   }
+
+   public void testNoChanges()
+   {
+      String base = start("unchanged\n");
+      assertTrue(assertPatches(base).isEmpty());
+   }
+
+   public void testMissedDeltaFallsBack()
+   {
+      // a change the tracker never hears about leaves the document a
+      // different length than the deltas predict
+      String base = start("hello world\n");
+      change(editor_.insert(5, ","));
+      editor_.insert(0, "oops ");
+      assertNull(diff_.getDiff(base));
+   }
+
+   public void testDroppedChangeFallsBack()
+   {
+      // the editor reports a change it didn't deliver, even though the
+      // lengths happen to agree
+      String base = start("hello world\n");
+      editor_.dropped_++;
+      change(editor_.insert(5, ","));
+      assertNull(diff_.getDiff(base));
+
+      // the tracker stays invalid until reset
+      change(editor_.insert(0, "a"));
+      assertNull(diff_.getDiff(base));
+   }
+
+   public void testOtherContentsFallBack()
+   {
+      String base = start("hello world\n");
+      change(editor_.insert(5, ","));
+      assertNull(diff_.getDiff("goodbye world\n"));
+
+      diff_.invalidate();
+      assertNull(diff_.getDiff(base));
+   }
+
+   private String start(String text)
+   {
+      editor_ = new FakeEditor(text);
+      diff_ = new IncrementalDocDiff(editor_);
+      diff_.reset(text);
+      return text;
+   }
+
+   private void change(AceDocumentChangeEventNative event)
+   {
+      diff_.onDocumentChanged(event);
+   }
+
+   private SubstringDiff assertPatches(String base)
+   {
+      SubstringDiff diff = diff_.getDiff(base);
+      assertNotNull(diff);
+      assertEquals(editor_.text_, diff.patch(base));
+      return diff;
+   }
+
+   // an editor over a plain string, which produces deltas the way ACE does
+   private static class FakeEditor implements IncrementalDocDiff.Editor
+   {
+      public FakeEditor(String text)
+      {
+         text_ = text;
+      }
+
+      public AceDocumentChangeEventNative insert(int index, String text)
+      {
+         Position start = indexToPosition(index);
+         text_ = text_.substring(0, index) + text + text_.substring(index);
+         return delta("insert", start, indexToPosition(index + text.length()), text);
+      }
+
+      public AceDocumentChangeEventNative remove(int index, int length)
+      {
+         Position start = indexToPosition(index);
+         Position end = indexToPosition(index + length);
+         String text = text_.substring(index, index + length);
+         text_ = text_.substring(0, index) + text_.substring(index + length);
+         return delta("remove", start, end, text);
+      }
+
+      public int getRowCount()
+      {
+         return lines().length;
+      }
+
+      public int getLength(int row)
+      {
+         return lines()[row].length();
+      }
+
+      public Position getDocumentEnd()
+      {
+         int row = getRowCount() - 1;
+         return Position.create(row, getLength(row));
+      }
+
+      public int positionToIndex(Position position)
+      {
+         int index = 0;
+         for (int row = 0; row < position.getRow(); row++)
+            index += getLength(row) + 1;
+         return index + position.getColumn();
+      }
+
+      public String getCode(Position start, Position end)
+      {
+         return text_.substring(positionToIndex(start), positionToIndex(end));
+      }
+
+      public int getDroppedChangeCount()
+      {
+         return dropped_;
+      }
+
+      private Position indexToPosition(int index)
+      {
+         String before = text_.substring(0, index);
+         int row = before.split("\n", -1).length - 1;
+         return Position.create(row, index - before.lastIndexOf('\n') - 1);
+      }
+
+      private String[] lines()
+      {
+         return text_.split("\n", -1);
+      }
+
+      private static AceDocumentChangeEventNative delta(String action,
+                                                        Position start,
+                                                        Position end,
+                                                        String text)
+      {
+         JsArrayString lines = JavaScriptObject.createArray().cast();
+         for (String line : text.split("\n", -1))
+            lines.push(line);
+
+         AceDocumentChangeEventNative event = new AceDocumentChangeEventNative();
+         event.action = action;
+         event.start = start;
+         event.end = end;
+         event.lines = lines;
+         return event;
+      }
+
+      private String text_;
+      private int dropped_ = 0;
+   }
+
+   private FakeEditor editor_;
+   private IncrementalDocDiff diff_;
+}
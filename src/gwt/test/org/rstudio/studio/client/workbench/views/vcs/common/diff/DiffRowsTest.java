@@ -0,0 +1,105 @@
+/*
+ * DiffRowsTest.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.common.diff;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+
+public class DiffRowsTest extends TestCase
+{
+   // builds a diff of a single new file with the given number of lines,
+   // split into chunks of chunkSize lines
+   private String createDiff(int lineCount, int chunkSize)
+   {
+      StringBuilder sb = new StringBuilder();
+      sb.append("diff --git a/data.csv b/data.csv\n");
+      sb.append("--- a/data.csv\n");
+      sb.append("+++ b/data.csv\n");
+      for (int start = 0; start < lineCount; start += chunkSize)
+      {
+         int count = Math.min(chunkSize, lineCount - start);
+         sb.append("@@ -" + start + ",0 +" + (start + 1) + "," + count + " @@\n");
+         for (int i = 0; i < count; i++)
+            sb.append("+").append(start + i).append(",value\n");
+      }
+      return sb.toString();
+   }
+
+   private ArrayList<ChunkOrLine> parse(String diff)
+   {
+      UnifiedParser parser = new UnifiedParser(diff);
+      parser.nextFilePair();
+
+      ArrayList<ChunkOrLine> lines = new ArrayList<ChunkOrLine>();
+      for (DiffChunk chunk; null != (chunk = parser.nextChunk());)
+         lines.addAll(ChunkOrLine.fromChunk(chunk));
+      return lines;
+   }
+
+   public void testSmallChunksNotCollapsed()
+   {
+      ArrayList<ChunkOrLine> lines = parse(createDiff(50, 10));
+      DiffRows rows = new DiffRows(lines, 20, 5);
+      assertEquals(55, lines.size());
+      assertEquals(lines, rows.getRows());
+   }
+
+   public void testLargeChunkCollapsed()
+   {
+      ArrayList<ChunkOrLine> lines = parse(createDiff(40, 30));
+      DiffRows rows = new DiffRows(lines, 20, 5);
+
+      // header + 5 lines + placeholder, then header + 10 lines
+      ArrayList<ChunkOrLine> displayed = rows.getRows();
+      assertEquals(18, displayed.size());
+
+      ChunkOrLine placeholder = displayed.get(6);
+      assertTrue(rows.isPlaceholder(placeholder));
+      assertEquals(Line.Type.Info, placeholder.getLine().getType());
+      assertEquals("... 25 more lines (click to show)",
+                   placeholder.getLine().getText());
+      assertSame(lines.get(31), displayed.get(7));
+
+      assertTrue(rows.expand(placeholder));
+      assertEquals(lines, rows.getRows());
+      assertFalse(rows.isPlaceholder(placeholder));
+      assertFalse(rows.expand(placeholder));
+   }
+
+   public void testRefreshKeepsExpandedChunks()
+   {
+      String diff = createDiff(40, 30);
+      DiffRows rows = new DiffRows(parse(diff), 20, 5);
+      assertTrue(rows.expand(rows.getRows().get(6)));
+
+      ArrayList<ChunkOrLine> lines = parse(diff);
+      DiffRows refreshed = new DiffRows(lines, rows);
+      assertEquals(lines, refreshed.getRows());
+   }
+
+   public void testLargeDiff()
+   {
+      // a single 100k line chunk, as produced by e.g. a generated data file
+      ArrayList<ChunkOrLine> lines = parse(createDiff(100000, 100000));
+      assertEquals(100001, lines.size());
+
+      DiffRows rows = new DiffRows(lines);
+      assertEquals(DiffRows.COLLAPSED_LINES + 2, rows.getRows().size());
+
+      rows.expand(rows.getRows().get(DiffRows.COLLAPSED_LINES + 1));
+      assertEquals(100001, rows.getRows().size());
+   }
+}
@@ -0,0 +1,106 @@
+/*
+ * LineTableViewTests.java
+ *
+ * Copyright (C) 2009-19 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.common.diff;
+
+import java.util.ArrayList;
+
+import org.rstudio.studio.client.common.vcs.GitServerOperations.PatchMode;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class LineTableViewTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testRendersFirstIncrement()
+   {
+      LineTableView view = new LineTableView(2);
+
+      // small chunks, so that none are collapsed
+      ArrayList<ChunkOrLine> lines = parse(createDiff(3000, 10));
+      view.setData(lines, PatchMode.Working);
+      assertEquals(lines.size(), view.getRowCount());
+      assertEquals(LineTableView.RENDER_INCREMENT, view.getVisibleItemCount());
+      assertSame(lines.get(0), view.getVisibleItem(0));
+
+      // a diff smaller than the increment is rendered in full
+      lines = parse(createDiff(50, 10));
+      view.setData(lines, PatchMode.Working);
+      assertEquals(lines.size(), view.getRowCount());
+      assertEquals(lines.size(), view.getVisibleItemCount());
+   }
+
+   public void testRefreshKeepsExpandedChunks()
+   {
+      LineTableView view = new LineTableView(2);
+
+      // a single chunk large enough to be collapsed
+      String diff = createDiff(3000, 3000);
+      view.setData(parse(diff), PatchMode.Working);
+      int collapsedRows = 2 + DiffRows.COLLAPSED_LINES;
+      assertEquals(collapsedRows, view.getRowCount());
+
+      ChunkOrLine placeholder = view.getVisibleItem(collapsedRows - 1);
+      view.expandRows(placeholder);
+      assertEquals(3001, view.getRowCount());
+      int rendered = view.getVisibleItemCount();
+      assertTrue(rendered > LineTableView.RENDER_INCREMENT);
+
+      // refreshing the same file's diff keeps the chunk expanded, and the
+      // rows rendered so far
+      view.setData(parse(diff), PatchMode.Working);
+      assertEquals(3001, view.getRowCount());
+      assertEquals(rendered, view.getVisibleItemCount());
+
+      // a different file starts over
+      view.clear();
+      view.setData(parse(diff), PatchMode.Working);
+      assertEquals(collapsedRows, view.getRowCount());
+      assertEquals(collapsedRows, view.getVisibleItemCount());
+   }
+
+   // builds a diff of a single new file with the given number of lines,
+   // split into chunks of chunkSize lines
+   private String createDiff(int lineCount, int chunkSize)
+   {
+      StringBuilder sb = new StringBuilder();
+      sb.append("diff --git a/data.csv b/data.csv\n");
+      sb.append("--- a/data.csv\n");
+      sb.append("+++ b/data.csv\n");
+      for (int start = 0; start < lineCount; start += chunkSize)
+      {
+         int count = Math.min(chunkSize, lineCount - start);
+         sb.append("@@ -" + start + ",0 +" + (start + 1) + "," + count + " @@\n");
+         for (int i = 0; i < count; i++)
+            sb.append("+").append(start + i).append(",value\n");
+      }
+      return sb.toString();
+   }
+
+   private ArrayList<ChunkOrLine> parse(String diff)
+   {
+      UnifiedParser parser = new UnifiedParser(diff);
+      parser.nextFilePair();
+
+      ArrayList<ChunkOrLine> lines = new ArrayList<ChunkOrLine>();
+      for (DiffChunk chunk; null != (chunk = parser.nextChunk());)
+         lines.addAll(ChunkOrLine.fromChunk(chunk));
+      return lines;
+   }
+}